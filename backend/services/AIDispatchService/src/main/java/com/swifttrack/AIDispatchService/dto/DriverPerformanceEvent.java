@@ -0,0 +1,30 @@
+package com.swifttrack.AIDispatchService.dto;
+
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Event published by the Driver Service on the "driver-performance" topic
+ * whenever a driver's performance state changes. Mirrors the producer's
+ * payload; consumed here only to invalidate cached driver context.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DriverPerformanceEvent {
+
+    public enum TriggerType {
+        ORDER_COMPLETED,
+        ORDER_CANCELLED,
+        RATING_UPDATED,
+        DAILY_AGGREGATION
+    }
+
+    private UUID driverId;
+    private TriggerType triggerType;
+}
@@ -0,0 +1,41 @@
+package com.swifttrack.AIDispatchService.events;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import com.swifttrack.AIDispatchService.dto.DriverPerformanceEvent;
+import com.swifttrack.AIDispatchService.services.DriverContextCache;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Kafka consumer for DriverPerformanceEvent.
+ * Evicts the driver's cached profile and memories so the next dispatch
+ * reloads them from PostgreSQL.
+ *
+ * Every instance must see every event, so the group id is unique per
+ * instance and consumption starts from the latest offset.
+ */
+@Component
+@RequiredArgsConstructor
+public class DriverPerformanceEventConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(DriverPerformanceEventConsumer.class);
+
+    private final DriverContextCache driverContextCache;
+
+    @KafkaListener(topics = "driver-performance", groupId = "ai-dispatch-cache-${random.uuid}", properties = {
+            "spring.json.value.default.type=com.swifttrack.AIDispatchService.dto.DriverPerformanceEvent",
+            "spring.json.use.type.headers=false"
+    })
+    public void consumePerformanceEvent(DriverPerformanceEvent event) {
+        if (event.getDriverId() == null) {
+            return;
+        }
+        log.debug("Invalidating cached context: driverId={}, trigger={}",
+                event.getDriverId(), event.getTriggerType());
+        driverContextCache.invalidate(event.getDriverId());
+    }
+}
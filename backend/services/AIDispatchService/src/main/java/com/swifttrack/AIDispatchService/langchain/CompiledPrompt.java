@@ -0,0 +1,108 @@
+package com.swifttrack.AIDispatchService.langchain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A prompt template parsed once into literal and variable segments.
+ *
+ * A variable is {@code {name}} where name is letters, digits and
+ * underscores; every other brace (such as the JSON examples in the dispatch
+ * prompts) stays literal. {@link #render} appends the segments into one
+ * pre-sized builder instead of running a {@code String.replace} pass per
+ * variable. Variables without a value are rendered back as {@code {name}},
+ * as an unmatched {@code replace} would have left them.
+ */
+public final class CompiledPrompt {
+
+    private final String template;
+    private final String[] segments;
+    private final boolean[] variable;
+    private final int literalLength;
+
+    private CompiledPrompt(String template, List<String> segments, List<Boolean> variable) {
+        this.template = template;
+        this.segments = segments.toArray(String[]::new);
+        this.variable = new boolean[this.segments.length];
+        int length = 0;
+        for (int i = 0; i < this.segments.length; i++) {
+            this.variable[i] = variable.get(i);
+            if (!this.variable[i]) {
+                length += this.segments[i].length();
+            }
+        }
+        this.literalLength = length;
+    }
+
+    public static CompiledPrompt compile(String template) {
+        List<String> segments = new ArrayList<>();
+        List<Boolean> variable = new ArrayList<>();
+        int literalStart = 0;
+        int i = 0;
+        while (i < template.length()) {
+            if (template.charAt(i) == '{') {
+                int end = i + 1;
+                while (end < template.length() && isNameChar(template.charAt(end))) {
+                    end++;
+                }
+                if (end > i + 1 && end < template.length() && template.charAt(end) == '}') {
+                    if (i > literalStart) {
+                        segments.add(template.substring(literalStart, i));
+                        variable.add(false);
+                    }
+                    segments.add(template.substring(i + 1, end));
+                    variable.add(true);
+                    i = end + 1;
+                    literalStart = i;
+                    continue;
+                }
+            }
+            i++;
+        }
+        if (literalStart < template.length()) {
+            segments.add(template.substring(literalStart));
+            variable.add(false);
+        }
+        return new CompiledPrompt(template, segments, variable);
+    }
+
+    private static boolean isNameChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    /**
+     * The template with every variable that has a value substituted.
+     */
+    public String render(Map<String, String> values) {
+        int capacity = literalLength;
+        for (int i = 0; i < segments.length; i++) {
+            if (variable[i]) {
+                String value = values.get(segments[i]);
+                capacity += value != null ? value.length() : segments[i].length() + 2;
+            }
+        }
+
+        StringBuilder sb = new StringBuilder(capacity);
+        for (int i = 0; i < segments.length; i++) {
+            if (!variable[i]) {
+                sb.append(segments[i]);
+                continue;
+            }
+            String value = values.get(segments[i]);
+            if (value != null) {
+                sb.append(value);
+            } else {
+                sb.append('{').append(segments[i]).append('}');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * The original template text.
+     */
+    public String template() {
+        return template;
+    }
+}
@@ -2,6 +2,16 @@ package com.swifttrack.AIDispatchService.langchain;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import jakarta.annotation.PreDestroy;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,6 +37,11 @@ import lombok.RequiredArgsConstructor;
  * 
  * Business logic (data fetching, fallback, Langfuse) stays in DispatchService.
  * This class ONLY handles the AI execution lifecycle.
+ * 
+ * Every model call runs on a virtual thread under a caller-supplied budget.
+ * When the budget expires the call is interrupted, which closes the HTTP
+ * connection so Ollama stops generating, and a timed-out ChainResult is
+ * returned right away.
  */
 @Component
 @RequiredArgsConstructor
@@ -37,6 +52,8 @@ public class DispatchChainExecutor {
     private final ChatClient chatClient;
     private final LangSmithPromptFetcher promptFetcher;
 
+    private final ExecutorService inferenceExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
     /**
      * Execution result wrapping the decision + metadata.
      */
@@ -44,7 +61,13 @@ public class DispatchChainExecutor {
             LlmDecision decision,
             String rawOutput,
             long latencyMs,
-            boolean parsed) {
+            boolean parsed,
+            boolean timedOut) {
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        inferenceExecutor.shutdownNow();
     }
 
     /**
@@ -59,34 +82,37 @@ public class DispatchChainExecutor {
      *
      * @param driverProfilesJson serialized driver profiles
      * @param driverMemoriesJson serialized driver memory summaries
+     * @param budget             hard deadline for the model call
      * @return ChainResult with decision, raw output, and latency
      */
-    public ChainResult executeDispatchChain(String driverProfilesJson, String driverMemoriesJson) {
+    public ChainResult executeDispatchChain(String driverProfilesJson, String driverMemoriesJson,
+            Duration budget) {
         Instant start = Instant.now();
 
         try {
-            // Step 1 & 2: Fetch prompt templates from LangSmith
+            // Step 1 & 2: Prompt templates from LangSmith (cached, precompiled)
             String systemTemplate = promptFetcher.fetchPrompt("dispatch_system_v1");
-            String decisionTemplate = promptFetcher.fetchPrompt("dispatch_decision_v1");
+            CompiledPrompt decisionPrompt = promptFetcher.getCompiledPrompt("dispatch_decision_v1");
 
             // Step 3-6: LangChain templates from Hub contain raw JSON braces which crack
             // Spring's PromptTemplate parser.
-            // We manually resolve parameters and inject literal Messages to bypass the
-            // parser constraint.
-            String resolvedDecision = decisionTemplate
-                    .replace("{driver_profiles}", driverProfilesJson != null ? driverProfilesJson : "[]")
-                    .replace("{driver_memory}", driverMemoriesJson != null ? driverMemoriesJson : "{}")
-                    .replace("{tenant_policies}", "Standard matching rules apply")
-                    .replace("{pickup_zone}", "Default Zone")
-                    .replace("{order_priority}", "Standard")
-                    .replace("{order_value}", "Medium");
-
-            LlmDecision decision = chatClient.prompt()
-                    .messages(
-                            new org.springframework.ai.chat.messages.SystemMessage(systemTemplate),
-                            new org.springframework.ai.chat.messages.UserMessage(resolvedDecision))
-                    .call()
-                    .entity(LlmDecision.class);
+            // We resolve parameters against the compiled template in one pass and inject
+            // literal Messages to bypass the parser constraint.
+            String resolvedDecision = decisionPrompt.render(Map.of(
+                    "driver_profiles", driverProfilesJson != null ? driverProfilesJson : "[]",
+                    "driver_memory", driverMemoriesJson != null ? driverMemoriesJson : "{}",
+                    "tenant_policies", "Standard matching rules apply",
+                    "pickup_zone", "Default Zone",
+                    "order_priority", "Standard",
+                    "order_value", "Medium"));
+
+            LlmDecision decision = callWithin(budget.minus(Duration.between(start, Instant.now())),
+                    () -> chatClient.prompt()
+                            .messages(
+                                    new org.springframework.ai.chat.messages.SystemMessage(systemTemplate),
+                                    new org.springframework.ai.chat.messages.UserMessage(resolvedDecision))
+                            .call()
+                            .entity(LlmDecision.class));
 
             long latencyMs = Duration.between(start, Instant.now()).toMillis();
             log.info("Dispatch chain completed in {}ms", latencyMs);
@@ -94,7 +120,12 @@ public class DispatchChainExecutor {
             // Capture raw output for observability (reconstruct from decision)
             String rawOutput = formatDecisionAsJson(decision);
 
-            return new ChainResult(decision, rawOutput, latencyMs, true);
+            return new ChainResult(decision, rawOutput, latencyMs, true, false);
+
+        } catch (TimeoutException e) {
+            long latencyMs = Duration.between(start, Instant.now()).toMillis();
+            log.warn("Dispatch chain cancelled at deadline after {}ms", latencyMs);
+            return new ChainResult(null, null, latencyMs, false, true);
 
         } catch (Exception e) {
             long latencyMs = Duration.between(start, Instant.now()).toMillis();
@@ -102,7 +133,7 @@ public class DispatchChainExecutor {
 
             // Attempt to extract raw output from the exception for validation retry
             String rawOutput = extractRawOutputFromException(e);
-            return new ChainResult(null, rawOutput, latencyMs, false);
+            return new ChainResult(null, rawOutput, latencyMs, false, false);
         }
     }
 
@@ -112,36 +143,43 @@ public class DispatchChainExecutor {
      * Uses LangChain structured parsing to attempt correction.
      *
      * @param rawOutput the malformed LLM output
+     * @param budget    hard deadline for the model call
      * @return ChainResult with corrected decision
      */
-    public ChainResult executeValidationChain(String rawOutput) {
+    public ChainResult executeValidationChain(String rawOutput, Duration budget) {
         Instant start = Instant.now();
 
         try {
             String systemTemplate = promptFetcher.fetchPrompt("dispatch_system_v1");
-            String validatorTemplate = promptFetcher.fetchPrompt("dispatch_validator_v1");
+            CompiledPrompt validatorPrompt = promptFetcher.getCompiledPrompt("dispatch_validator_v1");
 
-            String resolvedValidator = validatorTemplate
-                    .replace("{model_output}", rawOutput != null ? rawOutput : "")
-                    .replace("{question}", "Please parse and fix the JSON.");
+            String resolvedValidator = validatorPrompt.render(Map.of(
+                    "model_output", rawOutput != null ? rawOutput : "",
+                    "question", "Please parse and fix the JSON."));
 
-            LlmDecision decision = chatClient.prompt()
-                    .messages(
-                            new org.springframework.ai.chat.messages.SystemMessage(systemTemplate),
-                            new org.springframework.ai.chat.messages.UserMessage(resolvedValidator))
-                    .call()
-                    .entity(LlmDecision.class);
+            LlmDecision decision = callWithin(budget.minus(Duration.between(start, Instant.now())),
+                    () -> chatClient.prompt()
+                            .messages(
+                                    new org.springframework.ai.chat.messages.SystemMessage(systemTemplate),
+                                    new org.springframework.ai.chat.messages.UserMessage(resolvedValidator))
+                            .call()
+                            .entity(LlmDecision.class));
 
             long latencyMs = Duration.between(start, Instant.now()).toMillis();
             log.info("Validation chain completed in {}ms", latencyMs);
 
             String correctedOutput = formatDecisionAsJson(decision);
-            return new ChainResult(decision, correctedOutput, latencyMs, true);
+            return new ChainResult(decision, correctedOutput, latencyMs, true, false);
+
+        } catch (TimeoutException e) {
+            long latencyMs = Duration.between(start, Instant.now()).toMillis();
+            log.warn("Validation chain cancelled at deadline after {}ms", latencyMs);
+            return new ChainResult(null, rawOutput, latencyMs, false, true);
 
         } catch (Exception e) {
             long latencyMs = Duration.between(start, Instant.now()).toMillis();
             log.warn("Validation chain failed after {}ms: {}", latencyMs, e.getMessage());
-            return new ChainResult(null, rawOutput, latencyMs, false);
+            return new ChainResult(null, rawOutput, latencyMs, false, false);
         }
     }
 
@@ -161,6 +199,30 @@ public class DispatchChainExecutor {
 
     // ─── Private Helpers ────────────────────────────────────────────────────
 
+    /**
+     * Runs a blocking model call on a virtual thread and waits at most
+     * {@code budget}. On expiry the thread is interrupted, which aborts the
+     * blocking socket read and drops the connection to Ollama.
+     */
+    private <T> T callWithin(Duration budget, Supplier<T> call) throws Exception {
+        if (budget.isNegative() || budget.isZero()) {
+            throw new TimeoutException("No inference budget left");
+        }
+        Future<T> future = inferenceExecutor.submit(call::get);
+        try {
+            return future.get(budget.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw e;
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
     private String formatDecisionAsJson(LlmDecision decision) {
         if (decision == null)
             return null;
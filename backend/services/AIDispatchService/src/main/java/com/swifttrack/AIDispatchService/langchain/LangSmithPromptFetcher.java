@@ -1,8 +1,17 @@
 package com.swifttrack.AIDispatchService.langchain;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
@@ -10,10 +19,12 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
@@ -28,31 +39,49 @@ import okhttp3.Response;
  * - dispatch_system_v1 (system context)
  * - dispatch_decision_v1 (decision instructions)
  * - dispatch_validator_v1 (output validation instructions)
+ *
+ * Reads never touch the network. Templates are served from memory,
+ * compiled once into a {@link CompiledPrompt}, and refreshed on a background
+ * thread every {@code ttl-ms}; a stale read serves the old template and
+ * triggers a refresh (stale-while-revalidate). Every successful fetch is
+ * persisted to {@code prompt-cache.file}, which seeds the cache on the next
+ * start so a cold start without network still uses the registry prompts.
+ * Until a prompt has been fetched once, the hardcoded fallback is served.
  */
 @Component
 public class LangSmithPromptFetcher {
 
     private static final Logger log = LoggerFactory.getLogger(LangSmithPromptFetcher.class);
 
+    private static final List<String> DISPATCH_PROMPTS = List.of(
+            "dispatch_system_v1", "dispatch_decision_v1", "dispatch_validator_v1");
+
     @Value("${langsmith.api-key}")
     private String apiKey;
 
     @Value("${langsmith.base-url:https://api.smith.langchain.com}")
     private String baseUrl;
 
+    @Value("${langsmith.prompt-cache.ttl-ms:300000}")
+    private long cacheTtlMs;
+
+    @Value("${langsmith.prompt-cache.file:${java.io.tmpdir}/swifttrack-langsmith-prompts.json}")
+    private String cacheFile;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
     private OkHttpClient httpClient;
+    private ScheduledExecutorService refresher;
 
     /**
      * Local cache: prompt name → CacheEntry.
-     * Caches prompts for a specific duration to balance latency and freshness.
+     * An entry older than the TTL is still served while it is refreshed.
      */
-    private record CacheEntry(String template, long expireAt) {
+    private record CacheEntry(CompiledPrompt prompt, long fetchedAt) {
     }
 
-    private static final long CACHE_TTL_MS = 5 * 60 * 1000; // 5 minutes TTL
-
     private final Map<String, CacheEntry> promptCache = new ConcurrentHashMap<>();
+    private final Map<String, CompiledPrompt> fallbackPrompts = new ConcurrentHashMap<>();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
 
     @PostConstruct
     void init() {
@@ -60,24 +89,93 @@ public class LangSmithPromptFetcher {
                 .connectTimeout(5, TimeUnit.SECONDS)
                 .readTimeout(10, TimeUnit.SECONDS)
                 .build();
+        this.refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "langsmith-prompt-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        loadPersistedPrompts();
+        DISPATCH_PROMPTS.forEach(this::scheduleRefresh);
+        long interval = Math.max(1000, cacheTtlMs);
+        refresher.scheduleWithFixedDelay(
+                () -> promptCache.keySet().forEach(this::scheduleRefresh),
+                interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
     }
 
     /**
-     * Fetch a prompt template by name from LangSmith API.
-     * Uses the /prompts/{prompt_name} endpoint.
-     * Results are cached in-memory after first successful fetch.
+     * Get a prompt template by name. Never blocks on LangSmith.
      *
      * @param promptName the registered prompt name (e.g. "dispatch_system_v1")
      * @return the prompt template string
      */
     public String fetchPrompt(String promptName) {
-        // Check cache first
+        return getCompiledPrompt(promptName).template();
+    }
+
+    /**
+     * Get a prompt by name, compiled for variable injection. Serves the
+     * cached template (scheduling a refresh if it is stale), or the fallback
+     * prompt if it has never been fetched.
+     */
+    public CompiledPrompt getCompiledPrompt(String promptName) {
         CacheEntry cached = promptCache.get(promptName);
-        if (cached != null && System.currentTimeMillis() < cached.expireAt()) {
-            log.debug("LangSmith prompt cache hit: {}", promptName);
-            return cached.template();
+        if (cached == null) {
+            scheduleRefresh(promptName);
+            log.debug("LangSmith prompt '{}' not loaded yet, serving fallback", promptName);
+            return fallbackPrompts.computeIfAbsent(promptName,
+                    name -> CompiledPrompt.compile(getFallbackPrompt(name)));
+        }
+        if (System.currentTimeMillis() - cached.fetchedAt() >= cacheTtlMs) {
+            scheduleRefresh(promptName);
         }
+        return cached.prompt();
+    }
+
+    // ─── Background Refresh ─────────────────────────────────────────────────
 
+    private void scheduleRefresh(String promptName) {
+        if (!refreshing.add(promptName)) {
+            return;
+        }
+        try {
+            refresher.execute(() -> {
+                try {
+                    refresh(promptName);
+                } finally {
+                    refreshing.remove(promptName);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(promptName);
+        }
+    }
+
+    /**
+     * Fetch one prompt from LangSmith. On failure the current template, if
+     * any, keeps being served.
+     */
+    private void refresh(String promptName) {
+        String template = download(promptName);
+        if (template == null) {
+            return;
+        }
+        promptCache.put(promptName, new CacheEntry(CompiledPrompt.compile(template), System.currentTimeMillis()));
+        persistPrompts();
+    }
+
+    /**
+     * Fetch a prompt template by name from LangSmith API.
+     * Uses the /commits/-/{prompt_name}/latest endpoint.
+     *
+     * @return the template, or {@code null} if it could not be fetched
+     */
+    private String download(String promptName) {
         try {
             String url = baseUrl.replace("api.smith", "api.hub") + "/commits/-/" + promptName + "/latest";
             Request request = new Request.Builder()
@@ -89,25 +187,71 @@ public class LangSmithPromptFetcher {
 
             try (Response response = httpClient.newCall(request).execute()) {
                 if (!response.isSuccessful()) {
-                    log.warn("LangSmith API returned {} for prompt '{}'. Using fallback.",
+                    log.warn("LangSmith API returned {} for prompt '{}'. Keeping current prompt.",
                             response.code(), promptName);
-                    return getFallbackPrompt(promptName);
+                    return null;
                 }
 
                 String body = response.body() != null ? response.body().string() : null;
                 if (body == null) {
                     log.warn("Empty response from LangSmith for prompt '{}'", promptName);
-                    return getFallbackPrompt(promptName);
+                    return null;
                 }
 
                 String template = extractTemplate(body, promptName);
-                promptCache.put(promptName, new CacheEntry(template, System.currentTimeMillis() + CACHE_TTL_MS));
-                log.info("Successfully fetched LangSmith prompt: {}", promptName);
+                if (template != null) {
+                    log.info("Successfully fetched LangSmith prompt: {}", promptName);
+                }
                 return template;
             }
         } catch (IOException e) {
             log.error("Failed to fetch prompt '{}' from LangSmith: {}", promptName, e.getMessage());
-            return getFallbackPrompt(promptName);
+            return null;
+        }
+    }
+
+    // ─── Local Persistence ──────────────────────────────────────────────────
+
+    /**
+     * Seed the cache from the last persisted prompts. They are loaded as
+     * already stale, so the startup refresh replaces them when LangSmith is
+     * reachable.
+     */
+    private void loadPersistedPrompts() {
+        Path path = Path.of(cacheFile);
+        if (!Files.isReadable(path)) {
+            return;
+        }
+        try {
+            Map<String, String> persisted = objectMapper.readValue(path.toFile(),
+                    new TypeReference<Map<String, String>>() {
+                    });
+            persisted.forEach((name, template) -> promptCache.put(name,
+                    new CacheEntry(CompiledPrompt.compile(template), 0L)));
+            log.info("Loaded {} persisted LangSmith prompts from {}", persisted.size(), path);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not read persisted LangSmith prompts from {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Write all cached templates to the cache file, replacing it atomically.
+     * Only called from the refresh thread.
+     */
+    private void persistPrompts() {
+        Path path = Path.of(cacheFile);
+        try {
+            Map<String, String> snapshot = new TreeMap<>();
+            promptCache.forEach((name, entry) -> snapshot.put(name, entry.prompt().template()));
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+            objectMapper.writeValue(tmp.toFile(), snapshot);
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not persist LangSmith prompts to {}: {}", path, e.getMessage());
         }
     }
 
@@ -124,6 +268,7 @@ public class LangSmithPromptFetcher {
 
     /**
      * Parse the LangSmith API response to extract the template string.
+     * Returns {@code null} if the response cannot be parsed.
      */
     private String extractTemplate(String responseBody, String promptName) {
         try {
@@ -139,7 +284,7 @@ public class LangSmithPromptFetcher {
             return responseBody;
         } catch (Exception e) {
             log.error("Error parsing LangSmith response for '{}': {}", promptName, e.getMessage());
-            return getFallbackPrompt(promptName);
+            return null;
         }
     }
 
@@ -156,11 +301,12 @@ public class LangSmithPromptFetcher {
     }
 
     /**
-     * Invalidate prompt cache (useful for testing or forced refresh).
+     * Force a background refresh of every cached prompt. The current
+     * templates keep being served until the new ones arrive.
      */
     public void invalidateCache() {
-        promptCache.clear();
-        log.info("LangSmith prompt cache invalidated");
+        promptCache.keySet().forEach(this::scheduleRefresh);
+        log.info("LangSmith prompt refresh requested");
     }
 
     // ─── Fallback Prompt Templates ─────────────────────────────────────────
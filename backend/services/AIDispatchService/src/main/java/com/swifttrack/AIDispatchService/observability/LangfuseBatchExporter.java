@@ -0,0 +1,233 @@
+package com.swifttrack.AIDispatchService.observability;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import okhttp3.ConnectionPool;
+import okhttp3.Credentials;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+/**
+ * Batches Langfuse events into calls to the ingestion API
+ * ({@code POST /api/public/ingestion}).
+ *
+ * Callers only {@link #enqueue} into a bounded queue, which never blocks:
+ * when the queue is full the event is dropped and counted. A single daemon
+ * thread drains the queue every {@code flush-interval-ms}, or as soon as
+ * {@code batch-size} events are waiting, in batches of at most
+ * {@code batch-size} events, over its own HTTP client with a one
+ * connection pool, so export never takes threads or connections from the
+ * dispatch pipeline. A failed batch is dropped rather than retried.
+ *
+ * Metrics:
+ * - langfuse.export.events{result=queued|dropped|sent|failed}
+ * - langfuse.export.queue.size
+ * - langfuse.export.batch.latency
+ */
+@Component
+public class LangfuseBatchExporter {
+
+    private static final Logger log = LoggerFactory.getLogger(LangfuseBatchExporter.class);
+
+    private static final MediaType JSON_MEDIA_TYPE = MediaType.get("application/json; charset=utf-8");
+    private static final String INGESTION_PATH = "/api/public/ingestion";
+
+    private final String ingestionUrl;
+    private final String credential;
+    private final int batchSize;
+    private final long flushIntervalMs;
+
+    private final BlockingQueue<Map<String, Object>> queue;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final OkHttpClient httpClient;
+    private final ScheduledExecutorService flusher;
+    private final AtomicBoolean flushRequested = new AtomicBoolean(false);
+
+    private final Counter queued;
+    private final Counter dropped;
+    private final Counter sent;
+    private final Counter failed;
+    private final Timer batchLatency;
+
+    public LangfuseBatchExporter(
+            MeterRegistry meterRegistry,
+            @Value("${langfuse.base-url:https://cloud.langfuse.com}") String baseUrl,
+            @Value("${langfuse.public-key}") String publicKey,
+            @Value("${langfuse.secret-key}") String secretKey,
+            @Value("${langfuse.export.queue-capacity:10000}") int queueCapacity,
+            @Value("${langfuse.export.batch-size:100}") int batchSize,
+            @Value("${langfuse.export.flush-interval-ms:1000}") long flushIntervalMs) {
+        this.ingestionUrl = baseUrl + INGESTION_PATH;
+        this.credential = Credentials.basic(publicKey, secretKey);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMs = Math.max(1, flushIntervalMs);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.httpClient = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(1, 5, TimeUnit.MINUTES))
+                .connectTimeout(5, TimeUnit.SECONDS)
+                .readTimeout(10, TimeUnit.SECONDS)
+                .build();
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "langfuse-exporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.queued = Counter.builder("langfuse.export.events").tag("result", "queued").register(meterRegistry);
+        this.dropped = Counter.builder("langfuse.export.events").tag("result", "dropped").register(meterRegistry);
+        this.sent = Counter.builder("langfuse.export.events").tag("result", "sent").register(meterRegistry);
+        this.failed = Counter.builder("langfuse.export.events").tag("result", "failed").register(meterRegistry);
+        this.batchLatency = Timer.builder("langfuse.export.batch.latency")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("langfuse.export.queue.size", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Sends what is still queued, then stops the flush thread.
+     */
+    @PreDestroy
+    void stop() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        httpClient.dispatcher().executorService().shutdown();
+        httpClient.connectionPool().evictAll();
+    }
+
+    /**
+     * Queues one ingestion event, e.g. {@code trace-create} or
+     * {@code span-create}. Returns {@code false} if it was dropped.
+     */
+    public boolean enqueue(String type, Map<String, Object> body) {
+        Map<String, Object> event = Map.of(
+                "id", UUID.randomUUID().toString(),
+                "type", type,
+                "timestamp", Instant.now().toString(),
+                "body", body);
+        if (!queue.offer(event)) {
+            dropped.increment();
+            return false;
+        }
+        queued.increment();
+        if (queue.size() >= batchSize) {
+            requestFlush();
+        }
+        return true;
+    }
+
+    /**
+     * Sends a full batch now instead of waiting for the next interval.
+     */
+    private void requestFlush() {
+        if (!flushRequested.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            flusher.execute(() -> {
+                flushRequested.set(false);
+                flush();
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down; stop() sends whatever is still queued
+            flushRequested.set(false);
+        }
+    }
+
+    /**
+     * Drains the queue in batches until it is empty. Runs on the flush
+     * thread; package-private so it can be driven directly.
+     */
+    synchronized void flush() {
+        List<Map<String, Object>> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            send(batch);
+            batch.clear();
+        }
+    }
+
+    private void send(List<Map<String, Object>> batch) {
+        long start = System.nanoTime();
+        try {
+            String json = objectMapper.writeValueAsString(Map.of("batch", batch));
+            Request request = new Request.Builder()
+                    .url(ingestionUrl)
+                    .addHeader("Authorization", credential)
+                    .post(RequestBody.create(json, JSON_MEDIA_TYPE))
+                    .build();
+
+            try (Response response = httpClient.newCall(request).execute()) {
+                String responseBody = response.body() != null ? response.body().string() : "";
+                if (!response.isSuccessful()) {
+                    failed.increment(batch.size());
+                    log.warn("Langfuse ingestion of {} events returned {}: {}",
+                            batch.size(), response.code(), responseBody);
+                    return;
+                }
+                // 207 Multi-Status lists events that were rejected individually.
+                int rejected = countErrors(responseBody);
+                sent.increment(batch.size() - rejected);
+                if (rejected > 0) {
+                    failed.increment(rejected);
+                    log.warn("Langfuse ingestion rejected {} of {} events", rejected, batch.size());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Observability should never break the dispatch pipeline
+            failed.increment(batch.size());
+            log.error("Failed to send {} events to Langfuse: {}", batch.size(), e.getMessage());
+        } finally {
+            batchLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private int countErrors(String responseBody) {
+        if (responseBody.isBlank()) {
+            return 0;
+        }
+        try {
+            JsonNode errors = objectMapper.readTree(responseBody).path("errors");
+            return errors.isArray() ? errors.size() : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.swifttrack.AIDispatchService.repositories;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import org.slf4j.Logger;
@@ -27,63 +30,61 @@ public class DriverMemoryRepository {
     private final JdbcTemplate jdbcTemplate;
 
     /**
-     * Retrieve top N memory summaries per driver using pgvector cosine similarity.
-     * Uses the driver's latest embedding as the query vector.
+     * Retrieve the top N memory summaries for every given driver in one query.
+     * Each driver's memories are ranked by pgvector cosine similarity to that
+     * driver's latest embedding, most recent first on ties, via a LATERAL
+     * subquery per driver id.
+     *
+     * @return driverId → memories, best first; drivers without memories are absent
      */
-    public List<DriverMemorySummary> findTopMemories(UUID driverId, int topN) {
+    public Map<UUID, List<DriverMemorySummary>> findTopMemoriesForDrivers(List<UUID> driverIds, int topN) {
+        if (driverIds == null || driverIds.isEmpty()) {
+            return Map.of();
+        }
+
         String sql = """
-                WITH latest_embedding AS (
+                SELECT
+                    m.memory_id,
+                    d.driver_id,
+                    m.summary,
+                    m.similarity_score
+                FROM unnest(?::uuid[]) AS d(driver_id)
+                CROSS JOIN LATERAL (
                     SELECT embedding
                     FROM driver_memory
-                    WHERE driver_id = ?
+                    WHERE driver_id = d.driver_id
                     ORDER BY created_at DESC
                     LIMIT 1
-                )
-                SELECT
-                    dm.id AS memory_id,
-                    dm.driver_id,
-                    dm.summary,
-                    1 - (dm.embedding <=> le.embedding) AS similarity_score
-                FROM driver_memory dm
-                CROSS JOIN latest_embedding le
-                WHERE dm.driver_id = ?
-                ORDER BY similarity_score DESC
-                LIMIT ?
-                """;
-
-        return jdbcTemplate.query(sql,
-                new Object[] { driverId, driverId, topN },
-                (rs, rowNum) -> DriverMemorySummary.builder()
-                        .memoryId(UUID.fromString(rs.getString("memory_id")))
-                        .driverId(UUID.fromString(rs.getString("driver_id")))
-                        .summary(rs.getString("summary"))
-                        .similarityScore(rs.getDouble("similarity_score"))
-                        .build());
-    }
-
-    /**
-     * Fallback: retrieve most recent memories by created_at if no embedding exists.
-     */
-    public List<DriverMemorySummary> findRecentMemories(UUID driverId, int topN) {
-        String sql = """
-                SELECT
-                    id AS memory_id,
-                    driver_id,
-                    summary,
-                    1.0 AS similarity_score
-                FROM driver_memory
-                WHERE driver_id = ?
-                ORDER BY created_at DESC
-                LIMIT ?
+                ) le
+                CROSS JOIN LATERAL (
+                    SELECT
+                        dm.id AS memory_id,
+                        dm.summary,
+                        1 - (dm.embedding <=> le.embedding) AS similarity_score
+                    FROM driver_memory dm
+                    WHERE dm.driver_id = d.driver_id
+                    ORDER BY similarity_score DESC, dm.created_at DESC
+                    LIMIT ?
+                ) m
+                ORDER BY d.driver_id, m.similarity_score DESC
                 """;
 
-        return jdbcTemplate.query(sql,
-                new Object[] { driverId, topN },
-                (rs, rowNum) -> DriverMemorySummary.builder()
-                        .memoryId(UUID.fromString(rs.getString("memory_id")))
-                        .driverId(UUID.fromString(rs.getString("driver_id")))
-                        .summary(rs.getString("summary"))
-                        .similarityScore(rs.getDouble("similarity_score"))
-                        .build());
+        Map<UUID, List<DriverMemorySummary>> memories = new HashMap<>();
+        jdbcTemplate.query(sql,
+                ps -> {
+                    ps.setArray(1, ps.getConnection().createArrayOf("uuid", driverIds.toArray()));
+                    ps.setInt(2, topN);
+                },
+                rs -> {
+                    DriverMemorySummary memory = DriverMemorySummary.builder()
+                            .memoryId(UUID.fromString(rs.getString("memory_id")))
+                            .driverId(UUID.fromString(rs.getString("driver_id")))
+                            .summary(rs.getString("summary"))
+                            .similarityScore(rs.getDouble("similarity_score"))
+                            .build();
+                    memories.computeIfAbsent(memory.getDriverId(), id -> new ArrayList<>()).add(memory);
+                });
+        log.debug("Fetched memories for {} of {} drivers", memories.size(), driverIds.size());
+        return memories;
     }
 }
@@ -29,7 +29,10 @@ public class DriverProfileRepository {
 
     /**
      * Fetch structured driver profiles for the given driver IDs.
-     * Computes acceptance_rate, cancellation_rate, sla_adherence, rating, idle_time.
+     * Computes acceptance_rate, cancellation_rate, sla_adherence, rating, idle_time
+     * from the driver_stats rollup maintained by the Driver Service: one row
+     * per driver, using the 7-day window when it has assignments and
+     * lifetime counters otherwise.
      */
     public List<DriverProfile> fetchDriverProfiles(List<UUID> driverIds) {
         if (driverIds == null || driverIds.isEmpty()) {
@@ -39,43 +42,41 @@ public class DriverProfileRepository {
         String placeholders = String.join(",", driverIds.stream().map(id -> "?").toList());
 
         String sql = """
-                WITH driver_stats AS (
+                SELECT
+                    dvd.driver_id,
+                    COALESCE(
+                        CAST(w.accepted AS DOUBLE PRECISION) / NULLIF(w.assigned, 0),
+                        0.5
+                    ) AS acceptance_rate,
+                    COALESCE(
+                        CAST(w.rejected + w.cancelled AS DOUBLE PRECISION) / NULLIF(w.assigned, 0),
+                        0.0
+                    ) AS cancellation_rate,
+                    COALESCE(
+                        CAST(w.completed AS DOUBLE PRECISION) / NULLIF(w.accepted, 0),
+                        0.8
+                    ) AS sla_adherence,
+                    COALESCE(
+                        s.rating_sum / NULLIF(s.rating_count, 0),
+                        4.0
+                    ) AS rating,
+                    COALESCE(
+                        EXTRACT(EPOCH FROM (NOW() - ds.last_seen_at)) / 60,
+                        0
+                    ) AS idle_time_minutes,
+                    0.0 AS distance
+                FROM driver_vehicle_details dvd
+                LEFT JOIN driver_stats s ON s.driver_id = dvd.driver_id
+                LEFT JOIN driver_status ds ON ds.driver_id = dvd.driver_id
+                CROSS JOIN LATERAL (
                     SELECT
-                        dvd.driver_id,
-                        COALESCE(
-                            CAST(SUM(CASE WHEN doa.status = 'ACCEPTED' THEN 1 ELSE 0 END) AS DOUBLE PRECISION) /
-                            NULLIF(COUNT(doa.id), 0),
-                            0.5
-                        ) AS acceptance_rate,
-                        COALESCE(
-                            CAST((SELECT COUNT(*) FROM driver_order_cancellation doc WHERE doc.driver_id = dvd.driver_id) AS DOUBLE PRECISION) /
-                            NULLIF(COUNT(doa.id), 0),
-                            0.0
-                        ) AS cancellation_rate,
-                        COALESCE(
-                            CAST(SUM(CASE WHEN doa.status = 'COMPLETED' THEN 1 ELSE 0 END) AS DOUBLE PRECISION) /
-                            NULLIF(SUM(CASE WHEN doa.status IN ('COMPLETED', 'ACCEPTED') THEN 1 ELSE 0 END), 0),
-                            0.8
-                        ) AS sla_adherence,
-                        COALESCE(
-                            (SELECT AVG(CAST(de.metadata::json->>'rating' AS DOUBLE PRECISION))
-                             FROM driver_events de
-                             WHERE de.driver_id = dvd.driver_id
-                               AND de.event_type = 'RATING_UPDATED'),
-                            4.0
-                        ) AS rating,
-                        COALESCE(
-                            EXTRACT(EPOCH FROM (NOW() - ds.last_seen_at)) / 60,
-                            0
-                        ) AS idle_time_minutes,
-                        0.0 AS distance
-                    FROM driver_vehicle_details dvd
-                    LEFT JOIN driver_order_assignment doa ON doa.driver_id = dvd.driver_id
-                    LEFT JOIN driver_status ds ON ds.driver_id = dvd.driver_id
-                    WHERE dvd.driver_id IN (%s)
-                    GROUP BY dvd.driver_id, ds.last_seen_at
-                )
-                SELECT * FROM driver_stats
+                        CASE WHEN s.assigned_7d > 0 THEN s.assigned_7d ELSE s.assigned_total END AS assigned,
+                        CASE WHEN s.assigned_7d > 0 THEN s.accepted_7d ELSE s.accepted_total END AS accepted,
+                        CASE WHEN s.assigned_7d > 0 THEN s.rejected_7d ELSE s.rejected_total END AS rejected,
+                        CASE WHEN s.assigned_7d > 0 THEN s.completed_7d ELSE s.completed_total END AS completed,
+                        CASE WHEN s.assigned_7d > 0 THEN s.cancelled_7d ELSE s.cancelled_total END AS cancelled
+                ) w
+                WHERE dvd.driver_id IN (%s)
                 """.formatted(placeholders);
 
         Object[] params = driverIds.toArray();
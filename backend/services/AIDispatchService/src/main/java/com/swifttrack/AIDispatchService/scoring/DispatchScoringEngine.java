@@ -0,0 +1,99 @@
+package com.swifttrack.AIDispatchService.scoring;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.swifttrack.AIDispatchService.dto.DriverProfile;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Ranks candidates with the configured {@link DriverScorer} and decides
+ * whether the ranking is decisive enough to skip the LLM.
+ *
+ * A dispatch is resolved on the fast path when the top candidate beats the
+ * runner-up by at least {@code dispatch.scoring.confidence-threshold} (or is
+ * the only candidate). Everything else escalates to DispatchChainExecutor.
+ *
+ * Metrics:
+ * - dispatch.scoring.decisions{path=fast|escalated}
+ * - dispatch.scoring.fast_path.ratio
+ */
+@Component
+public class DispatchScoringEngine {
+
+    /**
+     * Ranking of all candidates, best first, and whether it can be used
+     * without the LLM.
+     */
+    public record Ranking(List<ScoredCandidate> ranked, double margin, boolean decisive) {
+
+        public ScoredCandidate top() {
+            return ranked.getFirst();
+        }
+    }
+
+    private final DriverScorer scorer;
+    private final boolean enabled;
+    private final double confidenceThreshold;
+    private final Counter fastPath;
+    private final Counter escalated;
+
+    public DispatchScoringEngine(
+            DriverScorer scorer,
+            MeterRegistry meterRegistry,
+            @Value("${dispatch.scoring.enabled:true}") boolean enabled,
+            @Value("${dispatch.scoring.confidence-threshold:0.1}") double confidenceThreshold) {
+        this.scorer = scorer;
+        this.enabled = enabled;
+        this.confidenceThreshold = confidenceThreshold;
+        this.fastPath = Counter.builder("dispatch.scoring.decisions")
+                .tag("path", "fast")
+                .register(meterRegistry);
+        this.escalated = Counter.builder("dispatch.scoring.decisions")
+                .tag("path", "escalated")
+                .register(meterRegistry);
+        Gauge.builder("dispatch.scoring.fast_path.ratio", this, DispatchScoringEngine::fastPathRatio)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Scores {@code profiles} using their position in {@code requestOrder}
+     * (nearest first) as proximity.
+     */
+    public Ranking rank(List<DriverProfile> profiles, List<UUID> requestOrder) {
+        Map<UUID, Integer> positions = new HashMap<>();
+        for (int i = 0; i < requestOrder.size(); i++) {
+            positions.putIfAbsent(requestOrder.get(i), i);
+        }
+
+        List<ScoredCandidate> ranked = new ArrayList<>(profiles.size());
+        for (DriverProfile profile : profiles) {
+            int position = positions.getOrDefault(profile.getDriverId(), requestOrder.size() - 1);
+            ranked.add(new ScoredCandidate(profile, scorer.score(profile, position, requestOrder.size())));
+        }
+        ranked.sort(Comparator.comparingDouble(ScoredCandidate::score).reversed());
+
+        double margin = ranked.size() < 2
+                ? Double.POSITIVE_INFINITY
+                : ranked.get(0).score() - ranked.get(1).score();
+        boolean decisive = enabled && !ranked.isEmpty() && margin >= confidenceThreshold;
+
+        (decisive ? fastPath : escalated).increment();
+        return new Ranking(ranked, margin, decisive);
+    }
+
+    private double fastPathRatio() {
+        double total = fastPath.count() + escalated.count();
+        return total == 0 ? 0.0 : fastPath.count() / total;
+    }
+}
@@ -0,0 +1,23 @@
+package com.swifttrack.AIDispatchService.scoring;
+
+import com.swifttrack.AIDispatchService.dto.DriverProfile;
+
+/**
+ * Numeric scorer for one dispatch candidate. Higher is better; scores are
+ * expected in [0, 1] so the top-2 margin can be compared against a fixed
+ * confidence threshold.
+ *
+ * The default implementation is {@link WeightedDriverScorer}. A learned
+ * model can replace it by registering another DriverScorer bean marked
+ * {@code @Primary}.
+ */
+public interface DriverScorer {
+
+    /**
+     * @param profile       candidate metrics
+     * @param proximityRank position of the candidate in the request (0 = nearest;
+     *                      callers send candidates ordered by distance)
+     * @param candidates    number of candidates in the request
+     */
+    double score(DriverProfile profile, int proximityRank, int candidates);
+}
@@ -0,0 +1,9 @@
+package com.swifttrack.AIDispatchService.scoring;
+
+import com.swifttrack.AIDispatchService.dto.DriverProfile;
+
+/**
+ * A candidate profile with its deterministic score.
+ */
+public record ScoredCandidate(DriverProfile profile, double score) {
+}
@@ -0,0 +1,61 @@
+package com.swifttrack.AIDispatchService.scoring;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.swifttrack.AIDispatchService.dto.DriverProfile;
+
+/**
+ * Linear scorer over normalised DriverProfile features. Weights are
+ * normalised to sum to 1, so the score stays in [0, 1]; weights fitted
+ * offline can be dropped into {@code dispatch.scoring.weights.*}.
+ *
+ * Profiles carry no real distance yet (the profile query returns 0), so
+ * proximity comes from the candidate's position in the request, which the
+ * Driver Service orders nearest first.
+ */
+@Component
+public class WeightedDriverScorer implements DriverScorer {
+
+    private static final double MAX_RATING = 5.0;
+    private static final double IDLE_CAP_MINUTES = 60.0;
+
+    private final double acceptanceWeight;
+    private final double cancellationWeight;
+    private final double slaWeight;
+    private final double ratingWeight;
+    private final double proximityWeight;
+    private final double idleWeight;
+
+    public WeightedDriverScorer(
+            @Value("${dispatch.scoring.weights.acceptance:0.20}") double acceptance,
+            @Value("${dispatch.scoring.weights.cancellation:0.25}") double cancellation,
+            @Value("${dispatch.scoring.weights.sla:0.15}") double sla,
+            @Value("${dispatch.scoring.weights.rating:0.15}") double rating,
+            @Value("${dispatch.scoring.weights.proximity:0.20}") double proximity,
+            @Value("${dispatch.scoring.weights.idle:0.05}") double idle) {
+        double total = Math.max(1e-9, Math.max(0, acceptance) + Math.max(0, cancellation) + Math.max(0, sla)
+                + Math.max(0, rating) + Math.max(0, proximity) + Math.max(0, idle));
+        this.acceptanceWeight = Math.max(0, acceptance) / total;
+        this.cancellationWeight = Math.max(0, cancellation) / total;
+        this.slaWeight = Math.max(0, sla) / total;
+        this.ratingWeight = Math.max(0, rating) / total;
+        this.proximityWeight = Math.max(0, proximity) / total;
+        this.idleWeight = Math.max(0, idle) / total;
+    }
+
+    @Override
+    public double score(DriverProfile profile, int proximityRank, int candidates) {
+        double proximity = candidates <= 1 ? 1.0 : 1.0 - (double) proximityRank / (candidates - 1);
+        return acceptanceWeight * clamp(profile.getAcceptanceRate())
+                + cancellationWeight * (1.0 - clamp(profile.getCancellationRate()))
+                + slaWeight * clamp(profile.getSlaAdherence())
+                + ratingWeight * clamp(profile.getRating() / MAX_RATING)
+                + proximityWeight * proximity
+                + idleWeight * clamp(profile.getIdleTimeMinutes() / IDLE_CAP_MINUTES);
+    }
+
+    private static double clamp(double value) {
+        return Math.max(0.0, Math.min(1.0, value));
+    }
+}
@@ -0,0 +1,137 @@
+package com.swifttrack.AIDispatchService.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.swifttrack.AIDispatchService.dto.LlmDecision;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Short-lived cache of validated LLM decisions, keyed by a fingerprint of
+ * the exact prompt inputs (prompt templates, serialized profiles and
+ * memories).
+ *
+ * A re-dispatch of the same order, or a neighbouring order that sees the
+ * same candidates in the same state, produces an identical prompt and can
+ * reuse the earlier answer without inference. Each entry remembers the
+ * {@link DriverContextCache} version of every candidate it was computed
+ * from; a hit is only served if none of those drivers has been invalidated
+ * since, so a decision never outlives a driver-performance event even when
+ * the serialized context happens to look the same.
+ *
+ * Metrics:
+ * - dispatch.decision_cache.requests{result=hit|miss|stale}
+ * - dispatch.decision_cache.size
+ */
+@Component
+public class DispatchDecisionCache {
+
+    private record Entry(LlmDecision decision, Map<UUID, Long> versions, long expireAt) {
+    }
+
+    private final boolean enabled;
+    private final long ttlMs;
+    private final LinkedHashMap<String, Entry> entries;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter stale;
+
+    public DispatchDecisionCache(
+            MeterRegistry meterRegistry,
+            @Value("${dispatch.decision-cache.enabled:true}") boolean enabled,
+            @Value("${dispatch.decision-cache.max-entries:1000}") int maxEntries,
+            @Value("${dispatch.decision-cache.ttl-ms:30000}") long ttlMs) {
+        this.enabled = enabled && ttlMs > 0;
+        this.ttlMs = ttlMs;
+        int capacity = Math.max(1, maxEntries);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+        this.hits = Counter.builder("dispatch.decision_cache.requests")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("dispatch.decision_cache.requests")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.stale = Counter.builder("dispatch.decision_cache.requests")
+                .tag("result", "stale")
+                .register(meterRegistry);
+        Gauge.builder("dispatch.decision_cache.size", this, DispatchDecisionCache::size)
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * SHA-256 over the prompt inputs, separated so that moving text between
+     * parts cannot produce the same fingerprint.
+     */
+    public String fingerprint(String... promptParts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : promptParts) {
+                digest.update((part != null ? part : "").getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * The cached decision for {@code fingerprint}, or {@code null} if there
+     * is none, it expired, or a candidate's context version moved on.
+     */
+    public synchronized LlmDecision get(String fingerprint, Map<UUID, Long> currentVersions) {
+        if (!enabled) {
+            return null;
+        }
+        Entry entry = entries.get(fingerprint);
+        if (entry == null || entry.expireAt() <= System.currentTimeMillis()) {
+            if (entry != null) {
+                entries.remove(fingerprint);
+            }
+            misses.increment();
+            return null;
+        }
+        if (!entry.versions().equals(currentVersions)) {
+            entries.remove(fingerprint);
+            stale.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.decision();
+    }
+
+    /**
+     * Stores a validated decision together with the candidate versions that
+     * were current before its context was loaded.
+     */
+    public synchronized void put(String fingerprint, LlmDecision decision, Map<UUID, Long> versions) {
+        if (!enabled) {
+            return;
+        }
+        entries.put(fingerprint, new Entry(decision, Map.copyOf(versions), System.currentTimeMillis() + ttlMs));
+    }
+
+    synchronized double size() {
+        return entries.size();
+    }
+}
@@ -7,6 +7,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,18 +23,23 @@ import com.swifttrack.AIDispatchService.langchain.DispatchChainExecutor;
 import com.swifttrack.AIDispatchService.langchain.DispatchChainExecutor.ChainResult;
 import com.swifttrack.AIDispatchService.langchain.DriverDataSerializer;
 import com.swifttrack.AIDispatchService.observability.LangfuseClient;
-import com.swifttrack.AIDispatchService.repositories.DriverMemoryRepository;
-import com.swifttrack.AIDispatchService.repositories.DriverProfileRepository;
+import com.swifttrack.AIDispatchService.scoring.DispatchScoringEngine;
+import com.swifttrack.AIDispatchService.scoring.DispatchScoringEngine.Ranking;
+import com.swifttrack.AIDispatchService.scoring.ScoredCandidate;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 
 /**
  * Core dispatch orchestration service.
  * 
  * This service handles ONLY business logic:
- * - Data retrieval (profiles, memories)
+ * - Data retrieval (profiles, memories — via DriverContextCache)
  * - Data serialization
- * - Timeout enforcement
+ * - Deterministic scoring fast path (LLM only for close calls)
+ * - Decision cache (identical prompts skip inference)
+ * - Timeout enforcement (hard deadline on every LLM call)
  * - Candidate validation
  * - Fallback logic
  * - Observability
@@ -56,15 +62,17 @@ public class DispatchService {
     private static final Logger log = LoggerFactory.getLogger(DispatchService.class);
 
     // ─── Business Dependencies ──────────────────────────────────────────────
-    private final DriverProfileRepository driverProfileRepository;
-    private final DriverMemoryRepository driverMemoryRepository;
+    private final DriverContextCache driverContextCache;
+    private final DispatchDecisionCache decisionCache;
     private final DriverDataSerializer dataSerializer;
 
     // ─── AI Orchestration ───────────────────────────────────────────────────
+    private final DispatchScoringEngine scoringEngine;
     private final DispatchChainExecutor chainExecutor;
 
     // ─── Infrastructure ─────────────────────────────────────────────────────
     private final LangfuseClient langfuseClient;
+    private final MeterRegistry meterRegistry;
 
     @Value("${dispatch.max-drivers:5}")
     private int maxDrivers;
@@ -75,6 +83,9 @@ public class DispatchService {
     @Value("${dispatch.pipeline-timeout-ms:400}")
     private long pipelineTimeoutMs;
 
+    @Value("${dispatch.inference-timeout-ms:200}")
+    private long inferenceTimeoutMs;
+
     /**
      * Execute the full AI dispatch pipeline.
      *
@@ -92,11 +103,19 @@ public class DispatchService {
         log.info("Dispatch pipeline started: traceId={}, drivers={}", traceId, driverIds.size());
         langfuseClient.createTrace(traceId, driverIds);
 
+        String outcome = "fallback";
         try {
-            // ─── Step 1: Fetch Driver Profiles (Business Logic) ─────────────────
+            // Snapshot candidate versions before any context is read, so a
+            // decision cached from this run is stale as soon as one changes.
+            Map<UUID, Long> contextVersions = driverContextCache.versions(driverIds);
+
+            // ─── Step 1: Profiles ───────────────────────────────────────────────
+            // Goes through the driver context cache and only queries PostgreSQL for misses.
+            Instant fetchStart = Instant.now();
             Instant step1Start = Instant.now();
-            List<DriverProfile> profiles = driverProfileRepository.fetchDriverProfiles(driverIds);
+            List<DriverProfile> profiles = driverContextCache.getProfiles(driverIds);
             Instant step1End = Instant.now();
+            recordStep("fetch_driver_profiles", step1Start, step1End);
 
             if (profiles.isEmpty()) {
                 log.warn("No driver profiles found, executing fallback");
@@ -108,20 +127,58 @@ public class DispatchService {
                     Map.of("profiles_found", profiles.size()),
                     step1Start, step1End, null);
 
-            // ─── Step 2: Retrieve Driver Memories — RAG (Business Logic) ────────
-            Instant step2Start = Instant.now();
-            Map<UUID, List<DriverMemorySummary>> memoriesMap = retrieveDriverMemories(profiles);
-            Instant step2End = Instant.now();
+            // ─── Fast Path: Deterministic Scoring ───────────────────────────────
+            // A clearly dominant candidate is dispatched without memories or the LLM.
+            Instant scoringStart = Instant.now();
+            Ranking ranking = scoringEngine.rank(profiles, driverIds);
+            Instant scoringEnd = Instant.now();
+            recordStep("scoring", scoringStart, scoringEnd);
+
+            langfuseClient.logSpan(traceId, "deterministic_scoring",
+                    Map.of("candidate_count", profiles.size()),
+                    Map.of("top_driver", ranking.top().profile().getDriverId().toString(),
+                            "top_score", ranking.top().score(),
+                            "margin", Double.isInfinite(ranking.margin()) ? -1.0 : ranking.margin(),
+                            "decisive", ranking.decisive()),
+                    scoringStart, scoringEnd, null);
+
+            if (ranking.decisive()) {
+                outcome = "fast_path";
+                return buildFastPathResponse(ranking, traceId, pipelineStart);
+            }
+
+            // ─── Step 2: RAG Memories, only for close calls ─────────────────────
+            // Started after scoring so the fast path never issues the pgvector query.
+            MemoryFetch memories = retrieveDriverMemories(
+                    profiles.stream().map(DriverProfile::getDriverId).toList());
+            Map<UUID, List<DriverMemorySummary>> memoriesMap = new HashMap<>();
+            for (DriverProfile profile : profiles) {
+                memoriesMap.put(profile.getDriverId(),
+                        memories.byDriver().getOrDefault(profile.getDriverId(), List.of()));
+            }
+            recordStep("retrieve_driver_memory", memories.start(), memories.end());
+            recordStep("fetch_context", fetchStart, Instant.now());
 
             int totalMemories = memoriesMap.values().stream().mapToInt(List::size).sum();
             langfuseClient.logSpan(traceId, "retrieve_driver_memory",
                     Map.of("driver_count", profiles.size(), "max_per_driver", maxMemoryPerDriver),
                     Map.of("total_memories_retrieved", totalMemories),
-                    step2Start, step2End, null);
+                    memories.start(), memories.end(), null);
 
             // ─── Step 3: Serialize Data (Business Logic) ────────────────────────
+            Instant step3Start = Instant.now();
             String driverProfilesJson = dataSerializer.serializeProfiles(profiles);
             String driverMemoriesJson = dataSerializer.serializeMemories(memoriesMap);
+            recordStep("serialize", step3Start, Instant.now());
+
+            // ─── Decision Cache: Identical Prompt Inputs Skip Inference ─────────
+            String promptText = chainExecutor.getSystemPromptText() + "\n\n" + chainExecutor.getDecisionPromptText();
+            String fingerprint = decisionCache.fingerprint(promptText, driverProfilesJson, driverMemoriesJson);
+            LlmDecision cachedDecision = decisionCache.get(fingerprint, contextVersions);
+            if (cachedDecision != null) {
+                outcome = "cached";
+                return buildCachedResponse(cachedDecision, fingerprint, traceId, pipelineStart);
+            }
 
             // ─── Step 4: Check Timeout Budget ───────────────────────────────────
             long elapsed = Duration.between(pipelineStart, Instant.now()).toMillis();
@@ -133,26 +190,38 @@ public class DispatchService {
             }
 
             // ─── Step 5: Execute LangChain Dispatch Chain (AI Orchestration) ────
+            // The model gets inference-timeout-ms, but never more than the pipeline has left.
+            Duration inferenceBudget = Duration.ofMillis(Math.min(inferenceTimeoutMs, pipelineTimeoutMs - elapsed));
             Instant step5Start = Instant.now();
-            ChainResult result = chainExecutor.executeDispatchChain(driverProfilesJson, driverMemoriesJson);
+            ChainResult result = chainExecutor.executeDispatchChain(driverProfilesJson, driverMemoriesJson,
+                    inferenceBudget);
             Instant step5End = Instant.now();
+            recordStep("inference", step5Start, step5End);
 
             langfuseClient.logGeneration(traceId,
-                    chainExecutor.getSystemPromptText() + "\n\n" + chainExecutor.getDecisionPromptText(),
+                    promptText,
                     result.rawOutput(),
                     "qwen2.5:3b-instruct",
                     result.latencyMs(),
                     step5Start, step5End);
 
+            if (result.timedOut()) {
+                return buildFallbackFromProfiles(profiles, traceId, pipelineStart,
+                        "Inference deadline of " + inferenceBudget.toMillis() + "ms exceeded");
+            }
+
             // ─── Step 6: Validation Retry (if LangChain parsing failed) ─────────
             LlmDecision decision = result.decision();
+            long remainingMs = pipelineTimeoutMs - Duration.between(pipelineStart, Instant.now()).toMillis();
 
-            if (decision == null && result.rawOutput() != null) {
+            if (decision == null && result.rawOutput() != null && remainingMs > 0) {
                 log.info("LangChain structured parsing failed, attempting validation chain");
                 Instant step6Start = Instant.now();
 
-                ChainResult validationResult = chainExecutor.executeValidationChain(result.rawOutput());
+                ChainResult validationResult = chainExecutor.executeValidationChain(result.rawOutput(),
+                        Duration.ofMillis(remainingMs));
                 Instant step6End = Instant.now();
+                recordStep("validation", step6Start, step6End);
 
                 langfuseClient.logSpan(traceId, "validation",
                         Map.of("raw_output", result.rawOutput()),
@@ -182,6 +251,8 @@ public class DispatchService {
                         "LLM output validation failed");
             }
 
+            decisionCache.put(fingerprint, decision, contextVersions);
+
             // ─── Success Response ───────────────────────────────────────────────
             long totalLatency = Duration.between(pipelineStart, Instant.now()).toMillis();
 
@@ -201,6 +272,7 @@ public class DispatchService {
             log.info("Dispatch completed: driver={}, confidence={}, latency={}ms",
                     response.getDriverId(), response.getConfidence(), totalLatency);
 
+            outcome = "llm";
             return response;
 
         } catch (Exception e) {
@@ -214,37 +286,111 @@ public class DispatchService {
 
             return buildFallbackFromIds(driverIds, traceId, pipelineStart,
                     "Pipeline error: " + e.getMessage());
+        } finally {
+            Timer.builder("dispatch.pipeline.latency")
+                    .tag("outcome", outcome)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry)
+                    .record(Duration.between(pipelineStart, Instant.now()));
         }
     }
 
+    /**
+     * Exports one pipeline step's duration as dispatch.pipeline.step{step=...}.
+     */
+    private void recordStep(String step, Instant start, Instant end) {
+        Timer.builder("dispatch.pipeline.step")
+                .tag("step", step)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry)
+                .record(Duration.between(start, end).toNanos(), TimeUnit.NANOSECONDS);
+    }
+
     // ─── Business Logic Helpers ─────────────────────────────────────────────
 
     /**
-     * Retrieve RAG memories for all profiled drivers.
-     * pgvector similarity search with recency fallback.
+     * Memories for a set of drivers plus the wall-clock window of the fetch.
      */
-    private Map<UUID, List<DriverMemorySummary>> retrieveDriverMemories(List<DriverProfile> profiles) {
-        Map<UUID, List<DriverMemorySummary>> memoriesMap = new HashMap<>();
+    private record MemoryFetch(Map<UUID, List<DriverMemorySummary>> byDriver, Instant start, Instant end) {
+    }
 
-        for (DriverProfile profile : profiles) {
-            try {
-                List<DriverMemorySummary> memories = driverMemoryRepository
-                        .findTopMemories(profile.getDriverId(), maxMemoryPerDriver);
+    /**
+     * Retrieve RAG memories for all candidate drivers; cache misses are
+     * loaded with a single batched pgvector query. A failure degrades to an empty memory set rather than
+     * failing the dispatch.
+     */
+    private MemoryFetch retrieveDriverMemories(List<UUID> driverIds) {
+        Instant start = Instant.now();
+        Map<UUID, List<DriverMemorySummary>> memories;
+        try {
+            memories = driverContextCache.getMemories(driverIds, maxMemoryPerDriver);
+        } catch (Exception e) {
+            log.warn("Failed to retrieve memories for {} drivers: {}", driverIds.size(), e.getMessage());
+            memories = Map.of();
+        }
+        return new MemoryFetch(memories, start, Instant.now());
+    }
 
-                if (memories.isEmpty()) {
-                    memories = driverMemoryRepository
-                            .findRecentMemories(profile.getDriverId(), maxMemoryPerDriver);
-                }
+    // ─── Fast Path ──────────────────────────────────────────────────────────
 
-                memoriesMap.put(profile.getDriverId(), memories);
-            } catch (Exception e) {
-                log.warn("Failed to retrieve memories for driver {}: {}",
-                        profile.getDriverId(), e.getMessage());
-                memoriesMap.put(profile.getDriverId(), List.of());
-            }
-        }
+    /**
+     * Response for a dispatch decided by the scoring engine alone. The
+     * confidence is the winner's score.
+     */
+    private DispatchResponse buildFastPathResponse(Ranking ranking, String traceId, Instant pipelineStart) {
+        ScoredCandidate top = ranking.top();
+        long totalLatency = Duration.between(pipelineStart, Instant.now()).toMillis();
+
+        String reason = ranking.ranked().size() < 2
+                ? String.format("Scoring fast path: only candidate (score %.2f)", top.score())
+                : String.format("Scoring fast path: score %.2f leads next candidate by %.2f",
+                        top.score(), ranking.margin());
+
+        DispatchResponse response = DispatchResponse.builder()
+                .driverId(top.profile().getDriverId().toString())
+                .confidence(top.score())
+                .reason(reason)
+                .fallback(false)
+                .latencyMs(totalLatency)
+                .build();
+
+        langfuseClient.updateTraceOutput(traceId, response,
+                Map.of("total_latency_ms", totalLatency,
+                        "fallback", false,
+                        "fast_path", true));
+
+        log.info("Dispatch completed on fast path: driver={}, score={}, latency={}ms",
+                response.getDriverId(), String.format("%.3f", top.score()), totalLatency);
+        return response;
+    }
+
+    // ─── Cached Decision ────────────────────────────────────────────────────
 
-        return memoriesMap;
+    /**
+     * Response for a dispatch answered from the decision cache: an earlier
+     * validated LLM decision for the identical prompt.
+     */
+    private DispatchResponse buildCachedResponse(LlmDecision decision, String fingerprint,
+            String traceId, Instant pipelineStart) {
+        long totalLatency = Duration.between(pipelineStart, Instant.now()).toMillis();
+
+        DispatchResponse response = DispatchResponse.builder()
+                .driverId(decision.driverId())
+                .confidence(decision.confidence())
+                .reason(decision.reason())
+                .fallback(false)
+                .latencyMs(totalLatency)
+                .build();
+
+        langfuseClient.updateTraceOutput(traceId, response,
+                Map.of("total_latency_ms", totalLatency,
+                        "fallback", false,
+                        "decision_cache_hit", true,
+                        "prompt_fingerprint", fingerprint));
+
+        log.info("Dispatch completed from decision cache: driver={}, latency={}ms",
+                response.getDriverId(), totalLatency);
+        return response;
     }
 
     // ─── Fallback Logic ─────────────────────────────────────────────────────
@@ -0,0 +1,291 @@
+package com.swifttrack.AIDispatchService.services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.swifttrack.AIDispatchService.dto.DriverMemorySummary;
+import com.swifttrack.AIDispatchService.dto.DriverProfile;
+import com.swifttrack.AIDispatchService.repositories.DriverMemoryRepository;
+import com.swifttrack.AIDispatchService.repositories.DriverProfileRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Bounded, TTL'd per-driver cache of dispatch context (profiles and RAG
+ * memories) in front of PostgreSQL.
+ *
+ * Dispatch only queries the repositories for drivers that miss. Entries are
+ * evicted when a "driver-performance" event arrives for the driver, and in
+ * any case after their TTL. Memories are evicted a second time after
+ * {@code memory-settle-ms}, because the Driver Service writes the new memory
+ * embedding asynchronously from the same event.
+ *
+ * Metrics:
+ * - dispatch.cache.requests{cache, result=hit|miss}
+ * - dispatch.cache.hit.ratio{cache}
+ * - dispatch.cache.size{cache}
+ * - dispatch.cache.invalidations
+ */
+@Component
+public class DriverContextCache {
+
+    private static final Logger log = LoggerFactory.getLogger(DriverContextCache.class);
+
+    private final DriverProfileRepository driverProfileRepository;
+    private final DriverMemoryRepository driverMemoryRepository;
+    private final ScheduledExecutorService settleScheduler;
+    private final Counter invalidations;
+    private final long memorySettleMs;
+
+    private final Region<DriverProfile> profiles;
+    private final Region<MemorySlice> memories;
+
+    /**
+     * Per-driver context version, bumped on every invalidation. Holds one
+     * entry per driver that has ever been invalidated, so it is bounded by
+     * the fleet size.
+     */
+    private final Map<UUID, Long> versions = new ConcurrentHashMap<>();
+    private final AtomicLong versionSequence = new AtomicLong();
+
+    /** Memories cached for a driver, with the top-N they were loaded for. */
+    private record MemorySlice(int topN, List<DriverMemorySummary> memories) {
+    }
+
+    public DriverContextCache(
+            DriverProfileRepository driverProfileRepository,
+            DriverMemoryRepository driverMemoryRepository,
+            MeterRegistry meterRegistry,
+            @Value("${dispatch.cache.max-drivers:10000}") int maxDrivers,
+            @Value("${dispatch.cache.profile-ttl-ms:60000}") long profileTtlMs,
+            @Value("${dispatch.cache.memory-ttl-ms:300000}") long memoryTtlMs,
+            @Value("${dispatch.cache.memory-settle-ms:5000}") long memorySettleMs) {
+        this.driverProfileRepository = driverProfileRepository;
+        this.driverMemoryRepository = driverMemoryRepository;
+        this.memorySettleMs = memorySettleMs;
+        this.profiles = new Region<>("profile", Math.max(1, maxDrivers), profileTtlMs, meterRegistry);
+        this.memories = new Region<>("memory", Math.max(1, maxDrivers), memoryTtlMs, meterRegistry);
+        this.invalidations = Counter.builder("dispatch.cache.invalidations").register(meterRegistry);
+        this.settleScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dispatch-cache-settle");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        settleScheduler.shutdownNow();
+    }
+
+    // ─── Reads ──────────────────────────────────────────────────────────────
+
+    /**
+     * Profiles for the given drivers, in request order. Drivers without a
+     * profile are omitted, as with {@link DriverProfileRepository#fetchDriverProfiles}.
+     */
+    public List<DriverProfile> getProfiles(List<UUID> driverIds) {
+        Map<UUID, DriverProfile> found = new HashMap<>();
+        List<UUID> misses = new ArrayList<>();
+        for (UUID driverId : driverIds) {
+            DriverProfile cached = profiles.get(driverId);
+            if (cached != null) {
+                found.put(driverId, cached);
+            } else {
+                misses.add(driverId);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            long version = profiles.version();
+            for (DriverProfile profile : driverProfileRepository.fetchDriverProfiles(misses)) {
+                profiles.put(profile.getDriverId(), profile, version);
+                found.put(profile.getDriverId(), profile);
+            }
+        }
+
+        List<DriverProfile> result = new ArrayList<>(found.size());
+        for (UUID driverId : driverIds) {
+            DriverProfile profile = found.get(driverId);
+            if (profile != null) {
+                result.add(profile);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Top-N memories for every given driver. Drivers without memories map to
+     * an empty list, which is cached like any other result.
+     */
+    public Map<UUID, List<DriverMemorySummary>> getMemories(List<UUID> driverIds, int topN) {
+        Map<UUID, List<DriverMemorySummary>> result = new HashMap<>();
+        List<UUID> misses = new ArrayList<>();
+        for (UUID driverId : driverIds) {
+            MemorySlice cached = memories.get(driverId);
+            if (cached != null && cached.topN() >= topN) {
+                List<DriverMemorySummary> slice = cached.memories();
+                result.put(driverId, slice.size() > topN ? slice.subList(0, topN) : slice);
+            } else {
+                misses.add(driverId);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            long version = memories.version();
+            Map<UUID, List<DriverMemorySummary>> loaded = driverMemoryRepository.findTopMemoriesForDrivers(misses,
+                    topN);
+            for (UUID driverId : misses) {
+                List<DriverMemorySummary> driverMemories = List.copyOf(loaded.getOrDefault(driverId, List.of()));
+                memories.put(driverId, new MemorySlice(topN, driverMemories), version);
+                result.put(driverId, driverMemories);
+            }
+        }
+        return result;
+    }
+
+    // ─── Versions ───────────────────────────────────────────────────────────
+
+    /**
+     * Current context version of each driver; a changed value means the
+     * driver's profile or memories changed since the snapshot was taken.
+     */
+    public Map<UUID, Long> versions(List<UUID> driverIds) {
+        Map<UUID, Long> snapshot = new HashMap<>();
+        for (UUID driverId : driverIds) {
+            snapshot.put(driverId, versions.getOrDefault(driverId, 0L));
+        }
+        return snapshot;
+    }
+
+    // ─── Invalidation ───────────────────────────────────────────────────────
+
+    public void invalidate(UUID driverId) {
+        versions.put(driverId, versionSequence.incrementAndGet());
+        profiles.invalidate(driverId);
+        memories.invalidate(driverId);
+        invalidations.increment();
+        if (memorySettleMs > 0) {
+            settleScheduler.schedule(() -> memories.invalidate(driverId), memorySettleMs, TimeUnit.MILLISECONDS);
+        }
+        log.debug("Invalidated cached context for driver {}", driverId);
+    }
+
+    // ─── Region ─────────────────────────────────────────────────────────────
+
+    /**
+     * One LRU-bounded, TTL'd map. Every entry is stamped with a version:
+     * values with the region version their load started at, invalidation
+     * tombstones with a fresh one. A put is refused when the key already
+     * holds a newer stamp, so neither a load that started before an
+     * invalidation nor a slow load overtaken by a fresher one can put its
+     * stale result back.
+     */
+    private static final class Region<V> {
+
+        private record Entry<V>(V value, long expireAt, long version) {
+        }
+
+        private final long ttlMs;
+        private final LinkedHashMap<UUID, Entry<V>> entries;
+        private final Counter hits;
+        private final Counter misses;
+        private long version;
+
+        /**
+         * Newest tombstone evicted by the LRU bound. Loads that started
+         * before it may be stale for a key whose tombstone is gone, so they
+         * are not cached.
+         */
+        private long evictedVersion;
+
+        Region(String name, int maxEntries, long ttlMs, MeterRegistry meterRegistry) {
+            this.ttlMs = ttlMs;
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<UUID, Entry<V>> eldest) {
+                    if (size() <= maxEntries) {
+                        return false;
+                    }
+                    if (eldest.getValue().value() == null) {
+                        evictedVersion = Math.max(evictedVersion, eldest.getValue().version());
+                    }
+                    return true;
+                }
+            };
+            this.hits = Counter.builder("dispatch.cache.requests")
+                    .tag("cache", name).tag("result", "hit")
+                    .register(meterRegistry);
+            this.misses = Counter.builder("dispatch.cache.requests")
+                    .tag("cache", name).tag("result", "miss")
+                    .register(meterRegistry);
+            Gauge.builder("dispatch.cache.hit.ratio", this, Region::hitRatio)
+                    .tag("cache", name)
+                    .register(meterRegistry);
+            Gauge.builder("dispatch.cache.size", this, Region::size)
+                    .tag("cache", name)
+                    .register(meterRegistry);
+        }
+
+        synchronized V get(UUID key) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null || entry.value() == null || entry.expireAt() <= System.currentTimeMillis()) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.value();
+        }
+
+        synchronized long version() {
+            return version;
+        }
+
+        /**
+         * Stores a value loaded when the region was at {@code loadedAtVersion},
+         * unless the key has since been invalidated or stored by a load that
+         * started later.
+         */
+        synchronized void put(UUID key, V value, long loadedAtVersion) {
+            if (loadedAtVersion < evictedVersion) {
+                return;
+            }
+            Entry<V> existing = entries.get(key);
+            if (existing != null && existing.version() > loadedAtVersion) {
+                return;
+            }
+            entries.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMs, loadedAtVersion));
+        }
+
+        synchronized void invalidate(UUID key) {
+            entries.put(key, new Entry<>(null, System.currentTimeMillis() + ttlMs, ++version));
+        }
+
+        synchronized double size() {
+            return entries.size();
+        }
+
+        double hitRatio() {
+            double total = hits.count() + misses.count();
+            return total == 0 ? 0.0 : hits.count() / total;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.swifttrack.AIDispatchService.langchain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class CompiledPromptTest {
+
+    @Test
+    void testVariablesAreSubstituted() {
+        CompiledPrompt prompt = CompiledPrompt.compile("Order {order_id} for {driver1}, again {order_id}.");
+
+        assertEquals("Order 42 for alice, again 42.",
+                prompt.render(Map.of("order_id", "42", "driver1", "alice")));
+    }
+
+    @Test
+    void testJsonBracesStayLiteral() {
+        String template = """
+                Candidates: {drivers}
+                Respond with JSON only: {"driver_id": "<uuid>", "accepted": true, "scores": {"eta": 0.5}}
+                Empty object {} and nested {{drivers}} braces.
+                """;
+
+        String rendered = CompiledPrompt.compile(template).render(Map.of("drivers", "[a, b]"));
+
+        assertEquals("""
+                Candidates: [a, b]
+                Respond with JSON only: {"driver_id": "<uuid>", "accepted": true, "scores": {"eta": 0.5}}
+                Empty object {} and nested {[a, b]} braces.
+                """, rendered);
+    }
+
+    @Test
+    void testUnknownVariableIsLeftUnchanged() {
+        CompiledPrompt prompt = CompiledPrompt.compile("Hello {name}, your {unknown_var} is ready.");
+
+        assertEquals("Hello Sam, your {unknown_var} is ready.", prompt.render(Map.of("name", "Sam")));
+        assertEquals("Hello {name}, your {unknown_var} is ready.", prompt.render(Map.of()));
+    }
+
+    @Test
+    void testUnterminatedOrInvalidNamesStayLiteral() {
+        String template = "{ spaced } {dash-name} {open {trailing";
+
+        assertEquals(template, CompiledPrompt.compile(template).render(Map.of("spaced", "x", "open", "y")));
+    }
+
+    @Test
+    void testValuesAreNotReparsed() {
+        CompiledPrompt prompt = CompiledPrompt.compile("{a} {b}");
+
+        assertEquals("{b} 2", prompt.render(Map.of("a", "{b}", "b", "2")));
+    }
+
+    @Test
+    void testTemplateIsKept() {
+        assertEquals("x {y} z", CompiledPrompt.compile("x {y} z").template());
+    }
+}
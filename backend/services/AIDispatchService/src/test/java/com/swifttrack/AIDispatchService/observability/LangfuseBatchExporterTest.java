@@ -0,0 +1,201 @@
+package com.swifttrack.AIDispatchService.observability;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.Credentials;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+class LangfuseBatchExporterTest {
+
+    private static final long NEVER_MS = TimeUnit.HOURS.toMillis(1);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private MockWebServer server;
+    private SimpleMeterRegistry meterRegistry;
+    private LangfuseBatchExporter exporter;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (exporter != null) {
+            exporter.stop();
+        }
+        server.shutdown();
+    }
+
+    @Test
+    void testFlushSplitsQueueIntoBatches() throws Exception {
+        exporter = exporter(100, 3, NEVER_MS);
+        for (int i = 0; i < 7; i++) {
+            server.enqueue(new MockResponse().setResponseCode(207).setBody("{\"successes\":[],\"errors\":[]}"));
+        }
+        for (int i = 0; i < 7; i++) {
+            exporter.enqueue("span-create", Map.of("name", "span-" + i));
+        }
+        // The size trigger may already have sent the first batches; drain what is left
+        exporter.flush();
+
+        int requests = server.getRequestCount();
+        int events = 0;
+        for (int i = 0; i < requests; i++) {
+            RecordedRequest request = server.takeRequest(1, TimeUnit.SECONDS);
+            assertEquals("/api/public/ingestion", request.getPath());
+            assertEquals(Credentials.basic("pk", "sk"), request.getHeader("Authorization"));
+            int size = batch(request).size();
+            assertTrue(size <= 3, "batch of " + size);
+            events += size;
+        }
+
+        assertEquals(7, events);
+        assertTrue(requests >= 3);
+        assertEquals(7.0, events("sent"));
+        assertEquals(0.0, events("failed"));
+    }
+
+    @Test
+    void testFullBatchIsSentWithoutWaitingForInterval() throws Exception {
+        exporter = exporter(100, 3, NEVER_MS);
+        exporter.start();
+        server.enqueue(new MockResponse().setResponseCode(200));
+
+        exporter.enqueue("trace-create", Map.of("name", "a"));
+        exporter.enqueue("trace-create", Map.of("name", "b"));
+        assertNull(server.takeRequest(200, TimeUnit.MILLISECONDS));
+        exporter.enqueue("trace-create", Map.of("name", "c"));
+
+        RecordedRequest request = server.takeRequest(5, TimeUnit.SECONDS);
+        assertNotNull(request);
+        assertEquals(3, batch(request).size());
+        assertEquals("trace-create", batch(request).get(0).path("type").asText());
+    }
+
+    @Test
+    void testPartialBatchIsSentOnInterval() throws Exception {
+        exporter = exporter(100, 50, 50);
+        exporter.start();
+        server.enqueue(new MockResponse().setResponseCode(200));
+
+        exporter.enqueue("span-create", Map.of("name", "only"));
+
+        RecordedRequest request = server.takeRequest(5, TimeUnit.SECONDS);
+        assertNotNull(request);
+        assertEquals(1, batch(request).size());
+    }
+
+    @Test
+    void testFullQueueDropsAndCounts() {
+        exporter = exporter(2, 10, NEVER_MS);
+
+        assertTrue(exporter.enqueue("span-create", Map.of("name", "a")));
+        assertTrue(exporter.enqueue("span-create", Map.of("name", "b")));
+        assertFalse(exporter.enqueue("span-create", Map.of("name", "c")));
+
+        assertEquals(2.0, events("queued"));
+        assertEquals(1.0, events("dropped"));
+        assertEquals(2.0, meterRegistry.get("langfuse.export.queue.size").gauge().value());
+        assertEquals(0, server.getRequestCount());
+    }
+
+    @Test
+    void testMultiStatusCountsRejectedEvents() throws Exception {
+        exporter = exporter(100, 10, NEVER_MS);
+        server.enqueue(new MockResponse().setResponseCode(207).setBody("""
+                {"successes": [{"id": "1", "status": 201}, {"id": "2", "status": 201}],
+                 "errors": [{"id": "3", "status": 400, "message": "Invalid request data"}]}
+                """));
+        for (int i = 0; i < 3; i++) {
+            exporter.enqueue("span-create", Map.of("name", "span-" + i));
+        }
+
+        exporter.flush();
+
+        assertEquals(2.0, events("sent"));
+        assertEquals(1.0, events("failed"));
+    }
+
+    @Test
+    void testServerErrorFailsBatchWithoutRetry() throws Exception {
+        exporter = exporter(100, 10, NEVER_MS);
+        server.enqueue(new MockResponse().setResponseCode(503).setBody("unavailable"));
+        server.enqueue(new MockResponse().setResponseCode(200));
+        for (int i = 0; i < 3; i++) {
+            exporter.enqueue("span-create", Map.of("name", "span-" + i));
+        }
+
+        exporter.flush();
+        exporter.flush();
+
+        assertEquals(1, server.getRequestCount());
+        assertEquals(0.0, events("sent"));
+        assertEquals(3.0, events("failed"));
+
+        // The exporter keeps working after a failed batch
+        exporter.enqueue("span-create", Map.of("name", "next"));
+        exporter.flush();
+        assertEquals(1.0, events("sent"));
+    }
+
+    @Test
+    void testUnreachableServerFailsBatch() throws Exception {
+        exporter = exporter(100, 10, NEVER_MS);
+        server.shutdown();
+        exporter.enqueue("span-create", Map.of("name", "lost"));
+
+        exporter.flush();
+
+        assertEquals(1.0, events("failed"));
+    }
+
+    @Test
+    void testStopSendsWhatIsQueued() throws Exception {
+        exporter = exporter(100, 10, NEVER_MS);
+        exporter.start();
+        server.enqueue(new MockResponse().setResponseCode(200));
+        exporter.enqueue("span-create", Map.of("name", "last"));
+
+        exporter.stop();
+        exporter = null;
+
+        RecordedRequest request = server.takeRequest(1, TimeUnit.SECONDS);
+        assertNotNull(request);
+        assertEquals(1, batch(request).size());
+    }
+
+    private LangfuseBatchExporter exporter(int queueCapacity, int batchSize, long flushIntervalMs) {
+        String baseUrl = server.url("/").toString();
+        return new LangfuseBatchExporter(meterRegistry, baseUrl.substring(0, baseUrl.length() - 1), "pk", "sk",
+                queueCapacity, batchSize, flushIntervalMs);
+    }
+
+    private JsonNode batch(RecordedRequest request) throws IOException {
+        return objectMapper.readTree(request.getBody().clone().readUtf8()).path("batch");
+    }
+
+    private double events(String result) {
+        return meterRegistry.get("langfuse.export.events").tag("result", result).counter().count();
+    }
+}
@@ -0,0 +1,101 @@
+package com.swifttrack.AIDispatchService.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.swifttrack.AIDispatchService.dto.DriverProfile;
+import com.swifttrack.AIDispatchService.repositories.DriverProfileRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class DriverContextCacheTest {
+
+    private final UUID driverId = UUID.randomUUID();
+    private FakeProfileRepository profileRepository;
+    private DriverContextCache cache;
+
+    @BeforeEach
+    void setUp() {
+        profileRepository = new FakeProfileRepository();
+        cache = new DriverContextCache(profileRepository, null, new SimpleMeterRegistry(), 100, 60_000, 60_000, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    void testProfileIsServedFromCache() {
+        cache.getProfiles(List.of(driverId));
+        cache.getProfiles(List.of(driverId));
+
+        assertEquals(1, profileRepository.fetches);
+    }
+
+    @Test
+    void testLoadStartedBeforeInvalidationIsNotCached() {
+        profileRepository.rating = 4.0;
+        profileRepository.duringNextFetch = () -> {
+            cache.invalidate(driverId);
+            profileRepository.rating = 5.0;
+        };
+
+        assertEquals(4.0, rating(cache.getProfiles(List.of(driverId))));
+        assertEquals(5.0, rating(cache.getProfiles(List.of(driverId))));
+        assertEquals(2, profileRepository.fetches);
+    }
+
+    @Test
+    void testSlowLoadDoesNotOverwriteFresherProfile() {
+        profileRepository.rating = 4.0;
+        profileRepository.duringNextFetch = () -> {
+            // Rated while this load is in flight; another dispatch loads and caches the new profile first.
+            cache.invalidate(driverId);
+            profileRepository.rating = 5.0;
+            cache.getProfiles(List.of(driverId));
+        };
+
+        cache.getProfiles(List.of(driverId));
+
+        assertEquals(5.0, rating(cache.getProfiles(List.of(driverId))));
+        assertEquals(2, profileRepository.fetches);
+    }
+
+    private static double rating(List<DriverProfile> profiles) {
+        return profiles.get(0).getRating();
+    }
+
+    /**
+     * Reads the rating when the query starts, then runs the hook, so the hook
+     * plays a change that lands while the query is in flight.
+     */
+    private final class FakeProfileRepository extends DriverProfileRepository {
+
+        private double rating = 4.0;
+        private Runnable duringNextFetch;
+        private int fetches;
+
+        FakeProfileRepository() {
+            super(null);
+        }
+
+        @Override
+        public List<DriverProfile> fetchDriverProfiles(List<UUID> driverIds) {
+            fetches++;
+            double ratingAtStart = rating;
+            Runnable hook = duringNextFetch;
+            duringNextFetch = null;
+            if (hook != null) {
+                hook.run();
+            }
+            return List.of(DriverProfile.builder().driverId(driverId).rating(ratingAtStart).build());
+        }
+    }
+}
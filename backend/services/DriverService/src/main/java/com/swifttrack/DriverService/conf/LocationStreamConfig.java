@@ -0,0 +1,34 @@
+package com.swifttrack.DriverService.conf;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+import com.swifttrack.DriverService.controllers.DriverLocationStreamAuthInterceptor;
+import com.swifttrack.DriverService.controllers.DriverLocationStreamHandler;
+
+@Configuration
+@EnableWebSocket
+public class LocationStreamConfig implements WebSocketConfigurer {
+
+    private final DriverLocationStreamHandler driverLocationStreamHandler;
+    private final DriverLocationStreamAuthInterceptor driverLocationStreamAuthInterceptor;
+    private final String[] allowedOriginPatterns;
+
+    public LocationStreamConfig(DriverLocationStreamHandler driverLocationStreamHandler,
+            DriverLocationStreamAuthInterceptor driverLocationStreamAuthInterceptor,
+            @Value("${driver.location.stream.allowed-origin-patterns:*}") String[] allowedOriginPatterns) {
+        this.driverLocationStreamHandler = driverLocationStreamHandler;
+        this.driverLocationStreamAuthInterceptor = driverLocationStreamAuthInterceptor;
+        this.allowedOriginPatterns = allowedOriginPatterns;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(driverLocationStreamHandler, "/api/driver/v1/location/stream")
+                .addInterceptors(driverLocationStreamAuthInterceptor)
+                .setAllowedOriginPatterns(allowedOriginPatterns);
+    }
+}
@@ -117,7 +117,8 @@ public class DriverAccountController {
     public ResponseEntity<Message> updateLocation(@RequestHeader String token,
             @RequestBody com.swifttrack.dto.driverDto.DriverLocationUpdateDto request) {
         com.swifttrack.dto.TokenResponse userDetails = driverService.validateToken(token);
-        driverService.updateDriverLocation(userDetails.id(), request.latitude(), request.longitude());
+        driverService.updateDriverLocation(userDetails.id(), userDetails.tenantId().orElse(null),
+                request.latitude(), request.longitude());
 
         // Determine driver type from authenticated user's role
         DriverType driverType = userDetails.userType()
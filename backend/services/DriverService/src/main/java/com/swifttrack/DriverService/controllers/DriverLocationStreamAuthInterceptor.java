@@ -0,0 +1,76 @@
+package com.swifttrack.DriverService.controllers;
+
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.swifttrack.DriverService.enums.DriverType;
+import com.swifttrack.DriverService.services.DriverService;
+import com.swifttrack.dto.TokenResponse;
+import com.swifttrack.enums.UserType;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Authenticates a location stream once, at handshake time, and stores the
+ * driver identity in the session attributes so individual frames never touch
+ * the auth service.
+ */
+@Component
+@Slf4j
+public class DriverLocationStreamAuthInterceptor implements HandshakeInterceptor {
+
+    static final String DRIVER_ID = "driverId";
+    static final String TENANT_ID = "tenantId";
+    static final String DRIVER_TYPE = "driverType";
+
+    private final DriverService driverService;
+
+    public DriverLocationStreamAuthInterceptor(DriverService driverService) {
+        this.driverService = driverService;
+    }
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+            WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        // Mobile clients send the usual "token" header; browsers cannot, so a query param is accepted too.
+        String token = request.getHeaders().getFirst("token");
+        if (token == null || token.isBlank()) {
+            token = UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst("token");
+        }
+        if (token == null || token.isBlank()) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+
+        TokenResponse userDetails;
+        try {
+            userDetails = driverService.validateToken(token);
+        } catch (Exception e) {
+            log.debug("Rejected location stream handshake: {}", e.getMessage());
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+
+        DriverType driverType = userDetails.userType()
+                .filter(ut -> ut == UserType.TENANT_DRIVER)
+                .map(ut -> DriverType.TENANT_DRIVER)
+                .orElse(DriverType.PLATFORM_DRIVER);
+
+        attributes.put(DRIVER_ID, userDetails.id().toString());
+        attributes.put(DRIVER_TYPE, driverType);
+        userDetails.tenantId().ifPresent(tenantId -> attributes.put(TENANT_ID, tenantId.toString()));
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+            WebSocketHandler wsHandler, Exception exception) {
+    }
+}
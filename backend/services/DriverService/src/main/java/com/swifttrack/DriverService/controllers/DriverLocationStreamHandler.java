@@ -0,0 +1,141 @@
+package com.swifttrack.DriverService.controllers;
+
+import java.nio.ByteBuffer;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+
+import com.swifttrack.DriverService.enums.DriverType;
+import com.swifttrack.DriverService.events.DriverLocationProducer;
+import com.swifttrack.DriverService.services.DriverLocationService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Streaming location ingest for driver apps.
+ * <p>
+ * A session is authenticated once by {@link DriverLocationStreamAuthInterceptor}.
+ * After that each frame carries one or more positions:
+ * <ul>
+ * <li>text: line-delimited {@code lat,lon} pairs</li>
+ * <li>binary: consecutive big-endian {@code double lat, double lon} pairs (16 bytes each)</li>
+ * </ul>
+ * Every position updates the in-memory spatial index, is queued for the
+ * batched Redis GEO writer and is published to Kafka for database persistence.
+ * All of them are published so the location history sees the whole path; the
+ * live row stays last-wins in the write-behind buffer.
+ */
+@Component
+@Slf4j
+public class DriverLocationStreamHandler extends AbstractWebSocketHandler {
+
+    private static final int BINARY_POSITION_BYTES = 16;
+
+    private final DriverLocationService driverLocationService;
+    private final DriverLocationProducer driverLocationProducer;
+
+    private final Counter positionsAccepted;
+    private final Counter positionsRejected;
+
+    public DriverLocationStreamHandler(DriverLocationService driverLocationService,
+            DriverLocationProducer driverLocationProducer,
+            MeterRegistry meterRegistry) {
+        this.driverLocationService = driverLocationService;
+        this.driverLocationProducer = driverLocationProducer;
+        this.positionsAccepted = Counter.builder("driver.location.stream.positions")
+                .tag("result", "accepted")
+                .register(meterRegistry);
+        this.positionsRejected = Counter.builder("driver.location.stream.positions")
+                .tag("result", "rejected")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        String payload = message.getPayload();
+
+        int lineStart = 0;
+        while (lineStart < payload.length()) {
+            int lineEnd = payload.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = payload.length();
+            }
+            int comma = payload.indexOf(',', lineStart);
+            if (comma > lineStart && comma < lineEnd) {
+                try {
+                    double lat = Double.parseDouble(payload.substring(lineStart, comma).trim());
+                    double lon = Double.parseDouble(payload.substring(comma + 1, lineEnd).trim());
+                    accept(session, lat, lon);
+                } catch (NumberFormatException e) {
+                    positionsRejected.increment();
+                }
+            } else if (lineEnd > lineStart && !payload.substring(lineStart, lineEnd).isBlank()) {
+                positionsRejected.increment();
+            }
+            lineStart = lineEnd + 1;
+        }
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
+        ByteBuffer payload = message.getPayload();
+
+        while (payload.remaining() >= BINARY_POSITION_BYTES) {
+            double lat = payload.getDouble();
+            double lon = payload.getDouble();
+            accept(session, lat, lon);
+        }
+        if (payload.hasRemaining()) {
+            positionsRejected.increment();
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        log.debug("Location stream closed for driver {}: {}",
+                session.getAttributes().get(DriverLocationStreamAuthInterceptor.DRIVER_ID), status);
+    }
+
+    // ─── Helpers ──────────────────────────────────────────────────────
+
+    private void accept(WebSocketSession session, double lat, double lon) {
+        // Raw doubles straight off the wire; NaN/Infinity never reach the index or Redis.
+        if (!Double.isFinite(lat) || !Double.isFinite(lon)) {
+            positionsRejected.increment();
+            return;
+        }
+        try {
+            driverLocationService.updateDriverLocation(
+                    driverId(session),
+                    lat,
+                    lon,
+                    (String) session.getAttributes().get(DriverLocationStreamAuthInterceptor.TENANT_ID),
+                    (DriverType) session.getAttributes().get(DriverLocationStreamAuthInterceptor.DRIVER_TYPE));
+            positionsAccepted.increment();
+        } catch (IllegalArgumentException e) {
+            positionsRejected.increment();
+            return;
+        }
+        // Every point, not just the frame's last: the history needs the whole path.
+        publish(session, lat, lon);
+    }
+
+    private void publish(WebSocketSession session, double lat, double lon) {
+        try {
+            driverLocationProducer.publishLocationUpdate(driverId(session),
+                    (String) session.getAttributes().get(DriverLocationStreamAuthInterceptor.TENANT_ID), lat, lon);
+        } catch (Exception e) {
+            log.warn("Failed to publish streamed location for driver {}: {}", driverId(session), e.getMessage());
+        }
+    }
+
+    private static String driverId(WebSocketSession session) {
+        return (String) session.getAttributes().get(DriverLocationStreamAuthInterceptor.DRIVER_ID);
+    }
+}
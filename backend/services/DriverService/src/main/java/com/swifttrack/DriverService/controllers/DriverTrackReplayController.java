@@ -0,0 +1,123 @@
+package com.swifttrack.DriverService.controllers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swifttrack.DriverService.dto.DriverLocationSample;
+import com.swifttrack.DriverService.models.DriverOrderAssignment;
+import com.swifttrack.DriverService.services.DriverLocationTrackService;
+import com.swifttrack.DriverService.services.DriverService;
+import com.swifttrack.dto.TokenResponse;
+import com.swifttrack.enums.UserType;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+@RestController
+@RequestMapping("/api/driver")
+@Tag(name = "Driver Track Replay", description = "Streaming replay of stored driver location history")
+public class DriverTrackReplayController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private static final Set<UserType> ADMIN_TYPES = Set.of(
+            UserType.SUPER_ADMIN,
+            UserType.SYSTEM_ADMIN,
+            UserType.ADMIN_USER);
+
+    private static final Set<UserType> DRIVER_TYPES = Set.of(
+            UserType.DRIVER_USER,
+            UserType.TENANT_DRIVER);
+
+    private final DriverService driverService;
+    private final DriverLocationTrackService driverLocationTrackService;
+    private final ObjectMapper objectMapper;
+
+    public DriverTrackReplayController(DriverService driverService,
+            DriverLocationTrackService driverLocationTrackService,
+            ObjectMapper objectMapper) {
+        this.driverService = driverService;
+        this.driverLocationTrackService = driverLocationTrackService;
+        this.objectMapper = objectMapper;
+    }
+
+    @GetMapping("/v1/history/replay/driver/{driverId}")
+    @Operation(summary = "Replay driver track", description = "Stream a driver's recorded positions between two timestamps as NDJSON. Admins and the driver only")
+    public ResponseEntity<StreamingResponseBody> replayDriver(@RequestHeader String token,
+            @PathVariable UUID driverId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        TokenResponse caller = driverService.validateToken(token);
+        if (!isAdmin(caller) && !driverId.equals(caller.id())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return stream(sink -> driverLocationTrackService.replayDriver(driverId, from, to, sink));
+    }
+
+    @GetMapping("/v1/history/replay/order/{orderId}")
+    @Operation(summary = "Replay order trip", description = "Stream the assigned driver's recorded positions for an order as NDJSON. Admins, the assigned driver and the order's tenant only")
+    public ResponseEntity<StreamingResponseBody> replayOrder(@RequestHeader String token,
+            @PathVariable UUID orderId) {
+        TokenResponse caller = driverService.validateToken(token);
+        DriverOrderAssignment assignment = driverLocationTrackService.findAssignment(orderId);
+        if (!isAdmin(caller) && !assignment.getDriverId().equals(caller.id())
+                && !isTenantStaff(caller, assignment)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return stream(sink -> driverLocationTrackService.replayAssignment(assignment, sink));
+    }
+
+    private static boolean isAdmin(TokenResponse caller) {
+        return caller.userType().map(ADMIN_TYPES::contains).orElse(false);
+    }
+
+    /**
+     * Non-driver users of the tenant that owns the order. Drivers of the same
+     * tenant may only replay their own trips.
+     */
+    private static boolean isTenantStaff(TokenResponse caller, DriverOrderAssignment assignment) {
+        return assignment.getTenantId() != null
+                && caller.tenantId().map(assignment.getTenantId()::equals).orElse(false)
+                && !caller.userType().map(DRIVER_TYPES::contains).orElse(true);
+    }
+
+    /**
+     * Writes one JSON object per line as points are decoded, so the response
+     * starts immediately and memory stays flat regardless of trip length.
+     */
+    private ResponseEntity<StreamingResponseBody> stream(Consumer<Consumer<DriverLocationSample>> replay) {
+        StreamingResponseBody body = (OutputStream out) -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                replay.accept(point -> {
+                    try {
+                        objectMapper.writeValue(generator, point);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+}
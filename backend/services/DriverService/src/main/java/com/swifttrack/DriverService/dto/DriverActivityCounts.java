@@ -0,0 +1,19 @@
+package com.swifttrack.DriverService.dto;
+
+import java.util.UUID;
+
+/**
+ * Per-driver history counts behind a behavioral summary, produced for a
+ * whole chunk of drivers by one grouped query.
+ */
+public record DriverActivityCounts(
+        UUID driverId,
+        long completedOrders,
+        long totalAssigned,
+        long rejectedOrders,
+        long cancelledOrders,
+        long onlineEvents,
+        long offlineEvents,
+        long locationUpdates,
+        String currentStatus) {
+}
@@ -0,0 +1,26 @@
+package com.swifttrack.DriverService.dto;
+
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Position frame published on the "driver.location.updates" topic by the
+ * streaming ingest endpoint. Consumed asynchronously to persist the live
+ * location and history off the socket thread.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DriverLocationPing {
+
+    private UUID driverId;
+    private UUID tenantId;
+    private double latitude;
+    private double longitude;
+    private long recordedAtEpochMs;
+}
@@ -0,0 +1,15 @@
+package com.swifttrack.DriverService.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One accepted driver position waiting to be written to
+ * driver_location_live / driver_location_history.
+ */
+public record DriverLocationSample(
+        UUID driverId,
+        double latitude,
+        double longitude,
+        LocalDateTime recordedAt) {
+}
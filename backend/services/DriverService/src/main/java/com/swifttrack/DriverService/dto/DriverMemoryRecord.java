@@ -0,0 +1,15 @@
+package com.swifttrack.DriverService.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One driver_memory row waiting to be batch-inserted.
+ */
+public record DriverMemoryRecord(
+        UUID id,
+        UUID driverId,
+        String summary,
+        float[] embedding,
+        LocalDateTime createdAt) {
+}
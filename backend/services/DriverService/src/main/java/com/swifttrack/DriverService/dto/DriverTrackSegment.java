@@ -0,0 +1,19 @@
+package com.swifttrack.DriverService.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One row of driver_location_track: a run of points for one driver on one
+ * day, delta-encoded by {@link com.swifttrack.DriverService.utils.TrackPolylineCodec}.
+ */
+public record DriverTrackSegment(
+        UUID driverId,
+        LocalDate trackDay,
+        LocalDateTime startedAt,
+        LocalDateTime endedAt,
+        int pointCount,
+        String polyline,
+        String timeOffsets) {
+}
@@ -0,0 +1,25 @@
+package com.swifttrack.DriverService.enums;
+
+/**
+ * Assignment transitions counted in the driver_stats rollup. Each value
+ * names the column prefix it increments ({@code assigned_total},
+ * {@code assigned_24h}, {@code assigned_7d} and the hourly bucket's
+ * {@code assigned}).
+ */
+public enum DriverStatsCounter {
+    ASSIGNED("assigned"),
+    ACCEPTED("accepted"),
+    REJECTED("rejected"),
+    COMPLETED("completed"),
+    CANCELLED("cancelled");
+
+    private final String column;
+
+    DriverStatsCounter(String column) {
+        this.column = column;
+    }
+
+    public String column() {
+        return column;
+    }
+}
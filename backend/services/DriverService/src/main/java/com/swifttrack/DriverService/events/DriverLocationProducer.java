@@ -1,9 +1,12 @@
 package com.swifttrack.DriverService.events;
 
+import java.util.UUID;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 
+import com.swifttrack.DriverService.dto.DriverLocationPing;
 import com.swifttrack.DriverService.models.DriverEvent;
 
 import lombok.extern.slf4j.Slf4j;
@@ -17,11 +20,20 @@ public class DriverLocationProducer {
 
     private static final String TOPIC = "driver.location.updates";
 
-    public void publishLocationUpdate(String driverId, double lat, double lng) {
-        // Payload would typically be a specific Avro/JSON object
-        // String payload = ...;
-        // kafkaTemplate.send(TOPIC, driverId, payload);
-        log.info("Publishing location update for driver {}: {}, {}", driverId, lat, lng);
+    /**
+     * Publishes a position keyed by driverId so all pings of one driver land on
+     * the same partition and are persisted in order.
+     */
+    public void publishLocationUpdate(String driverId, String tenantId, double lat, double lng) {
+        DriverLocationPing ping = DriverLocationPing.builder()
+                .driverId(UUID.fromString(driverId))
+                .tenantId(tenantId != null ? UUID.fromString(tenantId) : null)
+                .latitude(lat)
+                .longitude(lng)
+                .recordedAtEpochMs(System.currentTimeMillis())
+                .build();
+        kafkaTemplate.send(TOPIC, driverId, ping);
+        log.debug("Published location update for driver {}: {}, {}", driverId, lat, lng);
     }
 
     private static final String EVENT_TOPIC = "driver.events";
@@ -0,0 +1,57 @@
+package com.swifttrack.DriverService.events;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import com.swifttrack.DriverService.dto.DriverLocationPing;
+import com.swifttrack.DriverService.services.DriverService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Kafka consumer for the "driver.location.updates" topic.
+ * Persists positions received over the streaming ingest endpoint so that
+ * database writes never run on the socket thread.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class DriverLocationUpdateConsumer {
+
+    private final DriverService driverService;
+
+    @KafkaListener(topics = "driver.location.updates", groupId = "driver-location-group", properties = {
+            "spring.json.value.default.type=com.swifttrack.DriverService.dto.DriverLocationPing"
+    })
+    public void consumeLocationUpdate(DriverLocationPing ping) {
+        if (ping == null || ping.getDriverId() == null) {
+            return;
+        }
+        try {
+            driverService.updateDriverLocation(ping.getDriverId(), ping.getTenantId(),
+                    BigDecimal.valueOf(ping.getLatitude()),
+                    BigDecimal.valueOf(ping.getLongitude()),
+                    recordedAt(ping));
+        } catch (Exception e) {
+            log.error("Failed to persist streamed location for driver {}: {}", ping.getDriverId(),
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * When the position was taken rather than when it is consumed, so history
+     * stays correct under consumer lag. Pings without a timestamp get now.
+     */
+    private static LocalDateTime recordedAt(DriverLocationPing ping) {
+        if (ping.getRecordedAtEpochMs() <= 0) {
+            return null;
+        }
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(ping.getRecordedAtEpochMs()), ZoneId.systemDefault());
+    }
+}
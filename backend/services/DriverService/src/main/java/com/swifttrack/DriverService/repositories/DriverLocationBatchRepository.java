@@ -0,0 +1,92 @@
+package com.swifttrack.DriverService.repositories;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.swifttrack.DriverService.dto.DriverLocationSample;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * JDBC batch writes for the location write-behind buffer.
+ * With {@code reWriteBatchedInserts=true} on the datasource URL the PostgreSQL
+ * driver collapses each batch into multi-row statements.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DriverLocationBatchRepository {
+
+    /**
+     * One set-based upsert for the whole batch. New rows take tenant_id from the
+     * driver's vehicle details, matching the old findById/save path; existing
+     * rows keep their tenant. driver_location_live references
+     * driver_vehicle_details, so a driver without a vehicle row cannot be stored
+     * and is left out of the join; RETURNING tells the caller which drivers were
+     * written. Driver ids must be unique within a batch, since ON CONFLICT cannot
+     * touch the same row twice in one statement.
+     */
+    private static final String UPSERT_LIVE_SQL = """
+            INSERT INTO driver_location_live (driver_id, tenant_id, latitude, longitude, updated_at)
+            SELECT dvd.driver_id, dvd.tenant_id, p.latitude, p.longitude, p.updated_at
+            FROM unnest(?::uuid[], ?::float8[], ?::float8[], ?::timestamp[])
+                 AS p(driver_id, latitude, longitude, updated_at)
+            JOIN driver_vehicle_details dvd ON dvd.driver_id = p.driver_id
+            ON CONFLICT (driver_id) DO UPDATE
+               SET latitude = EXCLUDED.latitude,
+                   longitude = EXCLUDED.longitude,
+                   updated_at = EXCLUDED.updated_at
+            RETURNING driver_id
+            """;
+
+    private static final String TOUCH_LAST_SEEN_SQL = """
+            UPDATE driver_status SET last_seen_at = ? WHERE driver_id = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Upserts the newest position of each driver and touches last_seen_at.
+     *
+     * @param samples at most one sample per driver
+     * @return ids of the drivers whose live row was written; the rest have no
+     *         vehicle details
+     */
+    public Set<UUID> upsertLiveLocations(List<DriverLocationSample> samples) {
+        if (samples.isEmpty()) {
+            return Set.of();
+        }
+        UUID[] driverIds = new UUID[samples.size()];
+        Double[] latitudes = new Double[samples.size()];
+        Double[] longitudes = new Double[samples.size()];
+        Timestamp[] recordedAt = new Timestamp[samples.size()];
+        for (int i = 0; i < samples.size(); i++) {
+            DriverLocationSample sample = samples.get(i);
+            driverIds[i] = sample.driverId();
+            latitudes[i] = sample.latitude();
+            longitudes[i] = sample.longitude();
+            recordedAt[i] = Timestamp.valueOf(sample.recordedAt());
+        }
+
+        List<UUID> written = jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(UPSERT_LIVE_SQL);
+            ps.setArray(1, connection.createArrayOf("uuid", driverIds));
+            ps.setArray(2, connection.createArrayOf("float8", latitudes));
+            ps.setArray(3, connection.createArrayOf("float8", longitudes));
+            ps.setArray(4, connection.createArrayOf("timestamp", recordedAt));
+            return ps;
+        }, (rs, rowNum) -> rs.getObject(1, UUID.class));
+
+        jdbcTemplate.batchUpdate(TOUCH_LAST_SEEN_SQL, samples, samples.size(), (ps, sample) -> {
+            ps.setTimestamp(1, Timestamp.valueOf(sample.recordedAt()));
+            ps.setObject(2, sample.driverId());
+        });
+        return new HashSet<>(written);
+    }
+}
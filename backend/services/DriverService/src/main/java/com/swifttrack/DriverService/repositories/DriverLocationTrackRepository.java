@@ -0,0 +1,181 @@
+package com.swifttrack.DriverService.repositories;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.swifttrack.DriverService.dto.DriverTrackSegment;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * JDBC access to the partitioned driver_location_track table.
+ * <p>
+ * Every query filters on {@code track_day} and {@code driver_id} so PostgreSQL
+ * prunes to the day partitions in range and one hash shard inside each.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DriverLocationTrackRepository {
+
+    public static final String TABLE = "driver_location_track";
+
+    /**
+     * Catch-all partition for days that have no partition of their own yet.
+     */
+    public static final String DEFAULT_PARTITION = TABLE + "_default";
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private static final String INSERT_SEGMENT_SQL = """
+            INSERT INTO driver_location_track
+                (driver_id, tenant_id, track_day, started_at, ended_at, point_count, polyline, time_offsets)
+            VALUES (?, (SELECT dvd.tenant_id FROM driver_vehicle_details dvd WHERE dvd.driver_id = ?),
+                    ?, ?, ?, ?, ?, ?)
+            """;
+
+    /**
+     * One keyset page of a driver's segments within a single day partition.
+     */
+    private static final String SELECT_SEGMENT_PAGE_SQL = """
+            SELECT driver_id, track_day, started_at, ended_at, point_count, polyline, time_offsets
+            FROM driver_location_track
+            WHERE driver_id = ?
+              AND track_day = ?
+              AND ended_at >= ?
+              AND started_at <= ?
+              AND (started_at, ended_at) > (?, ?)
+            ORDER BY started_at, ended_at
+            LIMIT ?
+            """;
+
+    private static final String LIST_DAY_PARTITIONS_SQL = """
+            SELECT c.relname
+            FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = 'driver_location_track'::regclass
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertSegments(List<DriverTrackSegment> segments) {
+        if (segments.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SEGMENT_SQL, segments, segments.size(), (ps, segment) -> {
+            ps.setObject(1, segment.driverId());
+            ps.setObject(2, segment.driverId());
+            ps.setDate(3, Date.valueOf(segment.trackDay()));
+            ps.setTimestamp(4, Timestamp.valueOf(segment.startedAt()));
+            ps.setTimestamp(5, Timestamp.valueOf(segment.endedAt()));
+            ps.setInt(6, segment.pointCount());
+            ps.setString(7, segment.polyline());
+            ps.setString(8, segment.timeOffsets());
+        });
+    }
+
+    /**
+     * Returns up to {@code limit} segments of one driver on {@code day} that
+     * overlap {@code [from, to]} and sort after the
+     * {@code (afterStartedAt, afterEndedAt)} cursor, in start order. Each page
+     * is a short standalone query, so no connection is held between pages.
+     */
+    public List<DriverTrackSegment> findSegmentPage(UUID driverId, LocalDate day, LocalDateTime from,
+            LocalDateTime to, LocalDateTime afterStartedAt, LocalDateTime afterEndedAt, int limit) {
+        return jdbcTemplate.query(SELECT_SEGMENT_PAGE_SQL, (rs, rowNum) -> new DriverTrackSegment(
+                rs.getObject("driver_id", UUID.class),
+                rs.getDate("track_day").toLocalDate(),
+                rs.getTimestamp("started_at").toLocalDateTime(),
+                rs.getTimestamp("ended_at").toLocalDateTime(),
+                rs.getInt("point_count"),
+                rs.getString("polyline"),
+                rs.getString("time_offsets")),
+                driverId,
+                Date.valueOf(day),
+                Timestamp.valueOf(from),
+                Timestamp.valueOf(to),
+                Timestamp.valueOf(afterStartedAt),
+                Timestamp.valueOf(afterEndedAt),
+                limit);
+    }
+
+    // ─── Partition maintenance ────────────────────────────────────────
+
+    public static String dayPartitionName(LocalDate day) {
+        return TABLE + "_" + PARTITION_SUFFIX.format(day);
+    }
+
+    /**
+     * Parses the day out of a partition name, or returns {@code null} for
+     * tables that were not created by {@link #createDayPartition}.
+     */
+    public static LocalDate dayOfPartition(String partitionName) {
+        String prefix = TABLE + "_";
+        if (!partitionName.startsWith(prefix) || partitionName.length() != prefix.length() + 8) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(partitionName.substring(prefix.length()), PARTITION_SUFFIX);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Creates the partition for {@code day} split into {@code shards} hash
+     * partitions on driver_id. Safe to call repeatedly.
+     * <p>
+     * PostgreSQL refuses to create a partition while the default partition
+     * holds rows for its range, so any such rows are moved into the new
+     * partition in the same transaction. The default partition is locked
+     * against inserts meanwhile.
+     *
+     * @return number of segments moved out of the default partition
+     */
+    @Transactional
+    public int createDayPartition(LocalDate day, int shards) {
+        String dayTable = dayPartitionName(day);
+        if (jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, dayTable)) {
+            return 0;
+        }
+        jdbcTemplate.execute("LOCK TABLE " + DEFAULT_PARTITION + " IN SHARE ROW EXCLUSIVE MODE");
+        jdbcTemplate.execute("CREATE TEMP TABLE track_default_moved (LIKE " + TABLE + ")");
+        int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION
+                + " WHERE track_day = ? RETURNING *) INSERT INTO track_default_moved SELECT * FROM moved",
+                Date.valueOf(day));
+
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + dayTable
+                + " PARTITION OF " + TABLE
+                + " FOR VALUES FROM ('" + day + "') TO ('" + day.plusDays(1) + "')"
+                + " PARTITION BY HASH (driver_id)");
+        for (int shard = 0; shard < shards; shard++) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + dayTable + "_s" + shard
+                    + " PARTITION OF " + dayTable
+                    + " FOR VALUES WITH (MODULUS " + shards + ", REMAINDER " + shard + ")");
+        }
+        if (moved > 0) {
+            jdbcTemplate.update("INSERT INTO " + TABLE + " SELECT * FROM track_default_moved");
+        }
+        jdbcTemplate.execute("DROP TABLE track_default_moved");
+        return moved;
+    }
+
+    public List<String> listDayPartitions() {
+        return jdbcTemplate.queryForList(LIST_DAY_PARTITIONS_SQL, String.class);
+    }
+
+    /**
+     * Drops a whole day (and its shards) in one metadata-only statement.
+     */
+    public void dropDayPartition(LocalDate day) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + dayPartitionName(day));
+    }
+}
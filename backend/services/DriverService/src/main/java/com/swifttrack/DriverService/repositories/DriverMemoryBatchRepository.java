@@ -0,0 +1,56 @@
+package com.swifttrack.DriverService.repositories;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.swifttrack.DriverService.dto.DriverMemoryRecord;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * JDBC batch writes into the pgvector driver_memory table. With
+ * {@code reWriteBatchedInserts=true} on the datasource URL each batch goes
+ * out as multi-row INSERT statements.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DriverMemoryBatchRepository {
+
+    private static final String INSERT_MEMORY_SQL = """
+            INSERT INTO driver_memory (id, driver_id, summary, embedding, created_at)
+            VALUES (?, ?, ?, CAST(? AS vector), ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertMemories(List<DriverMemoryRecord> memories) {
+        if (memories.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_MEMORY_SQL, memories, memories.size(), (ps, memory) -> {
+            ps.setObject(1, memory.id());
+            ps.setObject(2, memory.driverId());
+            ps.setString(3, memory.summary());
+            ps.setString(4, toVectorLiteral(memory.embedding()));
+            ps.setTimestamp(5, Timestamp.valueOf(memory.createdAt()));
+        });
+    }
+
+    /**
+     * pgvector text form: [0.1,0.2,...]. Sized up front so a 768-dim
+     * vector is built without regrowing the buffer.
+     */
+    static String toVectorLiteral(float[] vector) {
+        StringBuilder sb = new StringBuilder(vector.length * 12 + 2).append('[');
+        for (int i = 0; i < vector.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(vector[i]);
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -1,5 +1,7 @@
 package com.swifttrack.DriverService.repositories;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -24,6 +26,8 @@ public interface DriverOrderAssignmentRepository extends JpaRepository<DriverOrd
 
     Optional<DriverOrderAssignment> findByOrderId(UUID orderId);
 
+    List<DriverOrderAssignment> findByStatusIn(Collection<DriverAssignmentStatus> statuses);
+
     @Modifying
     @org.springframework.transaction.annotation.Transactional
     @Query("DELETE FROM DriverOrderAssignment a WHERE a.orderId = :orderId")
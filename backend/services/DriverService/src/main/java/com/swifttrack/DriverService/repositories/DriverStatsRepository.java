@@ -0,0 +1,112 @@
+package com.swifttrack.DriverService.repositories;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.swifttrack.DriverService.enums.DriverStatsCounter;
+
+/**
+ * JDBC access to the driver_stats rollup and its hourly buckets.
+ * <p>
+ * Increments are single upserts, so concurrent transitions for the same
+ * driver serialise on the row lock instead of racing a read-modify-write.
+ */
+@Repository
+public class DriverStatsRepository {
+
+    private static final String INCREMENT_BUCKET_SQL = """
+            INSERT INTO driver_stats_hourly (driver_id, bucket_start, %1$s)
+            VALUES (?, ?, 1)
+            ON CONFLICT (driver_id, bucket_start) DO UPDATE
+               SET %1$s = driver_stats_hourly.%1$s + 1
+            """;
+
+    private static final String INCREMENT_STATS_SQL = """
+            INSERT INTO driver_stats (driver_id, %1$s_total, %1$s_24h, %1$s_7d, updated_at)
+            VALUES (?, 1, 1, 1, ?)
+            ON CONFLICT (driver_id) DO UPDATE
+               SET %1$s_total = driver_stats.%1$s_total + 1,
+                   %1$s_24h = driver_stats.%1$s_24h + 1,
+                   %1$s_7d = driver_stats.%1$s_7d + 1,
+                   updated_at = EXCLUDED.updated_at
+            """;
+
+    /**
+     * Re-derives the window columns from the hourly buckets. Only drivers
+     * with a non-zero 7d window can have anything to expire.
+     */
+    private static final String ROLL_WINDOWS_SQL = """
+            UPDATE driver_stats s
+               SET assigned_24h = w.assigned_24h,
+                   accepted_24h = w.accepted_24h,
+                   rejected_24h = w.rejected_24h,
+                   completed_24h = w.completed_24h,
+                   cancelled_24h = w.cancelled_24h,
+                   assigned_7d = w.assigned_7d,
+                   accepted_7d = w.accepted_7d,
+                   rejected_7d = w.rejected_7d,
+                   completed_7d = w.completed_7d,
+                   cancelled_7d = w.cancelled_7d,
+                   updated_at = ?
+            FROM (
+                SELECT ds.driver_id,
+                       COALESCE(SUM(h.assigned) FILTER (WHERE h.bucket_start >= ?), 0) AS assigned_24h,
+                       COALESCE(SUM(h.accepted) FILTER (WHERE h.bucket_start >= ?), 0) AS accepted_24h,
+                       COALESCE(SUM(h.rejected) FILTER (WHERE h.bucket_start >= ?), 0) AS rejected_24h,
+                       COALESCE(SUM(h.completed) FILTER (WHERE h.bucket_start >= ?), 0) AS completed_24h,
+                       COALESCE(SUM(h.cancelled) FILTER (WHERE h.bucket_start >= ?), 0) AS cancelled_24h,
+                       COALESCE(SUM(h.assigned), 0) AS assigned_7d,
+                       COALESCE(SUM(h.accepted), 0) AS accepted_7d,
+                       COALESCE(SUM(h.rejected), 0) AS rejected_7d,
+                       COALESCE(SUM(h.completed), 0) AS completed_7d,
+                       COALESCE(SUM(h.cancelled), 0) AS cancelled_7d
+                FROM driver_stats ds
+                LEFT JOIN driver_stats_hourly h
+                       ON h.driver_id = ds.driver_id
+                      AND h.bucket_start >= ?
+                WHERE ds.assigned_7d + ds.accepted_7d + ds.rejected_7d + ds.completed_7d + ds.cancelled_7d > 0
+                GROUP BY ds.driver_id
+            ) w
+            WHERE s.driver_id = w.driver_id
+            """;
+
+    private static final String PURGE_BUCKETS_SQL = """
+            DELETE FROM driver_stats_hourly WHERE bucket_start < ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<DriverStatsCounter, String> incrementBucketSql = new EnumMap<>(DriverStatsCounter.class);
+    private final Map<DriverStatsCounter, String> incrementStatsSql = new EnumMap<>(DriverStatsCounter.class);
+
+    public DriverStatsRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        for (DriverStatsCounter counter : DriverStatsCounter.values()) {
+            incrementBucketSql.put(counter, INCREMENT_BUCKET_SQL.formatted(counter.column()));
+            incrementStatsSql.put(counter, INCREMENT_STATS_SQL.formatted(counter.column()));
+        }
+    }
+
+    public void increment(UUID driverId, DriverStatsCounter counter, LocalDateTime bucketStart, LocalDateTime at) {
+        jdbcTemplate.update(incrementBucketSql.get(counter), driverId, Timestamp.valueOf(bucketStart));
+        jdbcTemplate.update(incrementStatsSql.get(counter), driverId, Timestamp.valueOf(at));
+    }
+
+    /**
+     * @return number of driver rows whose windows were recomputed
+     */
+    public int rollWindows(LocalDateTime dayStart, LocalDateTime weekStart, LocalDateTime now) {
+        Timestamp day = Timestamp.valueOf(dayStart);
+        return jdbcTemplate.update(ROLL_WINDOWS_SQL,
+                Timestamp.valueOf(now), day, day, day, day, day, Timestamp.valueOf(weekStart));
+    }
+
+    public int purgeBucketsBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update(PURGE_BUCKETS_SQL, Timestamp.valueOf(cutoff));
+    }
+}
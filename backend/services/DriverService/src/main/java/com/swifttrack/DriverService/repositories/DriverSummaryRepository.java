@@ -0,0 +1,111 @@
+package com.swifttrack.DriverService.repositories;
+
+import java.sql.Array;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.swifttrack.DriverService.dto.DriverActivityCounts;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Set-based reads for driver summaries: keyset paging over drivers and one
+ * grouped aggregation per chunk of driver ids.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DriverSummaryRepository {
+
+    private static final String FIRST_DRIVER_IDS_SQL = """
+            SELECT driver_id FROM driver_status ORDER BY driver_id LIMIT ?
+            """;
+
+    private static final String NEXT_DRIVER_IDS_SQL = """
+            SELECT driver_id FROM driver_status WHERE driver_id > ? ORDER BY driver_id LIMIT ?
+            """;
+
+    private static final String AGGREGATE_SQL = """
+            SELECT d.driver_id,
+                   COALESCE(a.completed, 0) AS completed,
+                   COALESCE(a.total_assigned, 0) AS total_assigned,
+                   COALESCE(a.rejected, 0) AS rejected,
+                   COALESCE(c.cancelled, 0) AS cancelled,
+                   COALESCE(e.online, 0) AS online,
+                   COALESCE(e.offline, 0) AS offline,
+                   COALESCE(e.location_updates, 0) AS location_updates,
+                   ds.status
+            FROM unnest(?::uuid[]) AS d(driver_id)
+            LEFT JOIN (
+                SELECT driver_id,
+                       COUNT(*) FILTER (WHERE status = 'COMPLETED') AS completed,
+                       COUNT(*) FILTER (WHERE status IN ('ASSIGNED', 'ACCEPTED', 'COMPLETED', 'REJECTED')) AS total_assigned,
+                       COUNT(*) FILTER (WHERE status = 'REJECTED') AS rejected
+                FROM driver_order_assignment
+                WHERE driver_id = ANY(?::uuid[])
+                GROUP BY driver_id
+            ) a ON a.driver_id = d.driver_id
+            LEFT JOIN (
+                SELECT driver_id, COUNT(*) AS cancelled
+                FROM driver_order_cancellation
+                WHERE driver_id = ANY(?::uuid[])
+                GROUP BY driver_id
+            ) c ON c.driver_id = d.driver_id
+            LEFT JOIN (
+                SELECT driver_id,
+                       COUNT(*) FILTER (WHERE event_type = 'ONLINE') AS online,
+                       COUNT(*) FILTER (WHERE event_type = 'OFFLINE') AS offline,
+                       COUNT(*) FILTER (WHERE event_type = 'LOCATION_UPDATE') AS location_updates
+                FROM driver_events
+                WHERE driver_id = ANY(?::uuid[])
+                  AND event_type IN ('ONLINE', 'OFFLINE', 'LOCATION_UPDATE')
+                GROUP BY driver_id
+            ) e ON e.driver_id = d.driver_id
+            LEFT JOIN driver_status ds ON ds.driver_id = d.driver_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Next page of driver ids in id order, starting after {@code after}
+     * ({@code null} for the first page).
+     */
+    public List<UUID> findDriverIdsAfter(UUID after, int limit) {
+        if (after == null) {
+            return jdbcTemplate.queryForList(FIRST_DRIVER_IDS_SQL, UUID.class, limit);
+        }
+        return jdbcTemplate.queryForList(NEXT_DRIVER_IDS_SQL, UUID.class, after, limit);
+    }
+
+    public Map<UUID, DriverActivityCounts> aggregate(List<UUID> driverIds) {
+        Map<UUID, DriverActivityCounts> counts = new HashMap<>();
+        if (driverIds.isEmpty()) {
+            return counts;
+        }
+        jdbcTemplate.query(AGGREGATE_SQL,
+                ps -> {
+                    Array ids = ps.getConnection().createArrayOf("uuid", driverIds.toArray());
+                    for (int i = 1; i <= 4; i++) {
+                        ps.setArray(i, ids);
+                    }
+                },
+                rs -> {
+                    UUID driverId = rs.getObject("driver_id", UUID.class);
+                    counts.put(driverId, new DriverActivityCounts(
+                            driverId,
+                            rs.getLong("completed"),
+                            rs.getLong("total_assigned"),
+                            rs.getLong("rejected"),
+                            rs.getLong("cancelled"),
+                            rs.getLong("online"),
+                            rs.getLong("offline"),
+                            rs.getLong("location_updates"),
+                            rs.getString("status")));
+                });
+        return counts;
+    }
+}
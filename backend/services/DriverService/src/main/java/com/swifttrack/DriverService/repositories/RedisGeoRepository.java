@@ -1,7 +1,10 @@
 package com.swifttrack.DriverService.repositories;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.geo.Circle;
@@ -10,6 +13,7 @@ import org.springframework.data.geo.GeoResults;
 import org.springframework.data.geo.Metrics;
 import org.springframework.data.geo.Point;
 import org.springframework.data.redis.connection.RedisGeoCommands;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.GeoOperations;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Repository;
@@ -19,6 +23,11 @@ import com.swifttrack.DriverService.spatial.DriverDistance;
 @Repository
 public class RedisGeoRepository {
 
+    /**
+     * Latitude limit of Redis GEO (EPSG:3857); GEOADD rejects anything beyond it.
+     */
+    public static final double MAX_LATITUDE = 85.05112878d;
+
     private final StringRedisTemplate stringRedisTemplate;
     private final String geoKeyPrefix;
 
@@ -29,6 +38,15 @@ public class RedisGeoRepository {
         this.geoKeyPrefix = geoKeyPrefix;
     }
 
+    /**
+     * Whether Redis GEOADD accepts the position: finite, latitude within
+     * {@link #MAX_LATITUDE} and longitude within ±180.
+     */
+    public static boolean isIndexable(double latitude, double longitude) {
+        return Double.isFinite(latitude) && Double.isFinite(longitude)
+                && Math.abs(latitude) <= MAX_LATITUDE && Math.abs(longitude) <= 180.0d;
+    }
+
     /**
      * Builds the Redis GEO key for a given category.
      * Example: "drivers:platform" or "drivers:tenant:abc-123".
@@ -50,6 +68,29 @@ public class RedisGeoRepository {
         geo.add(geoKeyFor(categoryKey), new Point(longitude, latitude), driverId);
     }
 
+    /**
+     * Writes a batch of driver locations in one pipelined round trip, issuing a
+     * single multi-member GEOADD per category key.
+     *
+     * @param locationsByCategory categoryKey → (driverId → point)
+     */
+    public void updateDriverLocations(Map<String, Map<String, Point>> locationsByCategory) {
+        if (locationsByCategory.isEmpty()) {
+            return;
+        }
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Map.Entry<String, Map<String, Point>> category : locationsByCategory.entrySet()) {
+                Map<byte[], Point> members = new HashMap<>(category.getValue().size() * 2);
+                for (Map.Entry<String, Point> member : category.getValue().entrySet()) {
+                    members.put(member.getKey().getBytes(StandardCharsets.UTF_8), member.getValue());
+                }
+                connection.geoCommands().geoAdd(
+                        geoKeyFor(category.getKey()).getBytes(StandardCharsets.UTF_8), members);
+            }
+            return null;
+        });
+    }
+
     public List<String> findNearbyDriverIds(double longitude, double latitude, double radiusKm,
             int maxResults, String categoryKey) {
         return findNearbyDriverDistances(longitude, latitude, radiusKm, maxResults, categoryKey)
@@ -5,6 +5,15 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PreDestroy;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
@@ -24,27 +33,42 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class DriverLocationService {
 
-    private final RedisGeoRepository redisGeoRepository;
+    private final RedisGeoBatchWriter redisGeoBatchWriter;
     private final DriverSpatialIndexService driverSpatialIndexService;
     private final AIDispatchInterface aiDispatchInterface;
     private final DriverService driverService;
 
     private final int topDispatchCount;
     private final int dispatchBatchSize;
+    private final boolean parallelDispatch;
+    private final long dispatchDeadlineMs;
+    private final int fallbackAttempts;
+    private final ExecutorService dispatchExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
     public DriverLocationService(
-            RedisGeoRepository redisGeoRepository,
+            RedisGeoBatchWriter redisGeoBatchWriter,
             DriverSpatialIndexService driverSpatialIndexService,
             AIDispatchInterface aiDispatchInterface,
             DriverService driverService,
             @Value("${dispatch.ai.top-drivers:15}") int topDispatchCount,
-            @Value("${dispatch.ai.batch-size:5}") int dispatchBatchSize) {
-        this.redisGeoRepository = redisGeoRepository;
+            @Value("${dispatch.ai.batch-size:5}") int dispatchBatchSize,
+            @Value("${dispatch.ai.parallel:true}") boolean parallelDispatch,
+            @Value("${dispatch.ai.deadline-ms:3000}") long dispatchDeadlineMs,
+            @Value("${dispatch.ai.fallback-attempts:5}") int fallbackAttempts) {
+        this.redisGeoBatchWriter = redisGeoBatchWriter;
         this.driverSpatialIndexService = driverSpatialIndexService;
         this.aiDispatchInterface = aiDispatchInterface;
         this.driverService = driverService;
         this.topDispatchCount = topDispatchCount;
         this.dispatchBatchSize = dispatchBatchSize;
+        this.parallelDispatch = parallelDispatch;
+        this.dispatchDeadlineMs = Math.max(1L, dispatchDeadlineMs);
+        this.fallbackAttempts = Math.max(1, fallbackAttempts);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        dispatchExecutor.shutdownNow();
     }
 
     /**
@@ -63,10 +87,11 @@ public class DriverLocationService {
 
         String categoryKey = buildCategoryKey(tenantId, driverType);
 
-        // GEO index is the coarse filter source for candidate extraction.
-        redisGeoRepository.updateDriverLocation(driverId, longitude, latitude, categoryKey);
+        // GEO index is the coarse filter source for candidate extraction; writes
+        // are coalesced and pipelined off the request thread.
+        redisGeoBatchWriter.enqueue(driverId, latitude, longitude, categoryKey);
 
-        // In-memory map update is lock-free and rebuilds are deferred to scheduler.
+        // In-memory grid index is updated in place; no rebuild is needed.
         driverSpatialIndexService.updateDriverLocation(driverId, latitude, longitude, tenantId, driverType);
         return new Message("Driver location updated successfully");
     }
@@ -96,32 +121,36 @@ public class DriverLocationService {
                 ? new ArrayList<>(nearestDrivers.subList(0, topDispatchCount))
                 : new ArrayList<>(nearestDrivers);
 
+        List<List<String>> batches = new ArrayList<>();
         for (int start = 0; start < ranked.size(); start += dispatchBatchSize) {
             int end = Math.min(start + dispatchBatchSize, ranked.size());
-            List<String> batch = Collections.unmodifiableList(ranked.subList(start, end));
-
-            AiDispatchResponse response = callAiDispatch(batch);
-            if (response != null && response.accepted()) {
-                try {
-                    DriverOrderAssignment assignment = driverService.assignOrder(
-                            token,
-                            UUID.fromString(response.driver_id()),
-                            orderId);
-                    return Optional.of(assignment);
-                } catch (Exception assignEx) {
-                    log.warn(
-                            "AI picked driver {} but assignment failed for order {}: {}",
-                            response.driver_id(),
-                            orderId,
-                            assignEx.getMessage());
-                }
-            }
+            batches.add(Collections.unmodifiableList(ranked.subList(start, end)));
+        }
 
-            log.debug("AI dispatch rejected batch {}-{}", start, end);
+        Optional<DriverOrderAssignment> aiAssignment = parallelDispatch
+                ? dispatchBatchesInParallel(batches, orderId, token)
+                : dispatchBatchesSequentially(batches, orderId, token);
+        if (aiAssignment.isPresent()) {
+            return aiAssignment;
         }
 
-        // Fallback: try nearest candidates directly in order when AI could not assign.
-        for (String driverId : ranked) {
+        return assignNearestFirst(ranked, orderId, token);
+    }
+
+    /**
+     * Fallback when AI could not assign: tries the nearest candidates directly,
+     * in order. Each {@code assignOrder} is a round of remote and database
+     * calls, so at most {@code fallback-attempts} are made and none is started
+     * once another {@code deadline-ms} has passed.
+     */
+    private Optional<DriverOrderAssignment> assignNearestFirst(List<String> ranked, UUID orderId, String token) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(dispatchDeadlineMs);
+        List<String> candidates = ranked.size() > fallbackAttempts ? ranked.subList(0, fallbackAttempts) : ranked;
+        for (String driverId : candidates) {
+            if (System.nanoTime() >= deadline) {
+                log.info("Fallback assignment deadline of {} ms reached for order {}", dispatchDeadlineMs, orderId);
+                break;
+            }
             try {
                 DriverOrderAssignment assignment = driverService.assignOrder(
                         token,
@@ -137,6 +166,85 @@ public class DriverLocationService {
         return Optional.empty();
     }
 
+    private Optional<DriverOrderAssignment> dispatchBatchesSequentially(List<List<String>> batches, UUID orderId,
+            String token) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(dispatchDeadlineMs);
+        for (List<String> batch : batches) {
+            if (System.nanoTime() >= deadline) {
+                log.info("AI dispatch deadline of {} ms reached for order {}", dispatchDeadlineMs, orderId);
+                break;
+            }
+            Optional<DriverOrderAssignment> assignment = tryAssign(callAiDispatch(batch), orderId, token);
+            if (assignment.isPresent()) {
+                return assignment;
+            }
+            log.debug("AI dispatch rejected batch {}", batch);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Sends every batch to AI dispatch at once on virtual threads and claims
+     * the first accepted driver that {@code assignOrder} succeeds for; the
+     * remaining calls are cancelled. Waiting stops at the deadline so the
+     * nearest-first fallback always gets to run in bounded time.
+     */
+    private Optional<DriverOrderAssignment> dispatchBatchesInParallel(List<List<String>> batches, UUID orderId,
+            String token) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(dispatchDeadlineMs);
+        CompletionService<AiDispatchResponse> completion = new ExecutorCompletionService<>(dispatchExecutor);
+        List<Future<AiDispatchResponse>> inFlight = new ArrayList<>(batches.size());
+        for (List<String> batch : batches) {
+            inFlight.add(completion.submit(() -> callAiDispatch(batch)));
+        }
+
+        try {
+            for (int received = 0; received < inFlight.size(); received++) {
+                long remaining = deadline - System.nanoTime();
+                Future<AiDispatchResponse> done = remaining > 0
+                        ? completion.poll(remaining, TimeUnit.NANOSECONDS)
+                        : null;
+                if (done == null) {
+                    log.info("AI dispatch deadline of {} ms reached for order {}", dispatchDeadlineMs, orderId);
+                    return Optional.empty();
+                }
+                Optional<DriverOrderAssignment> assignment = tryAssign(done.get(), orderId, token);
+                if (assignment.isPresent()) {
+                    return assignment;
+                }
+            }
+            return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        } catch (ExecutionException e) {
+            // callAiDispatch already swallows call failures; this is unexpected.
+            log.warn("AI dispatch batch failed for order {}: {}", orderId, e.getMessage());
+            return Optional.empty();
+        } finally {
+            inFlight.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private Optional<DriverOrderAssignment> tryAssign(AiDispatchResponse response, UUID orderId, String token) {
+        if (response == null || !response.accepted()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(driverService.assignOrder(
+                    token,
+                    UUID.fromString(response.driver_id()),
+                    orderId));
+        } catch (Exception assignEx) {
+            log.warn(
+                    "AI picked driver {} but assignment failed for order {}: {}",
+                    response.driver_id(),
+                    orderId,
+                    assignEx.getMessage());
+            return Optional.empty();
+        }
+    }
+
     private AiDispatchResponse callAiDispatch(List<String> batch) {
         try {
             ResponseEntity<AiDispatchResponse> responseEntity = aiDispatchInterface
@@ -148,8 +256,12 @@ public class DriverLocationService {
         }
     }
 
+    /**
+     * Rejects NaN/infinite values and latitudes Redis GEO cannot store, so a bad
+     * ping never reaches the grid index or the GEOADD batch.
+     */
     private static void validateCoordinates(double lat, double lon) {
-        if (lat < -90.0d || lat > 90.0d || lon < -180.0d || lon > 180.0d) {
+        if (!RedisGeoRepository.isIndexable(lat, lon)) {
             throw new IllegalArgumentException("Invalid latitude/longitude");
         }
     }
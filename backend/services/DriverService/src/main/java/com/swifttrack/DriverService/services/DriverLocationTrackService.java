@@ -0,0 +1,235 @@
+package com.swifttrack.DriverService.services;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.swifttrack.DriverService.dto.DriverLocationSample;
+import com.swifttrack.DriverService.dto.DriverTrackSegment;
+import com.swifttrack.DriverService.models.DriverOrderAssignment;
+import com.swifttrack.DriverService.repositories.DriverLocationTrackRepository;
+import com.swifttrack.DriverService.repositories.DriverOrderAssignmentRepository;
+import com.swifttrack.DriverService.utils.TrackPolylineCodec;
+import com.swifttrack.enums.DriverAssignmentStatus;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compressed, day-partitioned driver location history.
+ * <p>
+ * History batches from the write-behind buffer are grouped per driver and
+ * day and stored as delta-encoded segments. A background job keeps day
+ * partitions created {@code create-ahead-days} in advance and drops whole
+ * days older than {@code retention-days}. Segments for a day without a
+ * partition land in the default partition and are moved into the day
+ * partition once the job creates it. Replays read only the partitions
+ * in the requested window and decode segments as they stream in.
+ */
+@Service
+@Slf4j
+public class DriverLocationTrackService {
+
+    /**
+     * Segments per replay query; at most max-segment-points points each.
+     */
+    static final int REPLAY_PAGE_SEGMENTS = 64;
+
+    private final DriverLocationTrackRepository trackRepository;
+    private final DriverOrderAssignmentRepository assignmentRepository;
+    private final ScheduledExecutorService maintenanceScheduler;
+
+    private final int shards;
+    private final int retentionDays;
+    private final int createAheadDays;
+    private final int maxSegmentPoints;
+
+    public DriverLocationTrackService(
+            DriverLocationTrackRepository trackRepository,
+            DriverOrderAssignmentRepository assignmentRepository,
+            @Value("${driver.location.track.shards:8}") int shards,
+            @Value("${driver.location.track.retention-days:30}") int retentionDays,
+            @Value("${driver.location.track.create-ahead-days:2}") int createAheadDays,
+            @Value("${driver.location.track.max-segment-points:500}") int maxSegmentPoints) {
+        this.trackRepository = trackRepository;
+        this.assignmentRepository = assignmentRepository;
+        this.shards = Math.max(1, shards);
+        this.retentionDays = Math.max(1, retentionDays);
+        this.createAheadDays = Math.max(1, createAheadDays);
+        this.maxSegmentPoints = Math.max(2, maxSegmentPoints);
+        this.maintenanceScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "driver-track-partitions");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void startPartitionMaintenance() {
+        // Run once synchronously so today's partition exists before the first flush.
+        maintainPartitions();
+        maintenanceScheduler.scheduleWithFixedDelay(this::maintainPartitions, 1, 1, TimeUnit.HOURS);
+        log.info("Started track partition maintenance: {} shards, {} days retention", shards, retentionDays);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        maintenanceScheduler.shutdownNow();
+    }
+
+    // ─── Write ────────────────────────────────────────────────────────
+
+    /**
+     * Stores a batch of history points as one segment per driver and day.
+     */
+    public void write(List<DriverLocationSample> samples) {
+        trackRepository.insertSegments(toSegments(samples));
+    }
+
+    List<DriverTrackSegment> toSegments(List<DriverLocationSample> samples) {
+        Map<UUID, List<DriverLocationSample>> byDriver = new LinkedHashMap<>();
+        for (DriverLocationSample sample : samples) {
+            byDriver.computeIfAbsent(sample.driverId(), id -> new ArrayList<>()).add(sample);
+        }
+
+        List<DriverTrackSegment> segments = new ArrayList<>(byDriver.size());
+        for (List<DriverLocationSample> points : byDriver.values()) {
+            points.sort(Comparator.comparing(DriverLocationSample::recordedAt));
+            int start = 0;
+            for (int i = 1; i <= points.size(); i++) {
+                boolean split = i == points.size()
+                        || i - start >= maxSegmentPoints
+                        || !points.get(i).recordedAt().toLocalDate()
+                                .equals(points.get(start).recordedAt().toLocalDate());
+                if (split) {
+                    segments.add(encodeSegment(points.subList(start, i)));
+                    start = i;
+                }
+            }
+        }
+        return segments;
+    }
+
+    private DriverTrackSegment encodeSegment(List<DriverLocationSample> points) {
+        DriverLocationSample first = points.get(0);
+        DriverLocationSample last = points.get(points.size() - 1);
+        TrackPolylineCodec.Encoded encoded = TrackPolylineCodec.encode(points);
+        return new DriverTrackSegment(
+                first.driverId(),
+                first.recordedAt().toLocalDate(),
+                first.recordedAt(),
+                last.recordedAt(),
+                points.size(),
+                encoded.polyline(),
+                encoded.timeOffsets());
+    }
+
+    // ─── Replay ───────────────────────────────────────────────────────
+
+    /**
+     * Streams a driver's points between {@code from} and {@code to} in time
+     * order. Segments are read one day partition at a time in pages of
+     * {@link #REPLAY_PAGE_SEGMENTS}, each page its own short query, so a slow
+     * client never holds a pooled connection while it downloads. Days past
+     * retention are skipped without a query.
+     */
+    public void replayDriver(UUID driverId, LocalDateTime from, LocalDateTime to,
+            Consumer<DriverLocationSample> consumer) {
+        if (to.isBefore(from)) {
+            throw new RuntimeException("Replay window end is before its start");
+        }
+        LocalDate oldestKept = LocalDate.now().minusDays(retentionDays);
+        LocalDate firstDay = from.toLocalDate().isBefore(oldestKept) ? oldestKept : from.toLocalDate();
+        for (LocalDate day = firstDay; !day.isAfter(to.toLocalDate()); day = day.plusDays(1)) {
+            // Every segment of the day starts on or after midnight, so this cursor precedes them all.
+            LocalDateTime afterStartedAt = day.atStartOfDay().minusSeconds(1);
+            LocalDateTime afterEndedAt = afterStartedAt;
+            List<DriverTrackSegment> page;
+            do {
+                page = trackRepository.findSegmentPage(driverId, day, from, to, afterStartedAt, afterEndedAt,
+                        REPLAY_PAGE_SEGMENTS);
+                for (DriverTrackSegment segment : page) {
+                    emit(segment, from, to, consumer);
+                }
+                if (!page.isEmpty()) {
+                    DriverTrackSegment last = page.get(page.size() - 1);
+                    afterStartedAt = last.startedAt();
+                    afterEndedAt = last.endedAt();
+                }
+            } while (page.size() == REPLAY_PAGE_SEGMENTS);
+        }
+    }
+
+    private static void emit(DriverTrackSegment segment, LocalDateTime from, LocalDateTime to,
+            Consumer<DriverLocationSample> consumer) {
+        for (DriverLocationSample point : TrackPolylineCodec.decode(segment.driverId(), segment.startedAt(),
+                segment.polyline(), segment.timeOffsets())) {
+            if (!point.recordedAt().isBefore(from) && !point.recordedAt().isAfter(to)) {
+                consumer.accept(point);
+            }
+        }
+    }
+
+    public DriverOrderAssignment findAssignment(UUID orderId) {
+        return assignmentRepository.findByOrderId(orderId)
+                .orElseThrow(() -> new RuntimeException("No assignment found for order " + orderId));
+    }
+
+    /**
+     * Streams the track of the assigned driver, from assignment until the
+     * assignment was closed (or now, if still open).
+     */
+    public void replayAssignment(DriverOrderAssignment assignment, Consumer<DriverLocationSample> consumer) {
+        LocalDateTime from = assignment.getAssignedAt();
+        LocalDateTime to = isClosed(assignment.getStatus()) && assignment.getUpdatedAt() != null
+                ? assignment.getUpdatedAt()
+                : LocalDateTime.now();
+        replayDriver(assignment.getDriverId(), from, to, consumer);
+    }
+
+    private static boolean isClosed(DriverAssignmentStatus status) {
+        return status == DriverAssignmentStatus.COMPLETED
+                || status == DriverAssignmentStatus.CANCELLED
+                || status == DriverAssignmentStatus.REJECTED;
+    }
+
+    // ─── Partition maintenance ────────────────────────────────────────
+
+    void maintainPartitions() {
+        try {
+            LocalDate today = LocalDate.now();
+            for (int offset = -1; offset <= createAheadDays; offset++) {
+                LocalDate day = today.plusDays(offset);
+                int moved = trackRepository.createDayPartition(day, shards);
+                if (moved > 0) {
+                    log.warn("Moved {} track segments for {} out of the default partition", moved, day);
+                }
+            }
+
+            LocalDate oldestKept = today.minusDays(retentionDays);
+            for (String partition : trackRepository.listDayPartitions()) {
+                LocalDate day = DriverLocationTrackRepository.dayOfPartition(partition);
+                if (day != null && day.isBefore(oldestKept)) {
+                    trackRepository.dropDayPartition(day);
+                    log.info("Dropped expired track partition {}", partition);
+                }
+            }
+        } catch (Exception exception) {
+            log.error("Track partition maintenance failed", exception);
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.swifttrack.DriverService.services;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.swifttrack.DriverService.dto.DriverLocationSample;
+import com.swifttrack.DriverService.repositories.DriverLocationBatchRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Write-behind buffer for driver_location_live and the location history.
+ * <p>
+ * The newest position per driver is kept in memory and upserted into
+ * driver_location_live (together with driver_status.last_seen_at) in one JDBC
+ * batch every {@code flush-interval-ms}. History goes through
+ * {@link LocationSampleFilter} first; the points it emits are appended to a
+ * bounded queue that is drained into {@link DriverLocationTrackService} as
+ * compressed segments. When the history queue is full new points are dropped
+ * and counted rather than blocking the ingest path.
+ * <p>
+ * Drivers without a driver_vehicle_details row cannot have a live row (the
+ * table references it); their positions are counted as skipped and logged
+ * once per driver instead of being retried.
+ * <p>
+ * The buffers live only in memory. Pending writes are flushed on a graceful
+ * shutdown, but if the process crashes up to one flush interval of live
+ * positions and everything still queued for history is lost. Live rows catch
+ * up with the driver's next ping; the history keeps a gap.
+ */
+@Service
+@Slf4j
+public class DriverLocationWriteBehindService {
+
+    /** Drivers already warned about as skipped; beyond this the oldest are forgotten. */
+    private static final int MAX_WARNED_SKIPPED = 10_000;
+
+    private final ConcurrentHashMap<UUID, DriverLocationSample> pendingLive = new ConcurrentHashMap<>();
+    private final ArrayBlockingQueue<DriverLocationSample> pendingHistory;
+    private final ScheduledExecutorService flushScheduler;
+
+    private final DriverLocationBatchRepository batchRepository;
+    private final LocationSampleFilter sampleFilter;
+    private final DriverLocationTrackService trackService;
+    private final long flushIntervalMs;
+    private final int maxBatchSize;
+    private final Map<UUID, Boolean> warnedSkipped = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, Boolean> eldest) {
+            return size() > MAX_WARNED_SKIPPED;
+        }
+    };
+
+    private final Timer flushLatency;
+    private final Counter liveRowsWritten;
+    private final Counter liveRowsSkipped;
+    private final Counter historyRowsWritten;
+    private final Counter historyDropped;
+    private final Counter failedFlushes;
+
+    public DriverLocationWriteBehindService(
+            DriverLocationBatchRepository batchRepository,
+            LocationSampleFilter sampleFilter,
+            DriverLocationTrackService trackService,
+            MeterRegistry meterRegistry,
+            @Value("${driver.location.write-behind.flush-interval-ms:1000}") long flushIntervalMs,
+            @Value("${driver.location.write-behind.max-batch-size:1000}") int maxBatchSize,
+            @Value("${driver.location.write-behind.history-capacity:100000}") int historyCapacity) {
+        this.batchRepository = batchRepository;
+        this.sampleFilter = sampleFilter;
+        this.trackService = trackService;
+        this.flushIntervalMs = Math.max(50L, flushIntervalMs);
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.pendingHistory = new ArrayBlockingQueue<>(Math.max(this.maxBatchSize, historyCapacity));
+        this.flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "driver-location-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.flushLatency = Timer.builder("driver.location.write_behind.flush.latency")
+                .register(meterRegistry);
+        this.liveRowsWritten = Counter.builder("driver.location.write_behind.rows")
+                .tag("table", "driver_location_live")
+                .register(meterRegistry);
+        this.liveRowsSkipped = Counter.builder("driver.location.write_behind.live.skipped")
+                .description("Live positions not written because the driver has no vehicle details")
+                .register(meterRegistry);
+        this.historyRowsWritten = Counter.builder("driver.location.write_behind.rows")
+                .tag("table", "driver_location_track")
+                .register(meterRegistry);
+        this.historyDropped = Counter.builder("driver.location.write_behind.history.dropped")
+                .description("History points dropped because the queue was full")
+                .register(meterRegistry);
+        this.failedFlushes = Counter.builder("driver.location.write_behind.flush.failures")
+                .register(meterRegistry);
+        meterRegistry.gauge("driver.location.write_behind.pending.live", pendingLive, Map::size);
+        meterRegistry.gauge("driver.location.write_behind.pending.history", pendingHistory,
+                ArrayBlockingQueue::size);
+    }
+
+    @PostConstruct
+    public void startFlushScheduler() {
+        flushScheduler.scheduleWithFixedDelay(this::safeFlush, flushIntervalMs, flushIntervalMs,
+                TimeUnit.MILLISECONDS);
+        log.info("Started location write-behind: interval {} ms, batch {}", flushIntervalMs, maxBatchSize);
+    }
+
+    /**
+     * Records a position received now.
+     *
+     * @return {@code true} if the point was kept for history
+     */
+    public boolean record(UUID driverId, double latitude, double longitude) {
+        return record(driverId, latitude, longitude, null);
+    }
+
+    /**
+     * Records a position for the live table and, if the filter keeps it, the
+     * history log, stamped with the time it was taken. A missing or future
+     * {@code recordedAt} is replaced by now.
+     *
+     * @return {@code true} if the point was kept for history
+     */
+    public boolean record(UUID driverId, double latitude, double longitude, LocalDateTime recordedAt) {
+        LocalDateTime now = LocalDateTime.now();
+        DriverLocationSample sample = new DriverLocationSample(driverId, latitude, longitude,
+                recordedAt == null || recordedAt.isAfter(now) ? now : recordedAt);
+        pendingLive.put(driverId, sample);
+        return sampleFilter.accept(sample);
+    }
+
+    /**
+     * Newest position not yet flushed, so reads can see their own writes.
+     */
+    public Optional<DriverLocationSample> pending(UUID driverId) {
+        return Optional.ofNullable(pendingLive.get(driverId));
+    }
+
+    // ─── Flush ────────────────────────────────────────────────────────
+
+    private void safeFlush() {
+        try {
+            flush();
+        } catch (Exception exception) {
+            failedFlushes.increment();
+            log.error("Location write-behind flush failed", exception);
+        }
+    }
+
+    void flush() {
+        long start = System.nanoTime();
+        try {
+            flushLive();
+            sampleFilter.drainTo(this::offerHistory, false);
+            flushHistory();
+        } finally {
+            flushLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void flushLive() {
+        while (!pendingLive.isEmpty()) {
+            List<DriverLocationSample> batch = new ArrayList<>(Math.min(pendingLive.size(), maxBatchSize));
+            Iterator<Map.Entry<UUID, DriverLocationSample>> iterator = pendingLive.entrySet().iterator();
+            while (iterator.hasNext() && batch.size() < maxBatchSize) {
+                Map.Entry<UUID, DriverLocationSample> entry = iterator.next();
+                if (pendingLive.remove(entry.getKey(), entry.getValue())) {
+                    batch.add(entry.getValue());
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            Set<UUID> written;
+            try {
+                written = batchRepository.upsertLiveLocations(batch);
+            } catch (RuntimeException exception) {
+                // Keep the position for the next attempt unless a newer one arrived.
+                batch.forEach(sample -> pendingLive.putIfAbsent(sample.driverId(), sample));
+                throw exception;
+            }
+            liveRowsWritten.increment(written.size());
+            if (written.size() < batch.size()) {
+                logSkipped(batch, written);
+            }
+        }
+    }
+
+    /**
+     * Retrying would not help: the row cannot exist until the driver's vehicle
+     * details do. Such a driver is skipped on every flush while it keeps
+     * pinging, so it is only warned about the first time; the counter still
+     * sees every skip. Runs on the flush thread only.
+     */
+    private void logSkipped(List<DriverLocationSample> batch, Set<UUID> written) {
+        List<UUID> skipped = batch.stream()
+                .map(DriverLocationSample::driverId)
+                .filter(driverId -> !written.contains(driverId))
+                .toList();
+        liveRowsSkipped.increment(skipped.size());
+        List<UUID> newlySkipped = skipped.stream()
+                .filter(driverId -> warnedSkipped.put(driverId, Boolean.TRUE) == null)
+                .toList();
+        if (!newlySkipped.isEmpty()) {
+            log.warn("Skipped live location of {} drivers without vehicle details, e.g. {}",
+                    newlySkipped.size(), newlySkipped.subList(0, Math.min(5, newlySkipped.size())));
+        }
+        log.debug("Skipped live location of {} drivers without vehicle details", skipped.size());
+    }
+
+    int warnedSkippedDrivers() {
+        return warnedSkipped.size();
+    }
+
+    private void offerHistory(DriverLocationSample sample) {
+        if (!pendingHistory.offer(sample)) {
+            historyDropped.increment();
+        }
+    }
+
+    private void flushHistory() {
+        List<DriverLocationSample> batch = new ArrayList<>(maxBatchSize);
+        while (pendingHistory.drainTo(batch, maxBatchSize) > 0) {
+            try {
+                trackService.write(batch);
+            } catch (RuntimeException exception) {
+                // Best effort: requeue what still fits, count the rest as dropped.
+                for (DriverLocationSample sample : batch) {
+                    if (!pendingHistory.offer(sample)) {
+                        historyDropped.increment();
+                    }
+                }
+                throw exception;
+            }
+            historyRowsWritten.increment(batch.size());
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        flushScheduler.shutdown();
+        try {
+            flushScheduler.awaitTermination(5, TimeUnit.SECONDS);
+            sampleFilter.drainTo(this::offerHistory, true);
+            flush();
+            log.info("Flushed pending driver locations on shutdown");
+        } catch (Exception exception) {
+            log.error("Failed to flush pending driver locations on shutdown: {} live, {} history left",
+                    pendingLive.size(), pendingHistory.size(), exception);
+        }
+    }
+}
@@ -1,19 +1,23 @@
 package com.swifttrack.DriverService.services;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.Semaphore;
 
+import org.springframework.ai.embedding.Embedding;
 import org.springframework.ai.embedding.EmbeddingModel;
 import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import com.swifttrack.DriverService.dto.DriverMemoryRecord;
 import com.swifttrack.DriverService.dto.DriverPerformanceEvent;
-import com.swifttrack.DriverService.repositories.DriverMemoryRepository;
+import com.swifttrack.DriverService.repositories.DriverMemoryBatchRepository;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -25,12 +29,26 @@ import lombok.extern.slf4j.Slf4j;
  */
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class DriverMemoryEmbeddingService {
 
     private final EmbeddingModel embeddingModel;
-    private final DriverMemoryRepository driverMemoryRepository;
+    private final DriverMemoryBatchRepository memoryBatchRepository;
     private final DriverSummaryService driverSummaryService;
+    private final int batchSize;
+    private final Semaphore ollamaPermits;
+
+    public DriverMemoryEmbeddingService(
+            EmbeddingModel embeddingModel,
+            DriverMemoryBatchRepository memoryBatchRepository,
+            DriverSummaryService driverSummaryService,
+            @Value("${driver.memory.embedding.batch-size:32}") int batchSize,
+            @Value("${driver.memory.embedding.concurrency:2}") int concurrency) {
+        this.embeddingModel = embeddingModel;
+        this.memoryBatchRepository = memoryBatchRepository;
+        this.driverSummaryService = driverSummaryService;
+        this.batchSize = Math.max(1, batchSize);
+        this.ollamaPermits = new Semaphore(Math.max(1, concurrency));
+    }
 
     /**
      * Asynchronously creates a driver memory embedding.
@@ -60,48 +78,78 @@ public class DriverMemoryEmbeddingService {
     }
 
     /**
-     * Core method: generates embedding and stores in pgvector.
+     * Number of summaries sent to Ollama in one embedding request.
+     */
+    public int batchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Generates embedding and stores in pgvector for a single driver.
+     *
+     * @return whether the memory was stored
      */
-    public void createMemory(String driverId, String summary) {
+    public boolean createMemory(String driverId, String summary) {
+        return createMemories(Map.of(UUID.fromString(driverId), summary)) == 1;
+    }
+
+    /**
+     * Core method: embeds the summaries in multi-input requests of
+     * {@code batch-size} and batch-inserts the results into pgvector. At most
+     * {@code concurrency} embedding requests are in flight across all
+     * callers, so the nightly job cannot swamp the local Ollama instance.
+     *
+     * @return number of memories stored
+     */
+    public int createMemories(Map<UUID, String> summaries) {
+        List<Map.Entry<UUID, String>> entries = new ArrayList<>(summaries.entrySet());
+        int stored = 0;
+        for (int from = 0; from < entries.size(); from += batchSize) {
+            List<Map.Entry<UUID, String>> batch = entries.subList(from, Math.min(from + batchSize, entries.size()));
+            try {
+                List<DriverMemoryRecord> memories = embed(batch);
+                memoryBatchRepository.insertMemories(memories);
+                stored += memories.size();
+                log.info("Stored {} driver memory embeddings", memories.size());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Interrupted while waiting for an embedding slot, {} summaries not stored",
+                        entries.size() - from);
+                break;
+            } catch (Exception e) {
+                log.error("Failed to create memory embeddings for {} drivers", batch.size(), e);
+            }
+        }
+        return stored;
+    }
+
+    private List<DriverMemoryRecord> embed(List<Map.Entry<UUID, String>> batch) throws InterruptedException {
+        List<String> inputs = batch.stream().map(Map.Entry::getValue).toList();
+
+        EmbeddingResponse response;
+        ollamaPermits.acquire();
         try {
             // Call Ollama nomic-embed-text via Spring AI
-            EmbeddingResponse response = embeddingModel.call(
+            response = embeddingModel.call(
                     new org.springframework.ai.embedding.EmbeddingRequest(
-                            List.of(summary),
+                            inputs,
                             org.springframework.ai.ollama.api.OllamaOptions.builder()
                                     .model("nomic-embed-text")
                                     .build()));
-            log.info("Embedding response: {}", response);
-            float[] outputVector = response.getResult().getOutput();
-
-            // Convert float[] to pgvector-compatible string format: [0.1,0.2,...]
-            String vectorString = floatArrayToVectorString(outputVector);
-
-            // Store in database using native query for proper vector casting
-            driverMemoryRepository.insertDriverMemory(
-                    UUID.randomUUID(),
-                    UUID.fromString(driverId),
-                    summary,
-                    vectorString,
-                    LocalDateTime.now());
-
-            log.info("Stored embedding for driver: {} (vector dimension: {})", driverId, outputVector.length);
-        } catch (Exception e) {
-            log.error("Failed to create memory embedding for driver: {}", driverId, e);
+        } finally {
+            ollamaPermits.release();
         }
-    }
 
-    /**
-     * Converts a float array to pgvector string format: [0.1,0.2,0.3,...]
-     */
-    private String floatArrayToVectorString(float[] vector) {
-        StringBuilder sb = new StringBuilder("[");
-        for (int i = 0; i < vector.length; i++) {
-            if (i > 0)
-                sb.append(",");
-            sb.append(vector[i]);
+        LocalDateTime createdAt = LocalDateTime.now();
+        List<DriverMemoryRecord> memories = new ArrayList<>(batch.size());
+        for (Embedding embedding : response.getResults()) {
+            Map.Entry<UUID, String> entry = batch.get(embedding.getIndex());
+            memories.add(new DriverMemoryRecord(UUID.randomUUID(), entry.getKey(), entry.getValue(),
+                    embedding.getOutput(), createdAt));
+        }
+        if (memories.size() != batch.size()) {
+            log.warn("Embedding response returned {} vectors for {} inputs", memories.size(), batch.size());
         }
-        sb.append("]");
-        return sb.toString();
+        return memories;
     }
 }
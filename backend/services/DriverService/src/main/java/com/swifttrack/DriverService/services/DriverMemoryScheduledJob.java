@@ -1,33 +1,86 @@
 package com.swifttrack.DriverService.services;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import com.swifttrack.DriverService.dto.DriverPerformanceEvent;
-import com.swifttrack.DriverService.models.DriverStatus;
-import com.swifttrack.DriverService.repositories.DriverStatusRepository;
+import com.swifttrack.DriverService.repositories.DriverSummaryRepository;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Scheduled job that runs daily to aggregate all active drivers'
  * performance data and create/update their memory embeddings.
- * 
+ *
  * This provides a baseline refresh for embeddings regardless of
  * individual event triggers.
+ *
+ * Drivers are paged by id in chunks of {@code chunk-size}; each chunk is
+ * summarised with one grouped query, then split into embedding batches
+ * that at most {@code parallelism} workers embed and insert. The next chunk
+ * is only loaded once the current one is done, so heap use is bounded by
+ * one chunk of summaries.
  */
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class DriverMemoryScheduledJob {
 
-    private final DriverStatusRepository driverStatusRepository;
+    private final DriverSummaryRepository summaryRepository;
+    private final DriverSummaryService summaryService;
     private final DriverMemoryEmbeddingService embeddingService;
+    private final int chunkSize;
+    private final int parallelism;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong processedInRun = new AtomicLong();
+    private final Timer runDuration;
+    private final Counter stored;
+    private final Counter failed;
+    private final Counter skipped;
+
+    public DriverMemoryScheduledJob(
+            DriverSummaryRepository summaryRepository,
+            DriverSummaryService summaryService,
+            DriverMemoryEmbeddingService embeddingService,
+            MeterRegistry meterRegistry,
+            @Value("${driver.memory.aggregation.chunk-size:500}") int chunkSize,
+            @Value("${driver.memory.aggregation.parallelism:4}") int parallelism) {
+        this.summaryRepository = summaryRepository;
+        this.summaryService = summaryService;
+        this.embeddingService = embeddingService;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.parallelism = Math.max(1, parallelism);
+
+        this.runDuration = Timer.builder("driver.memory.aggregation.duration")
+                .register(meterRegistry);
+        this.stored = Counter.builder("driver.memory.aggregation.drivers")
+                .tag("result", "stored")
+                .register(meterRegistry);
+        this.failed = Counter.builder("driver.memory.aggregation.drivers")
+                .tag("result", "failed")
+                .register(meterRegistry);
+        this.skipped = Counter.builder("driver.memory.aggregation.drivers")
+                .tag("result", "skipped")
+                .register(meterRegistry);
+        meterRegistry.gauge("driver.memory.aggregation.progress", processedInRun, AtomicLong::get);
+    }
 
     /**
      * Runs every day at 2:00 AM IST.
@@ -35,38 +88,97 @@ public class DriverMemoryScheduledJob {
      */
     @Scheduled(cron = "0 0 2 * * *", zone = "Asia/Kolkata")
     public void dailyAggregation() {
-        log.info("Starting daily driver memory aggregation job...");
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Daily driver memory aggregation is still running, skipping this trigger");
+            return;
+        }
+        log.info("Starting daily driver memory aggregation job: chunk {}, parallelism {}", chunkSize, parallelism);
+        processedInRun.set(0);
 
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "driver-memory-aggregation-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
         try {
-            List<DriverStatus> allDrivers = driverStatusRepository.findAll();
-            List<UUID> driverIds = allDrivers.stream()
-                    .map(DriverStatus::getDriverId)
-                    .collect(Collectors.toList());
-
-            log.info("Found {} drivers for daily aggregation", driverIds.size());
-
-            int successCount = 0;
-            int errorCount = 0;
-
-            for (UUID driverId : driverIds) {
-                try {
-                    DriverPerformanceEvent event = DriverPerformanceEvent.builder()
-                            .driverId(driverId)
-                            .triggerType(DriverPerformanceEvent.TriggerType.DAILY_AGGREGATION)
-                            .build();
-
-                    embeddingService.processPerformanceEvent(event);
-                    successCount++;
-                } catch (Exception e) {
-                    log.error("Failed daily aggregation for driver: {}", driverId, e);
-                    errorCount++;
-                }
+            runDuration.record(() -> processAllChunks(workers));
+            log.info("Daily aggregation completed. Drivers processed: {}", processedInRun.get());
+        } catch (Exception e) {
+            log.error("Daily driver memory aggregation job failed", e);
+        } finally {
+            workers.shutdownNow();
+            running.set(false);
+        }
+    }
+
+    private void processAllChunks(ExecutorService workers) {
+        UUID after = null;
+        int chunks = 0;
+        while (true) {
+            List<UUID> driverIds = summaryRepository.findDriverIdsAfter(after, chunkSize);
+            if (driverIds.isEmpty()) {
+                return;
             }
+            after = driverIds.get(driverIds.size() - 1);
+            processChunk(driverIds, workers);
+            chunks++;
+            log.info("Daily aggregation progress: {} chunks, {} drivers", chunks, processedInRun.get());
+        }
+    }
 
-            log.info("Daily aggregation completed. Success: {}, Errors: {}", successCount, errorCount);
+    private void processChunk(List<UUID> driverIds, ExecutorService workers) {
+        Map<UUID, String> summaries = summaryService.generateSummaries(driverIds);
 
-        } catch (Exception e) {
-            log.error("Daily driver memory aggregation job failed", e);
+        // Group the chunk into embedding batches; each worker embeds and
+        // inserts one batch at a time.
+        int batchSize = embeddingService.batchSize();
+        List<Map<UUID, String>> batches = new ArrayList<>();
+        Map<UUID, String> batch = new LinkedHashMap<>();
+        for (UUID driverId : driverIds) {
+            String summary = summaries.get(driverId);
+            if (summary == null || summary.isBlank()) {
+                skipped.increment();
+                processedInRun.incrementAndGet();
+                continue;
+            }
+            batch.put(driverId, summary);
+            if (batch.size() == batchSize) {
+                batches.add(batch);
+                batch = new LinkedHashMap<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+
+        List<Callable<Integer>> tasks = new ArrayList<>(batches.size());
+        for (Map<UUID, String> slice : batches) {
+            tasks.add(() -> embeddingService.createMemories(slice));
+        }
+
+        List<Future<Integer>> results;
+        try {
+            results = workers.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Daily aggregation interrupted", e);
+        }
+
+        for (int i = 0; i < results.size(); i++) {
+            int size = batches.get(i).size();
+            int storedCount;
+            try {
+                storedCount = results.get(i).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Daily aggregation interrupted", e);
+            } catch (ExecutionException e) {
+                storedCount = 0;
+            }
+            stored.increment(storedCount);
+            failed.increment(size - storedCount);
+            processedInRun.addAndGet(size);
         }
     }
 }
@@ -11,11 +11,15 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.swifttrack.DriverService.models.DriverVehicleDetails;
 import com.swifttrack.DriverService.dto.DriverPerformanceEvent;
 import com.swifttrack.DriverService.dto.RegisterDriver;
 import com.swifttrack.DriverService.dto.UpdateOrderStatusrequest;
+import com.swifttrack.DriverService.enums.DriverStatsCounter;
 import com.swifttrack.DriverService.models.DriverLocationLive;
 import com.swifttrack.DriverService.models.DriverOrderAssignment;
 import com.swifttrack.DriverService.models.DriverOrderCancellation;
@@ -82,6 +86,13 @@ public class DriverService {
     @Autowired
     private org.springframework.data.redis.core.RedisTemplate<String, Object> redisTemplate;
 
+    /**
+     * For methods that call other services: only their database writes run in
+     * a transaction, so no pooled connection is held across HTTP or Kafka calls.
+     */
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @Transactional
     public Message createDriverProfile(String token, AddTenantDriver entity) {
         TokenResponse response = authInterface.getUserDetails(token).getBody();
@@ -100,34 +111,28 @@ public class DriverService {
                 .orElseThrow(() -> new RuntimeException("Driver profile not found"));
     }
 
-    @Transactional
-    public void updateDriverLocation(UUID driverId, BigDecimal lat, BigDecimal lng) {
-        // Update Live Location Table (HOT)
-        DriverLocationLive location = driverLocationLiveRepository.findById(driverId)
-                .orElse(new DriverLocationLive());
-        driverEventUtil.addDriverPreviousLocation(driverId, location.getTenantId(), location.getLatitude(),
-                location.getLongitude());
-        if (location.getDriverId() == null) {
-            DriverVehicleDetails details = getDriverProfile(driverId);
-            location.setDriverId(driverId);
-            location.setTenantId(details.getTenantId());
-        }
-
-        location.setLatitude(lat);
-        location.setLongitude(lng);
-        // updatedAt is handled by PreUpdate or manually
-        location.setUpdatedAt(LocalDateTime.now());
-
-        driverLocationLiveRepository.save(location);
+    /**
+     * Hands the position to the write-behind buffer, which batches the
+     * driver_location_live upsert, driver_status.last_seen_at and the history
+     * insert instead of doing findById/save round trips per ping.
+     */
+    public void updateDriverLocation(UUID driverId, UUID tenantId, BigDecimal lat, BigDecimal lng) {
+        updateDriverLocation(driverId, tenantId, lat, lng, null);
+    }
 
-        // Update Driver Status Last Seen
-        DriverStatus status = driverStatusRepository.findById(driverId)
-                .orElseThrow(() -> new RuntimeException("Driver Status not found"));
-        status.setLastSeenAt(LocalDateTime.now());
-        driverStatusRepository.save(status);
-        // Log Login Event
-        driverEventUtil.logEvent(driverId, status.getTenantId(),
-                com.swifttrack.enums.DriverEventType.LOCATION_UPDATE, "Driver location updated via UpdateStatus");
+    /**
+     * Same as {@link #updateDriverLocation(UUID, UUID, BigDecimal, BigDecimal)}
+     * for a position taken at {@code recordedAt}; {@code null} means now.
+     */
+    public void updateDriverLocation(UUID driverId, UUID tenantId, BigDecimal lat, BigDecimal lng,
+            LocalDateTime recordedAt) {
+        boolean keptForHistory = driverLocationWriteBehindService.record(driverId, lat.doubleValue(),
+                lng.doubleValue(), recordedAt);
+        if (keptForHistory) {
+            // Pings the history filter drops are not worth an event either.
+            driverEventUtil.logEvent(driverId, tenantId,
+                    com.swifttrack.enums.DriverEventType.LOCATION_UPDATE, "Driver location updated via UpdateStatus");
+        }
     }
 
     @Autowired
@@ -136,6 +141,32 @@ public class DriverService {
     @Autowired
     private com.swifttrack.DriverService.utils.KafkaProducerUtil kafkaProducerUtil;
 
+    @Autowired
+    private DriverLocationWriteBehindService driverLocationWriteBehindService;
+
+    @Autowired
+    private DriverSpatialIndexService driverSpatialIndexService;
+
+    @Autowired
+    private DriverStatsService driverStatsService;
+
+    /**
+     * Runs an index update once the surrounding transaction has committed, so
+     * a rolled-back status change never leaks into dispatch.
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
     @Transactional
     public void toggleOnlineStatus(UUID driverId, boolean isOnline) {
         DriverStatus driverStatus = driverStatusRepository.findById(driverId)
@@ -152,6 +183,7 @@ public class DriverService {
         }
         driverStatus.setLastSeenAt(LocalDateTime.now());
         driverStatusRepository.save(driverStatus);
+        afterCommit(() -> driverSpatialIndexService.markOnline(driverId, driverStatus.getTenantId(), isOnline));
     }
 
     @Transactional
@@ -179,6 +211,8 @@ public class DriverService {
         driverStatus.setStatus(request.status());
         driverStatus.setLastSeenAt(LocalDateTime.now());
         driverStatusRepository.save(driverStatus);
+        boolean online = request.status() == DriverOnlineStatus.ONLINE;
+        afterCommit(() -> driverSpatialIndexService.markOnline(driverId, driverStatus.getTenantId(), online));
 
         // Log event
         com.swifttrack.enums.DriverEventType eventType = null;
@@ -211,7 +245,11 @@ public class DriverService {
             driverStatus.setStatus(DriverOnlineStatus.ONLINE);
             driverStatus.setLastSeenAt(LocalDateTime.now());
             driverStatusRepository.save(driverStatus);
+            afterCommit(() -> driverSpatialIndexService.markOnline(assignment.getDriverId(),
+                    assignment.getTenantId(), true));
         }
+        afterCommit(() -> driverSpatialIndexService.markAssigned(assignment.getDriverId(),
+                assignment.getTenantId(), false));
 
         DriverOrderCancellation cancellation = new DriverOrderCancellation();
         cancellation.setDriverId(assignment.getDriverId());
@@ -220,6 +258,8 @@ public class DriverService {
         cancellation.setReason(reason != null && !reason.isBlank() ? reason : "Cancelled by user");
         driverOrderCancellationRepository.save(cancellation);
 
+        driverStatsService.record(assignment.getDriverId(), DriverStatsCounter.CANCELLED);
+
         driverEventUtil.logEvent(assignment.getDriverId(), assignment.getTenantId(),
                 com.swifttrack.enums.DriverEventType.ORDER_CANCELLED, "Order cancelled by user");
         driverAssignmentRepository.delete(assignment);
@@ -258,7 +298,10 @@ public class DriverService {
         assignment.setTenantId(driverStatus.getTenantId());
         assignment.setStatus(DriverAssignmentStatus.ASSIGNED);
 
-        return driverAssignmentRepository.save(assignment);
+        DriverOrderAssignment saved = driverAssignmentRepository.save(assignment);
+        driverStatsService.record(driverId, DriverStatsCounter.ASSIGNED);
+        afterCommit(() -> driverSpatialIndexService.markAssigned(driverId, driverStatus.getTenantId(), true));
+        return saved;
     }
 
     @Transactional
@@ -285,9 +328,12 @@ public class DriverService {
 
             driverStatus.setStatus(DriverOnlineStatus.ON_TRIP);
             driverStatusRepository.save(driverStatus);
+            afterCommit(() -> driverSpatialIndexService.markOnline(assignment.getDriverId(),
+                    assignment.getTenantId(), false));
             driverEventUtil.logEvent(assignment.getDriverId(), assignment.getTenantId(),
                     com.swifttrack.enums.DriverEventType.ORDER_ACCEPTED, "Order accepted by driver");
             driverAssignmentRepository.save(assignment);
+            driverStatsService.record(assignment.getDriverId(), DriverStatsCounter.ACCEPTED);
 
             // Fetch Driver Details from Auth Service
             TokenResponse userDetails = authInterface.getUserDetails(token).getBody();
@@ -311,6 +357,10 @@ public class DriverService {
         } else {
             driverStatus.setStatus(DriverOnlineStatus.ONLINE);
             driverStatusRepository.save(driverStatus);
+            afterCommit(() -> {
+                driverSpatialIndexService.markOnline(assignment.getDriverId(), assignment.getTenantId(), true);
+                driverSpatialIndexService.markAssigned(assignment.getDriverId(), assignment.getTenantId(), false);
+            });
             assignment.setStatus(DriverAssignmentStatus.REJECTED);
             DriverOrderCancellation cancellation = new DriverOrderCancellation();
             cancellation.setDriverId(assignment.getDriverId());
@@ -318,6 +368,7 @@ public class DriverService {
             cancellation.setTenantId(assignment.getTenantId());
             cancellation.setReason(reason);
             driverOrderCancellationRepository.save(cancellation);
+            driverStatsService.record(assignment.getDriverId(), DriverStatsCounter.REJECTED);
             driverEventUtil.logEvent(assignment.getDriverId(), assignment.getTenantId(),
                     com.swifttrack.enums.DriverEventType.ORDER_CANCELLED, "Order rejected by driver");
             driverAssignmentRepository.delete(assignment);
@@ -399,8 +450,15 @@ public class DriverService {
     }
 
     public DriverLocationLive getDriverLocation(UUID driverId) {
-        return driverLocationLiveRepository.findById(driverId)
+        DriverLocationLive location = driverLocationLiveRepository.findById(driverId)
                 .orElseThrow(() -> new RuntimeException("Driver location not found"));
+        // Overlay a position that is still waiting in the write-behind buffer.
+        driverLocationWriteBehindService.pending(driverId).ifPresent(sample -> {
+            location.setLatitude(BigDecimal.valueOf(sample.latitude()));
+            location.setLongitude(BigDecimal.valueOf(sample.longitude()));
+            location.setUpdatedAt(sample.recordedAt());
+        });
+        return location;
     }
 
     public boolean isDriverAvailable(UUID driverId) {
@@ -458,8 +516,7 @@ public class DriverService {
             System.out.println("Fetching OrderStatus from Redis Cache: " + cacheKey);
         }
         TokenResponse userDetails = authInterface.getUserDetails(token).getBody();
-        DriverLocationLive driverLocationLive = driverLocationLiveRepository.findById(userDetails.id())
-                .orElseThrow(() -> new RuntimeException("Driver location not found"));
+        DriverLocationLive driverLocationLive = getDriverLocation(userDetails.id());
         if (orderStatus.equals("PICKED_UP") && request.status() != TrackingStatus.IN_TRANSIT) {
             throw new RuntimeException("Invalid status transition, order is not picked up");
         } else if (orderStatus.equals("IN_TRANSIT") && request.status() != TrackingStatus.OUT_FOR_DELIVERY) {
@@ -468,14 +525,23 @@ public class DriverService {
             throw new RuntimeException("Invalid status transition, order is not out for delivery");
         }
         if (request.status() == TrackingStatus.DELIVERED) {
-            DriverStatus driverStatus = driverStatusRepository.findById(userDetails.id())
-                    .orElseThrow(() -> new RuntimeException("Driver Status not found"));
-            driverStatus.setStatus(DriverOnlineStatus.ONLINE);
-            driverStatusRepository.save(driverStatus);
-            DriverOrderAssignment driverOrderAssignment = driverAssignmentRepository.findByOrderId(request.orderId())
-                    .orElseThrow(() -> new RuntimeException("Driver Order Assignment not found"));
-            driverOrderAssignment.setStatus(DriverAssignmentStatus.COMPLETED);
-            driverAssignmentRepository.save(driverOrderAssignment);
+            transactionTemplate.executeWithoutResult(transaction -> {
+                DriverStatus driverStatus = driverStatusRepository.findById(userDetails.id())
+                        .orElseThrow(() -> new RuntimeException("Driver Status not found"));
+                driverStatus.setStatus(DriverOnlineStatus.ONLINE);
+                driverStatusRepository.save(driverStatus);
+                DriverOrderAssignment driverOrderAssignment = driverAssignmentRepository
+                        .findByOrderId(request.orderId())
+                        .orElseThrow(() -> new RuntimeException("Driver Order Assignment not found"));
+                driverOrderAssignment.setStatus(DriverAssignmentStatus.COMPLETED);
+                driverAssignmentRepository.save(driverOrderAssignment);
+                driverStatsService.record(userDetails.id(), DriverStatsCounter.COMPLETED);
+                afterCommit(() -> {
+                    driverSpatialIndexService.markOnline(userDetails.id(), driverOrderAssignment.getTenantId(), true);
+                    driverSpatialIndexService.markAssigned(userDetails.id(), driverOrderAssignment.getTenantId(),
+                            false);
+                });
+            });
 
             // Emit performance event for memory embedding (async, non-blocking)
             kafkaProducerUtil.sendMessage("driver-performance",
@@ -503,16 +569,19 @@ public class DriverService {
         if (response == null) {
             throw new RuntimeException("Driver registration failed");
         }
-        DriverVehicleDetails driverVehicleDetails = new DriverVehicleDetails();
-        driverVehicleDetails.setDriverId(response.id());
-        driverVehicleDetails.setVehicleType(input.vehicleType());
-        driverVehicleDetails.setLicenseNumber(input.vehicleNumber());
-        driverVehicleDetails.setDriverLicensNumber(input.driverLicensNumber());
-        driverVehicleDetailsRepository.save(driverVehicleDetails);
-        DriverStatus driverStatus = new DriverStatus();
-        driverStatus.setDriverId(response.id());
-        driverStatus.setStatus(DriverOnlineStatus.OFFLINE);
-        driverStatusRepository.save(driverStatus);
+        transactionTemplate.executeWithoutResult(transaction -> {
+            DriverVehicleDetails driverVehicleDetails = new DriverVehicleDetails();
+            driverVehicleDetails.setDriverId(response.id());
+            driverVehicleDetails.setVehicleType(input.vehicleType());
+            driverVehicleDetails.setLicenseNumber(input.vehicleNumber());
+            driverVehicleDetails.setDriverLicensNumber(input.driverLicensNumber());
+            driverVehicleDetailsRepository.save(driverVehicleDetails);
+            DriverStatus driverStatus = new DriverStatus();
+            driverStatus.setDriverId(response.id());
+            driverStatus.setStatus(DriverOnlineStatus.OFFLINE);
+            driverStatusRepository.save(driverStatus);
+            afterCommit(() -> driverSpatialIndexService.markOnline(response.id(), null, false));
+        });
         return new Message("Driver registered successfully. Please wait for verification by admin, it may take some time.");
     }
 
@@ -1,87 +1,137 @@
 package com.swifttrack.DriverService.services;
 
-import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicReference;
 
 import jakarta.annotation.PostConstruct;
-import jakarta.annotation.PreDestroy;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.swifttrack.DriverService.enums.DriverType;
 import com.swifttrack.DriverService.models.DriverLocationLive;
+import com.swifttrack.DriverService.models.DriverOrderAssignment;
+import com.swifttrack.DriverService.models.DriverStatus;
 import com.swifttrack.DriverService.repositories.DriverLocationLiveRepository;
+import com.swifttrack.DriverService.repositories.DriverOrderAssignmentRepository;
+import com.swifttrack.DriverService.repositories.DriverStatusRepository;
 import com.swifttrack.DriverService.repositories.RedisGeoRepository;
 import com.swifttrack.DriverService.spatial.DriverDistance;
-import com.swifttrack.DriverService.spatial.DriverLocation;
-import com.swifttrack.DriverService.spatial.DriverNode;
-import com.swifttrack.DriverService.spatial.KDTree;
+import com.swifttrack.DriverService.spatial.GeoGridIndex;
+import com.swifttrack.enums.DriverAssignmentStatus;
+import com.swifttrack.enums.DriverOnlineStatus;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * Maintains per-category (platform / tenant:{tenantId}) driver registries and
- * KD-trees so that tenant isolation is enforced at the spatial-index level.
+ * Maintains per-category (platform / tenant:{tenantId}) grid indexes so that
+ * tenant isolation is enforced at the spatial-index level. Indexes are
+ * updated in place on every ping; there is no background rebuild.
+ * <p>
+ * Nearest-driver lookups go to Redis first with an expanding search radius:
+ * the first hop uses {@code initial-radius-km} and asks for k results plus a
+ * margin of at most k for flagged drivers that have a position in the
+ * category. If flagged drivers fill that limit, the next hop asks for more
+ * within the same radius, in proportion to the eligible share seen so far,
+ * up to {@code max-redis-candidates}; otherwise it grows the radius in
+ * proportion to how many drivers are still missing, up to
+ * {@code max-radius-km}. Because every hop is sorted and complete within its
+ * radius and limit, k results from any hop are the exact k nearest.
+ * <p>
+ * Drivers that are not ONLINE or hold an open assignment are flagged in the
+ * grid index, so grid KNN skips them and Redis candidates are filtered
+ * against the same flags. Flags are a local view kept in step with this
+ * instance's status changes; {@code assignOrder} still re-checks the DB.
  */
 @Service
 @Slf4j
 public class DriverSpatialIndexService {
 
+    private static final String PLATFORM_CATEGORY = "platform";
+    private static final String TENANT_CATEGORY_PREFIX = "tenant:";
+
+    private static final int FLAG_NOT_ONLINE = 1;
+    private static final int FLAG_ASSIGNED = 1 << 1;
+
     /**
-     * Outer key = categoryKey ("platform" or "tenant:{id}");
-     * Inner map = driverId → DriverLocation.
+     * Grid index for the "platform" category.
      */
-    private final ConcurrentHashMap<String, ConcurrentHashMap<String, DriverLocation>> driverRegistries = new ConcurrentHashMap<>();
+    private final GeoGridIndex platformIndex;
 
     /**
-     * One KD-tree reference per category key.
+     * One grid index per tenant, keyed by the raw tenantId so that a ping does
+     * not have to build a "tenant:{id}" key string.
      */
-    private final ConcurrentHashMap<String, AtomicReference<KDTree>> kdTreeRefs = new ConcurrentHashMap<>();
-
-    private final AtomicBoolean rebuildRequired = new AtomicBoolean(false);
-    private final ScheduledExecutorService rebuildScheduler;
+    private final ConcurrentHashMap<String, GeoGridIndex> tenantIndexes = new ConcurrentHashMap<>();
 
     private final RedisGeoRepository redisGeoRepository;
     private final DriverLocationLiveRepository driverLocationLiveRepository;
-    private final double searchRadiusKm;
+    private final DriverStatusRepository driverStatusRepository;
+    private final DriverOrderAssignmentRepository driverOrderAssignmentRepository;
+    private final double initialRadiusKm;
+    private final double maxRadiusKm;
+    private final double minGrowthFactor;
+    private final int maxHops;
     private final int maxRedisCandidates;
-    private final long effectiveRebuildIntervalMs;
+    private final double gridCellSizeDeg;
+    private final double gridMaxSearchKm;
+
+    private final DistributionSummary searchHops;
+    private final Counter searchSatisfied;
+    private final Counter searchExhausted;
+    private final Counter searchGridFallback;
 
     public DriverSpatialIndexService(
             RedisGeoRepository redisGeoRepository,
             DriverLocationLiveRepository driverLocationLiveRepository,
-            @Value("${dispatch.search.radius-km:5}") double searchRadiusKm,
+            DriverStatusRepository driverStatusRepository,
+            DriverOrderAssignmentRepository driverOrderAssignmentRepository,
+            MeterRegistry meterRegistry,
+            @Value("${dispatch.search.initial-radius-km:1}") double initialRadiusKm,
+            @Value("${dispatch.search.max-radius-km:${dispatch.search.radius-km:5}}") double maxRadiusKm,
+            @Value("${dispatch.search.min-growth-factor:2}") double minGrowthFactor,
+            @Value("${dispatch.search.max-hops:4}") int maxHops,
             @Value("${dispatch.search.max-redis-candidates:200}") int maxRedisCandidates,
-            @Value("${dispatch.kdtree.rebuild-interval-ms:2000}") long rebuildIntervalMs) {
+            @Value("${dispatch.grid.cell-size-deg:0.01}") double gridCellSizeDeg,
+            @Value("${dispatch.grid.max-search-km:50}") double gridMaxSearchKm) {
         this.redisGeoRepository = redisGeoRepository;
         this.driverLocationLiveRepository = driverLocationLiveRepository;
-        this.searchRadiusKm = searchRadiusKm;
+        this.driverStatusRepository = driverStatusRepository;
+        this.driverOrderAssignmentRepository = driverOrderAssignmentRepository;
+        this.maxRadiusKm = maxRadiusKm;
+        this.initialRadiusKm = Math.min(initialRadiusKm, maxRadiusKm);
+        this.minGrowthFactor = Math.max(1.1d, minGrowthFactor);
+        this.maxHops = Math.max(1, maxHops);
         this.maxRedisCandidates = maxRedisCandidates;
-        this.effectiveRebuildIntervalMs = rebuildIntervalMs <= 0 ? 2000L : Math.max(200L, rebuildIntervalMs);
-        this.rebuildScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
-            @Override
-            public Thread newThread(Runnable runnable) {
-                Thread thread = new Thread(runnable, "driver-kdtree-rebuild");
-                thread.setDaemon(true);
-                return thread;
-            }
-        });
+        this.gridCellSizeDeg = gridCellSizeDeg;
+        this.gridMaxSearchKm = gridMaxSearchKm;
+        this.platformIndex = new GeoGridIndex(gridCellSizeDeg, gridMaxSearchKm);
+
+        this.searchHops = DistributionSummary.builder("driver.dispatch.search.hops")
+                .description("Redis GEOSEARCH round trips per nearest-driver lookup")
+                .register(meterRegistry);
+        this.searchSatisfied = Counter.builder("driver.dispatch.search")
+                .tag("result", "satisfied")
+                .register(meterRegistry);
+        this.searchExhausted = Counter.builder("driver.dispatch.search")
+                .tag("result", "max_radius")
+                .register(meterRegistry);
+        this.searchGridFallback = Counter.builder("driver.dispatch.search")
+                .tag("result", "grid_fallback")
+                .register(meterRegistry);
     }
 
     @PostConstruct
-    public void startRebuildScheduler() {
+    public void loadFromDatabase() {
         try {
             List<DriverLocationLive> liveLocations = driverLocationLiveRepository.findAll();
+            int loaded = 0;
             for (DriverLocationLive loc : liveLocations) {
                 if (loc.getLatitude() != null && loc.getLongitude() != null) {
                     // Determine driver type based on tenantId presence
@@ -90,46 +140,92 @@ public class DriverSpatialIndexService {
                             : DriverType.PLATFORM_DRIVER;
                     String tenantId = loc.getTenantId() != null ? loc.getTenantId().toString() : null;
 
-                    DriverLocation location = new DriverLocation(
+                    updateDriverLocation(
                             loc.getDriverId().toString(),
                             loc.getLatitude().doubleValue(),
                             loc.getLongitude().doubleValue(),
                             tenantId,
                             driverType);
-
-                    String categoryKey = location.categoryKey();
-                    driverRegistries
-                            .computeIfAbsent(categoryKey, k -> new ConcurrentHashMap<>())
-                            .put(loc.getDriverId().toString(), location);
+                    loaded++;
                 }
             }
-            rebuildRequired.set(true);
-            rebuildAllTrees();
-            log.info("Initialized KD-trees: {} categories, total drivers loaded from database",
-                    driverRegistries.size());
+            log.info("Initialized grid indexes: {} categories, {} drivers loaded from database",
+                    tenantIndexes.size() + 1, loaded);
         } catch (Exception e) {
-            log.warn("Failed to initialize driver KD-trees from db: {}", e.getMessage());
+            log.warn("Failed to initialize driver grid indexes from db: {}", e.getMessage());
         }
+        loadAvailabilityFromDatabase();
+    }
 
-        this.rebuildScheduler.scheduleWithFixedDelay(
-                this::safeRebuildAllTrees,
-                this.effectiveRebuildIntervalMs,
-                this.effectiveRebuildIntervalMs,
-                TimeUnit.MILLISECONDS);
-        log.info("Started KD-tree rebuild scheduler with interval {} ms", this.effectiveRebuildIntervalMs);
+    private void loadAvailabilityFromDatabase() {
+        try {
+            int excluded = 0;
+            for (DriverStatus status : driverStatusRepository.findAll()) {
+                if (status.getStatus() != DriverOnlineStatus.ONLINE) {
+                    markOnline(status.getDriverId(), status.getTenantId(), false);
+                    excluded++;
+                }
+            }
+            for (DriverOrderAssignment assignment : driverOrderAssignmentRepository.findByStatusIn(
+                    EnumSet.of(DriverAssignmentStatus.ASSIGNED, DriverAssignmentStatus.ACCEPTED))) {
+                markAssigned(assignment.getDriverId(), assignment.getTenantId(), true);
+                excluded++;
+            }
+            log.info("Loaded driver availability: {} exclusions", excluded);
+        } catch (Exception e) {
+            log.warn("Failed to load driver availability from db: {}", e.getMessage());
+        }
     }
 
     // ─── Location update ──────────────────────────────────────────────
 
     public void updateDriverLocation(String driverId, double latitude, double longitude,
             String tenantId, DriverType driverType) {
-        DriverLocation location = new DriverLocation(driverId, latitude, longitude, tenantId, driverType);
-        String categoryKey = location.categoryKey();
+        GeoGridIndex index = driverType == DriverType.PLATFORM_DRIVER
+                ? platformIndex
+                : tenantIndexes.computeIfAbsent(String.valueOf(tenantId),
+                        k -> new GeoGridIndex(gridCellSizeDeg, gridMaxSearchKm));
+        index.update(driverId, latitude, longitude);
+    }
 
-        driverRegistries
-                .computeIfAbsent(categoryKey, k -> new ConcurrentHashMap<>())
-                .put(driverId, location);
-        rebuildRequired.set(true);
+    // ─── Availability ─────────────────────────────────────────────────
+
+    /**
+     * Records whether the driver's status is ONLINE.
+     */
+    public void markOnline(UUID driverId, UUID tenantId, boolean online) {
+        setFlag(driverId, tenantId, FLAG_NOT_ONLINE, !online);
+    }
+
+    /**
+     * Records whether the driver holds an ASSIGNED or ACCEPTED order.
+     */
+    public void markAssigned(UUID driverId, UUID tenantId, boolean assigned) {
+        setFlag(driverId, tenantId, FLAG_ASSIGNED, assigned);
+    }
+
+    private void setFlag(UUID driverId, UUID tenantId, int flag, boolean set) {
+        if (driverId == null) {
+            return;
+        }
+        String id = driverId.toString();
+        homeIndex(id, tenantId).setFlags(id, flag, set);
+    }
+
+    /**
+     * The index a driver's pings land in. Status changes do not carry the
+     * driver type, so an index that already knows the driver wins; otherwise
+     * the tenant rule from {@link #loadFromDatabase} applies.
+     */
+    private GeoGridIndex homeIndex(String driverId, UUID tenantId) {
+        if (platformIndex.contains(driverId)) {
+            return platformIndex;
+        }
+        if (tenantId == null) {
+            return platformIndex;
+        }
+        return tenantIndexes.computeIfAbsent(tenantId.toString(),
+                k -> new GeoGridIndex(gridCellSizeDeg, gridMaxSearchKm));
     }
 
     // ─── Nearest-driver search ────────────────────────────────────────
@@ -160,77 +256,97 @@ public class DriverSpatialIndexService {
             return Collections.emptyList();
         }
 
-        // Query the category-specific Redis GEO set
-        List<DriverDistance> candidates = redisGeoRepository.findNearbyDriverDistances(
-                pickupLon, pickupLat, searchRadiusKm, maxRedisCandidates, categoryKey);
-        log.debug("Redis candidates for '{}': {}", categoryKey, candidates.size());
+        GeoGridIndex index = indexForCategory(categoryKey);
+        // Small margin for flagged drivers that can show up in Redis; widened below only on shortfall.
+        int margin = index != null ? Math.min(k, index.positionedExcludedCount()) : 0;
+        int limit = (int) Math.min(maxRedisCandidates, (long) k + margin);
+        List<DriverDistance> candidates = Collections.emptyList();
+        double radiusKm = initialRadiusKm;
+        int hops = 0;
+        while (true) {
+            List<DriverDistance> found = redisGeoRepository.findNearbyDriverDistances(
+                    pickupLon, pickupLat, radiusKm, limit, categoryKey);
+            hops++;
+            candidates = index != null ? index.retainEligible(found) : found;
+            if (candidates.size() >= k || hops >= maxHops) {
+                break;
+            }
+            if (found.size() >= limit) {
+                // Flagged drivers filled the limit: the radius holds more, ask for more of it.
+                if (limit >= maxRedisCandidates) {
+                    break;
+                }
+                limit = nextLimit(limit, found.size(), candidates.size(), k);
+            } else {
+                if (radiusKm >= maxRadiusKm) {
+                    break;
+                }
+                radiusKm = nextRadius(radiusKm, candidates.size(), k);
+                if (hops == maxHops - 1) {
+                    // Last allowed hop always covers the full radius.
+                    radiusKm = maxRadiusKm;
+                }
+            }
+        }
+        searchHops.record(hops);
+        log.debug("Redis candidates for '{}': {} after {} hops (radius {} km)",
+                categoryKey, candidates.size(), hops, radiusKm);
 
         if (candidates.isEmpty()) {
-            // Fallback to category-specific KD-tree
-            KDTree tree = getTreeForCategory(categoryKey);
-            return tree.findKNearest(pickupLat, pickupLon, k);
+            // Fallback to category-specific grid index
+            searchGridFallback.increment();
+            return index != null ? index.findKNearest(pickupLat, pickupLon, k) : Collections.emptyList();
         }
 
-        if (candidates.size() <= k) {
-            return candidates;
+        if (candidates.size() >= k) {
+            searchSatisfied.increment();
+            return candidates.size() == k ? candidates : candidates.subList(0, k);
         }
-
-        return candidates.subList(0, k);
+        searchExhausted.increment();
+        return candidates;
     }
 
-    // ─── Tree rebuild ─────────────────────────────────────────────────
-
-    public void rebuildAllTrees() {
-        if (!rebuildRequired.getAndSet(false)) {
-            return;
-        }
-
-        for (Map.Entry<String, ConcurrentHashMap<String, DriverLocation>> entry : driverRegistries.entrySet()) {
-            String categoryKey = entry.getKey();
-            ConcurrentHashMap<String, DriverLocation> registry = entry.getValue();
-
-            List<DriverNode> snapshot = new ArrayList<>(registry.size());
-            for (DriverLocation location : registry.values()) {
-                snapshot.add(new DriverNode(
-                        location.driverId(),
-                        location.latitude(),
-                        location.longitude(),
-                        location.tenantId(),
-                        location.driverType()));
-            }
-
-            KDTree rebuilt = KDTree.build(snapshot);
-            kdTreeRefs
-                    .computeIfAbsent(categoryKey, k -> new AtomicReference<>(KDTree.empty()))
-                    .set(rebuilt);
-
-            log.debug("Rebuilt KD-tree for '{}' with {} drivers", categoryKey, rebuilt.size());
-        }
+    /**
+     * Picks the next search radius. With n of k drivers found in radius r and
+     * roughly uniform density, k drivers need an area k/n times larger, i.e.
+     * a radius of r * sqrt(k/n). The result is never less than r times the
+     * minimum growth factor and never more than the max radius.
+     */
+    private double nextRadius(double radiusKm, int found, int wanted) {
+        double growth = found == 0
+                ? minGrowthFactor * minGrowthFactor
+                : Math.max(minGrowthFactor, Math.sqrt((double) wanted / found) * 1.1d);
+        return Math.min(maxRadiusKm, radiusKm * growth);
     }
 
-    private void safeRebuildAllTrees() {
-        try {
-            rebuildAllTrees();
-        } catch (Exception exception) {
-            log.error("KD-tree rebuild failed", exception);
-        }
+    /**
+     * Picks the next Redis result limit after {@code eligible} of
+     * {@code found} results survived filtering: enough that the same eligible
+     * share yields k, never less than one more than before and never more
+     * than the candidate cap.
+     */
+    private int nextLimit(int limit, int found, int eligible, int wanted) {
+        long next = eligible == 0
+                ? 2L * limit
+                : (long) Math.ceil((double) found * wanted / eligible * 1.1d);
+        return (int) Math.min(maxRedisCandidates, Math.max(limit + 1L, next));
     }
 
     // ─── Helpers ──────────────────────────────────────────────────────
 
-    private KDTree getTreeForCategory(String categoryKey) {
-        AtomicReference<KDTree> ref = kdTreeRefs.get(categoryKey);
-        return ref != null ? ref.get() : KDTree.empty();
+    private GeoGridIndex indexForCategory(String categoryKey) {
+        if (PLATFORM_CATEGORY.equals(categoryKey)) {
+            return platformIndex;
+        }
+        if (categoryKey != null && categoryKey.startsWith(TENANT_CATEGORY_PREFIX)) {
+            return tenantIndexes.get(categoryKey.substring(TENANT_CATEGORY_PREFIX.length()));
+        }
+        return null;
     }
 
     private static String buildCategoryKey(String tenantId, DriverType driverType) {
         return driverType == DriverType.PLATFORM_DRIVER
-                ? "platform"
-                : "tenant:" + tenantId;
-    }
-
-    @PreDestroy
-    public void destroy() {
-        rebuildScheduler.shutdownNow();
+                ? PLATFORM_CATEGORY
+                : TENANT_CATEGORY_PREFIX + tenantId;
     }
 }
@@ -0,0 +1,58 @@
+package com.swifttrack.DriverService.services;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.swifttrack.DriverService.enums.DriverStatsCounter;
+import com.swifttrack.DriverService.repositories.DriverStatsRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Maintains the driver_stats rollup.
+ * <p>
+ * Each assignment transition bumps the driver's lifetime, 24h and 7d
+ * counters and the current hourly bucket, inside the caller's transaction.
+ * The window columns only ever grow on write, so a periodic roll re-derives
+ * them from the buckets to expire old hours; between rolls they may
+ * over-count by at most one roll interval.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class DriverStatsService {
+
+    private static final int DAY_BUCKETS = 24;
+    private static final int WEEK_BUCKETS = 7 * 24;
+
+    private final DriverStatsRepository statsRepository;
+
+    public void record(UUID driverId, DriverStatsCounter counter) {
+        if (driverId == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        statsRepository.increment(driverId, counter, now.truncatedTo(ChronoUnit.HOURS), now);
+    }
+
+    @Scheduled(fixedDelayString = "${driver.stats.roll-interval-ms:300000}", initialDelayString = "${driver.stats.roll-interval-ms:300000}")
+    public void rollWindows() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime currentBucket = now.truncatedTo(ChronoUnit.HOURS);
+            LocalDateTime dayStart = currentBucket.minusHours(DAY_BUCKETS - 1);
+            LocalDateTime weekStart = currentBucket.minusHours(WEEK_BUCKETS - 1);
+
+            int rolled = statsRepository.rollWindows(dayStart, weekStart, now);
+            int purged = statsRepository.purgeBucketsBefore(weekStart);
+            log.debug("Rolled driver stats windows: {} drivers, {} expired buckets", rolled, purged);
+        } catch (Exception e) {
+            log.error("Driver stats window roll failed", e);
+        }
+    }
+}
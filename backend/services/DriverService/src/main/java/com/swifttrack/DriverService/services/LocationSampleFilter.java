@@ -0,0 +1,184 @@
+package com.swifttrack.DriverService.services;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.swifttrack.DriverService.dto.DriverLocationSample;
+import com.swifttrack.DriverService.spatial.KDTree;
+import com.swifttrack.DriverService.utils.DouglasPeucker;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Pre-persistence filter for driver_location_history.
+ * <p>
+ * A ping is dropped when it arrives sooner than {@code min-interval-ms} after
+ * the last accepted one, or when the driver has moved less than
+ * {@code min-distance-m}. A stationary driver still gets one point every
+ * {@code max-silence-ms}. Accepted points are collected in a per-driver window
+ * that is compressed with Douglas-Peucker before it is handed to the history
+ * writer, so straight stretches collapse to their end points.
+ */
+@Component
+public class LocationSampleFilter {
+
+    private static final class Track {
+        private DriverLocationSample lastAccepted;
+        private DriverLocationSample anchor;
+        private final List<DriverLocationSample> window = new ArrayList<>();
+        private LocalDateTime windowStartedAt;
+        private boolean retired;
+    }
+
+    private final ConcurrentHashMap<UUID, Track> tracks = new ConcurrentHashMap<>();
+
+    private final double minDistanceMeters;
+    private final long minIntervalMs;
+    private final long maxSilenceMs;
+    private final double toleranceMeters;
+    private final int windowPoints;
+    private final long windowMs;
+
+    private final Counter accepted;
+    private final Counter droppedTooFrequent;
+    private final Counter droppedStationary;
+    private final Counter droppedSimplified;
+
+    public LocationSampleFilter(
+            MeterRegistry meterRegistry,
+            @Value("${driver.location.filter.min-distance-m:20}") double minDistanceMeters,
+            @Value("${driver.location.filter.min-interval-ms:3000}") long minIntervalMs,
+            @Value("${driver.location.filter.max-silence-ms:300000}") long maxSilenceMs,
+            @Value("${driver.location.filter.simplify-tolerance-m:10}") double toleranceMeters,
+            @Value("${driver.location.filter.window-points:30}") int windowPoints,
+            @Value("${driver.location.filter.window-ms:60000}") long windowMs) {
+        this.minDistanceMeters = minDistanceMeters;
+        this.minIntervalMs = minIntervalMs;
+        this.maxSilenceMs = maxSilenceMs;
+        this.toleranceMeters = toleranceMeters;
+        this.windowPoints = Math.max(2, windowPoints);
+        this.windowMs = windowMs;
+
+        this.accepted = Counter.builder("driver.location.filter.points")
+                .tag("result", "accepted")
+                .register(meterRegistry);
+        this.droppedTooFrequent = Counter.builder("driver.location.filter.points")
+                .tag("result", "too_frequent")
+                .register(meterRegistry);
+        this.droppedStationary = Counter.builder("driver.location.filter.points")
+                .tag("result", "stationary")
+                .register(meterRegistry);
+        this.droppedSimplified = Counter.builder("driver.location.filter.points")
+                .tag("result", "simplified")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Decides whether a ping is worth keeping for history.
+     *
+     * @return {@code true} if the point was added to the driver's window
+     */
+    public boolean accept(DriverLocationSample sample) {
+        while (true) {
+            Track track = tracks.computeIfAbsent(sample.driverId(), id -> new Track());
+            synchronized (track) {
+                if (!track.retired) {
+                    return acceptInto(track, sample);
+                }
+            }
+            // Track was evicted between lookup and lock; retry with a fresh one.
+        }
+    }
+
+    private boolean acceptInto(Track track, DriverLocationSample sample) {
+        DriverLocationSample last = track.lastAccepted;
+        if (last != null) {
+            long elapsedMs = Duration.between(last.recordedAt(), sample.recordedAt()).toMillis();
+            if (elapsedMs < minIntervalMs) {
+                droppedTooFrequent.increment();
+                return false;
+            }
+            double movedMeters = KDTree.haversineKm(last.latitude(), last.longitude(),
+                    sample.latitude(), sample.longitude()) * 1000.0d;
+            if (movedMeters < minDistanceMeters && elapsedMs < maxSilenceMs) {
+                droppedStationary.increment();
+                return false;
+            }
+        }
+
+        track.lastAccepted = sample;
+        if (track.window.isEmpty()) {
+            track.windowStartedAt = sample.recordedAt();
+        }
+        track.window.add(sample);
+        accepted.increment();
+        return true;
+    }
+
+    /**
+     * Simplifies and emits every window that is full or older than
+     * {@code window-ms}; with {@code force} all windows are emitted.
+     */
+    public void drainTo(Consumer<DriverLocationSample> sink, boolean force) {
+        LocalDateTime now = LocalDateTime.now();
+        Iterator<Map.Entry<UUID, Track>> iterator = tracks.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<UUID, Track> entry = iterator.next();
+            Track track = entry.getValue();
+            List<DriverLocationSample> emitted;
+            synchronized (track) {
+                if (track.window.isEmpty()) {
+                    // Forget drivers that have been silent for longer than the heartbeat.
+                    if (track.lastAccepted == null
+                            || Duration.between(track.lastAccepted.recordedAt(), now).toMillis() > 2 * maxSilenceMs) {
+                        track.retired = true;
+                        tracks.remove(entry.getKey(), track);
+                    }
+                    continue;
+                }
+                boolean due = force
+                        || track.window.size() >= windowPoints
+                        || Duration.between(track.windowStartedAt, now).toMillis() >= windowMs;
+                if (!due) {
+                    continue;
+                }
+                emitted = simplifyWindow(track);
+            }
+            emitted.forEach(sink);
+        }
+    }
+
+    /**
+     * Runs Douglas-Peucker over anchor + window. The anchor is the last point
+     * emitted by the previous window, so consecutive windows join up and the
+     * anchor itself is not written twice.
+     */
+    private List<DriverLocationSample> simplifyWindow(Track track) {
+        List<DriverLocationSample> points = new ArrayList<>(track.window.size() + 1);
+        if (track.anchor != null) {
+            points.add(track.anchor);
+        }
+        points.addAll(track.window);
+
+        List<DriverLocationSample> simplified = DouglasPeucker.simplify(points, toleranceMeters);
+        if (track.anchor != null) {
+            simplified.remove(0);
+        }
+        droppedSimplified.increment(track.window.size() - simplified.size());
+
+        track.anchor = track.window.get(track.window.size() - 1);
+        track.window.clear();
+        return simplified;
+    }
+}
@@ -0,0 +1,265 @@
+package com.swifttrack.DriverService.services;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.geo.Point;
+import org.springframework.stereotype.Service;
+
+import com.swifttrack.DriverService.repositories.RedisGeoRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Micro-batching stage in front of {@link RedisGeoRepository}.
+ * <p>
+ * Pings are coalesced per driver so only the newest position survives, then
+ * flushed every {@code flush-interval-ms} (or as soon as {@code max-batch-size}
+ * drivers are pending) as one pipelined round trip with a single GEOADD per
+ * category key. When {@code max-pending} drivers are already waiting, pings
+ * for drivers not yet in the buffer are dropped; the next ping from the same
+ * driver will carry a fresher position anyway.
+ * <p>
+ * Positions Redis GEO cannot store are rejected on enqueue. If a pipelined
+ * flush still fails, each category is retried on its own so one rejected
+ * GEOADD cannot hold back the others; a category's drivers are requeued at
+ * most {@code MAX_FLUSH_ATTEMPTS} times and then dropped.
+ */
+@Service
+@Slf4j
+public class RedisGeoBatchWriter {
+
+    static final int MAX_FLUSH_ATTEMPTS = 3;
+
+    private record PendingLocation(String categoryKey, double latitude, double longitude, int attempts) {
+
+        PendingLocation retried() {
+            return new PendingLocation(categoryKey, latitude, longitude, attempts + 1);
+        }
+    }
+
+    private final ConcurrentHashMap<String, PendingLocation> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushQueued = new AtomicBoolean(false);
+    private final ScheduledExecutorService flushScheduler;
+
+    private final RedisGeoRepository redisGeoRepository;
+    private final long flushIntervalMs;
+    private final int maxBatchSize;
+    private final int maxPending;
+
+    private final DistributionSummary batchSize;
+    private final Timer flushLatency;
+    private final Counter supersededUpdates;
+    private final Counter droppedUpdates;
+    private final Counter invalidUpdates;
+    private final Counter abandonedUpdates;
+    private final Counter failedFlushes;
+
+    public RedisGeoBatchWriter(
+            RedisGeoRepository redisGeoRepository,
+            MeterRegistry meterRegistry,
+            @Value("${dispatch.redis.batch.flush-interval-ms:5}") long flushIntervalMs,
+            @Value("${dispatch.redis.batch.max-batch-size:500}") int maxBatchSize,
+            @Value("${dispatch.redis.batch.max-pending:50000}") int maxPending) {
+        this.redisGeoRepository = redisGeoRepository;
+        this.flushIntervalMs = Math.max(1L, flushIntervalMs);
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxPending = Math.max(this.maxBatchSize, maxPending);
+        this.flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "driver-geo-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.batchSize = DistributionSummary.builder("driver.location.redis.batch.size")
+                .description("Drivers written per pipelined GEOADD flush")
+                .register(meterRegistry);
+        this.flushLatency = Timer.builder("driver.location.redis.flush.latency")
+                .description("Time spent writing one batch to Redis")
+                .register(meterRegistry);
+        this.supersededUpdates = Counter.builder("driver.location.redis.updates.superseded")
+                .description("Pings replaced by a newer ping from the same driver before flush")
+                .register(meterRegistry);
+        this.droppedUpdates = Counter.builder("driver.location.redis.updates.dropped")
+                .description("Pings rejected because the buffer was full")
+                .register(meterRegistry);
+        this.invalidUpdates = Counter.builder("driver.location.redis.updates.invalid")
+                .description("Pings rejected because Redis GEO cannot store the position")
+                .register(meterRegistry);
+        this.abandonedUpdates = Counter.builder("driver.location.redis.updates.abandoned")
+                .description("Pings dropped after repeated GEOADD failures for their category")
+                .register(meterRegistry);
+        this.failedFlushes = Counter.builder("driver.location.redis.flush.failures")
+                .register(meterRegistry);
+        meterRegistry.gauge("driver.location.redis.pending", pending, Map::size);
+    }
+
+    @PostConstruct
+    public void startFlushScheduler() {
+        flushScheduler.scheduleWithFixedDelay(this::safeFlush, flushIntervalMs, flushIntervalMs,
+                TimeUnit.MILLISECONDS);
+        log.info("Started Redis GEO batch writer: interval {} ms, batch {}, max pending {}",
+                flushIntervalMs, maxBatchSize, maxPending);
+    }
+
+    /**
+     * Queues a location for the next flush.
+     *
+     * @return {@code false} if the ping was dropped because the buffer is full or
+     *         the position cannot be stored in Redis GEO
+     */
+    public boolean enqueue(String driverId, double latitude, double longitude, String categoryKey) {
+        if (!RedisGeoRepository.isIndexable(latitude, longitude)) {
+            invalidUpdates.increment();
+            return false;
+        }
+        PendingLocation location = new PendingLocation(categoryKey, latitude, longitude, 0);
+        if (pending.size() >= maxPending) {
+            // Only coalesce into an existing entry; never grow past the bound.
+            if (pending.replace(driverId, location) == null) {
+                droppedUpdates.increment();
+                requestFlush();
+                return false;
+            }
+            supersededUpdates.increment();
+            return true;
+        }
+
+        if (pending.put(driverId, location) != null) {
+            supersededUpdates.increment();
+        }
+        if (pending.size() >= maxBatchSize) {
+            requestFlush();
+        }
+        return true;
+    }
+
+    // ─── Flush ────────────────────────────────────────────────────────
+
+    private void requestFlush() {
+        if (flushQueued.compareAndSet(false, true)) {
+            flushScheduler.execute(this::safeFlush);
+        }
+    }
+
+    private void safeFlush() {
+        flushQueued.set(false);
+        try {
+            while (flush() >= maxBatchSize) {
+                // Keep draining while full batches are waiting.
+            }
+        } catch (Exception exception) {
+            failedFlushes.increment();
+            log.error("Redis GEO batch flush failed", exception);
+        }
+    }
+
+    /**
+     * Drains up to {@code maxBatchSize} drivers and writes them to Redis.
+     *
+     * @return number of drivers drained, whether or not every write succeeded
+     */
+    int flush() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, Map<String, Point>> byCategory = new HashMap<>();
+        Map<String, PendingLocation> drained = new HashMap<>();
+        int written = 0;
+        Iterator<Map.Entry<String, PendingLocation>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext() && drained.size() < maxBatchSize) {
+            Map.Entry<String, PendingLocation> entry = iterator.next();
+            String driverId = entry.getKey();
+            PendingLocation location = entry.getValue();
+            if (!pending.remove(driverId, location)) {
+                // A newer ping arrived; it will go out with the next batch.
+                continue;
+            }
+            drained.put(driverId, location);
+            byCategory
+                    .computeIfAbsent(location.categoryKey(), k -> new HashMap<>())
+                    .put(driverId, new Point(location.longitude(), location.latitude()));
+        }
+
+        if (drained.isEmpty()) {
+            return 0;
+        }
+
+        long start = System.nanoTime();
+        try {
+            redisGeoRepository.updateDriverLocations(byCategory);
+            written = drained.size();
+        } catch (RuntimeException exception) {
+            failedFlushes.increment();
+            log.warn("Pipelined GEOADD of {} drivers failed, retrying per category: {}",
+                    drained.size(), exception.getMessage());
+            written = flushCategoriesSeparately(byCategory, drained);
+        } finally {
+            flushLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        batchSize.record(written);
+        return drained.size();
+    }
+
+    /**
+     * Writes each category on its own; drivers of a category Redis still rejects
+     * are requeued until {@link #MAX_FLUSH_ATTEMPTS}, then dropped.
+     *
+     * @return number of drivers written
+     */
+    private int flushCategoriesSeparately(Map<String, Map<String, Point>> byCategory,
+            Map<String, PendingLocation> drained) {
+        int written = 0;
+        for (Map.Entry<String, Map<String, Point>> category : byCategory.entrySet()) {
+            Map<String, Point> members = category.getValue();
+            try {
+                redisGeoRepository.updateDriverLocations(Map.of(category.getKey(), members));
+                written += members.size();
+            } catch (RuntimeException exception) {
+                log.warn("GEOADD of {} drivers to {} failed: {}", members.size(), category.getKey(),
+                        exception.getMessage());
+                for (String driverId : members.keySet()) {
+                    requeueOrAbandon(driverId, drained.get(driverId));
+                }
+            }
+        }
+        return written;
+    }
+
+    private void requeueOrAbandon(String driverId, PendingLocation location) {
+        if (location.attempts() + 1 >= MAX_FLUSH_ATTEMPTS) {
+            abandonedUpdates.increment();
+            return;
+        }
+        // A newer ping that arrived meanwhile wins and starts with a clean slate.
+        pending.putIfAbsent(driverId, location.retried());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        flushScheduler.shutdown();
+        try {
+            flushScheduler.awaitTermination(1, TimeUnit.SECONDS);
+            while (flush() > 0) {
+                // Drain whatever is left before the Redis connection goes away.
+            }
+        } catch (Exception exception) {
+            log.warn("Failed to flush pending driver locations on shutdown: {}", exception.getMessage());
+        }
+    }
+}
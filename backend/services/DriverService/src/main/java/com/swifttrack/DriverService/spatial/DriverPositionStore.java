@@ -0,0 +1,245 @@
+package com.swifttrack.DriverService.spatial;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Columnar driver position store keyed by a compact int slot.
+ * <p>
+ * Positions are packed as E7 fixed-point lat/lon (1e-7°, ~1 cm) into a single
+ * long per slot so a reader can never observe a latitude from one ping and a
+ * longitude from another. Driver ids map to slots through a primitive
+ * {@link UuidSlotMap}, so updating an already-known driver allocates nothing.
+ * Each slot also carries an int of exclusion flags; a slot with any flag set
+ * is skipped by queries.
+ * <p>
+ * Writes must be serialized by the caller; reads are lock-free. A released
+ * slot can be reused for another driver while a reader is looking at it, so
+ * readers use {@link #readPosition} to get an id and a position that belong
+ * together.
+ */
+public final class DriverPositionStore {
+
+    public static final int NO_SLOT = -1;
+    public static final long NO_CELL = Long.MIN_VALUE;
+    /**
+     * Position of a slot whose driver has not pinged yet; unpacks to -214°.
+     */
+    public static final long NO_POSITION = Long.MIN_VALUE;
+
+    private static final double E7 = 10_000_000.0d;
+
+    private final UuidSlotMap slotMap;
+
+    private volatile AtomicReferenceArray<String> driverIds;
+    private volatile AtomicLongArray positions;
+    private volatile AtomicIntegerArray flags;
+    private long[] cellKeys;
+
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int highWater;
+
+    public DriverPositionStore(int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        this.slotMap = new UuidSlotMap(capacity);
+        this.driverIds = new AtomicReferenceArray<>(capacity);
+        this.positions = new AtomicLongArray(capacity);
+        this.flags = new AtomicIntegerArray(capacity);
+        this.cellKeys = new long[capacity];
+    }
+
+    public int size() {
+        return slotMap.size();
+    }
+
+    // ─── Writer side (caller-serialized) ──────────────────────────────
+
+    /**
+     * Returns the slot of a known driver, or {@link #NO_SLOT}.
+     */
+    public int find(String driverId) {
+        return slotMap.get(mostSigBits(driverId), leastSigBits(driverId));
+    }
+
+    /**
+     * Returns the driver's slot, assigning a new one on first sight.
+     */
+    public int acquire(String driverId) {
+        long msb = mostSigBits(driverId);
+        long lsb = leastSigBits(driverId);
+        int slot = slotMap.get(msb, lsb);
+        if (slot != NO_SLOT) {
+            return slot;
+        }
+
+        slot = freeCount > 0 ? freeSlots[--freeCount] : nextSlot();
+        cellKeys[slot] = NO_CELL;
+        flags.set(slot, 0);
+        positions.set(slot, NO_POSITION);
+        driverIds.set(slot, driverId);
+        slotMap.put(msb, lsb, slot);
+        return slot;
+    }
+
+    public void release(String driverId, int slot) {
+        slotMap.remove(mostSigBits(driverId), leastSigBits(driverId));
+        driverIds.set(slot, null);
+        cellKeys[slot] = NO_CELL;
+        flags.set(slot, 0);
+        if (freeCount == freeSlots.length) {
+            int[] grown = new int[freeSlots.length << 1];
+            System.arraycopy(freeSlots, 0, grown, 0, freeCount);
+            freeSlots = grown;
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    public void setPosition(int slot, double latitude, double longitude) {
+        positions.set(slot, pack(latitude, longitude));
+    }
+
+    public long cellOf(int slot) {
+        return cellKeys[slot];
+    }
+
+    public void setCell(int slot, long cellKey) {
+        cellKeys[slot] = cellKey;
+    }
+
+    public void setFlags(int slot, int value) {
+        flags.set(slot, value);
+    }
+
+    // ─── Reader side (lock-free) ──────────────────────────────────────
+
+    /**
+     * Returns the driver currently holding the slot, or {@code null} if it is free.
+     */
+    public String driverId(int slot) {
+        return driverIds.get(slot);
+    }
+
+    /**
+     * Reads the slot's driver and position as one consistent pair.
+     * <p>
+     * The id is read before and after the position. The writer clears the
+     * position before publishing a new id, so an unchanged id proves the
+     * position belongs to that driver and not to one that held or reused the
+     * slot in between.
+     *
+     * @return the driver id, or {@code null} if the slot is free, has no
+     *         position yet or changed hands during the read; {@code position[0]}
+     *         holds the packed position
+     */
+    public String readPosition(int slot, long[] position) {
+        String driverId = driverIds.get(slot);
+        if (driverId == null) {
+            return null;
+        }
+        long packed = positions.get(slot);
+        if (packed == NO_POSITION || driverIds.get(slot) != driverId) {
+            return null;
+        }
+        position[0] = packed;
+        return driverId;
+    }
+
+    public long position(int slot) {
+        return positions.get(slot);
+    }
+
+    public int flags(int slot) {
+        return flags.get(slot);
+    }
+
+    public static double latitudeOf(long position) {
+        return (int) (position >> 32) / E7;
+    }
+
+    public static double longitudeOf(long position) {
+        return (int) position / E7;
+    }
+
+    // ─── Helpers ──────────────────────────────────────────────────────
+
+    private static long pack(double latitude, double longitude) {
+        long lat = Math.round(latitude * E7);
+        long lon = Math.round(longitude * E7);
+        return (lat << 32) | (lon & 0xffffffffL);
+    }
+
+    private int nextSlot() {
+        if (highWater == cellKeys.length) {
+            grow(cellKeys.length << 1);
+        }
+        return highWater++;
+    }
+
+    /**
+     * Copies every column into larger arrays and then publishes them; readers
+     * holding the old arrays at worst see one stale position.
+     */
+    private void grow(int capacity) {
+        AtomicReferenceArray<String> oldIds = driverIds;
+        AtomicReferenceArray<String> ids = new AtomicReferenceArray<>(capacity);
+        for (int i = 0; i < highWater; i++) {
+            ids.set(i, oldIds.get(i));
+        }
+
+        AtomicLongArray oldPositions = positions;
+        AtomicLongArray grownPositions = new AtomicLongArray(capacity);
+        for (int i = 0; i < highWater; i++) {
+            grownPositions.set(i, oldPositions.get(i));
+        }
+
+        AtomicIntegerArray oldFlags = flags;
+        AtomicIntegerArray grownFlags = new AtomicIntegerArray(capacity);
+        for (int i = 0; i < highWater; i++) {
+            grownFlags.set(i, oldFlags.get(i));
+        }
+
+        long[] cells = new long[capacity];
+        System.arraycopy(cellKeys, 0, cells, 0, highWater);
+
+        cellKeys = cells;
+        flags = grownFlags;
+        positions = grownPositions;
+        driverIds = ids;
+    }
+
+    /**
+     * Parses the high 64 bits of a canonical 36-char UUID without allocating.
+     */
+    static long mostSigBits(String uuid) {
+        requireCanonical(uuid);
+        long bits = parseHex(uuid, 0, 8, 0L);
+        bits = parseHex(uuid, 9, 13, bits);
+        return parseHex(uuid, 14, 18, bits);
+    }
+
+    static long leastSigBits(String uuid) {
+        requireCanonical(uuid);
+        long bits = parseHex(uuid, 19, 23, 0L);
+        return parseHex(uuid, 24, 36, bits);
+    }
+
+    private static void requireCanonical(String uuid) {
+        if (uuid == null || uuid.length() != 36 || uuid.charAt(8) != '-' || uuid.charAt(13) != '-'
+                || uuid.charAt(18) != '-' || uuid.charAt(23) != '-') {
+            throw new IllegalArgumentException("Driver id is not a canonical UUID: " + uuid);
+        }
+    }
+
+    private static long parseHex(String s, int from, int to, long bits) {
+        for (int i = from; i < to; i++) {
+            int digit = Character.digit(s.charAt(i), 16);
+            if (digit < 0) {
+                throw new IllegalArgumentException("Driver id is not a canonical UUID: " + s);
+            }
+            bits = (bits << 4) | digit;
+        }
+        return bits;
+    }
+}
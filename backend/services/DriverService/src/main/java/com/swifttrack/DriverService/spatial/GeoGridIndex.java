@@ -0,0 +1,370 @@
+package com.swifttrack.DriverService.spatial;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Uniform lat/lon grid that is updated in place.
+ * Each driver lives in exactly one cell; an update is O(1) and only touches
+ * the old and new cell when the driver crosses a cell boundary.
+ * KNN queries scan rings of cells outward from the query cell and stop once
+ * no unvisited ring can contain a closer driver, so there is no rebuild step
+ * and reads always see the latest position.
+ * <p>
+ * Positions live in a columnar {@link DriverPositionStore}; cells hold
+ * copy-on-write arrays of store slots. A ping that stays inside its cell
+ * therefore writes one long and allocates nothing. Writers are serialized on
+ * the index; readers never lock and take each driver's id together with its
+ * position, so a slot released and reused mid-query is skipped rather than
+ * reported under the wrong id.
+ * <p>
+ * Drivers can carry caller-defined exclusion flags (e.g. offline, already
+ * assigned). KNN skips flagged drivers while scanning cells, so the k results
+ * are the k nearest eligible drivers rather than a prefix to be filtered.
+ */
+public final class GeoGridIndex {
+
+    private static final double KM_PER_DEGREE = 111.32d;
+
+    private final double cellSizeDeg;
+    private final int maxRings;
+    private final DriverPositionStore store;
+
+    /**
+     * cellKey → slots of the drivers in that cell, for every non-empty cell.
+     */
+    private final ConcurrentHashMap<Long, int[]> cells = new ConcurrentHashMap<>();
+
+    /**
+     * Number of drivers with at least one exclusion flag set.
+     */
+    private volatile int excludedCount;
+
+    /**
+     * Flagged drivers that also have a position, i.e. the ones a position
+     * search (here or in Redis) can actually run into.
+     */
+    private volatile int positionedExcludedCount;
+
+    /**
+     * @param cellSizeDeg edge length of a cell in degrees
+     * @param maxSearchKm radius after which KNN stops expanding rings
+     */
+    public GeoGridIndex(double cellSizeDeg, double maxSearchKm) {
+        this(cellSizeDeg, maxSearchKm, 1024);
+    }
+
+    public GeoGridIndex(double cellSizeDeg, double maxSearchKm, int initialCapacity) {
+        if (cellSizeDeg <= 0.0d) {
+            throw new IllegalArgumentException("cellSizeDeg must be positive");
+        }
+        this.cellSizeDeg = cellSizeDeg;
+        this.maxRings = Math.max(1, (int) Math.ceil(maxSearchKm / (cellSizeDeg * KM_PER_DEGREE)));
+        this.store = new DriverPositionStore(initialCapacity);
+    }
+
+    public int size() {
+        return store.size();
+    }
+
+    /**
+     * Inserts or moves a driver.
+     */
+    public synchronized void update(String driverId, double latitude, double longitude) {
+        int slot = store.acquire(driverId);
+        store.setPosition(slot, latitude, longitude);
+
+        long newCell = cellKey(latitude, longitude);
+        long oldCell = store.cellOf(slot);
+        if (oldCell != newCell) {
+            if (oldCell != DriverPositionStore.NO_CELL) {
+                removeFromCell(oldCell, slot);
+            } else if (store.flags(slot) != 0) {
+                positionedExcludedCount++;
+            }
+            addToCell(newCell, slot);
+            store.setCell(slot, newCell);
+        }
+    }
+
+    public synchronized void remove(String driverId) {
+        int slot = store.find(driverId);
+        if (slot == DriverPositionStore.NO_SLOT) {
+            return;
+        }
+        long cell = store.cellOf(slot);
+        if (store.flags(slot) != 0) {
+            excludedCount--;
+            if (cell != DriverPositionStore.NO_CELL) {
+                positionedExcludedCount--;
+            }
+        }
+        if (cell != DriverPositionStore.NO_CELL) {
+            removeFromCell(cell, slot);
+        }
+        store.release(driverId, slot);
+    }
+
+    public synchronized boolean contains(String driverId) {
+        return store.find(driverId) != DriverPositionStore.NO_SLOT;
+    }
+
+    /**
+     * Sets or clears exclusion flags for a driver. A driver that has no
+     * position yet gets a slot so the flags apply once it starts pinging.
+     */
+    public synchronized void setFlags(String driverId, int mask, boolean set) {
+        int slot = store.acquire(driverId);
+        int before = store.flags(slot);
+        int after = set ? before | mask : before & ~mask;
+        store.setFlags(slot, after);
+        int delta = before == 0 && after != 0 ? 1 : before != 0 && after == 0 ? -1 : 0;
+        excludedCount += delta;
+        if (store.cellOf(slot) != DriverPositionStore.NO_CELL) {
+            positionedExcludedCount += delta;
+        }
+    }
+
+    public int excludedCount() {
+        return excludedCount;
+    }
+
+    /**
+     * Flagged drivers that have reported a position. Drivers flagged before
+     * their first ping (e.g. everyone offline at startup) are not counted.
+     */
+    public int positionedExcludedCount() {
+        return positionedExcludedCount;
+    }
+
+    /**
+     * Keeps the entries whose driver is unknown to this index or has no
+     * exclusion flags, preserving order.
+     */
+    public synchronized List<DriverDistance> retainEligible(List<DriverDistance> candidates) {
+        if (excludedCount == 0) {
+            return candidates;
+        }
+        List<DriverDistance> eligible = new ArrayList<>(candidates.size());
+        for (DriverDistance candidate : candidates) {
+            int slot = store.find(candidate.driverId());
+            if (slot == DriverPositionStore.NO_SLOT || store.flags(slot) == 0) {
+                eligible.add(candidate);
+            }
+        }
+        return eligible;
+    }
+
+    public List<DriverDistance> findKNearest(double latitude, double longitude, int k) {
+        if (k <= 0 || cells.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Neighbours neighbours = new Neighbours(k);
+        int latIndex = latIndex(latitude);
+        int lonIndex = lonIndex(longitude);
+
+        for (int ring = 0; ring <= maxRings; ring++) {
+            scanRing(latIndex, lonIndex, ring, latitude, longitude, neighbours);
+
+            // Anything outside the rings scanned so far is at least this far away.
+            double unvisitedKm = ring * minCellExtentKm(latitude, ring + 1);
+            if (neighbours.isFull() && neighbours.worstKm() <= unvisitedKm) {
+                break;
+            }
+        }
+
+        return neighbours.toSortedList();
+    }
+
+    // ─── Helpers ──────────────────────────────────────────────────────
+
+    private void scanRing(int centerLat, int centerLon, int ring, double targetLat, double targetLon,
+            Neighbours neighbours) {
+        if (ring == 0) {
+            scanCell(centerLat, centerLon, targetLat, targetLon, neighbours);
+            return;
+        }
+        for (int dLon = -ring; dLon <= ring; dLon++) {
+            scanCell(centerLat - ring, centerLon + dLon, targetLat, targetLon, neighbours);
+            scanCell(centerLat + ring, centerLon + dLon, targetLat, targetLon, neighbours);
+        }
+        for (int dLat = -ring + 1; dLat <= ring - 1; dLat++) {
+            scanCell(centerLat + dLat, centerLon - ring, targetLat, targetLon, neighbours);
+            scanCell(centerLat + dLat, centerLon + ring, targetLat, targetLon, neighbours);
+        }
+    }
+
+    private void scanCell(int latIndex, int lonIndex, double targetLat, double targetLon, Neighbours neighbours) {
+        int[] members = cells.get(pack(latIndex, lonIndex));
+        if (members == null) {
+            return;
+        }
+        if (neighbours.isFull()
+                && cellLowerBoundKm(latIndex, lonIndex, targetLat, targetLon) > neighbours.worstKm()) {
+            return;
+        }
+        long[] position = neighbours.position;
+        for (int slot : members) {
+            if (store.flags(slot) != 0) {
+                continue;
+            }
+            String driverId = store.readPosition(slot, position);
+            if (driverId == null) {
+                continue;
+            }
+            double distance = KDTree.haversineKm(targetLat, targetLon,
+                    DriverPositionStore.latitudeOf(position[0]), DriverPositionStore.longitudeOf(position[0]));
+            neighbours.offer(driverId, distance);
+        }
+    }
+
+    private void addToCell(long cellKey, int slot) {
+        int[] members = cells.get(cellKey);
+        if (members == null) {
+            cells.put(cellKey, new int[] { slot });
+            return;
+        }
+        int[] grown = new int[members.length + 1];
+        System.arraycopy(members, 0, grown, 0, members.length);
+        grown[members.length] = slot;
+        cells.put(cellKey, grown);
+    }
+
+    private void removeFromCell(long cellKey, int slot) {
+        int[] members = cells.get(cellKey);
+        if (members == null) {
+            return;
+        }
+        if (members.length == 1) {
+            if (members[0] == slot) {
+                cells.remove(cellKey);
+            }
+            return;
+        }
+        int[] shrunk = new int[members.length - 1];
+        int j = 0;
+        for (int member : members) {
+            if (member != slot && j < shrunk.length) {
+                shrunk[j++] = member;
+            }
+        }
+        if (j == shrunk.length) {
+            cells.put(cellKey, shrunk);
+        }
+    }
+
+    /**
+     * Conservative lower bound on the distance from the target to any point in
+     * the cell, used to skip cells in the corners of a ring.
+     */
+    private double cellLowerBoundKm(int latIndex, int lonIndex, double targetLat, double targetLon) {
+        double minLat = latIndex * cellSizeDeg;
+        double minLon = lonIndex * cellSizeDeg;
+        double dLat = Math.max(0.0d, Math.max(minLat - targetLat, targetLat - (minLat + cellSizeDeg)));
+        double dLon = Math.max(0.0d, Math.max(minLon - targetLon, targetLon - (minLon + cellSizeDeg)));
+        double farthestLat = Math.min(89.0d, Math.max(Math.abs(targetLat), Math.abs(minLat) + cellSizeDeg));
+        double latKm = dLat * KM_PER_DEGREE;
+        double lonKm = dLon * KM_PER_DEGREE * Math.cos(Math.toRadians(farthestLat));
+        return 0.99d * Math.sqrt(latKm * latKm + lonKm * lonKm);
+    }
+
+    /**
+     * Smallest cell edge in km within {@code rings} cells of the query latitude;
+     * longitude edges shrink towards the poles so the widest latitude is used.
+     */
+    private double minCellExtentKm(double latitude, int rings) {
+        double farthestLat = Math.min(89.0d, Math.abs(latitude) + rings * cellSizeDeg);
+        double lonExtent = cellSizeDeg * KM_PER_DEGREE * Math.cos(Math.toRadians(farthestLat));
+        return Math.min(cellSizeDeg * KM_PER_DEGREE, lonExtent);
+    }
+
+    private long cellKey(double latitude, double longitude) {
+        return pack(latIndex(latitude), lonIndex(longitude));
+    }
+
+    private int latIndex(double latitude) {
+        return (int) Math.floor(latitude / cellSizeDeg);
+    }
+
+    private int lonIndex(double longitude) {
+        return (int) Math.floor(longitude / cellSizeDeg);
+    }
+
+    private static long pack(int latIndex, int lonIndex) {
+        return ((long) latIndex << 32) | (lonIndex & 0xffffffffL);
+    }
+
+    /**
+     * Bounded max-heap of (driver id, distance) kept in parallel arrays.
+     */
+    private static final class Neighbours {
+        private final String[] driverIds;
+        private final double[] distances;
+        /**
+         * Scratch cell for {@link DriverPositionStore#readPosition}.
+         */
+        private final long[] position = new long[1];
+        private int size;
+
+        Neighbours(int k) {
+            this.driverIds = new String[k];
+            this.distances = new double[k];
+        }
+
+        boolean isFull() {
+            return size == driverIds.length;
+        }
+
+        double worstKm() {
+            return size == 0 ? Double.POSITIVE_INFINITY : distances[0];
+        }
+
+        void offer(String driverId, double distance) {
+            if (size < driverIds.length) {
+                int i = size++;
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+                    if (distances[parent] >= distance) {
+                        break;
+                    }
+                    driverIds[i] = driverIds[parent];
+                    distances[i] = distances[parent];
+                    i = parent;
+                }
+                driverIds[i] = driverId;
+                distances[i] = distance;
+            } else if (distance < distances[0]) {
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= size) {
+                        break;
+                    }
+                    if (child + 1 < size && distances[child + 1] > distances[child]) {
+                        child++;
+                    }
+                    if (distances[child] <= distance) {
+                        break;
+                    }
+                    driverIds[i] = driverIds[child];
+                    distances[i] = distances[child];
+                    i = child;
+                }
+                driverIds[i] = driverId;
+                distances[i] = distance;
+            }
+        }
+
+        List<DriverDistance> toSortedList() {
+            List<DriverDistance> nearest = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                nearest.add(new DriverDistance(driverIds[i], distances[i]));
+            }
+            nearest.sort((a, b) -> Double.compare(a.distanceKm(), b.distanceKm()));
+            return nearest;
+        }
+    }
+}
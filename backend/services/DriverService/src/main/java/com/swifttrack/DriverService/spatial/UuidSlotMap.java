@@ -0,0 +1,117 @@
+package com.swifttrack.DriverService.spatial;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from a UUID, held as two longs, to an int slot.
+ * Linear probing with backward-shift deletion keeps lookups allocation-free.
+ * Not thread-safe; {@link DriverPositionStore} serializes all access.
+ */
+final class UuidSlotMap {
+
+    private static final int EMPTY = -1;
+
+    private long[] mostSig;
+    private long[] leastSig;
+    private int[] slots;
+    private int mask;
+    private int size;
+
+    UuidSlotMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2) - 1) << 1;
+        allocate(capacity);
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(long msb, long lsb) {
+        int index = indexFor(msb, lsb);
+        while (slots[index] != EMPTY) {
+            if (mostSig[index] == msb && leastSig[index] == lsb) {
+                return slots[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return EMPTY;
+    }
+
+    void put(long msb, long lsb, int slot) {
+        if ((size + 1) * 2 > slots.length) {
+            resize(slots.length << 1);
+        }
+        int index = indexFor(msb, lsb);
+        while (slots[index] != EMPTY) {
+            if (mostSig[index] == msb && leastSig[index] == lsb) {
+                slots[index] = slot;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        mostSig[index] = msb;
+        leastSig[index] = lsb;
+        slots[index] = slot;
+        size++;
+    }
+
+    int remove(long msb, long lsb) {
+        int index = indexFor(msb, lsb);
+        while (slots[index] != EMPTY) {
+            if (mostSig[index] == msb && leastSig[index] == lsb) {
+                int removed = slots[index];
+                shiftBack(index);
+                size--;
+                return removed;
+            }
+            index = (index + 1) & mask;
+        }
+        return EMPTY;
+    }
+
+    private void shiftBack(int gap) {
+        int index = gap;
+        while (true) {
+            index = (index + 1) & mask;
+            if (slots[index] == EMPTY) {
+                slots[gap] = EMPTY;
+                return;
+            }
+            int home = indexFor(mostSig[index], leastSig[index]);
+            // Move the entry into the gap unless its home lies cyclically in (gap, index].
+            boolean stays = gap <= index ? (home > gap && home <= index) : (home > gap || home <= index);
+            if (!stays) {
+                mostSig[gap] = mostSig[index];
+                leastSig[gap] = leastSig[index];
+                slots[gap] = slots[index];
+                gap = index;
+            }
+        }
+    }
+
+    private void resize(int capacity) {
+        long[] oldMost = mostSig;
+        long[] oldLeast = leastSig;
+        int[] oldSlots = slots;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldSlots.length; i++) {
+            if (oldSlots[i] != EMPTY) {
+                put(oldMost[i], oldLeast[i], oldSlots[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        mostSig = new long[capacity];
+        leastSig = new long[capacity];
+        slots = new int[capacity];
+        Arrays.fill(slots, EMPTY);
+        mask = capacity - 1;
+    }
+
+    private int indexFor(long msb, long lsb) {
+        long hash = (msb ^ lsb) * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
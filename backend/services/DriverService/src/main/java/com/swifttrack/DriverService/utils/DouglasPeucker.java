@@ -0,0 +1,90 @@
+package com.swifttrack.DriverService.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.swifttrack.DriverService.dto.DriverLocationSample;
+
+/**
+ * Douglas-Peucker polyline simplification for short GPS tracks.
+ * Distances are measured on a local equirectangular projection, which is
+ * accurate to well under a metre over the few kilometres of one window.
+ */
+public final class DouglasPeucker {
+
+    private static final double METERS_PER_DEGREE = 111_320.0d;
+
+    private DouglasPeucker() {
+    }
+
+    /**
+     * Returns the subset of {@code points} that keeps every dropped point
+     * within {@code toleranceMeters} of the simplified line. The first and last
+     * points are always kept and input order is preserved.
+     */
+    public static List<DriverLocationSample> simplify(List<DriverLocationSample> points, double toleranceMeters) {
+        int n = points.size();
+        if (n <= 2 || toleranceMeters <= 0.0d) {
+            return new ArrayList<>(points);
+        }
+
+        double cosLat = Math.cos(Math.toRadians(points.get(0).latitude()));
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = points.get(i).longitude() * METERS_PER_DEGREE * cosLat;
+            y[i] = points.get(i).latitude() * METERS_PER_DEGREE;
+        }
+
+        boolean[] keep = new boolean[n];
+        keep[0] = true;
+        keep[n - 1] = true;
+
+        // Iterative to avoid deep recursion on long, noisy tracks.
+        int[] stack = new int[2 * n];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = n - 1;
+        while (top > 0) {
+            int last = stack[--top];
+            int first = stack[--top];
+
+            double maxDistance = 0.0d;
+            int index = -1;
+            for (int i = first + 1; i < last; i++) {
+                double distance = segmentDistance(x[i], y[i], x[first], y[first], x[last], y[last]);
+                if (distance > maxDistance) {
+                    maxDistance = distance;
+                    index = i;
+                }
+            }
+
+            if (index >= 0 && maxDistance > toleranceMeters) {
+                keep[index] = true;
+                stack[top++] = first;
+                stack[top++] = index;
+                stack[top++] = index;
+                stack[top++] = last;
+            }
+        }
+
+        List<DriverLocationSample> simplified = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (keep[i]) {
+                simplified.add(points.get(i));
+            }
+        }
+        return simplified;
+    }
+
+    private static double segmentDistance(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        if (lengthSquared == 0.0d) {
+            return Math.hypot(px - ax, py - ay);
+        }
+        double t = Math.max(0.0d, Math.min(1.0d, ((px - ax) * dx + (py - ay) * dy) / lengthSquared));
+        return Math.hypot(px - (ax + t * dx), py - (ay + t * dy));
+    }
+}
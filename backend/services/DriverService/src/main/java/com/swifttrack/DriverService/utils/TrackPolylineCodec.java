@@ -0,0 +1,101 @@
+package com.swifttrack.DriverService.utils;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import com.swifttrack.DriverService.dto.DriverLocationSample;
+
+/**
+ * Delta encoding for stored driver tracks.
+ * <p>
+ * Coordinates use the Google polyline format (1e-5 degree precision, as in
+ * MapService's {@code PolylineUtils.encode}). Timestamps are stored as a
+ * second string in the same zig-zag / base-64 scheme, holding millisecond
+ * deltas from the segment start. A typical point costs 6-10 characters
+ * instead of a 60-byte row.
+ */
+public final class TrackPolylineCodec {
+
+    private static final double PRECISION = 1E5;
+
+    public record Encoded(String polyline, String timeOffsets) {
+    }
+
+    private TrackPolylineCodec() {
+    }
+
+    /**
+     * Encodes samples that belong to one driver, in time order.
+     */
+    public static Encoded encode(List<DriverLocationSample> samples) {
+        StringBuilder polyline = new StringBuilder(samples.size() * 8);
+        StringBuilder timeOffsets = new StringBuilder(samples.size() * 3);
+        if (samples.isEmpty()) {
+            return new Encoded("", "");
+        }
+
+        LocalDateTime startedAt = samples.get(0).recordedAt();
+        long prevLat = 0;
+        long prevLng = 0;
+        long prevMs = 0;
+        for (DriverLocationSample sample : samples) {
+            long lat = Math.round(sample.latitude() * PRECISION);
+            long lng = Math.round(sample.longitude() * PRECISION);
+            long ms = ChronoUnit.MILLIS.between(startedAt, sample.recordedAt());
+
+            encodeValue(lat - prevLat, polyline);
+            encodeValue(lng - prevLng, polyline);
+            encodeValue(ms - prevMs, timeOffsets);
+
+            prevLat = lat;
+            prevLng = lng;
+            prevMs = ms;
+        }
+        return new Encoded(polyline.toString(), timeOffsets.toString());
+    }
+
+    /**
+     * Inverse of {@link #encode}; {@code startedAt} is the first point's time.
+     */
+    public static List<DriverLocationSample> decode(UUID driverId, LocalDateTime startedAt, String polyline,
+            String timeOffsets) {
+        List<DriverLocationSample> samples = new ArrayList<>();
+        int[] polylineIndex = { 0 };
+        int[] timeIndex = { 0 };
+        long lat = 0;
+        long lng = 0;
+        long ms = 0;
+        while (polylineIndex[0] < polyline.length() && timeIndex[0] < timeOffsets.length()) {
+            lat += decodeValue(polyline, polylineIndex);
+            lng += decodeValue(polyline, polylineIndex);
+            ms += decodeValue(timeOffsets, timeIndex);
+            samples.add(new DriverLocationSample(driverId, lat / PRECISION, lng / PRECISION,
+                    startedAt.plus(ms, ChronoUnit.MILLIS)));
+        }
+        return samples;
+    }
+
+    private static void encodeValue(long value, StringBuilder out) {
+        long v = value < 0 ? ~(value << 1) : (value << 1);
+        while (v >= 0x20) {
+            out.append((char) ((0x20 | (v & 0x1f)) + 63));
+            v >>= 5;
+        }
+        out.append((char) (v + 63));
+    }
+
+    private static long decodeValue(String encoded, int[] index) {
+        long result = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = encoded.charAt(index[0]++) - 63;
+            result |= (long) (b & 0x1f) << shift;
+            shift += 5;
+        } while (b >= 0x20);
+        return (result & 1) != 0 ? ~(result >> 1) : (result >> 1);
+    }
+}
@@ -0,0 +1,21 @@
+-- liquibase formatted sql
+
+-- changeset swifttrack-dev:006-create-driver-location-track
+-- Compressed replacement for driver_location_history. Each row holds a
+-- delta-encoded run of points for one driver. Rows are range-partitioned by
+-- day and hash-sub-partitioned by driver, so a replay touches one shard per
+-- day and retention is a DROP TABLE per day. Day partitions are created and
+-- dropped by DriverLocationTrackService.
+CREATE TABLE IF NOT EXISTS driver_location_track (
+    driver_id         UUID NOT NULL,
+    tenant_id         UUID,
+    track_day         DATE NOT NULL,
+    started_at        TIMESTAMP NOT NULL,
+    ended_at          TIMESTAMP NOT NULL,
+    point_count       INTEGER NOT NULL,
+    polyline          TEXT NOT NULL,
+    time_offsets      TEXT NOT NULL
+) PARTITION BY RANGE (track_day);
+
+CREATE INDEX IF NOT EXISTS idx_driver_location_track_driver_time
+    ON driver_location_track (driver_id, started_at);
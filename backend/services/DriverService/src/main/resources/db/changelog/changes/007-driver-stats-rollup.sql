@@ -0,0 +1,80 @@
+-- liquibase formatted sql
+
+-- changeset swifttrack-dev:007-create-driver-stats
+-- One row per driver with lifetime and sliding 24h/7d assignment counters,
+-- incremented in the same transaction as each assignment transition.
+-- Dispatch reads this row instead of aggregating assignment history.
+CREATE TABLE IF NOT EXISTS driver_stats (
+    driver_id         UUID PRIMARY KEY,
+    assigned_total    BIGINT NOT NULL DEFAULT 0,
+    accepted_total    BIGINT NOT NULL DEFAULT 0,
+    rejected_total    BIGINT NOT NULL DEFAULT 0,
+    completed_total   BIGINT NOT NULL DEFAULT 0,
+    cancelled_total   BIGINT NOT NULL DEFAULT 0,
+    assigned_24h      INTEGER NOT NULL DEFAULT 0,
+    accepted_24h      INTEGER NOT NULL DEFAULT 0,
+    rejected_24h      INTEGER NOT NULL DEFAULT 0,
+    completed_24h     INTEGER NOT NULL DEFAULT 0,
+    cancelled_24h     INTEGER NOT NULL DEFAULT 0,
+    assigned_7d       INTEGER NOT NULL DEFAULT 0,
+    accepted_7d       INTEGER NOT NULL DEFAULT 0,
+    rejected_7d       INTEGER NOT NULL DEFAULT 0,
+    completed_7d      INTEGER NOT NULL DEFAULT 0,
+    cancelled_7d      INTEGER NOT NULL DEFAULT 0,
+    rating_sum        DOUBLE PRECISION NOT NULL DEFAULT 0,
+    rating_count      BIGINT NOT NULL DEFAULT 0,
+    updated_at        TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+-- Hourly buckets behind the sliding windows. DriverStatsService re-derives
+-- the 24h/7d columns from these and deletes buckets older than 7 days.
+CREATE TABLE IF NOT EXISTS driver_stats_hourly (
+    driver_id         UUID NOT NULL,
+    bucket_start      TIMESTAMP NOT NULL,
+    assigned          INTEGER NOT NULL DEFAULT 0,
+    accepted          INTEGER NOT NULL DEFAULT 0,
+    rejected          INTEGER NOT NULL DEFAULT 0,
+    completed         INTEGER NOT NULL DEFAULT 0,
+    cancelled         INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (driver_id, bucket_start)
+);
+
+CREATE INDEX IF NOT EXISTS idx_driver_stats_hourly_bucket ON driver_stats_hourly (bucket_start);
+
+-- changeset swifttrack-dev:007-backfill-driver-stats
+-- Lifetime counters from existing history. Rejected and cancelled
+-- assignments are deleted once their driver_order_cancellation row is
+-- written, so both land in cancelled_total and count towards assigned_total.
+-- Windows start empty and fill as new transitions arrive.
+INSERT INTO driver_stats (driver_id, assigned_total, accepted_total, completed_total, cancelled_total,
+                          rating_sum, rating_count)
+SELECT dvd.driver_id,
+       COALESCE(a.assigned, 0) + COALESCE(c.cancelled, 0),
+       COALESCE(a.accepted, 0),
+       COALESCE(a.completed, 0),
+       COALESCE(c.cancelled, 0),
+       COALESCE(r.rating_sum, 0),
+       COALESCE(r.rating_count, 0)
+FROM driver_vehicle_details dvd
+LEFT JOIN (
+    SELECT driver_id,
+           COUNT(*) AS assigned,
+           COUNT(*) FILTER (WHERE status IN ('ACCEPTED', 'COMPLETED')) AS accepted,
+           COUNT(*) FILTER (WHERE status = 'COMPLETED') AS completed
+    FROM driver_order_assignment
+    GROUP BY driver_id
+) a ON a.driver_id = dvd.driver_id
+LEFT JOIN (
+    SELECT driver_id, COUNT(*) AS cancelled
+    FROM driver_order_cancellation
+    GROUP BY driver_id
+) c ON c.driver_id = dvd.driver_id
+LEFT JOIN (
+    SELECT driver_id,
+           SUM(CAST(metadata::json->>'rating' AS DOUBLE PRECISION)) AS rating_sum,
+           COUNT(metadata::json->>'rating') AS rating_count
+    FROM driver_events
+    WHERE event_type = 'RATING_UPDATED'
+    GROUP BY driver_id
+) r ON r.driver_id = dvd.driver_id
+ON CONFLICT (driver_id) DO NOTHING;
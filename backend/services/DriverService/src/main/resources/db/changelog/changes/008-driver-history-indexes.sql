@@ -0,0 +1,13 @@
+-- liquibase formatted sql
+
+-- changeset swifttrack-dev:008-driver-history-indexes
+-- Per-driver lookups used by the summary aggregation (and recommended in
+-- docs/schema_design.md); without them each chunk scans the full tables.
+CREATE INDEX IF NOT EXISTS idx_driver_order_assignment_driver_status
+    ON driver_order_assignment (driver_id, status);
+
+CREATE INDEX IF NOT EXISTS idx_driver_order_cancellation_driver
+    ON driver_order_cancellation (driver_id);
+
+CREATE INDEX IF NOT EXISTS idx_driver_events_driver_type
+    ON driver_events (driver_id, event_type);
@@ -0,0 +1,9 @@
+-- liquibase formatted sql
+
+-- changeset swifttrack-dev:009-location-track-default-partition
+-- Catches segments for days whose partition does not exist yet (maintenance
+-- job down, clock skew, late batches), so inserts never fail for lack of a
+-- partition. DriverLocationTrackService moves such rows into the day
+-- partition when it creates it.
+CREATE TABLE IF NOT EXISTS driver_location_track_default
+    PARTITION OF driver_location_track DEFAULT;
@@ -0,0 +1,115 @@
+package com.swifttrack.DriverService.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import com.swifttrack.DriverService.enums.DriverType;
+import com.swifttrack.DriverService.events.DriverLocationProducer;
+import com.swifttrack.DriverService.services.DriverLocationService;
+import com.swifttrack.dto.Message;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class DriverLocationStreamHandlerTest {
+
+    private final List<double[]> updates = new ArrayList<>();
+    private final List<double[]> published = new ArrayList<>();
+    private SimpleMeterRegistry meterRegistry;
+    private DriverLocationStreamHandler handler;
+    private WebSocketSession session;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        DriverLocationService locationService = new DriverLocationService(null, null, null, null, 15, 5, false, 3000, 5) {
+            @Override
+            public Message updateDriverLocation(String driverId, double latitude, double longitude,
+                    String tenantId, DriverType driverType) {
+                updates.add(new double[] { latitude, longitude });
+                return new Message("ok");
+            }
+        };
+        DriverLocationProducer producer = new DriverLocationProducer() {
+            @Override
+            public void publishLocationUpdate(String driverId, String tenantId, double lat, double lng) {
+                published.add(new double[] { lat, lng });
+            }
+        };
+        handler = new DriverLocationStreamHandler(locationService, producer, meterRegistry);
+
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(DriverLocationStreamAuthInterceptor.DRIVER_ID, UUID.randomUUID().toString());
+        attributes.put(DriverLocationStreamAuthInterceptor.DRIVER_TYPE, DriverType.PLATFORM_DRIVER);
+        session = mock(WebSocketSession.class);
+        when(session.getAttributes()).thenReturn(attributes);
+    }
+
+    @Test
+    void testBinaryFrameRejectsNonFinitePositions() {
+        ByteBuffer frame = ByteBuffer.allocate(4 * 16)
+                .putDouble(12.97).putDouble(77.59)
+                .putDouble(Double.NaN).putDouble(77.60)
+                .putDouble(12.98).putDouble(Double.POSITIVE_INFINITY)
+                .putDouble(12.99).putDouble(77.61);
+        frame.flip();
+
+        handler.handleBinaryMessage(session, new BinaryMessage(frame));
+
+        assertEquals(2, updates.size());
+        assertEquals(2, published.size());
+        assertEquals(12.97, published.get(0)[0]);
+        assertEquals(12.99, published.get(1)[0]);
+        assertEquals(2.0, positions("accepted"));
+        assertEquals(2.0, positions("rejected"));
+    }
+
+    @Test
+    void testTextFrameRejectsNaN() {
+        handler.handleTextMessage(session, new TextMessage("12.97,77.59\nNaN,77.60\n12.98,Infinity"));
+
+        assertEquals(1, updates.size());
+        assertEquals(1, published.size());
+        assertEquals(12.97, published.get(0)[0]);
+        assertEquals(2.0, positions("rejected"));
+    }
+
+    @Test
+    void testEveryAcceptedPositionIsPublishedInOrder() {
+        handler.handleTextMessage(session, new TextMessage("12.97,77.59\n12.98,77.60\n12.99,77.61\n"));
+
+        assertEquals(3, published.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(updates.get(i)[0], published.get(i)[0]);
+            assertEquals(updates.get(i)[1], published.get(i)[1]);
+        }
+    }
+
+    @Test
+    void testFrameWithOnlyInvalidPositionsPublishesNothing() {
+        ByteBuffer frame = ByteBuffer.allocate(16).putDouble(Double.NaN).putDouble(Double.NaN);
+        frame.flip();
+
+        handler.handleBinaryMessage(session, new BinaryMessage(frame));
+
+        assertEquals(0, updates.size());
+        assertEquals(0, published.size());
+    }
+
+    private double positions(String result) {
+        return meterRegistry.get("driver.location.stream.positions").tag("result", result).counter().count();
+    }
+}
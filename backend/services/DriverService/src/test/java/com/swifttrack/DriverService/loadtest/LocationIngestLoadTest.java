@@ -0,0 +1,140 @@
+package com.swifttrack.DriverService.loadtest;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compares ping throughput of the HTTP {@code POST /v1/location} path with the
+ * streaming {@code /v1/location/stream} WebSocket against a running
+ * DriverService.
+ * <p>
+ * Skipped unless {@code loadtest.base-url} is set:
+ * {@code mvn test -Dtest=LocationIngestLoadTest -Dloadtest.base-url=http://localhost:8007
+ * -Dloadtest.token=eyJ... [-Dloadtest.seconds=30 -Dloadtest.clients=32 -Dloadtest.server-cores=4]}
+ */
+@Slf4j
+@Tag("load")
+@EnabledIfSystemProperty(named = "loadtest.base-url", matches = ".+")
+class LocationIngestLoadTest {
+
+    private static final int POSITIONS_PER_FRAME = 8;
+
+    @Test
+    void compareHttpAndStreamThroughput() throws Exception {
+        String baseUrl = System.getProperty("loadtest.base-url");
+        String token = System.getProperty("loadtest.token", "");
+        int seconds = Integer.getInteger("loadtest.seconds", 30);
+        int clients = Integer.getInteger("loadtest.clients", 32);
+        int serverCores = Integer.getInteger("loadtest.server-cores", 1);
+
+        double http = runHttp(baseUrl, token, seconds, clients);
+        report("HTTP POST /v1/location", http, serverCores);
+
+        double stream = runStream(baseUrl, token, seconds, clients);
+        report("WebSocket /v1/location/stream", stream, serverCores);
+
+        assertTrue(http > 0, "no HTTP pings were accepted; check the token");
+        assertTrue(stream > 0, "no streamed pings were sent");
+    }
+
+    private static double runHttp(String baseUrl, String token, int seconds, int clients) throws Exception {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        URI uri = URI.create(baseUrl + "/api/driver/v1/location");
+        AtomicLong pings = new AtomicLong();
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        List<CompletableFuture<Void>> workers = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            Random random = new Random(c);
+            workers.add(CompletableFuture.runAsync(() -> {
+                while (System.nanoTime() < deadline) {
+                    String body = "{\"latitude\":" + lat(random) + ",\"longitude\":" + lon(random) + "}";
+                    HttpRequest request = HttpRequest.newBuilder(uri)
+                            .header("token", token)
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(body))
+                            .build();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() == 200) {
+                            pings.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        return;
+                    }
+                }
+            }, pool));
+        }
+        CompletableFuture.allOf(workers.toArray(CompletableFuture[]::new)).join();
+        pool.shutdown();
+        return pings.get() / (double) seconds;
+    }
+
+    private static double runStream(String baseUrl, String token, int seconds, int clients) throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        URI uri = URI.create(baseUrl.replaceFirst("^http", "ws") + "/api/driver/v1/location/stream");
+        AtomicLong pings = new AtomicLong();
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        List<CompletableFuture<Void>> workers = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            Random random = new Random(c);
+            workers.add(CompletableFuture.runAsync(() -> {
+                WebSocket socket = client.newWebSocketBuilder()
+                        .header("token", token)
+                        .buildAsync(uri, new WebSocket.Listener() {
+                        })
+                        .join();
+                ByteBuffer frame = ByteBuffer.allocate(POSITIONS_PER_FRAME * 16);
+                while (System.nanoTime() < deadline) {
+                    frame.clear();
+                    for (int i = 0; i < POSITIONS_PER_FRAME; i++) {
+                        frame.putDouble(lat(random)).putDouble(lon(random));
+                    }
+                    frame.flip();
+                    socket.sendBinary(frame, true).join();
+                    pings.addAndGet(POSITIONS_PER_FRAME);
+                }
+                socket.sendClose(WebSocket.NORMAL_CLOSURE, "done").join();
+            }, pool));
+        }
+        CompletableFuture.allOf(workers.toArray(CompletableFuture[]::new)).join();
+        pool.shutdown();
+        return pings.get() / (double) seconds;
+    }
+
+    private static void report(String label, double pingsPerSecond, int serverCores) {
+        log.info(String.format("%-32s %,12.0f pings/s  %,10.0f pings/s/core", label, pingsPerSecond,
+                pingsPerSecond / serverCores));
+    }
+
+    private static double lat(Random random) {
+        return 12.9716 + (random.nextDouble() - 0.5d) * 0.1d;
+    }
+
+    private static double lon(Random random) {
+        return 77.5946 + (random.nextDouble() - 0.5d) * 0.1d;
+    }
+}
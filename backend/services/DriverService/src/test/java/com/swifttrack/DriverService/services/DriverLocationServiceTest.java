@@ -0,0 +1,63 @@
+package com.swifttrack.DriverService.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import com.swifttrack.DriverService.models.DriverOrderAssignment;
+import com.swifttrack.FeignClient.AIDispatchInterface;
+
+class DriverLocationServiceTest {
+
+    private final AtomicInteger assignAttempts = new AtomicInteger();
+
+    @Test
+    void testFallbackStopsAfterConfiguredAttempts() {
+        DriverLocationService service = service(0, 3000, 5);
+
+        assertTrue(service.dispatchNearestDrivers(drivers(15), UUID.randomUUID(), "token").isEmpty());
+        assertEquals(5, assignAttempts.get());
+    }
+
+    @Test
+    void testFallbackStopsAtDeadline() {
+        DriverLocationService service = service(50, 10, 15);
+
+        assertTrue(service.dispatchNearestDrivers(drivers(15), UUID.randomUUID(), "token").isEmpty());
+        assertEquals(1, assignAttempts.get());
+    }
+
+    private DriverLocationService service(long assignMillis, long deadlineMs, int fallbackAttempts) {
+        // AI dispatch accepts nobody, so every order ends up in the fallback.
+        AIDispatchInterface aiDispatch = request -> ResponseEntity.ok(null);
+        DriverService driverService = new DriverService() {
+            @Override
+            public DriverOrderAssignment assignOrder(String token, UUID driverId, UUID orderId) {
+                assignAttempts.incrementAndGet();
+                try {
+                    Thread.sleep(assignMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IllegalStateException("driver busy");
+            }
+        };
+        return new DriverLocationService(null, null, aiDispatch, driverService, 15, 5, false, deadlineMs,
+                fallbackAttempts);
+    }
+
+    private static List<String> drivers(int count) {
+        List<String> drivers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            drivers.add(UUID.randomUUID().toString());
+        }
+        return drivers;
+    }
+}
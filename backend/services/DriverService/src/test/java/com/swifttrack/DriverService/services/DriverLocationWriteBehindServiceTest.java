@@ -0,0 +1,149 @@
+package com.swifttrack.DriverService.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.swifttrack.DriverService.dto.DriverLocationSample;
+import com.swifttrack.DriverService.repositories.DriverLocationBatchRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class DriverLocationWriteBehindServiceTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private FakeBatchRepository repository;
+    private DriverLocationWriteBehindService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        repository = new FakeBatchRepository();
+        LocationSampleFilter filter = new LocationSampleFilter(meterRegistry, 20, 3000, 300000, 10, 30, 60000);
+        DriverLocationTrackService trackService = new DriverLocationTrackService(null, null, 8, 30, 2, 500) {
+            @Override
+            public void write(List<DriverLocationSample> samples) {
+                // History is not under test here.
+            }
+        };
+        service = new DriverLocationWriteBehindService(repository, filter, trackService, meterRegistry,
+                1000, 1000, 100000);
+    }
+
+    @Test
+    void testDriverWithoutVehicleDetailsIsCountedAsSkipped() {
+        UUID known = UUID.randomUUID();
+        UUID unknown = UUID.randomUUID();
+        repository.vehicleDetails.add(known);
+        service.record(known, 12.97, 77.59);
+        service.record(unknown, 12.98, 77.60);
+
+        service.flush();
+
+        assertEquals(Set.of(known), repository.live);
+        assertEquals(1.0, counter("driver.location.write_behind.rows"));
+        assertEquals(1.0, counter("driver.location.write_behind.live.skipped"));
+        // Not requeued: the next flush has nothing to retry.
+        assertFalse(service.pending(unknown).isPresent());
+        service.flush();
+        assertEquals(1, repository.batches);
+    }
+
+    @Test
+    void testRepeatedSkipIsCountedEveryFlushButWarnedOnce() {
+        UUID unknown = UUID.randomUUID();
+        service.record(unknown, 12.97, 77.59);
+        service.flush();
+        service.record(unknown, 12.98, 77.60);
+        service.flush();
+
+        assertEquals(2.0, counter("driver.location.write_behind.live.skipped"));
+        assertEquals(1, service.warnedSkippedDrivers());
+    }
+
+    @Test
+    void testFailedFlushKeepsPositionsForRetry() {
+        UUID driverId = UUID.randomUUID();
+        repository.vehicleDetails.add(driverId);
+        repository.failNextWrite = true;
+        service.record(driverId, 12.97, 77.59);
+
+        assertThrows(IllegalStateException.class, service::flush);
+        assertTrue(service.pending(driverId).isPresent());
+
+        service.flush();
+        assertEquals(Set.of(driverId), repository.live);
+        assertEquals(0.0, counter("driver.location.write_behind.live.skipped"));
+    }
+
+    @Test
+    void testRecordKeepsDeviceTimestamp() {
+        UUID driverId = UUID.randomUUID();
+        LocalDateTime recordedAt = LocalDateTime.now().minusSeconds(30);
+
+        service.record(driverId, 12.97, 77.59, recordedAt);
+
+        assertEquals(recordedAt, service.pending(driverId).orElseThrow().recordedAt());
+    }
+
+    @Test
+    void testRecordFallsBackToNowWithoutOrAheadOfTimestamp() {
+        UUID driverId = UUID.randomUUID();
+        LocalDateTime before = LocalDateTime.now();
+
+        service.record(driverId, 12.97, 77.59, null);
+        LocalDateTime missing = service.pending(driverId).orElseThrow().recordedAt();
+        service.record(driverId, 12.97, 77.59, LocalDateTime.now().plusHours(1));
+        LocalDateTime future = service.pending(driverId).orElseThrow().recordedAt();
+
+        LocalDateTime after = LocalDateTime.now();
+        assertFalse(missing.isBefore(before) || missing.isAfter(after));
+        assertFalse(future.isBefore(before) || future.isAfter(after));
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+
+    /**
+     * Writes only drivers that have vehicle details, like the join in the
+     * real upsert.
+     */
+    private static final class FakeBatchRepository extends DriverLocationBatchRepository {
+
+        private final Set<UUID> vehicleDetails = new HashSet<>();
+        private final Set<UUID> live = new HashSet<>();
+        private boolean failNextWrite;
+        private int batches;
+
+        FakeBatchRepository() {
+            super(null);
+        }
+
+        @Override
+        public Set<UUID> upsertLiveLocations(List<DriverLocationSample> samples) {
+            if (failNextWrite) {
+                failNextWrite = false;
+                throw new IllegalStateException("connection reset");
+            }
+            batches++;
+            Set<UUID> written = samples.stream()
+                    .map(DriverLocationSample::driverId)
+                    .filter(vehicleDetails::contains)
+                    .collect(Collectors.toSet());
+            live.addAll(written);
+            return written;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.swifttrack.DriverService.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.swifttrack.DriverService.dto.DriverLocationSample;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LocationSampleFilterTest {
+
+    /** Roughly 1 m of latitude. */
+    private static final double METER = 1.0d / 111_320.0d;
+
+    private final UUID driverId = UUID.randomUUID();
+    private final List<DriverLocationSample> emitted = new ArrayList<>();
+    private SimpleMeterRegistry meterRegistry;
+    private LocationSampleFilter filter;
+    private LocalDateTime start;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // 20 m / 3 s gates, 5 min heartbeat, 10 m tolerance, windows of 5 points or 60 s
+        filter = new LocationSampleFilter(meterRegistry, 20, 3000, 300000, 10, 5, 60000);
+        start = LocalDateTime.now();
+    }
+
+    @Test
+    void testPingSoonerThanMinIntervalIsDropped() {
+        assertTrue(filter.accept(sample(0, 0)));
+
+        assertFalse(filter.accept(sample(2_999, 100)));
+        assertEquals(1.0, points("too_frequent"));
+        assertTrue(filter.accept(sample(3_000, 100)));
+    }
+
+    @Test
+    void testPingCloserThanMinDistanceIsDropped() {
+        assertTrue(filter.accept(sample(0, 0)));
+
+        assertFalse(filter.accept(sample(10_000, 19)));
+        assertEquals(1.0, points("stationary"));
+        assertTrue(filter.accept(sample(20_000, 21)));
+    }
+
+    @Test
+    void testStationaryDriverGetsHeartbeat() {
+        assertTrue(filter.accept(sample(0, 0)));
+
+        assertFalse(filter.accept(sample(299_999, 0)));
+        assertTrue(filter.accept(sample(300_000, 0)));
+    }
+
+    @Test
+    void testOpenWindowIsNotDrained() {
+        filter.accept(sample(0, 0));
+        filter.accept(sample(5_000, 100));
+
+        filter.drainTo(emitted::add, false);
+
+        assertTrue(emitted.isEmpty());
+    }
+
+    @Test
+    void testFullWindowIsSimplifiedAndDrained() {
+        for (int i = 0; i < 5; i++) {
+            assertTrue(filter.accept(sample(i * 5_000L, i * 100)));
+        }
+
+        filter.drainTo(emitted::add, false);
+
+        // A straight run keeps only its ends.
+        assertEquals(2, emitted.size());
+        assertEquals(start, emitted.get(0).recordedAt());
+        assertEquals(start.plusSeconds(20), emitted.get(1).recordedAt());
+        assertEquals(3.0, points("simplified"));
+    }
+
+    @Test
+    void testWindowOlderThanWindowMsIsDrained() {
+        start = LocalDateTime.now().minusSeconds(61);
+        filter.accept(sample(0, 0));
+        filter.accept(sample(5_000, 100));
+
+        filter.drainTo(emitted::add, false);
+
+        assertEquals(2, emitted.size());
+    }
+
+    @Test
+    void testForceDrainsOpenWindowAndAnchorIsNotRepeated() {
+        filter.accept(sample(0, 0));
+        filter.accept(sample(5_000, 100));
+        filter.drainTo(emitted::add, true);
+        assertEquals(2, emitted.size());
+
+        filter.accept(sample(10_000, 200));
+        filter.drainTo(emitted::add, true);
+
+        // The previous window's last point only anchors the next one.
+        assertEquals(3, emitted.size());
+        assertEquals(start.plusSeconds(10), emitted.get(2).recordedAt());
+    }
+
+    private DriverLocationSample sample(long offsetMs, double northMeters) {
+        return new DriverLocationSample(driverId, 12.97 + northMeters * METER, 77.59,
+                start.plusNanos(offsetMs * 1_000_000L));
+    }
+
+    private double points(String result) {
+        return meterRegistry.get("driver.location.filter.points").tag("result", result).counter().count();
+    }
+}
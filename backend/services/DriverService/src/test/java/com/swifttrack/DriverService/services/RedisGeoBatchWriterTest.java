@@ -0,0 +1,128 @@
+package com.swifttrack.DriverService.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.geo.Point;
+
+import com.swifttrack.DriverService.repositories.RedisGeoRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RedisGeoBatchWriterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private FakeRedisGeoRepository repository;
+    private RedisGeoBatchWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        repository = new FakeRedisGeoRepository();
+        writer = new RedisGeoBatchWriter(repository, meterRegistry, 5, 500, 50_000);
+    }
+
+    @Test
+    void testInvalidPositionIsRejectedWithoutPoisoningItsCategory() {
+        assertTrue(writer.enqueue("driver-1", 12.97, 77.59, "tenant:a"));
+        assertFalse(writer.enqueue("driver-2", 89.0, 77.59, "tenant:a"));
+        assertFalse(writer.enqueue("driver-3", Double.NaN, 77.59, "tenant:a"));
+        assertFalse(writer.enqueue("driver-4", 12.97, Double.POSITIVE_INFINITY, "tenant:a"));
+
+        writer.flush();
+
+        assertEquals(Set.of("driver-1"), repository.stored.get("tenant:a").keySet());
+        assertEquals(3.0, counter("driver.location.redis.updates.invalid"));
+        assertEquals(0, writer.flush());
+    }
+
+    @Test
+    void testRejectedCategoryDoesNotBlockOthers() {
+        repository.rejectedDrivers.add("poison");
+        writer.enqueue("poison", 12.97, 77.59, "tenant:a");
+        writer.enqueue("driver-1", 12.98, 77.60, "tenant:a");
+        writer.enqueue("driver-2", 13.00, 77.61, "platform");
+
+        writer.flush();
+
+        assertEquals(Set.of("driver-2"), repository.stored.get("platform").keySet());
+        assertEquals(1.0, counter("driver.location.redis.flush.failures"));
+    }
+
+    @Test
+    void testRejectedCategoryIsDroppedAfterMaxAttempts() {
+        repository.rejectedDrivers.add("poison");
+        writer.enqueue("poison", 12.97, 77.59, "tenant:a");
+        writer.enqueue("driver-1", 12.98, 77.60, "tenant:a");
+
+        int flushes = 0;
+        while (writer.flush() > 0) {
+            flushes++;
+        }
+
+        assertEquals(RedisGeoBatchWriter.MAX_FLUSH_ATTEMPTS, flushes);
+        assertEquals(2.0, counter("driver.location.redis.updates.abandoned"));
+        assertFalse(repository.stored.containsKey("tenant:a"));
+
+        // The next good ping for the category goes through.
+        writer.enqueue("driver-1", 12.99, 77.61, "tenant:a");
+        writer.flush();
+        assertEquals(Set.of("driver-1"), repository.stored.get("tenant:a").keySet());
+    }
+
+    @Test
+    void testNewerPingReplacesRequeuedPosition() {
+        repository.failNextWrites = 2;
+        writer.enqueue("driver-1", 12.97, 77.59, "platform");
+
+        writer.flush();
+        writer.enqueue("driver-1", 12.99, 77.61, "platform");
+        writer.flush();
+
+        assertEquals(12.99, repository.stored.get("platform").get("driver-1").getY(), 1e-9);
+        assertEquals(0.0, counter("driver.location.redis.updates.abandoned"));
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+
+    /**
+     * Rejects a whole GEOADD batch when it contains a rejected driver, the way
+     * Redis fails a multi-member GEOADD on one invalid member.
+     */
+    private static final class FakeRedisGeoRepository extends RedisGeoRepository {
+
+        private final Map<String, Map<String, Point>> stored = new HashMap<>();
+        private final Set<String> rejectedDrivers = new HashSet<>();
+        private int failNextWrites;
+
+        FakeRedisGeoRepository() {
+            super(null, "drivers");
+        }
+
+        @Override
+        public void updateDriverLocations(Map<String, Map<String, Point>> locationsByCategory) {
+            if (failNextWrites > 0) {
+                failNextWrites--;
+                throw new IllegalStateException("connection reset");
+            }
+            for (Map<String, Point> members : locationsByCategory.values()) {
+                if (members.keySet().stream().anyMatch(rejectedDrivers::contains)) {
+                    throw new IllegalStateException("ERR invalid longitude,latitude pair");
+                }
+            }
+            locationsByCategory.forEach((category, members) -> {
+                stored.computeIfAbsent(category, k -> new HashMap<>()).putAll(members);
+            });
+        }
+    }
+}
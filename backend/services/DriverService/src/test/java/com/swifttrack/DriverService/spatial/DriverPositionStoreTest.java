@@ -0,0 +1,146 @@
+package com.swifttrack.DriverService.spatial;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+class DriverPositionStoreTest {
+
+    @Test
+    void testReleasedSlotIsReusedForNextDriver() {
+        DriverPositionStore store = new DriverPositionStore(16);
+        String first = UUID.randomUUID().toString();
+        String second = UUID.randomUUID().toString();
+        int slot = store.acquire(first);
+        store.setPosition(slot, 12.97, 77.59);
+
+        store.release(first, slot);
+
+        assertEquals(DriverPositionStore.NO_SLOT, store.find(first));
+        assertNull(store.driverId(slot));
+        assertEquals(slot, store.acquire(second));
+        assertEquals(second, store.driverId(slot));
+        assertEquals(slot, store.find(second));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testReadPositionSkipsFreeAndUnpositionedSlots() {
+        DriverPositionStore store = new DriverPositionStore(16);
+        String first = UUID.randomUUID().toString();
+        String second = UUID.randomUUID().toString();
+        long[] position = new long[1];
+        int slot = store.acquire(first);
+        store.setPosition(slot, 12.97, 77.59);
+        assertEquals(first, store.readPosition(slot, position));
+        assertEquals(12.97, DriverPositionStore.latitudeOf(position[0]), 1e-7);
+
+        store.release(first, slot);
+        assertNull(store.readPosition(slot, position));
+
+        // The new owner has not pinged; the previous owner's position must not leak through.
+        store.acquire(second);
+        assertNull(store.readPosition(slot, position));
+
+        store.setPosition(slot, 13.05, 77.70);
+        assertEquals(second, store.readPosition(slot, position));
+        assertEquals(13.05, DriverPositionStore.latitudeOf(position[0]), 1e-7);
+        assertEquals(77.70, DriverPositionStore.longitudeOf(position[0]), 1e-7);
+    }
+
+    @Test
+    void testIdsSurviveGrowthAndChurn() {
+        DriverPositionStore store = new DriverPositionStore(16);
+        Map<String, Integer> slots = new HashMap<>();
+        for (int i = 0; i < 500; i++) {
+            String id = UUID.randomUUID().toString();
+            slots.put(id, store.acquire(id));
+        }
+        List<String> ids = new ArrayList<>(slots.keySet());
+        for (int i = 0; i < ids.size(); i += 3) {
+            store.release(ids.get(i), slots.remove(ids.get(i)));
+        }
+        for (int i = 0; i < 200; i++) {
+            String id = UUID.randomUUID().toString();
+            slots.put(id, store.acquire(id));
+        }
+
+        assertEquals(slots.size(), store.size());
+        slots.forEach((id, slot) -> {
+            assertEquals(slot.intValue(), store.find(id));
+            assertEquals(id, store.driverId(slot));
+        });
+    }
+
+    @Test
+    void testConcurrentReaderNeverPairsIdWithAnotherDriversPosition() throws InterruptedException {
+        DriverPositionStore store = new DriverPositionStore(16);
+        String[] drivers = new String[8];
+        Map<String, Double> latitudes = new HashMap<>();
+        for (int i = 0; i < drivers.length; i++) {
+            drivers[i] = UUID.randomUUID().toString();
+            latitudes.put(drivers[i], 10.0 + i);
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<String> mismatch = new AtomicReference<>();
+        long[] reads = new long[1];
+
+        // Only a few slots exist, so every release is immediately followed by reuse.
+        Thread reader = new Thread(() -> {
+            long[] position = new long[1];
+            while (running.get()) {
+                for (int slot = 0; slot < drivers.length; slot++) {
+                    String id = store.readPosition(slot, position);
+                    if (id == null) {
+                        continue;
+                    }
+                    reads[0]++;
+                    double latitude = DriverPositionStore.latitudeOf(position[0]);
+                    if (Math.abs(latitude - latitudes.get(id)) > 1e-6) {
+                        mismatch.set(id + " read at " + latitude);
+                    }
+                }
+            }
+        });
+        reader.start();
+        for (int round = 0; round < 200_000 && mismatch.get() == null; round++) {
+            String driver = drivers[round % drivers.length];
+            int slot = store.acquire(driver);
+            store.setPosition(slot, latitudes.get(driver), 77.59);
+            if (round % 3 == 0) {
+                store.release(driver, slot);
+            }
+        }
+        running.set(false);
+        reader.join();
+
+        assertNull(mismatch.get());
+        assertTrue(reads[0] > 0);
+    }
+
+    @Test
+    void testUuidBitsMatchJdkParsing() {
+        UUID id = UUID.randomUUID();
+
+        assertEquals(id.getMostSignificantBits(), DriverPositionStore.mostSigBits(id.toString()));
+        assertEquals(id.getLeastSignificantBits(), DriverPositionStore.leastSigBits(id.toString()));
+    }
+
+    @Test
+    void testNonCanonicalIdIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> DriverPositionStore.mostSigBits("driver-1"));
+        assertThrows(IllegalArgumentException.class,
+                () -> DriverPositionStore.leastSigBits("00000000-0000-0000-0000-zzzzzzzzzzzz"));
+    }
+}
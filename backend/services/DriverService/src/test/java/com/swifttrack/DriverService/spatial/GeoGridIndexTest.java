@@ -0,0 +1,219 @@
+package com.swifttrack.DriverService.spatial;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class GeoGridIndexTest {
+
+    private static final double CELL_DEG = 0.01;
+    private static final double TOLERANCE_KM = 1e-9;
+
+    private final Map<String, double[]> positions = new HashMap<>();
+
+    @Test
+    void testMatchesBruteForceOnRandomDrivers() {
+        GeoGridIndex index = new GeoGridIndex(CELL_DEG, 100);
+        Random random = new Random(42);
+        for (int i = 0; i < 3_000; i++) {
+            put(index, UUID.randomUUID().toString(), 12.8 + random.nextDouble() * 0.4,
+                    77.4 + random.nextDouble() * 0.4);
+        }
+
+        for (int q = 0; q < 200; q++) {
+            double latitude = 12.7 + random.nextDouble() * 0.6;
+            double longitude = 77.3 + random.nextDouble() * 0.6;
+            int k = 1 + random.nextInt(30);
+            assertMatchesBruteForce(index, latitude, longitude, k);
+        }
+    }
+
+    @Test
+    void testSparseDriversAreFoundByRingExpansion() {
+        GeoGridIndex index = new GeoGridIndex(CELL_DEG, 50);
+        String far = UUID.randomUUID().toString();
+        String farther = UUID.randomUUID().toString();
+        // ~22 km and ~33 km north: twenty and thirty rings out, nothing in between.
+        put(index, far, 13.17, 77.59);
+        put(index, farther, 13.27, 77.59);
+
+        List<DriverDistance> nearest = index.findKNearest(12.97, 77.59, 2);
+
+        assertEquals(List.of(far, farther), ids(nearest));
+        assertMatchesBruteForce(index, 12.97, 77.59, 2);
+    }
+
+    @Test
+    void testDriversBeyondMaxSearchRadiusAreNotReturned() {
+        GeoGridIndex index = new GeoGridIndex(CELL_DEG, 5);
+        put(index, UUID.randomUUID().toString(), 13.17, 77.59);
+
+        assertTrue(index.findKNearest(12.97, 77.59, 1).isEmpty());
+    }
+
+    @Test
+    void testKLargerThanPopulationReturnsEveryDriverSorted() {
+        GeoGridIndex index = new GeoGridIndex(CELL_DEG, 50);
+        for (int i = 0; i < 5; i++) {
+            put(index, UUID.randomUUID().toString(), 12.97 + i * 0.013, 77.59 - i * 0.007);
+        }
+
+        List<DriverDistance> nearest = index.findKNearest(12.99, 77.58, 20);
+
+        assertEquals(5, nearest.size());
+        assertMatchesBruteForce(index, 12.99, 77.58, 20);
+    }
+
+    @Test
+    void testEquidistantDriversOnCellBoundaries() {
+        GeoGridIndex index = new GeoGridIndex(CELL_DEG, 50);
+        String north = UUID.randomUUID().toString();
+        String south = UUID.randomUUID().toString();
+        String corner = UUID.randomUUID().toString();
+        String inside = UUID.randomUUID().toString();
+        // The query sits in the middle of its cell; north and south lie exactly on
+        // its edges, in different cells, at the same distance.
+        put(index, north, 12.98, 77.595);
+        put(index, south, 12.97, 77.595);
+        put(index, corner, 12.98, 77.60);
+        put(index, inside, 12.9751, 77.5999);
+
+        List<DriverDistance> nearest = index.findKNearest(12.975, 77.595, 3);
+
+        assertEquals(inside, nearest.get(0).driverId());
+        assertEquals(Set.of(north, south), Set.copyOf(ids(nearest.subList(1, 3))));
+        assertEquals(nearest.get(1).distanceKm(), nearest.get(2).distanceKm(), TOLERANCE_KM);
+        assertMatchesBruteForce(index, 12.975, 77.595, 4);
+        assertMatchesBruteForce(index, 12.98, 77.60, 4);
+    }
+
+    @Test
+    void testRemovedDriverIsNotReturned() {
+        GeoGridIndex index = new GeoGridIndex(CELL_DEG, 50);
+        String nearest = UUID.randomUUID().toString();
+        String next = UUID.randomUUID().toString();
+        put(index, nearest, 12.9716, 77.5946);
+        put(index, next, 12.9916, 77.5946);
+
+        index.remove(nearest);
+        positions.remove(nearest);
+
+        assertEquals(List.of(next), ids(index.findKNearest(12.9716, 77.5946, 5)));
+        assertFalse(index.contains(nearest));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void testChurnMatchesBruteForce() {
+        GeoGridIndex index = new GeoGridIndex(CELL_DEG, 100);
+        Random random = new Random(7);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            String id = UUID.randomUUID().toString();
+            ids.add(id);
+            put(index, id, 12.8 + random.nextDouble() * 0.4, 77.4 + random.nextDouble() * 0.4);
+        }
+
+        // Move some drivers across cells, remove others, and reuse their slots.
+        for (int i = 0; i < ids.size(); i++) {
+            String id = ids.get(i);
+            if (i % 3 == 0) {
+                index.remove(id);
+                positions.remove(id);
+            } else if (i % 3 == 1) {
+                put(index, id, 12.8 + random.nextDouble() * 0.4, 77.4 + random.nextDouble() * 0.4);
+            }
+        }
+        for (int i = 0; i < 200; i++) {
+            put(index, UUID.randomUUID().toString(), 12.8 + random.nextDouble() * 0.4,
+                    77.4 + random.nextDouble() * 0.4);
+        }
+
+        assertEquals(positions.size(), index.size());
+        for (int q = 0; q < 100; q++) {
+            assertMatchesBruteForce(index, 12.8 + random.nextDouble() * 0.4, 77.4 + random.nextDouble() * 0.4, 15);
+        }
+    }
+
+    @Test
+    void testFlaggedDriversAreSkippedNotCountedTowardsK() {
+        GeoGridIndex index = new GeoGridIndex(CELL_DEG, 50);
+        String busy = UUID.randomUUID().toString();
+        String free = UUID.randomUUID().toString();
+        String further = UUID.randomUUID().toString();
+        put(index, busy, 12.9716, 77.5946);
+        put(index, free, 12.9816, 77.5946);
+        put(index, further, 13.0216, 77.5946);
+
+        index.setFlags(busy, 1, true);
+
+        assertEquals(List.of(free, further), ids(index.findKNearest(12.9716, 77.5946, 2)));
+        assertEquals(1, index.excludedCount());
+
+        index.setFlags(busy, 1, false);
+        assertEquals(List.of(busy, free), ids(index.findKNearest(12.9716, 77.5946, 2)));
+    }
+
+    @Test
+    void testOnlyPositionedFlaggedDriversCountAsPositionedExclusions() {
+        GeoGridIndex index = new GeoGridIndex(CELL_DEG, 50);
+        String offline = UUID.randomUUID().toString();
+        String busy = UUID.randomUUID().toString();
+        put(index, busy, 12.9716, 77.5946);
+
+        index.setFlags(offline, 1, true);
+        index.setFlags(busy, 2, true);
+
+        assertEquals(2, index.excludedCount());
+        assertEquals(1, index.positionedExcludedCount());
+
+        put(index, offline, 12.9816, 77.5946);
+        assertEquals(2, index.positionedExcludedCount());
+
+        index.setFlags(busy, 2, false);
+        index.remove(offline);
+        assertEquals(0, index.excludedCount());
+        assertEquals(0, index.positionedExcludedCount());
+    }
+
+    private void put(GeoGridIndex index, String driverId, double latitude, double longitude) {
+        index.update(driverId, latitude, longitude);
+        // The index stores E7 fixed-point coordinates; compare against the same.
+        positions.put(driverId, new double[] { Math.round(latitude * 1e7) / 1e7, Math.round(longitude * 1e7) / 1e7 });
+    }
+
+    private void assertMatchesBruteForce(GeoGridIndex index, double latitude, double longitude, int k) {
+        List<DriverDistance> expected = positions.entrySet().stream()
+                .map(entry -> new DriverDistance(entry.getKey(),
+                        KDTree.haversineKm(latitude, longitude, entry.getValue()[0], entry.getValue()[1])))
+                .sorted(Comparator.comparingDouble(DriverDistance::distanceKm))
+                .limit(k)
+                .toList();
+
+        List<DriverDistance> actual = index.findKNearest(latitude, longitude, k);
+
+        assertEquals(expected.size(), actual.size(), "result count at " + latitude + "," + longitude);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).distanceKm(), actual.get(i).distanceKm(), TOLERANCE_KM,
+                    "distance #" + i + " at " + latitude + "," + longitude);
+            double[] position = positions.get(actual.get(i).driverId());
+            assertEquals(actual.get(i).distanceKm(),
+                    KDTree.haversineKm(latitude, longitude, position[0], position[1]), TOLERANCE_KM);
+        }
+    }
+
+    private static List<String> ids(List<DriverDistance> distances) {
+        return distances.stream().map(DriverDistance::driverId).toList();
+    }
+}
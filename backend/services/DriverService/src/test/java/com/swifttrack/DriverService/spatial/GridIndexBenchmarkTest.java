@@ -0,0 +1,147 @@
+package com.swifttrack.DriverService.spatial;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import com.swifttrack.DriverService.enums.DriverType;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Rough comparison of the old rebuild-per-interval KD-tree path against the
+ * in-place grid index.
+ * <p>
+ * Skipped unless {@code benchmark.drivers} is set:
+ * {@code mvn test -Dtest=GridIndexBenchmarkTest -Dbenchmark.drivers=50000}
+ */
+@Slf4j
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark.drivers", matches = "\\d+")
+class GridIndexBenchmarkTest {
+
+    private static final double CENTER_LAT = 12.9716;
+    private static final double CENTER_LON = 77.5946;
+    private static final double SPREAD_DEG = 0.25;
+    /** Per-ping movement; a few seconds of city driving is well under 100 m. */
+    private static final double JITTER_DEG = 0.0005;
+
+    @Test
+    void compareKdTreeRebuildWithGrid() {
+        int drivers = Integer.getInteger("benchmark.drivers", 50_000);
+        int pings = drivers * 4;
+        int queries = 20_000;
+        Random random = new Random(42);
+
+        String[] ids = new String[drivers];
+        for (int i = 0; i < drivers; i++) {
+            ids[i] = UUID.randomUUID().toString();
+        }
+
+        // Warm up both paths so the JIT has compiled them before timing.
+        for (int round = 0; round < 3; round++) {
+            runKdTree(ids, pings / 4, queries / 4, new Random(round));
+            runGrid(ids, pings / 4, queries / 4, new Random(round));
+        }
+
+        long[] kd = runKdTree(ids, pings, queries, random);
+        long[] grid = runGrid(ids, pings, queries, new Random(42));
+
+        log.info(String.format("drivers=%d pings=%d queries=%d", drivers, pings, queries));
+        log.info(String.format("KDTree.build  : ingest+rebuild %,d ms, query %,d ns/op", kd[0] / 1_000_000,
+                kd[1] / queries));
+        log.info(String.format("GeoGridIndex  : ingest         %,d ms, query %,d ns/op", grid[0] / 1_000_000,
+                grid[1] / queries));
+
+        assertEquals(queries, kd[2]);
+        assertEquals(queries, grid[2]);
+    }
+
+    /**
+     * Mirrors the previous service: every ping lands in a registry and the tree
+     * is rebuilt once per batch of {@code drivers / 10} pings, roughly what a
+     * 2 s rebuild interval saw at one ping per driver every 20 s.
+     */
+    private static long[] runKdTree(String[] ids, int pings, int queries, Random random) {
+        DriverLocation[] registry = new DriverLocation[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            registry[i] = new DriverLocation(ids[i], randomLat(random), randomLon(random), null,
+                    DriverType.PLATFORM_DRIVER);
+        }
+        int rebuildEvery = Math.max(1, ids.length / 10);
+
+        KDTree tree = KDTree.empty();
+        long ingestStart = System.nanoTime();
+        for (int p = 0; p < pings; p++) {
+            int i = random.nextInt(ids.length);
+            registry[i] = new DriverLocation(ids[i], jitter(registry[i].latitude(), random),
+                    jitter(registry[i].longitude(), random), null, DriverType.PLATFORM_DRIVER);
+            if (p % rebuildEvery == 0) {
+                List<DriverNode> snapshot = new ArrayList<>(registry.length);
+                for (DriverLocation location : registry) {
+                    snapshot.add(new DriverNode(location.driverId(), location.latitude(), location.longitude(),
+                            location.tenantId(), location.driverType()));
+                }
+                tree = KDTree.build(snapshot);
+            }
+        }
+        long ingestNanos = System.nanoTime() - ingestStart;
+
+        long answered = 0;
+        long queryStart = System.nanoTime();
+        for (int q = 0; q < queries; q++) {
+            if (!tree.findKNearest(randomLat(random), randomLon(random), 15).isEmpty()) {
+                answered++;
+            }
+        }
+        return new long[] { ingestNanos, System.nanoTime() - queryStart, answered };
+    }
+
+    private static long[] runGrid(String[] ids, int pings, int queries, Random random) {
+        GeoGridIndex index = new GeoGridIndex(0.01, 50, ids.length);
+        double[] lats = new double[ids.length];
+        double[] lons = new double[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            lats[i] = randomLat(random);
+            lons[i] = randomLon(random);
+            index.update(ids[i], lats[i], lons[i]);
+        }
+
+        long ingestStart = System.nanoTime();
+        for (int p = 0; p < pings; p++) {
+            int i = random.nextInt(ids.length);
+            lats[i] = jitter(lats[i], random);
+            lons[i] = jitter(lons[i], random);
+            index.update(ids[i], lats[i], lons[i]);
+        }
+        long ingestNanos = System.nanoTime() - ingestStart;
+
+        long answered = 0;
+        long queryStart = System.nanoTime();
+        for (int q = 0; q < queries; q++) {
+            if (!index.findKNearest(randomLat(random), randomLon(random), 15).isEmpty()) {
+                answered++;
+            }
+        }
+        return new long[] { ingestNanos, System.nanoTime() - queryStart, answered };
+    }
+
+    private static double jitter(double coordinate, Random random) {
+        return coordinate + (random.nextDouble() - 0.5d) * JITTER_DEG;
+    }
+
+    private static double randomLat(Random random) {
+        return CENTER_LAT + (random.nextDouble() - 0.5d) * SPREAD_DEG;
+    }
+
+    private static double randomLon(Random random) {
+        return CENTER_LON + (random.nextDouble() - 0.5d) * SPREAD_DEG;
+    }
+}
@@ -0,0 +1,101 @@
+package com.swifttrack.DriverService.spatial;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class UuidSlotMapTest {
+
+    private static final int EMPTY = -1;
+
+    @Test
+    void testPutGetRemove() {
+        UuidSlotMap map = new UuidSlotMap(4);
+        UUID id = UUID.randomUUID();
+
+        map.put(id.getMostSignificantBits(), id.getLeastSignificantBits(), 7);
+
+        assertEquals(7, map.get(id.getMostSignificantBits(), id.getLeastSignificantBits()));
+        assertEquals(1, map.size());
+        assertEquals(7, map.remove(id.getMostSignificantBits(), id.getLeastSignificantBits()));
+        assertEquals(EMPTY, map.get(id.getMostSignificantBits(), id.getLeastSignificantBits()));
+        assertEquals(EMPTY, map.remove(id.getMostSignificantBits(), id.getLeastSignificantBits()));
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    void testPutOverwritesExistingKey() {
+        UuidSlotMap map = new UuidSlotMap(4);
+        UUID id = UUID.randomUUID();
+
+        map.put(id.getMostSignificantBits(), id.getLeastSignificantBits(), 1);
+        map.put(id.getMostSignificantBits(), id.getLeastSignificantBits(), 2);
+
+        assertEquals(2, map.get(id.getMostSignificantBits(), id.getLeastSignificantBits()));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void testRemovalKeepsProbeChainsIntact() {
+        // A small table with many keys forces long probe chains across resizes, so
+        // backward-shift deletion has to move displaced entries into each gap.
+        UuidSlotMap map = new UuidSlotMap(16);
+        Map<UUID, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            UUID id = new UUID(random.nextLong(), random.nextLong());
+            ids.add(id);
+            map.put(id.getMostSignificantBits(), id.getLeastSignificantBits(), i);
+            expected.put(id, i);
+        }
+
+        for (int i = 0; i < ids.size(); i += 2) {
+            UUID id = ids.get(i);
+            assertEquals(expected.remove(id).intValue(),
+                    map.remove(id.getMostSignificantBits(), id.getLeastSignificantBits()));
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (UUID id : ids) {
+            int slot = expected.getOrDefault(id, EMPTY);
+            assertEquals(slot, map.get(id.getMostSignificantBits(), id.getLeastSignificantBits()));
+        }
+    }
+
+    @Test
+    void testReleasedKeysCanBeReinsertedWithNewSlots() {
+        UuidSlotMap map = new UuidSlotMap(16);
+        Random random = new Random(7);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            UUID id = new UUID(random.nextLong(), random.nextLong());
+            ids.add(id);
+            map.put(id.getMostSignificantBits(), id.getLeastSignificantBits(), i);
+        }
+
+        for (int round = 1; round <= 3; round++) {
+            for (UUID id : ids) {
+                map.remove(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            }
+            assertEquals(0, map.size());
+            for (int i = 0; i < ids.size(); i++) {
+                UUID id = ids.get(i);
+                map.put(id.getMostSignificantBits(), id.getLeastSignificantBits(), i + round * ids.size());
+            }
+        }
+
+        assertEquals(ids.size(), map.size());
+        for (int i = 0; i < ids.size(); i++) {
+            UUID id = ids.get(i);
+            assertEquals(i + 3 * ids.size(), map.get(id.getMostSignificantBits(), id.getLeastSignificantBits()));
+        }
+    }
+}
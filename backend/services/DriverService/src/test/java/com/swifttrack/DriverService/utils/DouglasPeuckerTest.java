@@ -0,0 +1,92 @@
+package com.swifttrack.DriverService.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.swifttrack.DriverService.dto.DriverLocationSample;
+
+class DouglasPeuckerTest {
+
+    private static final UUID DRIVER_ID = UUID.randomUUID();
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 10, 0);
+    /** Roughly 1 m of latitude. */
+    private static final double METER = 1.0d / 111_320.0d;
+
+    @Test
+    void testStraightLineCollapsesToEndpoints() {
+        List<DriverLocationSample> points = new ArrayList<>();
+        for (int i = 0; i <= 10; i++) {
+            points.add(sample(i, 12.97 + i * 100 * METER, 77.59));
+        }
+
+        List<DriverLocationSample> simplified = DouglasPeucker.simplify(points, 10);
+
+        assertEquals(2, simplified.size());
+        assertSame(points.get(0), simplified.get(0));
+        assertSame(points.get(10), simplified.get(1));
+    }
+
+    @Test
+    void testDeviationWithinToleranceIsDropped() {
+        List<DriverLocationSample> points = List.of(
+                sample(0, 12.97, 77.59),
+                sample(1, 12.97 + 500 * METER, 77.59 + 5 * METER),
+                sample(2, 12.97 + 1000 * METER, 77.59));
+
+        assertEquals(2, DouglasPeucker.simplify(points, 10).size());
+    }
+
+    @Test
+    void testDeviationBeyondToleranceIsKept() {
+        List<DriverLocationSample> points = List.of(
+                sample(0, 12.97, 77.59),
+                sample(1, 12.97 + 500 * METER, 77.59 + 50 * METER),
+                sample(2, 12.97 + 1000 * METER, 77.59));
+
+        List<DriverLocationSample> simplified = DouglasPeucker.simplify(points, 10);
+
+        assertEquals(points, simplified);
+    }
+
+    @Test
+    void testEndpointsKeptAndOrderPreservedOnCorner() {
+        // East then north: only the corner survives in between, and a detour back
+        // to the start keeps the last point even though it equals the first.
+        List<DriverLocationSample> points = new ArrayList<>();
+        for (int i = 0; i <= 5; i++) {
+            points.add(sample(i, 12.97, 77.59 + i * 100 * METER));
+        }
+        for (int i = 1; i <= 5; i++) {
+            points.add(sample(5 + i, 12.97 + i * 100 * METER, 77.59 + 500 * METER));
+        }
+        points.add(sample(11, 12.97, 77.59));
+
+        List<DriverLocationSample> simplified = DouglasPeucker.simplify(points, 10);
+
+        assertEquals(List.of(points.get(0), points.get(5), points.get(10), points.get(11)), simplified);
+    }
+
+    @Test
+    void testShortInputOrNonPositiveToleranceIsCopied() {
+        List<DriverLocationSample> two = List.of(sample(0, 12.97, 77.59), sample(1, 12.98, 77.59));
+        List<DriverLocationSample> three = List.of(
+                sample(0, 12.97, 77.59),
+                sample(1, 12.97 + 500 * METER, 77.59),
+                sample(2, 12.97 + 1000 * METER, 77.59));
+
+        assertEquals(two, DouglasPeucker.simplify(two, 10));
+        assertEquals(three, DouglasPeucker.simplify(three, 0));
+        assertEquals(0, DouglasPeucker.simplify(List.of(), 10).size());
+    }
+
+    private static DriverLocationSample sample(int second, double latitude, double longitude) {
+        return new DriverLocationSample(DRIVER_ID, latitude, longitude, START.plusSeconds(second));
+    }
+}
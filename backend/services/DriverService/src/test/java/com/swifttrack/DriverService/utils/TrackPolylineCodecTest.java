@@ -0,0 +1,90 @@
+package com.swifttrack.DriverService.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.swifttrack.DriverService.dto.DriverLocationSample;
+
+class TrackPolylineCodecTest {
+
+    private static final UUID DRIVER_ID = UUID.randomUUID();
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 10, 0);
+
+    @Test
+    void testMatchesGooglePolylineFormat() {
+        // Reference example from the polyline algorithm documentation.
+        List<DriverLocationSample> samples = List.of(
+                sample(0, 38.5, -120.2),
+                sample(1_000, 40.7, -120.95),
+                sample(2_000, 43.252, -126.453));
+
+        assertEquals("_p~iF~ps|U_ulLnnqC_mqNvxq`@", TrackPolylineCodec.encode(samples).polyline());
+    }
+
+    @Test
+    void testRoundTripWithNegativeDeltas() {
+        List<DriverLocationSample> samples = List.of(
+                sample(0, 12.97161, 77.59456),
+                sample(3_250, 12.97012, 77.59301),
+                sample(7_000, -33.86882, -151.20930),
+                sample(7_001, -33.86882, -151.20930),
+                sample(60_000, 0.0, 0.0));
+
+        assertRoundTrip(samples);
+    }
+
+    @Test
+    void testRoundTripAcrossAntimeridian() {
+        List<DriverLocationSample> samples = List.of(
+                sample(0, -16.5, 179.99999),
+                sample(5_000, -16.50001, -179.99999),
+                sample(10_000, -16.5, 179.99998),
+                sample(15_000, 89.99999, -180.0));
+
+        assertRoundTrip(samples);
+    }
+
+    @Test
+    void testCoordinatesRoundToFivePlaces() {
+        List<DriverLocationSample> decoded = roundTrip(List.of(sample(0, 12.971614, 77.594566)));
+
+        assertEquals(12.97161, decoded.get(0).latitude(), 1e-9);
+        assertEquals(77.59457, decoded.get(0).longitude(), 1e-9);
+    }
+
+    @Test
+    void testEmptyTrack() {
+        TrackPolylineCodec.Encoded encoded = TrackPolylineCodec.encode(List.of());
+
+        assertEquals("", encoded.polyline());
+        assertEquals("", encoded.timeOffsets());
+        assertEquals(0, TrackPolylineCodec.decode(DRIVER_ID, START, "", "").size());
+    }
+
+    private static void assertRoundTrip(List<DriverLocationSample> samples) {
+        List<DriverLocationSample> decoded = roundTrip(samples);
+
+        assertEquals(samples.size(), decoded.size());
+        for (int i = 0; i < samples.size(); i++) {
+            assertEquals(DRIVER_ID, decoded.get(i).driverId());
+            assertEquals(samples.get(i).latitude(), decoded.get(i).latitude(), 1e-9);
+            assertEquals(samples.get(i).longitude(), decoded.get(i).longitude(), 1e-9);
+            assertEquals(samples.get(i).recordedAt(), decoded.get(i).recordedAt());
+        }
+    }
+
+    private static List<DriverLocationSample> roundTrip(List<DriverLocationSample> samples) {
+        TrackPolylineCodec.Encoded encoded = TrackPolylineCodec.encode(samples);
+        return TrackPolylineCodec.decode(DRIVER_ID, samples.get(0).recordedAt(), encoded.polyline(),
+                encoded.timeOffsets());
+    }
+
+    private static DriverLocationSample sample(long offsetMs, double latitude, double longitude) {
+        return new DriverLocationSample(DRIVER_ID, latitude, longitude, START.plusNanos(offsetMs * 1_000_000L));
+    }
+}
@@ -0,0 +1,50 @@
+package com.swifttrack.map.boundary;
+
+import com.swifttrack.map.dto.AdminLevel;
+import com.swifttrack.map.dto.NormalizedLocation;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.locationtech.jts.geom.Geometry;
+
+/**
+ * An administrative area polygon (lng/lat, WGS84) with the names it resolves to
+ *
+ * For a STATE boundary {@code state}/{@code stateCode} are its own name and
+ * code; for a CITY boundary {@code city} is. Enclosing areas come from the
+ * feature properties.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdminBoundary {
+    
+    private AdminLevel level;
+    
+    private String country;
+    
+    private String countryCode;
+    
+    private String state;
+    
+    private String stateCode;
+    
+    private String city;
+    
+    private Geometry geometry;
+    
+    /**
+     * Admin fields answered by this boundary, as a reverse-geocode result
+     */
+    public NormalizedLocation toLocation() {
+        return level.project(NormalizedLocation.builder()
+            .country(country)
+            .countryCode(countryCode)
+            .state(state)
+            .stateCode(stateCode)
+            .city(city)
+            .build());
+    }
+}
@@ -0,0 +1,224 @@
+package com.swifttrack.map.boundary;
+
+import com.swifttrack.map.config.MapServiceProperties;
+import com.swifttrack.map.dto.AdminLevel;
+import com.swifttrack.map.dto.Coordinates;
+import com.swifttrack.map.dto.LocationClassification;
+import com.swifttrack.map.dto.NormalizedLocation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Offline point-in-polygon lookup of admin areas from {@code map.boundaries.file}
+ *
+ * Boundaries are held in one STR-tree per {@link AdminLevel}; a lookup queries
+ * the tree with the point's envelope and tests the few candidates against
+ * prepared geometries, so it never leaves the process. Where boundaries of
+ * one level overlap, the smallest one wins.
+ *
+ * The file used to be configured as {@code map.admin-cache.boundary-file};
+ * that key is still read, with a warning, when {@code map.boundaries.file} is blank.
+ *
+ * Metrics:
+ * - map.classify.requests{result=matched|unmatched}
+ * - map.boundaries.loaded{level}
+ */
+@Slf4j
+@Component
+public class AdminBoundaryIndex {
+    
+    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+    
+    private final String boundaryFile;
+    private final Counter matched;
+    private final Counter unmatched;
+    private volatile Map<AdminLevel, LevelIndex> levels = new EnumMap<>(AdminLevel.class);
+    
+    @Autowired
+    public AdminBoundaryIndex(MapServiceProperties properties, MeterRegistry meterRegistry) {
+        this(boundaryFile(properties), meterRegistry);
+    }
+    
+    AdminBoundaryIndex(String boundaryFile, MeterRegistry meterRegistry) {
+        this.boundaryFile = boundaryFile;
+        this.matched = Counter.builder("map.classify.requests")
+            .tag("result", "matched")
+            .register(meterRegistry);
+        this.unmatched = Counter.builder("map.classify.requests")
+            .tag("result", "unmatched")
+            .register(meterRegistry);
+        for (AdminLevel level : AdminLevel.values()) {
+            Gauge.builder("map.boundaries.loaded", this, index -> index.size(level))
+                .tag("level", level.name().toLowerCase())
+                .register(meterRegistry);
+        }
+    }
+    
+    @PostConstruct
+    public void loadBoundaryFile() {
+        if (boundaryFile == null || boundaryFile.isBlank()) {
+            return;
+        }
+        try {
+            List<AdminBoundary> boundaries = BoundaryFileReader.read(Path.of(boundaryFile));
+            load(boundaries);
+            log.info("Indexed {} admin boundaries from {}", boundaries.size(), boundaryFile);
+        } catch (IOException | RuntimeException e) {
+            // Classification just comes back unmatched; reverse geocodes fall through to Nominatim
+            log.error("Failed to load admin boundaries from {}: {}", boundaryFile, e.getMessage());
+        }
+    }
+    
+    /**
+     * Replaces the indexed boundaries
+     */
+    public void load(List<AdminBoundary> boundaries) {
+        Map<AdminLevel, LevelIndex> loaded = new EnumMap<>(AdminLevel.class);
+        for (AdminBoundary boundary : boundaries) {
+            loaded.computeIfAbsent(boundary.getLevel(), level -> new LevelIndex()).add(boundary);
+        }
+        // STR-trees are packed on first query; do it here, before any concurrent reads
+        loaded.values().forEach(index -> index.tree.build());
+        levels = loaded;
+    }
+    
+    public boolean isLoaded() {
+        return !levels.isEmpty();
+    }
+    
+    public int size(AdminLevel level) {
+        LevelIndex index = levels.get(level);
+        return index == null ? 0 : index.size;
+    }
+    
+    /**
+     * Country, state and city containing the point, as far as the boundaries go
+     *
+     * Unmatched points come back with only their coordinates and
+     * {@link LocationClassification#UNKNOWN}.
+     */
+    public NormalizedLocation classify(double latitude, double longitude) {
+        Point point = GEOMETRY_FACTORY.createPoint(new Coordinate(longitude, latitude));
+        Map<AdminLevel, LevelIndex> current = levels;
+        
+        // Coarsest first, so each area's own name beats what finer features repeat about it
+        NormalizedLocation merged = new NormalizedLocation();
+        AdminLevel deepest = null;
+        for (AdminLevel level : AdminLevel.values()) {
+            LevelIndex index = current.get(level);
+            AdminBoundary boundary = index == null ? null : index.find(point);
+            if (boundary == null) {
+                continue;
+            }
+            merged.setCountry(firstNonNull(merged.getCountry(), boundary.getCountry()));
+            merged.setCountryCode(firstNonNull(merged.getCountryCode(), boundary.getCountryCode()));
+            merged.setState(firstNonNull(merged.getState(), boundary.getState()));
+            merged.setStateCode(firstNonNull(merged.getStateCode(), boundary.getStateCode()));
+            merged.setCity(firstNonNull(merged.getCity(), boundary.getCity()));
+            deepest = level;
+        }
+        
+        NormalizedLocation answer;
+        if (deepest == null) {
+            unmatched.increment();
+            answer = NormalizedLocation.builder()
+                .locationType(LocationClassification.UNKNOWN)
+                .build();
+        } else {
+            matched.increment();
+            answer = deepest.project(merged);
+        }
+        answer.setCoordinates(new Coordinates(latitude, longitude));
+        return answer;
+    }
+    
+    /**
+     * Admin areas at the given level, if the boundaries answer every field it needs
+     */
+    public Optional<NormalizedLocation> find(double latitude, double longitude, AdminLevel level) {
+        if (!isLoaded()) {
+            return Optional.empty();
+        }
+        NormalizedLocation location = classify(latitude, longitude);
+        if (!level.isResolved(location)) {
+            return Optional.empty();
+        }
+        NormalizedLocation answer = level.project(location);
+        answer.setCoordinates(location.getCoordinates());
+        return Optional.of(answer);
+    }
+    
+    /**
+     * map.boundaries.file, falling back to the deprecated map.admin-cache.boundary-file
+     */
+    @SuppressWarnings("deprecation")
+    static String boundaryFile(MapServiceProperties properties) {
+        String file = properties.getBoundaries().getFile();
+        String legacy = properties.getAdminCache().getBoundaryFile();
+        if ((file == null || file.isBlank()) && legacy != null && !legacy.isBlank()) {
+            log.warn("map.admin-cache.boundary-file is deprecated, use map.boundaries.file");
+            return legacy;
+        }
+        return file;
+    }
+    
+    private static String firstNonNull(String current, String candidate) {
+        return current != null ? current : candidate;
+    }
+    
+    /**
+     * Boundaries of one level
+     */
+    private static final class LevelIndex {
+        
+        private final STRtree tree = new STRtree();
+        private int size;
+        
+        void add(AdminBoundary boundary) {
+            tree.insert(boundary.getGeometry().getEnvelopeInternal(), new Candidate(boundary));
+            size++;
+        }
+        
+        AdminBoundary find(Point point) {
+            Candidate best = null;
+            for (Object item : tree.query(point.getEnvelopeInternal())) {
+                Candidate candidate = (Candidate) item;
+                if ((best == null || candidate.area < best.area) && candidate.geometry.covers(point)) {
+                    best = candidate;
+                }
+            }
+            return best == null ? null : best.boundary;
+        }
+    }
+    
+    private static final class Candidate {
+        
+        private final AdminBoundary boundary;
+        private final PreparedGeometry geometry;
+        private final double area;
+        
+        Candidate(AdminBoundary boundary) {
+            this.boundary = boundary;
+            this.geometry = PreparedGeometryFactory.prepare(boundary.getGeometry());
+            this.area = boundary.getGeometry().getArea();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.swifttrack.map.boundary;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swifttrack.map.dto.AdminLevel;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.Polygon;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads administrative boundaries from a GeoJSON FeatureCollection
+ *
+ * Each Polygon or MultiPolygon feature needs these properties:
+ * - admin_level: country | state | city (or OSM levels 2 | 4 | 8)
+ * - name, and optionally code (ISO 3166 code of the area itself)
+ * - country, country_code, state, state_code for the enclosing areas
+ *
+ * Features with another geometry type or an unknown level are skipped.
+ */
+@Slf4j
+@UtilityClass
+public class BoundaryFileReader {
+    
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+    
+    public List<AdminBoundary> read(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return read(in);
+        }
+    }
+    
+    public List<AdminBoundary> read(InputStream in) throws IOException {
+        JsonNode root = MAPPER.readTree(in);
+        List<AdminBoundary> boundaries = new ArrayList<>();
+        
+        for (JsonNode feature : root.path("features")) {
+            JsonNode properties = feature.path("properties");
+            AdminLevel level = parseLevel(properties.path("admin_level").asText(null));
+            Geometry geometry = parseGeometry(feature.path("geometry"));
+            String name = properties.path("name").asText(null);
+            if (level == null || geometry == null || name == null) {
+                log.warn("Skipping boundary feature {}: needs admin_level, name and (Multi)Polygon geometry", name);
+                continue;
+            }
+            
+            String code = properties.path("code").asText(null);
+            AdminBoundary.AdminBoundaryBuilder boundary = AdminBoundary.builder()
+                .level(level)
+                .geometry(geometry)
+                .country(properties.path("country").asText(null))
+                .countryCode(properties.path("country_code").asText(null))
+                .state(properties.path("state").asText(null))
+                .stateCode(properties.path("state_code").asText(null));
+            switch (level) {
+                case COUNTRY -> boundary.country(name).countryCode(code);
+                case STATE -> boundary.state(name).stateCode(code);
+                case CITY -> boundary.city(name);
+            }
+            boundaries.add(boundary.build());
+        }
+        return boundaries;
+    }
+    
+    private AdminLevel parseLevel(String level) {
+        if (level == null) {
+            return null;
+        }
+        return switch (level.trim()) {
+            case "2" -> AdminLevel.COUNTRY;
+            case "4" -> AdminLevel.STATE;
+            case "8" -> AdminLevel.CITY;
+            default -> AdminLevel.fromString(level);
+        };
+    }
+    
+    private Geometry parseGeometry(JsonNode geometry) {
+        JsonNode coordinates = geometry.path("coordinates");
+        return switch (geometry.path("type").asText("")) {
+            case "Polygon" -> parsePolygon(coordinates);
+            case "MultiPolygon" -> {
+                Polygon[] polygons = new Polygon[coordinates.size()];
+                for (int i = 0; i < polygons.length; i++) {
+                    polygons[i] = parsePolygon(coordinates.get(i));
+                }
+                yield GEOMETRY_FACTORY.createMultiPolygon(polygons);
+            }
+            default -> null;
+        };
+    }
+    
+    /**
+     * GeoJSON polygon: outer ring followed by holes, each a list of [lng, lat]
+     */
+    private Polygon parsePolygon(JsonNode rings) {
+        LinearRing shell = parseRing(rings.get(0));
+        LinearRing[] holes = new LinearRing[rings.size() - 1];
+        for (int i = 1; i < rings.size(); i++) {
+            holes[i - 1] = parseRing(rings.get(i));
+        }
+        return GEOMETRY_FACTORY.createPolygon(shell, holes);
+    }
+    
+    private LinearRing parseRing(JsonNode ring) {
+        List<Coordinate> coordinates = new ArrayList<>(ring.size() + 1);
+        for (JsonNode position : ring) {
+            coordinates.add(new Coordinate(position.get(0).asDouble(), position.get(1).asDouble()));
+        }
+        // Ensure ring is closed
+        if (!coordinates.isEmpty() && !coordinates.get(0).equals2D(coordinates.get(coordinates.size() - 1))) {
+            coordinates.add(new Coordinate(coordinates.get(0)));
+        }
+        return GEOMETRY_FACTORY.createLinearRing(coordinates.toArray(Coordinate[]::new));
+    }
+}
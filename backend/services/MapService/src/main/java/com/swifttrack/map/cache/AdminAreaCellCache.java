@@ -0,0 +1,168 @@
+package com.swifttrack.map.cache;
+
+import com.swifttrack.map.config.MapServiceProperties;
+import com.swifttrack.map.dto.AdminLevel;
+import com.swifttrack.map.dto.Coordinates;
+import com.swifttrack.map.dto.NormalizedLocation;
+import com.swifttrack.map.util.GeohashUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Admin-level reverse geocodes (country, state, city) keyed by geohash cell
+ *
+ * Cells are learned from Nominatim results at a precision configured per
+ * {@link AdminLevel}, bounded and with a TTL; points covered by
+ * {@code map.boundaries.file} are answered exactly by
+ * {@link com.swifttrack.map.boundary.AdminBoundaryIndex} before this cache.
+ *
+ * One answer says nothing about the rest of a cell, which may straddle a
+ * border. A learned cell is only served once {@code min-samples} points in
+ * distinct sub-cells (one geohash character finer) agree; until then its
+ * points keep going to Nominatim and add samples. A cell that sees two
+ * different answers is marked ambiguous and never served.
+ *
+ * Metrics (tag level = country|state|city):
+ * - map.admin.cell.requests{result=hit|unconfirmed|miss|ambiguous}
+ * - map.admin.cell.size
+ */
+@Slf4j
+@Component
+public class AdminAreaCellCache {
+    
+    private static final Object AMBIGUOUS = new Object();
+    
+    private final boolean enabled;
+    private final int minSamples;
+    private final Map<AdminLevel, Integer> precision = new EnumMap<>(AdminLevel.class);
+    private final Map<AdminLevel, LocalCache> learned = new EnumMap<>(AdminLevel.class);
+    private final Map<AdminLevel, Map<String, Counter>> requests = new EnumMap<>(AdminLevel.class);
+    
+    @Autowired
+    public AdminAreaCellCache(MapServiceProperties properties, MeterRegistry meterRegistry) {
+        this(properties.getAdminCache(), meterRegistry);
+    }
+    
+    AdminAreaCellCache(MapServiceProperties.AdminCacheConfig config, MeterRegistry meterRegistry) {
+        this.enabled = config.isEnabled();
+        this.minSamples = Math.max(1, config.getMinSamples());
+        precision.put(AdminLevel.COUNTRY, config.getCountryPrecision());
+        precision.put(AdminLevel.STATE, config.getStatePrecision());
+        precision.put(AdminLevel.CITY, config.getCityPrecision());
+        
+        for (AdminLevel level : AdminLevel.values()) {
+            String tag = level.name().toLowerCase();
+            LocalCache cache = new LocalCache(config.getMaxCells(), config.getTtl() * 1000);
+            learned.put(level, cache);
+            
+            Map<String, Counter> counters = new HashMap<>();
+            for (String result : List.of("hit", "unconfirmed", "miss", "ambiguous")) {
+                counters.put(result, Counter.builder("map.admin.cell.requests")
+                    .tag("level", tag)
+                    .tag("result", result)
+                    .register(meterRegistry));
+            }
+            requests.put(level, counters);
+            Gauge.builder("map.admin.cell.size", cache, LocalCache::size)
+                .tag("level", tag)
+                .register(meterRegistry);
+        }
+    }
+    
+    /**
+     * Admin areas at the given level for the cell containing the point
+     */
+    public Optional<NormalizedLocation> lookup(double latitude, double longitude, AdminLevel level) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        String cell = GeohashUtils.encode(latitude, longitude, precision.get(level));
+        Map<String, Counter> counters = requests.get(level);
+        
+        Object found = learned.get(level).get(cell);
+        if (found == null || found == AMBIGUOUS) {
+            counters.get(found == null ? "miss" : "ambiguous").increment();
+            return Optional.empty();
+        }
+        LearnedCell learnedCell = (LearnedCell) found;
+        if (!learnedCell.confirmed) {
+            counters.get("unconfirmed").increment();
+            return Optional.empty();
+        }
+        counters.get("hit").increment();
+        
+        NormalizedLocation answer = level.project(learnedCell.location);
+        answer.setCoordinates(new Coordinates(latitude, longitude));
+        return Optional.of(answer);
+    }
+    
+    /**
+     * Learns the admin areas of a resolved point for every level it answers
+     */
+    public void record(double latitude, double longitude, NormalizedLocation location) {
+        if (!enabled || location == null) {
+            return;
+        }
+        for (AdminLevel level : AdminLevel.values()) {
+            if (!level.isResolved(location)) {
+                continue;
+            }
+            int cellPrecision = precision.get(level);
+            String subcell = GeohashUtils.encode(latitude, longitude,
+                Math.min(cellPrecision + 1, GeohashUtils.MAX_PRECISION));
+            String cell = subcell.substring(0, cellPrecision);
+            NormalizedLocation projected = level.project(location);
+            LocalCache cells = learned.get(level);
+            synchronized (cells) {
+                Object existing = cells.get(cell);
+                if (existing == null) {
+                    LearnedCell learnedCell = new LearnedCell(projected);
+                    learnedCell.addSample(subcell, minSamples);
+                    cells.put(cell, learnedCell);
+                } else if (existing != AMBIGUOUS) {
+                    LearnedCell learnedCell = (LearnedCell) existing;
+                    if (learnedCell.location.equals(projected)) {
+                        learnedCell.addSample(subcell, minSamples);
+                    } else {
+                        log.debug("Admin cell {} ({}) straddles a boundary: {} vs {}", cell, level,
+                            learnedCell.location.getFormattedAddress(), projected.getFormattedAddress());
+                        cells.put(cell, AMBIGUOUS);
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Answer learned for a cell and the sub-cells that agreed with it
+     */
+    private static final class LearnedCell {
+        
+        private final NormalizedLocation location;
+        private final Set<String> subcells = new HashSet<>();   // guarded by the level's LocalCache
+        private volatile boolean confirmed;
+        
+        LearnedCell(NormalizedLocation location) {
+            this.location = location;
+        }
+        
+        void addSample(String subcell, int minSamples) {
+            if (!confirmed && subcells.add(subcell) && subcells.size() >= minSamples) {
+                confirmed = true;
+                subcells.clear();
+            }
+        }
+    }
+}
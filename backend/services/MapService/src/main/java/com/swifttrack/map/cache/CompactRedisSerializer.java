@@ -0,0 +1,155 @@
+package com.swifttrack.map.cache;
+
+import com.swifttrack.map.dto.MatrixResponse;
+import com.swifttrack.map.dto.RouteResponse;
+import com.swifttrack.map.dto.SnapToRoadResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Redis value serializer that stores routes, matrices and snap results with
+ * {@link MapCacheCodec} and everything else with the JSON delegate
+ *
+ * Binary values start with a type tag below 0x20, which JSON never does, so
+ * entries written by the JSON serializer before the switch still decode.
+ * Bodies of at least {@code compressionThreshold} bytes are deflated when
+ * that makes them smaller. A binary value with another format version, or
+ * one that fails to decode, is read as a cache miss and recomputed.
+ *
+ * With binary writes off every value is written as JSON, but binary entries
+ * already in Redis are still read, so the codec can be switched either way
+ * without flushing the cache.
+ *
+ * Header: [type tag][format version][flags], then the (optionally deflated) body
+ */
+@Slf4j
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+    
+    static final byte TYPE_ROUTE = 0x01;
+    static final byte TYPE_MATRIX = 0x02;
+    static final byte TYPE_SNAP = 0x03;
+    
+    private static final byte FLAG_DEFLATED = 0x01;
+    private static final int HEADER_LENGTH = 3;
+    
+    private final RedisSerializer<Object> fallback;
+    private final int compressionThreshold;
+    private final boolean binaryWrites;
+    
+    /**
+     * @param compressionThreshold minimum body size to try deflating; 0 or less disables compression
+     */
+    public CompactRedisSerializer(RedisSerializer<Object> fallback, int compressionThreshold) {
+        this(fallback, compressionThreshold, true);
+    }
+    
+    /**
+     * @param binaryWrites whether routes, matrices and snap results are written in binary; reads
+     *                     decode both formats either way
+     */
+    public CompactRedisSerializer(RedisSerializer<Object> fallback, int compressionThreshold, boolean binaryWrites) {
+        this.fallback = fallback;
+        this.compressionThreshold = compressionThreshold;
+        this.binaryWrites = binaryWrites;
+    }
+    
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (!binaryWrites) {
+            return fallback.serialize(value);
+        }
+        byte type;
+        if (value instanceof RouteResponse) {
+            type = TYPE_ROUTE;
+        } else if (value instanceof MatrixResponse) {
+            type = TYPE_MATRIX;
+        } else if (value instanceof SnapToRoadResponse) {
+            type = TYPE_SNAP;
+        } else {
+            return fallback.serialize(value);
+        }
+        
+        try {
+            ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(body);
+            switch (type) {
+                case TYPE_ROUTE -> MapCacheCodec.writeRoute(out, (RouteResponse) value);
+                case TYPE_MATRIX -> MapCacheCodec.writeMatrix(out, (MatrixResponse) value);
+                default -> MapCacheCodec.writeSnap(out, (SnapToRoadResponse) value);
+            }
+            out.flush();
+            byte[] raw = body.toByteArray();
+            
+            byte flags = 0;
+            byte[] payload = raw;
+            if (compressionThreshold > 0 && raw.length >= compressionThreshold) {
+                byte[] deflated = deflate(raw);
+                if (deflated.length < raw.length) {
+                    payload = deflated;
+                    flags |= FLAG_DEFLATED;
+                }
+            }
+            
+            byte[] result = new byte[HEADER_LENGTH + payload.length];
+            result[0] = type;
+            result[1] = MapCacheCodec.FORMAT_VERSION;
+            result[2] = flags;
+            System.arraycopy(payload, 0, result, HEADER_LENGTH, payload.length);
+            return result;
+        } catch (IOException e) {
+            throw new SerializationException("Could not encode " + value.getClass().getSimpleName(), e);
+        }
+    }
+    
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        byte type = bytes[0];
+        if (type != TYPE_ROUTE && type != TYPE_MATRIX && type != TYPE_SNAP) {
+            return fallback.deserialize(bytes);
+        }
+        if (bytes.length < HEADER_LENGTH || bytes[1] != MapCacheCodec.FORMAT_VERSION) {
+            log.debug("Ignoring cached value with format version {}", bytes.length > 1 ? bytes[1] : -1);
+            return null;
+        }
+        
+        InputStream body = new ByteArrayInputStream(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+        if ((bytes[2] & FLAG_DEFLATED) != 0) {
+            body = new InflaterInputStream(body);
+        }
+        try (DataInputStream in = new DataInputStream(body)) {
+            return switch (type) {
+                case TYPE_ROUTE -> MapCacheCodec.readRoute(in);
+                case TYPE_MATRIX -> MapCacheCodec.readMatrix(in);
+                default -> MapCacheCodec.readSnap(in);
+            };
+        } catch (IOException e) {
+            log.warn("Discarding undecodable cached value (type {}): {}", type, e.getMessage());
+            return null;
+        }
+    }
+    
+    private static byte[] deflate(byte[] raw) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 2);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DeflaterOutputStream out = new DeflaterOutputStream(compressed, deflater)) {
+            out.write(raw);
+        } finally {
+            deflater.end();
+        }
+        return compressed.toByteArray();
+    }
+}
@@ -0,0 +1,68 @@
+package com.swifttrack.map.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded in-process map with LRU eviction and a fixed per-entry TTL
+ */
+public class LocalCache {
+    
+    private record Entry(Object value, long expiresAt) {
+    }
+    
+    private final LinkedHashMap<Object, Entry> entries;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    
+    public LocalCache(int maxEntries, long ttlMillis) {
+        this(maxEntries, ttlMillis, System::currentTimeMillis);
+    }
+    
+    LocalCache(int maxEntries, long ttlMillis, LongSupplier clock) {
+        int capacity = Math.max(1, maxEntries);
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+    
+    /**
+     * Returns the live value for the key, or null if absent or expired
+     */
+    public synchronized Object get(Object key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() <= clock.getAsLong()) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value();
+    }
+    
+    public synchronized void put(Object key, Object value) {
+        if (value == null || ttlMillis <= 0) {
+            return;
+        }
+        entries.put(key, new Entry(value, clock.getAsLong() + ttlMillis));
+    }
+    
+    public synchronized void evict(Object key) {
+        entries.remove(key);
+    }
+    
+    public synchronized void clear() {
+        entries.clear();
+    }
+    
+    public synchronized int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,599 @@
+package com.swifttrack.map.cache;
+
+import com.swifttrack.map.dto.Coordinates;
+import com.swifttrack.map.dto.MatrixResponse;
+import com.swifttrack.map.dto.RouteResponse;
+import com.swifttrack.map.dto.SnapToRoadResponse;
+import com.swifttrack.map.dto.SnappedPoint;
+import com.swifttrack.map.dto.StepInstruction;
+import com.swifttrack.map.dto.TravelMode;
+import com.swifttrack.map.util.PolylineUtils;
+import lombok.experimental.UtilityClass;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Schema-aware binary encoding of the routing DTOs kept in Redis
+ *
+ * Field order is fixed per type and enums are written by ordinal, so any
+ * change to these DTOs or their enums must bump {@link #FORMAT_VERSION}.
+ * Lengths are unsigned varints, with 0 meaning null. Matrices are written as
+ * primitive doubles, with NaN standing for a null element. Coordinate lists
+ * that are exact at 5 or 6 decimals are delta/zigzag encoded like a
+ * polyline, and route geometry that equals its decoded polyline is not
+ * stored at all.
+ */
+@UtilityClass
+public class MapCacheCodec {
+    
+    public static final byte FORMAT_VERSION = 1;
+    
+    private static final byte COORDS_RAW = 0;
+    private static final byte COORDS_DELTA_E5 = 5;
+    private static final byte COORDS_DELTA_E6 = 6;
+    private static final byte COORDS_FROM_POLYLINE = 7;
+    
+    // ─── Route ────────────────────────────────────────────────────────
+    
+    public void writeRoute(DataOutput out, RouteResponse route) throws IOException {
+        writeEnum(out, route.getStatus());
+        writeString(out, route.getErrorMessage());
+        writeCoordinates(out, route.getOrigin());
+        writeCoordinates(out, route.getDestination());
+        writeEnum(out, route.getTravelMode());
+        writeDouble(out, route.getDistanceMeters());
+        writeString(out, route.getDistanceText());
+        writeDouble(out, route.getDurationSeconds());
+        writeString(out, route.getDurationText());
+        writeString(out, route.getEncodedPolyline());
+        writeGeometry(out, route.getGeometry(), route.getEncodedPolyline());
+        writeSteps(out, route.getSteps());
+        writeString(out, route.getSummary());
+        writeCoordinateList(out, route.getWaypoints());
+        writeInstant(out, route.getEstimatedArrival());
+        
+        List<RouteResponse> alternatives = route.getAlternatives();
+        writeLength(out, alternatives);
+        if (alternatives != null) {
+            for (RouteResponse alternative : alternatives) {
+                writeRoute(out, alternative);
+            }
+        }
+    }
+    
+    public RouteResponse readRoute(DataInput in) throws IOException {
+        RouteResponse route = new RouteResponse();
+        route.setStatus(readEnum(in, RouteResponse.RouteStatus.values()));
+        route.setErrorMessage(readString(in));
+        route.setOrigin(readCoordinates(in));
+        route.setDestination(readCoordinates(in));
+        route.setTravelMode(readEnum(in, TravelMode.values()));
+        route.setDistanceMeters(readDouble(in));
+        route.setDistanceText(readString(in));
+        route.setDurationSeconds(readDouble(in));
+        route.setDurationText(readString(in));
+        route.setEncodedPolyline(readString(in));
+        route.setGeometry(readGeometry(in, route.getEncodedPolyline()));
+        route.setSteps(readSteps(in));
+        route.setSummary(readString(in));
+        route.setWaypoints(readCoordinateList(in));
+        route.setEstimatedArrival(readInstant(in));
+        
+        int alternatives = readLength(in);
+        if (alternatives >= 0) {
+            List<RouteResponse> list = new ArrayList<>(alternatives);
+            for (int i = 0; i < alternatives; i++) {
+                list.add(readRoute(in));
+            }
+            route.setAlternatives(list);
+        }
+        return route;
+    }
+    
+    private void writeSteps(DataOutput out, List<StepInstruction> steps) throws IOException {
+        writeLength(out, steps);
+        if (steps == null) {
+            return;
+        }
+        for (StepInstruction step : steps) {
+            writeInteger(out, step.getStepIndex());
+            writeString(out, step.getInstruction());
+            writeString(out, step.getHtmlInstruction());
+            writeEnum(out, step.getManeuver());
+            writeString(out, step.getManeuverModifier());
+            writeDouble(out, step.getDistanceMeters());
+            writeString(out, step.getDistanceText());
+            writeDouble(out, step.getDurationSeconds());
+            writeString(out, step.getDurationText());
+            writeCoordinates(out, step.getStartLocation());
+            writeCoordinates(out, step.getEndLocation());
+            writeDouble(out, step.getBearingBefore());
+            writeDouble(out, step.getBearingAfter());
+            writeString(out, step.getStreetName());
+            writeString(out, step.getRoadRef());
+            writeInteger(out, step.getSpeedLimit());
+        }
+    }
+    
+    private List<StepInstruction> readSteps(DataInput in) throws IOException {
+        int count = readLength(in);
+        if (count < 0) {
+            return null;
+        }
+        List<StepInstruction> steps = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StepInstruction step = new StepInstruction();
+            step.setStepIndex(readInteger(in));
+            step.setInstruction(readString(in));
+            step.setHtmlInstruction(readString(in));
+            step.setManeuver(readEnum(in, StepInstruction.ManeuverType.values()));
+            step.setManeuverModifier(readString(in));
+            step.setDistanceMeters(readDouble(in));
+            step.setDistanceText(readString(in));
+            step.setDurationSeconds(readDouble(in));
+            step.setDurationText(readString(in));
+            step.setStartLocation(readCoordinates(in));
+            step.setEndLocation(readCoordinates(in));
+            step.setBearingBefore(readDouble(in));
+            step.setBearingAfter(readDouble(in));
+            step.setStreetName(readString(in));
+            step.setRoadRef(readString(in));
+            step.setSpeedLimit(readInteger(in));
+            steps.add(step);
+        }
+        return steps;
+    }
+    
+    // ─── Matrix ───────────────────────────────────────────────────────
+    
+    public void writeMatrix(DataOutput out, MatrixResponse matrix) throws IOException {
+        writeEnum(out, matrix.getStatus());
+        writeString(out, matrix.getErrorMessage());
+        writeCoordinateList(out, matrix.getOrigins());
+        writeCoordinateList(out, matrix.getDestinations());
+        writeEnum(out, matrix.getTravelMode());
+        writeDoubleMatrix(out, matrix.getDistances());
+        writeDoubleMatrix(out, matrix.getDurations());
+        writeStringMatrix(out, matrix.getDistanceTexts());
+        writeStringMatrix(out, matrix.getDurationTexts());
+        
+        List<List<MatrixResponse.ElementStatus>> statuses = matrix.getElementStatuses();
+        writeLength(out, statuses);
+        if (statuses != null) {
+            for (List<MatrixResponse.ElementStatus> row : statuses) {
+                writeLength(out, row);
+                if (row != null) {
+                    for (MatrixResponse.ElementStatus status : row) {
+                        writeEnum(out, status);
+                    }
+                }
+            }
+        }
+    }
+    
+    public MatrixResponse readMatrix(DataInput in) throws IOException {
+        MatrixResponse matrix = new MatrixResponse();
+        matrix.setStatus(readEnum(in, MatrixResponse.MatrixStatus.values()));
+        matrix.setErrorMessage(readString(in));
+        matrix.setOrigins(readCoordinateList(in));
+        matrix.setDestinations(readCoordinateList(in));
+        matrix.setTravelMode(readEnum(in, TravelMode.values()));
+        matrix.setDistances(readDoubleMatrix(in));
+        matrix.setDurations(readDoubleMatrix(in));
+        matrix.setDistanceTexts(readStringMatrix(in));
+        matrix.setDurationTexts(readStringMatrix(in));
+        
+        int rows = readLength(in);
+        if (rows >= 0) {
+            MatrixResponse.ElementStatus[] values = MatrixResponse.ElementStatus.values();
+            List<List<MatrixResponse.ElementStatus>> statuses = new ArrayList<>(rows);
+            for (int r = 0; r < rows; r++) {
+                int columns = readLength(in);
+                if (columns < 0) {
+                    statuses.add(null);
+                    continue;
+                }
+                List<MatrixResponse.ElementStatus> row = new ArrayList<>(columns);
+                for (int c = 0; c < columns; c++) {
+                    row.add(readEnum(in, values));
+                }
+                statuses.add(row);
+            }
+            matrix.setElementStatuses(statuses);
+        }
+        return matrix;
+    }
+    
+    private void writeDoubleMatrix(DataOutput out, List<List<Double>> matrix) throws IOException {
+        writeLength(out, matrix);
+        if (matrix == null) {
+            return;
+        }
+        for (List<Double> row : matrix) {
+            writeLength(out, row);
+            if (row != null) {
+                for (Double value : row) {
+                    out.writeDouble(value != null ? value : Double.NaN);
+                }
+            }
+        }
+    }
+    
+    private List<List<Double>> readDoubleMatrix(DataInput in) throws IOException {
+        int rows = readLength(in);
+        if (rows < 0) {
+            return null;
+        }
+        List<List<Double>> matrix = new ArrayList<>(rows);
+        for (int r = 0; r < rows; r++) {
+            int columns = readLength(in);
+            if (columns < 0) {
+                matrix.add(null);
+                continue;
+            }
+            List<Double> row = new ArrayList<>(columns);
+            for (int c = 0; c < columns; c++) {
+                double value = in.readDouble();
+                row.add(Double.isNaN(value) ? null : value);
+            }
+            matrix.add(row);
+        }
+        return matrix;
+    }
+    
+    private void writeStringMatrix(DataOutput out, List<List<String>> matrix) throws IOException {
+        writeLength(out, matrix);
+        if (matrix == null) {
+            return;
+        }
+        for (List<String> row : matrix) {
+            writeLength(out, row);
+            if (row != null) {
+                for (String value : row) {
+                    writeString(out, value);
+                }
+            }
+        }
+    }
+    
+    private List<List<String>> readStringMatrix(DataInput in) throws IOException {
+        int rows = readLength(in);
+        if (rows < 0) {
+            return null;
+        }
+        List<List<String>> matrix = new ArrayList<>(rows);
+        for (int r = 0; r < rows; r++) {
+            int columns = readLength(in);
+            if (columns < 0) {
+                matrix.add(null);
+                continue;
+            }
+            List<String> row = new ArrayList<>(columns);
+            for (int c = 0; c < columns; c++) {
+                row.add(readString(in));
+            }
+            matrix.add(row);
+        }
+        return matrix;
+    }
+    
+    // ─── Snap to road ─────────────────────────────────────────────────
+    
+    public void writeSnap(DataOutput out, SnapToRoadResponse snap) throws IOException {
+        writeEnum(out, snap.getStatus());
+        writeString(out, snap.getErrorMessage());
+        writeCoordinateList(out, snap.getOriginalPoints());
+        writeString(out, snap.getEncodedPolyline());
+        
+        List<SnappedPoint> points = snap.getSnappedPoints();
+        writeLength(out, points);
+        if (points == null) {
+            return;
+        }
+        for (SnappedPoint point : points) {
+            writeCoordinates(out, point.getOriginalLocation());
+            writeCoordinates(out, point.getSnappedLocation());
+            writeDouble(out, point.getSnapDistanceMeters());
+            writeInteger(out, point.getOriginalIndex());
+            writeBoolean(out, point.getIsSnapped());
+            writeString(out, point.getStreetName());
+            writeString(out, point.getRoadRef());
+            writeInteger(out, point.getWaypointIndex());
+            writeDouble(out, point.getBearing());
+            writeDouble(out, point.getConfidence());
+        }
+    }
+    
+    public SnapToRoadResponse readSnap(DataInput in) throws IOException {
+        SnapToRoadResponse snap = new SnapToRoadResponse();
+        snap.setStatus(readEnum(in, SnapToRoadResponse.SnapStatus.values()));
+        snap.setErrorMessage(readString(in));
+        snap.setOriginalPoints(readCoordinateList(in));
+        snap.setEncodedPolyline(readString(in));
+        
+        int count = readLength(in);
+        if (count >= 0) {
+            List<SnappedPoint> points = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                SnappedPoint point = new SnappedPoint();
+                point.setOriginalLocation(readCoordinates(in));
+                point.setSnappedLocation(readCoordinates(in));
+                point.setSnapDistanceMeters(readDouble(in));
+                point.setOriginalIndex(readInteger(in));
+                point.setIsSnapped(readBoolean(in));
+                point.setStreetName(readString(in));
+                point.setRoadRef(readString(in));
+                point.setWaypointIndex(readInteger(in));
+                point.setBearing(readDouble(in));
+                point.setConfidence(readDouble(in));
+                points.add(point);
+            }
+            snap.setSnappedPoints(points);
+        }
+        return snap;
+    }
+    
+    // ─── Coordinates ──────────────────────────────────────────────────
+    
+    private void writeCoordinates(DataOutput out, Coordinates coordinates) throws IOException {
+        if (coordinates == null) {
+            out.writeByte(0);
+            return;
+        }
+        int mask = 0x80
+            | (coordinates.getLatitude() != null ? 1 : 0)
+            | (coordinates.getLongitude() != null ? 2 : 0);
+        out.writeByte(mask);
+        if (coordinates.getLatitude() != null) {
+            out.writeDouble(coordinates.getLatitude());
+        }
+        if (coordinates.getLongitude() != null) {
+            out.writeDouble(coordinates.getLongitude());
+        }
+    }
+    
+    private Coordinates readCoordinates(DataInput in) throws IOException {
+        int mask = in.readUnsignedByte();
+        if (mask == 0) {
+            return null;
+        }
+        Coordinates coordinates = new Coordinates();
+        if ((mask & 1) != 0) {
+            coordinates.setLatitude(in.readDouble());
+        }
+        if ((mask & 2) != 0) {
+            coordinates.setLongitude(in.readDouble());
+        }
+        return coordinates;
+    }
+    
+    /**
+     * Route geometry is normally the decoded polyline; in that case only a
+     * marker is written
+     */
+    private void writeGeometry(DataOutput out, List<Coordinates> geometry, String polyline) throws IOException {
+        if (geometry != null && !geometry.isEmpty() && polyline != null
+            && geometry.equals(PolylineUtils.decode(polyline))) {
+            out.writeByte(COORDS_FROM_POLYLINE);
+            return;
+        }
+        out.writeByte(COORDS_RAW);
+        writeCoordinateList(out, geometry);
+    }
+    
+    private List<Coordinates> readGeometry(DataInput in, String polyline) throws IOException {
+        byte mode = in.readByte();
+        if (mode == COORDS_FROM_POLYLINE) {
+            return PolylineUtils.decode(polyline);
+        }
+        return readCoordinateList(in);
+    }
+    
+    private void writeCoordinateList(DataOutput out, List<Coordinates> list) throws IOException {
+        writeLength(out, list);
+        if (list == null) {
+            return;
+        }
+        byte mode = deltaMode(list);
+        out.writeByte(mode);
+        if (mode == COORDS_RAW) {
+            for (Coordinates coordinates : list) {
+                writeCoordinates(out, coordinates);
+            }
+            return;
+        }
+        double scale = mode == COORDS_DELTA_E5 ? 1E5 : 1E6;
+        long previousLat = 0;
+        long previousLng = 0;
+        for (Coordinates coordinates : list) {
+            long lat = Math.round(coordinates.getLatitude() * scale);
+            long lng = Math.round(coordinates.getLongitude() * scale);
+            writeVarLong(out, zigzag(lat - previousLat));
+            writeVarLong(out, zigzag(lng - previousLng));
+            previousLat = lat;
+            previousLng = lng;
+        }
+    }
+    
+    private List<Coordinates> readCoordinateList(DataInput in) throws IOException {
+        int count = readLength(in);
+        if (count < 0) {
+            return null;
+        }
+        byte mode = in.readByte();
+        List<Coordinates> list = new ArrayList<>(count);
+        if (mode == COORDS_RAW) {
+            for (int i = 0; i < count; i++) {
+                list.add(readCoordinates(in));
+            }
+            return list;
+        }
+        if (mode != COORDS_DELTA_E5 && mode != COORDS_DELTA_E6) {
+            throw new IOException("Unknown coordinate encoding " + mode);
+        }
+        double scale = mode == COORDS_DELTA_E5 ? 1E5 : 1E6;
+        long lat = 0;
+        long lng = 0;
+        for (int i = 0; i < count; i++) {
+            lat += unzigzag(readVarLong(in));
+            lng += unzigzag(readVarLong(in));
+            list.add(new Coordinates(lat / scale, lng / scale));
+        }
+        return list;
+    }
+    
+    /**
+     * The delta encoding that reproduces every coordinate exactly, or raw
+     */
+    private byte deltaMode(List<Coordinates> list) {
+        if (exactAt(list, 1E5)) {
+            return COORDS_DELTA_E5;
+        }
+        if (exactAt(list, 1E6)) {
+            return COORDS_DELTA_E6;
+        }
+        return COORDS_RAW;
+    }
+    
+    private boolean exactAt(List<Coordinates> list, double scale) {
+        for (Coordinates coordinates : list) {
+            if (coordinates == null || coordinates.getLatitude() == null || coordinates.getLongitude() == null) {
+                return false;
+            }
+            double lat = coordinates.getLatitude();
+            double lng = coordinates.getLongitude();
+            if (Math.round(lat * scale) / scale != lat || Math.round(lng * scale) / scale != lng) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // ─── Primitives ───────────────────────────────────────────────────
+    
+    private void writeLength(DataOutput out, List<?> list) throws IOException {
+        writeVarLong(out, list == null ? 0 : list.size() + 1L);
+    }
+    
+    /**
+     * Element count, or -1 for a null list
+     */
+    private int readLength(DataInput in) throws IOException {
+        long encoded = readVarLong(in);
+        if (encoded > Integer.MAX_VALUE) {
+            throw new IOException("Corrupt length " + encoded);
+        }
+        return (int) encoded - 1;
+    }
+    
+    private void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1L);
+        out.write(bytes);
+    }
+    
+    private String readString(DataInput in) throws IOException {
+        int length = readLength(in);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    private void writeDouble(DataOutput out, Double value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeDouble(value);
+        }
+    }
+    
+    private Double readDouble(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readDouble() : null;
+    }
+    
+    private void writeInteger(DataOutput out, Integer value) throws IOException {
+        writeVarLong(out, value == null ? 0 : zigzag(value) + 1);
+    }
+    
+    private Integer readInteger(DataInput in) throws IOException {
+        long encoded = readVarLong(in);
+        return encoded == 0 ? null : (int) unzigzag(encoded - 1);
+    }
+    
+    private void writeBoolean(DataOutput out, Boolean value) throws IOException {
+        out.writeByte(value == null ? 0 : value ? 2 : 1);
+    }
+    
+    private Boolean readBoolean(DataInput in) throws IOException {
+        int value = in.readUnsignedByte();
+        return value == 0 ? null : value == 2;
+    }
+    
+    private void writeInstant(DataOutput out, Instant value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.getEpochSecond());
+            out.writeInt(value.getNano());
+        }
+    }
+    
+    private Instant readInstant(DataInput in) throws IOException {
+        return in.readBoolean() ? Instant.ofEpochSecond(in.readLong(), in.readInt()) : null;
+    }
+    
+    private void writeEnum(DataOutput out, Enum<?> value) throws IOException {
+        out.writeByte(value == null ? 0 : value.ordinal() + 1);
+    }
+    
+    private <E extends Enum<E>> E readEnum(DataInput in, E[] values) throws IOException {
+        int encoded = in.readUnsignedByte();
+        if (encoded == 0) {
+            return null;
+        }
+        if (encoded > values.length) {
+            throw new IOException("Unknown ordinal " + (encoded - 1) + " for "
+                + values.getClass().getComponentType().getSimpleName());
+        }
+        return values[encoded - 1];
+    }
+    
+    private long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+    
+    private long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+    
+    private void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+    
+    private long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
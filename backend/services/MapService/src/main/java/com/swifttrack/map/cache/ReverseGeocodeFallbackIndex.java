@@ -0,0 +1,140 @@
+package com.swifttrack.map.cache;
+
+import com.swifttrack.map.config.MapServiceProperties;
+import com.swifttrack.map.dto.NormalizedLocation;
+import com.swifttrack.map.util.GeoUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Spatial index of recently resolved reverse geocodes, used to answer with
+ * the nearest known address when Nominatim cannot be called
+ *
+ * Points are bucketed into a fixed lat/lng grid; a lookup scans only the
+ * cells that can hold a point within the search radius. Bounded, evicting
+ * the least recently resolved point, and local to this instance.
+ */
+@Component
+public class ReverseGeocodeFallbackIndex {
+    
+    private static final double CELL_DEGREES = 0.01;        // ~1.1 km of latitude
+    private static final double METERS_PER_DEGREE = 111_320;
+    
+    private record Entry(double latitude, double longitude, NormalizedLocation location) {
+    }
+    
+    private final LinkedHashMap<Long, Entry> entries;
+    private final Map<Long, Set<Long>> cells = new HashMap<>();
+    private final double radiusMeters;
+    
+    @Autowired
+    public ReverseGeocodeFallbackIndex(MapServiceProperties properties) {
+        this(properties.getNominatim().getFallbackMaxEntries(), properties.getNominatim().getFallbackRadiusMeters());
+    }
+    
+    ReverseGeocodeFallbackIndex(int maxEntries, double radiusMeters) {
+        int capacity = Math.max(1, maxEntries);
+        this.radiusMeters = radiusMeters;
+        this.entries = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() <= capacity) {
+                    return false;
+                }
+                unlink(eldest.getKey(), eldest.getValue());
+                return true;
+            }
+        };
+    }
+    
+    /**
+     * Records the address resolved for a query point
+     */
+    public synchronized void put(double latitude, double longitude, NormalizedLocation location) {
+        if (location == null) {
+            return;
+        }
+        long key = pointKey(latitude, longitude);
+        Entry previous = entries.remove(key);
+        if (previous != null) {
+            unlink(key, previous);
+        }
+        entries.put(key, new Entry(latitude, longitude, location));
+        cells.computeIfAbsent(cellKey(row(latitude), column(longitude)), cell -> new HashSet<>()).add(key);
+    }
+    
+    /**
+     * Address resolved for the closest query point within the configured radius
+     */
+    public synchronized Optional<NormalizedLocation> nearest(double latitude, double longitude) {
+        double cellMeters = CELL_DEGREES * METERS_PER_DEGREE;
+        int rowSpan = (int) Math.ceil(radiusMeters / cellMeters);
+        double cosLat = Math.max(Math.cos(Math.toRadians(latitude)), 0.01);
+        int columnSpan = (int) Math.ceil(radiusMeters / (cellMeters * cosLat));
+        
+        int row = row(latitude);
+        int column = column(longitude);
+        Entry best = null;
+        double bestDistance = radiusMeters;
+        for (int r = row - rowSpan; r <= row + rowSpan; r++) {
+            for (int c = column - columnSpan; c <= column + columnSpan; c++) {
+                Set<Long> keys = cells.get(cellKey(r, c));
+                if (keys == null) {
+                    continue;
+                }
+                for (Long key : keys) {
+                    Entry entry = entries.get(key);
+                    double distance = GeoUtils.haversineDistance(latitude, longitude, entry.latitude(), entry.longitude());
+                    if (distance <= bestDistance) {
+                        best = entry;
+                        bestDistance = distance;
+                    }
+                }
+            }
+        }
+        return best == null ? Optional.empty() : Optional.of(best.location());
+    }
+    
+    public synchronized int size() {
+        return entries.size();
+    }
+    
+    private void unlink(long key, Entry entry) {
+        long cell = cellKey(row(entry.latitude()), column(entry.longitude()));
+        Set<Long> keys = cells.get(cell);
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                cells.remove(cell);
+            }
+        }
+    }
+    
+    /**
+     * Same 5-decimal rounding as the reverse-geocode cache key
+     */
+    private static long pointKey(double latitude, double longitude) {
+        long lat = Math.round(latitude * 1E5) + 9_000_000L;
+        long lng = Math.round(longitude * 1E5) + 18_000_000L;
+        return lat * 36_000_001L + lng;
+    }
+    
+    private static int row(double latitude) {
+        return (int) Math.floor(latitude / CELL_DEGREES);
+    }
+    
+    private static int column(double longitude) {
+        return (int) Math.floor(longitude / CELL_DEGREES);
+    }
+    
+    private static long cellKey(int row, int column) {
+        return ((long) row << 32) | (column & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,184 @@
+package com.swifttrack.map.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Near cache: an in-process {@link LocalCache} (L1) in front of a shared
+ * cache such as Redis (L2).
+ *
+ * Reads try L1, then L2 (promoting hits into L1). With {@code @Cacheable(sync = true)}
+ * a miss on both tiers runs the loader once per key per instance; concurrent
+ * callers for the same key wait for that load instead of calling the
+ * upstream provider themselves.
+ *
+ * Metrics (tag cache = cache name):
+ * - map.cache.requests{tier=l1|l2, result=hit|miss}
+ * - map.cache.hit.ratio
+ * - map.cache.local.size
+ * - map.cache.load (loader latency)
+ * - map.cache.coalesced (callers that waited on another caller's load)
+ */
+public class TwoTierCache implements Cache {
+    
+    private final String name;
+    private final LocalCache local;
+    private final Cache remote;
+    private final ConcurrentMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    
+    private final Counter l1Hits;
+    private final Counter l1Misses;
+    private final Counter l2Hits;
+    private final Counter l2Misses;
+    private final Counter coalesced;
+    private final Timer loadTimer;
+    
+    public TwoTierCache(String name, LocalCache local, Cache remote, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        
+        this.l1Hits = requests(meterRegistry, "l1", "hit");
+        this.l1Misses = requests(meterRegistry, "l1", "miss");
+        this.l2Hits = requests(meterRegistry, "l2", "hit");
+        this.l2Misses = requests(meterRegistry, "l2", "miss");
+        this.coalesced = Counter.builder("map.cache.coalesced")
+            .tag("cache", name)
+            .register(meterRegistry);
+        this.loadTimer = Timer.builder("map.cache.load")
+            .tag("cache", name)
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        Gauge.builder("map.cache.hit.ratio", this, TwoTierCache::hitRatio)
+            .tag("cache", name)
+            .register(meterRegistry);
+        Gauge.builder("map.cache.local.size", local, LocalCache::size)
+            .tag("cache", name)
+            .register(meterRegistry);
+    }
+    
+    private Counter requests(MeterRegistry meterRegistry, String tier, String result) {
+        return Counter.builder("map.cache.requests")
+            .tag("cache", name)
+            .tag("tier", tier)
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+    
+    @Override
+    public String getName() {
+        return name;
+    }
+    
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+    
+    @Override
+    public ValueWrapper get(Object key) {
+        Object value = lookup(key);
+        return value != null ? new SimpleValueWrapper(value) : null;
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        Object value = lookup(key);
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object value = lookup(key);
+        if (value != null) {
+            return (T) value;
+        }
+        
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, load);
+        if (existing != null) {
+            coalesced.increment();
+            try {
+                return (T) existing.join();
+            } catch (CompletionException e) {
+                throw new ValueRetrievalException(key, valueLoader, e.getCause());
+            }
+        }
+        
+        try {
+            T loaded = loadTimer.recordCallable(valueLoader);
+            put(key, loaded);
+            load.complete(loaded);
+            return loaded;
+        } catch (Exception e) {
+            load.completeExceptionally(e);
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            inFlight.remove(key, load);
+        }
+    }
+    
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            return;
+        }
+        remote.put(key, value);
+        local.put(key, value);
+    }
+    
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        local.evict(key);
+    }
+    
+    @Override
+    public void clear() {
+        remote.clear();
+        local.clear();
+    }
+    
+    /**
+     * L1, then L2; an L2 hit is copied into L1
+     */
+    private Object lookup(Object key) {
+        Object value = local.get(key);
+        if (value != null) {
+            l1Hits.increment();
+            return value;
+        }
+        l1Misses.increment();
+        
+        ValueWrapper wrapper = remote.get(key);
+        value = wrapper != null ? wrapper.get() : null;
+        if (value != null) {
+            l2Hits.increment();
+            local.put(key, value);
+            return value;
+        }
+        l2Misses.increment();
+        return null;
+    }
+    
+    private double hitRatio() {
+        double total = l1Hits.count() + l1Misses.count();
+        return total == 0 ? 0.0 : (l1Hits.count() + l2Hits.count()) / total;
+    }
+}
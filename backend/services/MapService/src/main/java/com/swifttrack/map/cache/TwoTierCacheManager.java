@@ -0,0 +1,57 @@
+package com.swifttrack.map.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Wraps every cache of a shared {@link CacheManager} (Redis) in a
+ * {@link TwoTierCache} with its own bounded in-process tier
+ */
+public class TwoTierCacheManager implements CacheManager {
+    
+    private final CacheManager remote;
+    private final MeterRegistry meterRegistry;
+    private final int localMaxEntries;
+    private final Duration defaultLocalTtl;
+    private final Map<String, Duration> localTtls;
+    private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>();
+    
+    /**
+     * @param localTtls per-cache L1 TTL; caches not listed use {@code defaultLocalTtl}
+     */
+    public TwoTierCacheManager(CacheManager remote, MeterRegistry meterRegistry, int localMaxEntries,
+                               Duration defaultLocalTtl, Map<String, Duration> localTtls) {
+        this.remote = remote;
+        this.meterRegistry = meterRegistry;
+        this.localMaxEntries = localMaxEntries;
+        this.defaultLocalTtl = defaultLocalTtl;
+        this.localTtls = Map.copyOf(localTtls);
+    }
+    
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache remoteCache = remote.getCache(name);
+        if (remoteCache == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, cacheName -> new TwoTierCache(cacheName,
+            new LocalCache(localMaxEntries, localTtls.getOrDefault(cacheName, defaultLocalTtl).toMillis()),
+            remoteCache, meterRegistry));
+    }
+    
+    @Override
+    public Collection<String> getCacheNames() {
+        return remote.getCacheNames();
+    }
+}
@@ -4,10 +4,12 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.swifttrack.map.config.MapServiceProperties;
 import com.swifttrack.map.dto.*;
 import com.swifttrack.map.exception.GeocodingException;
+import com.swifttrack.map.exception.RateLimitExceededException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
 import reactor.util.retry.Retry;
 
@@ -18,6 +20,10 @@ import java.util.List;
 /**
  * Client for Nominatim OpenStreetMap Geocoding API
  * 
+ * Every HTTP attempt, retries included, takes a token from
+ * {@link NominatimRateLimiter}; rate-limit failures are surfaced as
+ * {@link RateLimitExceededException} and are not retried.
+ * 
  * @see <a href="https://nominatim.org/release-docs/latest/api/Overview/">Nominatim API Documentation</a>
  */
 @Slf4j
@@ -26,11 +32,14 @@ public class NominatimClient {
     
     private final WebClient webClient;
     private final MapServiceProperties properties;
+    private final NominatimRateLimiter rateLimiter;
     
     public NominatimClient(@Qualifier("nominatimWebClient") WebClient webClient,
-                          MapServiceProperties properties) {
+                          MapServiceProperties properties,
+                          NominatimRateLimiter rateLimiter) {
         this.webClient = webClient;
         this.properties = properties;
+        this.rateLimiter = rateLimiter;
     }
     
     /**
@@ -46,7 +55,7 @@ public class NominatimClient {
     public Mono<List<NormalizedLocation>> search(String query, int limit) {
         log.debug("Nominatim search: query={}, limit={}", query, limit);
         
-        return webClient.get()
+        return rateLimiter.acquire(RequestPriority.INTERACTIVE).then(webClient.get()
             .uri(uriBuilder -> uriBuilder
                 .path("/search")
                 .queryParam("q", query)
@@ -57,20 +66,27 @@ public class NominatimClient {
                 .queryParam("accept-language", properties.getDefaults().getLanguage())
                 .build())
             .retrieve()
-            .bodyToMono(JsonNode.class)
-            .retryWhen(Retry.backoff(properties.getNominatim().getRetryAttempts(), Duration.ofMillis(500)))
+            .bodyToMono(JsonNode.class))
+            .retryWhen(retrySpec())
             .map(this::parseSearchResults)
             .doOnError(e -> log.error("Nominatim search failed: {}", e.getMessage()))
-            .onErrorResume(e -> Mono.error(new GeocodingException("Failed to search address: " + e.getMessage(), e)));
+            .onErrorResume(e -> Mono.error(wrap("Failed to search address: ", e)));
     }
     
     /**
      * Reverse geocoding - convert coordinates to address
      */
     public Mono<NormalizedLocation> reverse(double latitude, double longitude) {
-        log.debug("Nominatim reverse: lat={}, lng={}", latitude, longitude);
+        return reverse(latitude, longitude, RequestPriority.INTERACTIVE);
+    }
+    
+    /**
+     * Reverse geocoding, queued behind the rate limiter at the given priority
+     */
+    public Mono<NormalizedLocation> reverse(double latitude, double longitude, RequestPriority priority) {
+        log.debug("Nominatim reverse: lat={}, lng={}, priority={}", latitude, longitude, priority);
         
-        return webClient.get()
+        return rateLimiter.acquire(priority).then(webClient.get()
             .uri(uriBuilder -> uriBuilder
                 .path("/reverse")
                 .queryParam("lat", latitude)
@@ -81,11 +97,36 @@ public class NominatimClient {
                 .queryParam("accept-language", properties.getDefaults().getLanguage())
                 .build())
             .retrieve()
-            .bodyToMono(JsonNode.class)
-            .retryWhen(Retry.backoff(properties.getNominatim().getRetryAttempts(), Duration.ofMillis(500)))
+            .bodyToMono(JsonNode.class))
+            .retryWhen(retrySpec())
             .map(this::parseReverseResult)
             .doOnError(e -> log.error("Nominatim reverse geocode failed: {}", e.getMessage()))
-            .onErrorResume(e -> Mono.error(new GeocodingException("Failed to reverse geocode: " + e.getMessage(), e)));
+            .onErrorResume(e -> Mono.error(wrap("Failed to reverse geocode: ", e)));
+    }
+    
+    /**
+     * Backoff retries for upstream failures; being rate limited (locally or by a 429) is final
+     */
+    private Retry retrySpec() {
+        return Retry.backoff(properties.getNominatim().getRetryAttempts(), Duration.ofMillis(500))
+            .filter(e -> !isRateLimited(e));
+    }
+    
+    /**
+     * Wrap upstream failures, keeping rate-limit failures distinguishable for fallbacks
+     */
+    private RuntimeException wrap(String message, Throwable e) {
+        if (e instanceof RateLimitExceededException rateLimited) {
+            return rateLimited;
+        }
+        if (isRateLimited(e)) {
+            return new RateLimitExceededException("Nominatim rejected the request: " + e.getMessage());
+        }
+        return new GeocodingException(message + e.getMessage(), e);
+    }
+    
+    private boolean isRateLimited(Throwable e) {
+        return e instanceof RateLimitExceededException || e instanceof WebClientResponseException.TooManyRequests;
     }
     
     /**
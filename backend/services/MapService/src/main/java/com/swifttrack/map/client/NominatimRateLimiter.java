@@ -0,0 +1,297 @@
+package com.swifttrack.map.client;
+
+import com.swifttrack.map.config.MapServiceProperties;
+import com.swifttrack.map.dto.RequestPriority;
+import com.swifttrack.map.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Client-side token bucket for the Nominatim usage policy
+ *
+ * Tokens refill at {@code map.nominatim.rate-limit-per-second} up to
+ * {@code burst-size}. A caller that finds no token waits in a bounded queue
+ * ordered by {@link RequestPriority}, then arrival. When the queue is full an
+ * interactive caller displaces the newest batch waiter; otherwise the newcomer
+ * is rejected. Waiters that are not served within {@code max-queue-wait-ms}
+ * ({@code max-batch-queue-wait-ms} for batch callers) fail with
+ * {@link RateLimitExceededException}, as do rejected callers. Batch callers
+ * such as the order quote fan-out give up after a few seconds, so their wait
+ * is kept below that deadline rather than holding a servlet thread for a
+ * caller that is already gone.
+ *
+ * Metrics (tag priority = interactive|batch):
+ * - map.nominatim.limiter.requests{result=immediate|queued|rejected|displaced|timeout}
+ * - map.nominatim.limiter.queue.depth
+ * - map.nominatim.limiter.wait (queue wait of served requests)
+ */
+@Component
+public class NominatimRateLimiter {
+    
+    private final double permitsPerNano;
+    private final double burst;
+    private final int queueCapacity;
+    private final Map<RequestPriority, Long> maxWaitNanos = new EnumMap<>(RequestPriority.class);
+    private final ScheduledExecutorService scheduler;
+    
+    private final PriorityQueue<Waiter> waiting = new PriorityQueue<>();
+    private double tokens;
+    private long lastRefill;
+    private long sequence;
+    private boolean drainScheduled;
+    
+    private final MeterRegistry meterRegistry;
+    private final Map<RequestPriority, AtomicInteger> queueDepth = new EnumMap<>(RequestPriority.class);
+    private final Map<RequestPriority, Timer> waitTimers = new EnumMap<>(RequestPriority.class);
+    
+    @Autowired
+    public NominatimRateLimiter(MapServiceProperties properties, MeterRegistry meterRegistry) {
+        this(properties.getNominatim().getRateLimitPerSecond(),
+            properties.getNominatim().getBurstSize(),
+            properties.getNominatim().getQueueCapacity(),
+            properties.getNominatim().getMaxQueueWaitMs(),
+            properties.getNominatim().getMaxBatchQueueWaitMs(),
+            meterRegistry);
+    }
+    
+    NominatimRateLimiter(double permitsPerSecond, int burstSize, int queueCapacity, long maxWaitMillis,
+                         MeterRegistry meterRegistry) {
+        this(permitsPerSecond, burstSize, queueCapacity, maxWaitMillis, maxWaitMillis, meterRegistry);
+    }
+    
+    NominatimRateLimiter(double permitsPerSecond, int burstSize, int queueCapacity, long maxWaitMillis,
+                         long maxBatchWaitMillis, MeterRegistry meterRegistry) {
+        this.permitsPerNano = Math.max(permitsPerSecond, 0.001) / TimeUnit.SECONDS.toNanos(1);
+        this.burst = Math.max(1, burstSize);
+        this.queueCapacity = Math.max(0, queueCapacity);
+        this.maxWaitNanos.put(RequestPriority.INTERACTIVE, TimeUnit.MILLISECONDS.toNanos(maxWaitMillis));
+        this.maxWaitNanos.put(RequestPriority.BATCH, TimeUnit.MILLISECONDS.toNanos(maxBatchWaitMillis));
+        this.tokens = this.burst;
+        this.lastRefill = System.nanoTime();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "nominatim-rate-limiter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        this.meterRegistry = meterRegistry;
+        for (RequestPriority priority : RequestPriority.values()) {
+            AtomicInteger depth = new AtomicInteger();
+            queueDepth.put(priority, depth);
+            Gauge.builder("map.nominatim.limiter.queue.depth", depth, AtomicInteger::get)
+                .tag("priority", tag(priority))
+                .register(meterRegistry);
+            waitTimers.put(priority, Timer.builder("map.nominatim.limiter.wait")
+                .tag("priority", tag(priority))
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry));
+        }
+    }
+    
+    /**
+     * Completes (empty) once a token is granted to this caller, or fails with
+     * {@link RateLimitExceededException}. Nothing happens until subscription,
+     * so each retry of a chain built on this acquires its own token.
+     */
+    public Mono<Void> acquire(RequestPriority priority) {
+        return Mono.create(sink -> admit(new Waiter(priority, sink)));
+    }
+    
+    /**
+     * Number of callers currently waiting for a token
+     */
+    public synchronized int queueSize() {
+        return waiting.size();
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+    
+    private void admit(Waiter waiter) {
+        Waiter displaced = null;
+        boolean granted = false;
+        boolean rejected = false;
+        
+        synchronized (this) {
+            refill();
+            if (waiting.isEmpty() && tokens >= 1) {
+                tokens -= 1;
+                granted = true;
+            } else {
+                if (waiting.size() >= queueCapacity) {
+                    displaced = lowestRankedWaiter();
+                    if (displaced != null && displaced.priority.compareTo(waiter.priority) > 0) {
+                        remove(displaced);
+                    } else {
+                        displaced = null;
+                        rejected = true;
+                    }
+                }
+                if (!rejected) {
+                    waiter.sequence = sequence++;
+                    waiter.enqueuedAt = System.nanoTime();
+                    waiting.add(waiter);
+                    queueDepth.get(waiter.priority).incrementAndGet();
+                    waiter.timeout = scheduler.schedule(() -> expire(waiter), maxWaitNanos.get(waiter.priority),
+                        TimeUnit.NANOSECONDS);
+                    scheduleDrain();
+                }
+            }
+        }
+        
+        if (displaced != null) {
+            count(displaced.priority, "displaced");
+            displaced.sink.error(new RateLimitExceededException(
+                "Nominatim request queue is full; batch request displaced by interactive traffic"));
+        }
+        if (granted) {
+            count(waiter.priority, "immediate");
+            waiter.sink.success();
+        } else if (rejected) {
+            count(waiter.priority, "rejected");
+            waiter.sink.error(new RateLimitExceededException(
+                "Nominatim request queue is full (" + queueCapacity + " waiting)"));
+        } else {
+            count(waiter.priority, "queued");
+            waiter.sink.onCancel(() -> {
+                synchronized (this) {
+                    remove(waiter);
+                }
+            });
+        }
+    }
+    
+    private void drain() {
+        List<Waiter> granted = new ArrayList<>();
+        synchronized (this) {
+            drainScheduled = false;
+            refill();
+            while (tokens >= 1 && !waiting.isEmpty()) {
+                Waiter next = waiting.poll();
+                queueDepth.get(next.priority).decrementAndGet();
+                next.timeout.cancel(false);
+                tokens -= 1;
+                granted.add(next);
+            }
+            scheduleDrain();
+        }
+        
+        long now = System.nanoTime();
+        for (Waiter waiter : granted) {
+            waitTimers.get(waiter.priority).record(now - waiter.enqueuedAt, TimeUnit.NANOSECONDS);
+            waiter.sink.success();
+        }
+    }
+    
+    private void expire(Waiter waiter) {
+        boolean removed;
+        synchronized (this) {
+            removed = remove(waiter);
+        }
+        if (removed) {
+            count(waiter.priority, "timeout");
+            waiter.sink.error(new RateLimitExceededException(
+                "Timed out waiting for a Nominatim rate-limit slot"));
+        }
+    }
+    
+    /**
+     * Caller must hold the lock
+     */
+    private boolean remove(Waiter waiter) {
+        if (!waiting.remove(waiter)) {
+            return false;
+        }
+        queueDepth.get(waiter.priority).decrementAndGet();
+        if (waiter.timeout != null) {
+            waiter.timeout.cancel(false);
+        }
+        return true;
+    }
+    
+    /**
+     * Caller must hold the lock
+     */
+    private Waiter lowestRankedWaiter() {
+        Waiter lowest = null;
+        for (Waiter candidate : waiting) {
+            if (lowest == null || candidate.compareTo(lowest) > 0) {
+                lowest = candidate;
+            }
+        }
+        return lowest;
+    }
+    
+    /**
+     * Caller must hold the lock
+     */
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - lastRefill) * permitsPerNano);
+        lastRefill = now;
+    }
+    
+    /**
+     * Caller must hold the lock
+     */
+    private void scheduleDrain() {
+        if (drainScheduled || waiting.isEmpty()) {
+            return;
+        }
+        long delay = tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / permitsPerNano);
+        scheduler.schedule(this::drain, delay, TimeUnit.NANOSECONDS);
+        drainScheduled = true;
+    }
+    
+    private void count(RequestPriority priority, String result) {
+        Counter.builder("map.nominatim.limiter.requests")
+            .tag("priority", tag(priority))
+            .tag("result", result)
+            .register(meterRegistry)
+            .increment();
+    }
+    
+    private static String tag(RequestPriority priority) {
+        return priority.name().toLowerCase();
+    }
+    
+    private static final class Waiter implements Comparable<Waiter> {
+        
+        private final RequestPriority priority;
+        private final MonoSink<Void> sink;
+        private long sequence;
+        private long enqueuedAt;
+        private ScheduledFuture<?> timeout;
+        
+        private Waiter(RequestPriority priority, MonoSink<Void> sink) {
+            this.priority = priority;
+            this.sink = sink;
+        }
+        
+        @Override
+        public int compareTo(Waiter other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
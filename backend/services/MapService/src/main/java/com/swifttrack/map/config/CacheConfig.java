@@ -7,6 +7,9 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
 import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.swifttrack.map.cache.CompactRedisSerializer;
+import com.swifttrack.map.cache.TwoTierCacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CachingConfigurer;
 import org.springframework.context.annotation.Bean;
@@ -17,6 +20,7 @@ import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
@@ -25,6 +29,13 @@ import java.util.Map;
 
 /**
  * Redis cache configuration for Map Service
+ * 
+ * Route, matrix and snap values are stored with the compact binary codec
+ * (see {@link CompactRedisSerializer}) unless map.cache.codec.binary is off;
+ * that flag only switches the write format, binary entries are always readable.
+ * 
+ * Each Redis cache is fronted by a bounded in-process tier (see
+ * {@link TwoTierCacheManager}); the local TTL never exceeds the Redis TTL.
  */
 @Configuration
 public class CacheConfig implements CachingConfigurer {
@@ -77,8 +88,13 @@ public class CacheConfig implements CachingConfigurer {
     }
     
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-        GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer(cacheObjectMapper());
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory, MeterRegistry meterRegistry) {
+        MapServiceProperties.CodecConfig codec = properties.getCache().getCodec();
+        // Routes, matrices and snap results in binary; other values stay JSON.
+        // Reads always go through the binary decoder so turning writes off never strands entries.
+        RedisSerializer<Object> serializer = new CompactRedisSerializer(
+            new GenericJackson2JsonRedisSerializer(cacheObjectMapper()),
+            codec.getCompressionThresholdBytes(), codec.isBinary());
         
         RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
             .entryTtl(Duration.ofHours(1))
@@ -86,31 +102,35 @@ public class CacheConfig implements CachingConfigurer {
             .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(serializer))
             .disableCachingNullValues();
         
-        // Cache-specific configurations with different TTLs
-        Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
-        
-        cacheConfigurations.put(GEOCODE_CACHE, defaultConfig.entryTtl(
-            Duration.ofSeconds(properties.getCache().getGeocodeTtl())));
-        
-        cacheConfigurations.put(REVERSE_GEOCODE_CACHE, defaultConfig.entryTtl(
-            Duration.ofSeconds(properties.getCache().getReverseGeocodeTtl())));
-        
-        cacheConfigurations.put(ROUTE_CACHE, defaultConfig.entryTtl(
-            Duration.ofSeconds(properties.getCache().getRouteTtl())));
-        
-        cacheConfigurations.put(MATRIX_CACHE, defaultConfig.entryTtl(
-            Duration.ofSeconds(properties.getCache().getMatrixTtl())));
+        // Cache-specific TTLs
+        Map<String, Duration> cacheTtls = new HashMap<>();
+        cacheTtls.put(GEOCODE_CACHE, Duration.ofSeconds(properties.getCache().getGeocodeTtl()));
+        cacheTtls.put(REVERSE_GEOCODE_CACHE, Duration.ofSeconds(properties.getCache().getReverseGeocodeTtl()));
+        cacheTtls.put(ROUTE_CACHE, Duration.ofSeconds(properties.getCache().getRouteTtl()));
+        cacheTtls.put(MATRIX_CACHE, Duration.ofSeconds(properties.getCache().getMatrixTtl()));
+        cacheTtls.put(ETA_CACHE, Duration.ofSeconds(properties.getCache().getEtaTtl()));
+        cacheTtls.put(SNAP_CACHE, Duration.ofSeconds(properties.getCache().getRouteTtl()));
         
-        cacheConfigurations.put(ETA_CACHE, defaultConfig.entryTtl(
-            Duration.ofSeconds(properties.getCache().getEtaTtl())));
-        
-        cacheConfigurations.put(SNAP_CACHE, defaultConfig.entryTtl(
-            Duration.ofSeconds(properties.getCache().getRouteTtl())));
+        Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
+        cacheTtls.forEach((name, ttl) -> cacheConfigurations.put(name, defaultConfig.entryTtl(ttl)));
         
-        return RedisCacheManager.builder(connectionFactory)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
             .cacheDefaults(defaultConfig)
             .withInitialCacheConfigurations(cacheConfigurations)
             .transactionAware()
             .build();
+        redisCacheManager.afterPropertiesSet();
+        
+        MapServiceProperties.LocalCacheConfig local = properties.getCache().getLocal();
+        if (!local.isEnabled()) {
+            return redisCacheManager;
+        }
+        
+        Duration localTtl = Duration.ofSeconds(local.getTtl());
+        Map<String, Duration> localTtls = new HashMap<>();
+        cacheTtls.forEach((name, ttl) -> localTtls.put(name, ttl.compareTo(localTtl) < 0 ? ttl : localTtl));
+        
+        return new TwoTierCacheManager(redisCacheManager, meterRegistry, local.getMaxEntries(),
+            localTtl, localTtls);
     }
 }
@@ -2,6 +2,7 @@ package com.swifttrack.map.config;
 
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.DeprecatedConfigurationProperty;
 import org.springframework.context.annotation.Configuration;
 
 /**
@@ -37,6 +38,16 @@ public class MapServiceProperties {
      */
     private CacheConfig cache = new CacheConfig();
     
+    /**
+     * Geohash-cell cache of admin-level reverse geocodes
+     */
+    private AdminCacheConfig adminCache = new AdminCacheConfig();
+    
+    /**
+     * Offline admin boundary index
+     */
+    private BoundariesConfig boundaries = new BoundariesConfig();
+    
     /**
      * Rate limit configuration
      */
@@ -56,6 +67,12 @@ public class MapServiceProperties {
         private int timeout = 5000;
         private int retryAttempts = 3;
         private int rateLimitPerSecond = 1;
+        private int burstSize = 1;                  // tokens that may accumulate while idle
+        private int queueCapacity = 100;            // callers waiting for a token
+        private long maxQueueWaitMs = 10000;        // then fail with RATE_LIMIT_EXCEEDED
+        private long maxBatchQueueWaitMs = 4000;    // below the 5 s deadline of batch callers (order quotes)
+        private double fallbackRadiusMeters = 500;  // nearest cached reverse geocode served when limited
+        private int fallbackMaxEntries = 50000;
         
         public String getEffectiveUrl() {
             return useLocal ? localUrl : baseUrl;
@@ -100,6 +117,57 @@ public class MapServiceProperties {
         private long routeTtl = 3600;           // 1 hour
         private long matrixTtl = 1800;          // 30 minutes
         private long etaTtl = 600;              // 10 minutes
+        private LocalCacheConfig local = new LocalCacheConfig();
+        private CodecConfig codec = new CodecConfig();
+    }
+    
+    /**
+     * In-process tier in front of Redis
+     */
+    @Data
+    public static class LocalCacheConfig {
+        private boolean enabled = true;
+        private int maxEntries = 10000;         // per cache
+        private long ttl = 300;                 // 5 minutes, capped at the Redis TTL
+    }
+    
+    /**
+     * Redis value encoding
+     */
+    @Data
+    public static class CodecConfig {
+        private boolean binary = true;          // write routes/matrices/snaps in binary; both formats are always read
+        private int compressionThresholdBytes = 1024; // deflate bodies at least this large; 0 disables
+    }
+    
+    /**
+     * Admin areas (country/state/city) per geohash cell; coarser cells hit more
+     * often but are more likely to straddle a border
+     */
+    @Data
+    public static class AdminCacheConfig {
+        private boolean enabled = true;
+        private int countryPrecision = 3;       // ~156 km cells
+        private int statePrecision = 5;         // ~4.9 km cells
+        private int cityPrecision = 6;          // ~1.2 x 0.6 km cells
+        private int maxCells = 100000;          // learned cells per level
+        private long ttl = 604800;              // 7 days, learned cells only
+        private int minSamples = 3;             // agreeing points in distinct sub-cells before a cell is served
+        private String boundaryFile = "";       // deprecated alias of map.boundaries.file
+        
+        /**
+         * @deprecated use map.boundaries.file; still read when that is blank
+         */
+        @Deprecated
+        @DeprecatedConfigurationProperty(replacement = "map.boundaries.file")
+        public String getBoundaryFile() {
+            return boundaryFile;
+        }
+    }
+    
+    @Data
+    public static class BoundariesConfig {
+        private String file = "";               // GeoJSON FeatureCollection of admin boundaries
     }
     
     @Data
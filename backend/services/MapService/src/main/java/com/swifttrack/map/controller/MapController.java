@@ -4,6 +4,7 @@ import com.swifttrack.map.dto.*;
 import com.swifttrack.map.dto.request.*;
 import com.swifttrack.map.dto.response.ApiResponse;
 import com.swifttrack.map.dto.response.AreaCheckResponse;
+import com.swifttrack.map.exception.RateLimitExceededException;
 import com.swifttrack.map.service.*;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -29,6 +30,7 @@ import java.util.List;
 public class MapController {
 
     private final GeocodingService geocodingService;
+    private final AdminAreaService adminAreaService;
     private final RoutingService routingService;
     private final MatrixService matrixService;
     private final EtaService etaService;
@@ -41,11 +43,24 @@ public class MapController {
     @Operation(summary = "Reverse Geocoding", description = "Convert latitude/longitude coordinates to a human-readable address")
     public ResponseEntity<ApiResponse<NormalizedLocation>> reverseGeocode(
             @Parameter(description = "Latitude", example = "12.9716") @RequestParam double lat,
-            @Parameter(description = "Longitude", example = "77.5946") @RequestParam double lng) {
-
-        log.info("Reverse geocode request: lat={}, lng={}", lat, lng);
-        NormalizedLocation result = geocodingService.reverseGeocode(lat, lng);
-        return ResponseEntity.ok(ApiResponse.success(result));
+            @Parameter(description = "Longitude", example = "77.5946") @RequestParam double lng,
+            @Parameter(description = "Nominatim queue priority (INTERACTIVE or BATCH)") @RequestParam(defaultValue = "INTERACTIVE") String priority,
+            @Parameter(description = "Only admin areas are needed (COUNTRY, STATE or CITY); may be answered for the surrounding cell") @RequestParam(required = false) String detail) {
+
+        log.info("Reverse geocode request: lat={}, lng={}, priority={}, detail={}", lat, lng, priority, detail);
+        RequestPriority requestPriority = RequestPriority.fromString(priority);
+        AdminLevel level = AdminLevel.fromString(detail);
+        try {
+            NormalizedLocation result = level != null
+                    ? adminAreaService.adminArea(lat, lng, level, requestPriority)
+                    : geocodingService.reverseGeocode(lat, lng, requestPriority);
+            return ResponseEntity.ok(ApiResponse.success(result));
+        } catch (RateLimitExceededException e) {
+            // Degrade to the nearest address resolved recently rather than failing the caller
+            NormalizedLocation nearest = geocodingService.nearestKnownLocation(lat, lng).orElseThrow(() -> e);
+            log.warn("Nominatim rate limited, serving nearest known address for {}, {}", lat, lng);
+            return ResponseEntity.ok(ApiResponse.stale(nearest));
+        }
     }
 
     @GetMapping("/search")
@@ -188,6 +203,29 @@ public class MapController {
         return ResponseEntity.ok(ApiResponse.success(result));
     }
 
+    // ==================== ADMIN CLASSIFICATION ====================
+
+    @GetMapping("/classify")
+    @Operation(summary = "Admin Classification", description = "Country, state and city containing a point, from the offline boundary index")
+    public ResponseEntity<ApiResponse<NormalizedLocation>> classify(
+            @Parameter(description = "Latitude", example = "12.9716") @RequestParam double lat,
+            @Parameter(description = "Longitude", example = "77.5946") @RequestParam double lng) {
+
+        log.debug("Classify request: lat={}, lng={}", lat, lng);
+        NormalizedLocation result = geocodingService.classify(lat, lng);
+        return ResponseEntity.ok(ApiResponse.success(result));
+    }
+
+    @PostMapping("/classify/batch")
+    @Operation(summary = "Batch Admin Classification", description = "Classify up to 1000 points from the offline boundary index")
+    public ResponseEntity<ApiResponse<List<NormalizedLocation>>> classifyBatch(
+            @Valid @RequestBody ClassifyBatchRequest request) {
+
+        log.info("Batch classify request: {} points", request.getPoints().size());
+        List<NormalizedLocation> results = geocodingService.classify(request.getPoints());
+        return ResponseEntity.ok(ApiResponse.success(results));
+    }
+
     // ==================== UTILITY ====================
 
     @GetMapping("/distance")
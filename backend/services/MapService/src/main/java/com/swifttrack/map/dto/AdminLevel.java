@@ -0,0 +1,78 @@
+package com.swifttrack.map.dto;
+
+import lombok.Getter;
+
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Administrative detail a caller needs from a reverse geocode
+ *
+ * Each level includes the ones above it: STATE answers state and country,
+ * CITY answers city, state and country.
+ */
+@Getter
+public enum AdminLevel {
+    
+    COUNTRY(LocationClassification.COUNTRY),
+    STATE(LocationClassification.STATE),
+    CITY(LocationClassification.CITY);
+    
+    private final LocationClassification classification;
+    
+    AdminLevel(LocationClassification classification) {
+        this.classification = classification;
+    }
+    
+    /**
+     * Parse admin level from string (case-insensitive); null if blank or unknown
+     */
+    public static AdminLevel fromString(String level) {
+        if (level == null || level.isBlank()) {
+            return null;
+        }
+        
+        try {
+            return AdminLevel.valueOf(level.toUpperCase().trim());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Whether the location carries every field this level answers
+     */
+    public boolean isResolved(NormalizedLocation location) {
+        if (location == null || (location.getCountry() == null && location.getCountryCode() == null)) {
+            return false;
+        }
+        return switch (this) {
+            case COUNTRY -> true;
+            case STATE -> location.getState() != null;
+            case CITY -> location.getState() != null && location.getCity() != null;
+        };
+    }
+    
+    /**
+     * Copy of the admin fields this level answers, without coordinates
+     */
+    public NormalizedLocation project(NormalizedLocation location) {
+        NormalizedLocation.NormalizedLocationBuilder builder = NormalizedLocation.builder()
+            .country(location.getCountry())
+            .countryCode(location.getCountryCode())
+            .locationType(classification);
+        if (this != COUNTRY) {
+            builder.state(location.getState())
+                .stateCode(location.getStateCode());
+        }
+        if (this == CITY) {
+            builder.city(location.getCity());
+        }
+        NormalizedLocation projected = builder.build();
+        projected.setFormattedAddress(Stream.of(projected.getCity(), projected.getState(), projected.getCountry())
+            .filter(Objects::nonNull)
+            .collect(Collectors.joining(", ")));
+        return projected;
+    }
+}
@@ -0,0 +1,28 @@
+package com.swifttrack.map.dto;
+
+/**
+ * Scheduling priority for calls to rate-limited upstream providers
+ *
+ * Declaration order is the dispatch order: interactive requests are served
+ * before queued batch work
+ */
+public enum RequestPriority {
+    
+    INTERACTIVE,
+    BATCH;
+    
+    /**
+     * Parse priority from string (case-insensitive), defaulting to INTERACTIVE
+     */
+    public static RequestPriority fromString(String priority) {
+        if (priority == null || priority.isBlank()) {
+            return INTERACTIVE;
+        }
+        
+        try {
+            return RequestPriority.valueOf(priority.toUpperCase().trim());
+        } catch (IllegalArgumentException e) {
+            return INTERACTIVE;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.swifttrack.map.dto.request;
+
+import com.swifttrack.map.dto.Coordinates;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request DTO for Batch Admin Classification API
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClassifyBatchRequest {
+    
+    @NotEmpty(message = "At least one point is required")
+    @Size(max = 1000, message = "Maximum 1000 points allowed")
+    @Valid
+    private List<Coordinates> points;
+}
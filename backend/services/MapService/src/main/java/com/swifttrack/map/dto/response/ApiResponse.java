@@ -64,6 +64,21 @@ public class ApiResponse<T> {
             .build();
     }
     
+    /**
+     * Create a successful response served from a fallback instead of the upstream provider
+     */
+    public static <T> ApiResponse<T> stale(T data) {
+        return ApiResponse.<T>builder()
+            .success(true)
+            .data(data)
+            .metadata(ResponseMetadata.builder()
+                .timestamp(Instant.now())
+                .cached(true)
+                .stale(true)
+                .build())
+            .build();
+    }
+    
     /**
      * Create an error response
      */
@@ -115,6 +130,11 @@ public class ApiResponse<T> {
         
         private Boolean cached;
         
+        /**
+         * Data approximates the request (e.g. nearest known address while rate limited)
+         */
+        private Boolean stale;
+        
         @JsonProperty("cache_key")
         private String cacheKey;
         
@@ -0,0 +1,52 @@
+package com.swifttrack.map.service;
+
+import com.swifttrack.map.boundary.AdminBoundaryIndex;
+import com.swifttrack.map.cache.AdminAreaCellCache;
+import com.swifttrack.map.dto.AdminLevel;
+import com.swifttrack.map.dto.NormalizedLocation;
+import com.swifttrack.map.dto.RequestPriority;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+/**
+ * Service for admin-level reverse geocodes (country, state and, for CITY, city)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AdminAreaService {
+    
+    private final AdminBoundaryIndex boundaryIndex;
+    private final AdminAreaCellCache adminAreaCache;
+    private final GeocodingService geocodingService;
+    
+    /**
+     * Admin areas containing a point
+     * 
+     * Served from the boundary index when it covers the point, then from the
+     * geohash-cell cache when the point's cell is confirmed; otherwise reverse
+     * geocodes the point through the cached {@link GeocodingService}, which also
+     * adds a sample to the cell cache.
+     * 
+     * @throws com.swifttrack.map.exception.RateLimitExceededException when no Nominatim slot is available
+     */
+    public NormalizedLocation adminArea(double latitude, double longitude, AdminLevel level, RequestPriority priority) {
+        GeocodingService.validateCoordinates(latitude, longitude);
+        
+        Optional<NormalizedLocation> indexed = boundaryIndex.find(latitude, longitude, level);
+        if (indexed.isPresent()) {
+            return indexed.get();
+        }
+        
+        Optional<NormalizedLocation> cached = adminAreaCache.lookup(latitude, longitude, level);
+        if (cached.isPresent()) {
+            log.debug("Admin area ({}) for {}, {} served from cell cache", level, latitude, longitude);
+            return cached.get();
+        }
+        // Through the proxy, so repeat points are answered by the reverse_geocode cache
+        return geocodingService.reverseGeocode(latitude, longitude, priority);
+    }
+}
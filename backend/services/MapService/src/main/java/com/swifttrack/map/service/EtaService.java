@@ -29,7 +29,7 @@ public class EtaService {
      * Calculate ETA between two points
      * Results are cached for 10 minutes
      */
-    @Cacheable(value = CacheConfig.ETA_CACHE, key = "T(com.swifttrack.map.util.CacheKeyGenerator).forEta(#origin, #destination, #mode.name())")
+    @Cacheable(value = CacheConfig.ETA_CACHE, sync = true, key = "T(com.swifttrack.map.util.CacheKeyGenerator).forEta(#origin, #destination, #mode.name())")
     public EtaResponse calculateEta(Coordinates origin, Coordinates destination, TravelMode mode) {
         log.info("Calculating ETA: {} -> {} (mode={})", origin, destination, mode);
         
@@ -1,9 +1,13 @@
 package com.swifttrack.map.service;
 
+import com.swifttrack.map.boundary.AdminBoundaryIndex;
+import com.swifttrack.map.cache.AdminAreaCellCache;
+import com.swifttrack.map.cache.ReverseGeocodeFallbackIndex;
 import com.swifttrack.map.client.NominatimClient;
 import com.swifttrack.map.config.CacheConfig;
 import com.swifttrack.map.dto.Coordinates;
 import com.swifttrack.map.dto.NormalizedLocation;
+import com.swifttrack.map.dto.RequestPriority;
 import com.swifttrack.map.exception.GeocodingException;
 import com.swifttrack.map.util.CacheKeyGenerator;
 import lombok.RequiredArgsConstructor;
@@ -13,6 +17,7 @@ import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Service for geocoding operations
@@ -23,12 +28,15 @@ import java.util.List;
 public class GeocodingService {
     
     private final NominatimClient nominatimClient;
+    private final ReverseGeocodeFallbackIndex fallbackIndex;
+    private final AdminAreaCellCache adminAreaCache;
+    private final AdminBoundaryIndex boundaryIndex;
     
     /**
      * Forward geocoding - convert address to coordinates
      * Results are cached for 24 hours
      */
-    @Cacheable(value = CacheConfig.GEOCODE_CACHE, key = "T(com.swifttrack.map.util.CacheKeyGenerator).forGeocode(#query)")
+    @Cacheable(value = CacheConfig.GEOCODE_CACHE, sync = true, key = "T(com.swifttrack.map.util.CacheKeyGenerator).forGeocode(#query)")
     public List<NormalizedLocation> search(String query) {
         log.info("Geocoding search: {}", query);
         
@@ -44,7 +52,7 @@ public class GeocodingService {
     /**
      * Forward geocoding with limit
      */
-    @Cacheable(value = CacheConfig.GEOCODE_CACHE, key = "T(com.swifttrack.map.util.CacheKeyGenerator).forGeocode(#query + ':' + #limit)")
+    @Cacheable(value = CacheConfig.GEOCODE_CACHE, sync = true, key = "T(com.swifttrack.map.util.CacheKeyGenerator).forGeocode(#query + ':' + #limit)")
     public List<NormalizedLocation> search(String query, int limit) {
         log.info("Geocoding search: {} (limit={})", query, limit);
         
@@ -65,15 +73,61 @@ public class GeocodingService {
      * Reverse geocoding - convert coordinates to address
      * Results are cached for 24 hours
      */
-    @Cacheable(value = CacheConfig.REVERSE_GEOCODE_CACHE, key = "T(com.swifttrack.map.util.CacheKeyGenerator).forReverseGeocode(#latitude, #longitude)")
+    @Cacheable(value = CacheConfig.REVERSE_GEOCODE_CACHE, sync = true, key = "T(com.swifttrack.map.util.CacheKeyGenerator).forReverseGeocode(#latitude, #longitude)")
     public NormalizedLocation reverseGeocode(double latitude, double longitude) {
-        log.info("Reverse geocoding: {}, {}", latitude, longitude);
+        return resolveReverseGeocode(latitude, longitude, RequestPriority.INTERACTIVE);
+    }
+    
+    /**
+     * Reverse geocoding at the given Nominatim queue priority; shares the cache with
+     * {@link #reverseGeocode(double, double)}
+     * 
+     * @throws com.swifttrack.map.exception.RateLimitExceededException when no Nominatim slot is available
+     */
+    @Cacheable(value = CacheConfig.REVERSE_GEOCODE_CACHE, sync = true, key = "T(com.swifttrack.map.util.CacheKeyGenerator).forReverseGeocode(#latitude, #longitude)")
+    public NormalizedLocation reverseGeocode(double latitude, double longitude, RequestPriority priority) {
+        return resolveReverseGeocode(latitude, longitude, priority);
+    }
+    
+    /**
+     * Admin areas containing a point, from the offline boundary index only
+     * 
+     * Never calls Nominatim; points outside every boundary come back with
+     * location type UNKNOWN.
+     */
+    public NormalizedLocation classify(double latitude, double longitude) {
+        validateCoordinates(latitude, longitude);
+        return boundaryIndex.classify(latitude, longitude);
+    }
+    
+    /**
+     * Batch classification, in request order
+     */
+    public List<NormalizedLocation> classify(List<Coordinates> points) {
+        return points.stream()
+            .map(point -> classify(point.getLatitude(), point.getLongitude()))
+            .toList();
+    }
+    
+    /**
+     * Address of the nearest point reverse geocoded recently by this instance,
+     * for use when Nominatim is rate limited. Not cached under the requested point.
+     */
+    public Optional<NormalizedLocation> nearestKnownLocation(double latitude, double longitude) {
+        return fallbackIndex.nearest(latitude, longitude);
+    }
+    
+    private NormalizedLocation resolveReverseGeocode(double latitude, double longitude, RequestPriority priority) {
+        log.info("Reverse geocoding: {}, {} ({})", latitude, longitude, priority);
         
         validateCoordinates(latitude, longitude);
         
-        return nominatimClient.reverse(latitude, longitude)
-            .doOnSuccess(result -> log.debug("Reverse geocoded to: {}", result.getFormattedAddress()))
+        NormalizedLocation result = nominatimClient.reverse(latitude, longitude, priority)
+            .doOnSuccess(location -> log.debug("Reverse geocoded to: {}", location.getFormattedAddress()))
             .block();
+        fallbackIndex.put(latitude, longitude, result);
+        adminAreaCache.record(latitude, longitude, result);
+        return result;
     }
     
     /**
@@ -111,7 +165,11 @@ public class GeocodingService {
             return Mono.error(e);
         }
         
-        return nominatimClient.reverse(latitude, longitude);
+        return nominatimClient.reverse(latitude, longitude)
+            .doOnNext(location -> {
+                fallbackIndex.put(latitude, longitude, location);
+                adminAreaCache.record(latitude, longitude, location);
+            });
     }
     
     /**
@@ -128,7 +186,7 @@ public class GeocodingService {
     /**
      * Validate coordinates
      */
-    private void validateCoordinates(double latitude, double longitude) {
+    static void validateCoordinates(double latitude, double longitude) {
         if (latitude < -90 || latitude > 90) {
             throw new GeocodingException("Invalid latitude: " + latitude + ". Must be between -90 and 90.");
         }
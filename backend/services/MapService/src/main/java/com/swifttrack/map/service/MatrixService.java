@@ -33,7 +33,7 @@ public class MatrixService {
      * Calculate distance matrix between origins and destinations
      * Results are cached for 30 minutes
      */
-    @Cacheable(value = CacheConfig.MATRIX_CACHE, key = "T(com.swifttrack.map.util.CacheKeyGenerator).forMatrix(#origins, #destinations, #mode.name())")
+    @Cacheable(value = CacheConfig.MATRIX_CACHE, sync = true, key = "T(com.swifttrack.map.util.CacheKeyGenerator).forMatrix(#origins, #destinations, #mode.name())")
     public MatrixResponse calculateMatrix(List<Coordinates> origins, List<Coordinates> destinations, TravelMode mode) {
         log.info("Calculating matrix: {} origins x {} destinations (mode={})", 
                  origins.size(), destinations.size(), mode);
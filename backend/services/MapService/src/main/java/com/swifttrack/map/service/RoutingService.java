@@ -33,7 +33,7 @@ public class RoutingService {
      * Get directions between two points
      * Results are cached for 1 hour
      */
-    @Cacheable(value = CacheConfig.ROUTE_CACHE, key = "T(com.swifttrack.map.util.CacheKeyGenerator).forRoute(#origin, #destination, #mode.name())")
+    @Cacheable(value = CacheConfig.ROUTE_CACHE, sync = true, key = "T(com.swifttrack.map.util.CacheKeyGenerator).forRoute(#origin, #destination, #mode.name())")
     public RouteResponse getDirections(Coordinates origin, Coordinates destination, TravelMode mode) {
         log.info("Calculating directions: {} -> {} (mode={})", origin, destination, mode);
         
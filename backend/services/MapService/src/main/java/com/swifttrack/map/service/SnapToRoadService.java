@@ -29,7 +29,7 @@ public class SnapToRoadService {
      * Snap coordinates to nearest road
      * Results are cached for 1 hour
      */
-    @Cacheable(value = CacheConfig.SNAP_CACHE, key = "T(com.swifttrack.map.util.CacheKeyGenerator).forSnap(#path)")
+    @Cacheable(value = CacheConfig.SNAP_CACHE, sync = true, key = "T(com.swifttrack.map.util.CacheKeyGenerator).forSnap(#path)")
     public SnapToRoadResponse snap(List<Coordinates> path) {
         return snap(path, properties.getDefaults().getSnapRadiusMeters());
     }
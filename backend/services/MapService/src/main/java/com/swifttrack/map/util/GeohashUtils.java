@@ -0,0 +1,126 @@
+package com.swifttrack.map.util;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.Arrays;
+
+/**
+ * Utility class for geohash cell encoding
+ *
+ * Cell size by precision (approx. at the equator): 3 = 156 km, 4 = 39 x 19.5 km,
+ * 5 = 4.9 km, 6 = 1.2 x 0.61 km, 7 = 153 m
+ *
+ * @see <a href="https://en.wikipedia.org/wiki/Geohash">Geohash</a>
+ */
+@UtilityClass
+public class GeohashUtils {
+    
+    public static final int MAX_PRECISION = 12;
+    
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+    private static final int[] BASE32_INDEX = new int[128];
+    
+    static {
+        Arrays.fill(BASE32_INDEX, -1);
+        for (int i = 0; i < BASE32.length; i++) {
+            BASE32_INDEX[BASE32[i]] = i;
+        }
+    }
+    
+    /**
+     * Encode a point as a geohash of the given length
+     */
+    public String encode(double latitude, double longitude, int precision) {
+        if (precision < 1 || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Geohash precision must be between 1 and " + MAX_PRECISION);
+        }
+        
+        double minLat = -90, maxLat = 90;
+        double minLng = -180, maxLng = 180;
+        char[] hash = new char[precision];
+        boolean evenBit = true;
+        int bit = 0;
+        int index = 0;
+        
+        for (int i = 0; i < precision; ) {
+            if (evenBit) {
+                double mid = (minLng + maxLng) / 2;
+                if (longitude >= mid) {
+                    index = (index << 1) | 1;
+                    minLng = mid;
+                } else {
+                    index <<= 1;
+                    maxLng = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (latitude >= mid) {
+                    index = (index << 1) | 1;
+                    minLat = mid;
+                } else {
+                    index <<= 1;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+            
+            if (++bit == 5) {
+                hash[i++] = BASE32[index];
+                bit = 0;
+                index = 0;
+            }
+        }
+        return new String(hash);
+    }
+    
+    /**
+     * Bounds of a geohash cell
+     *
+     * @return {south, west, north, east}, matching {@link GeoUtils#boundingBox}
+     */
+    public double[] bounds(String geohash) {
+        double minLat = -90, maxLat = 90;
+        double minLng = -180, maxLng = 180;
+        boolean evenBit = true;
+        
+        for (int i = 0; i < geohash.length(); i++) {
+            char c = geohash.charAt(i);
+            int index = c < 128 ? BASE32_INDEX[c] : -1;
+            if (index < 0) {
+                throw new IllegalArgumentException("Invalid geohash: " + geohash);
+            }
+            for (int shift = 4; shift >= 0; shift--) {
+                boolean set = ((index >> shift) & 1) == 1;
+                if (evenBit) {
+                    double mid = (minLng + maxLng) / 2;
+                    if (set) {
+                        minLng = mid;
+                    } else {
+                        maxLng = mid;
+                    }
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (set) {
+                        minLat = mid;
+                    } else {
+                        maxLat = mid;
+                    }
+                }
+                evenBit = !evenBit;
+            }
+        }
+        return new double[] {minLat, minLng, maxLat, maxLng};
+    }
+    
+    /**
+     * Cell height and width in degrees at the given precision
+     *
+     * @return {latitude degrees, longitude degrees}
+     */
+    public double[] cellSize(int precision) {
+        int bits = precision * 5;
+        int lngBits = (bits + 1) / 2;
+        int latBits = bits / 2;
+        return new double[] {180.0 / (1L << latBits), 360.0 / (1L << lngBits)};
+    }
+}
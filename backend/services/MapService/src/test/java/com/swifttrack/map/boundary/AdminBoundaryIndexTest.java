@@ -0,0 +1,188 @@
+package com.swifttrack.map.boundary;
+
+import com.swifttrack.map.config.MapServiceProperties;
+import com.swifttrack.map.dto.AdminLevel;
+import com.swifttrack.map.dto.LocationClassification;
+import com.swifttrack.map.dto.NormalizedLocation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdminBoundaryIndexTest {
+    
+    private static final String BOUNDARIES = """
+        {"type": "FeatureCollection", "features": [
+          {"type": "Feature",
+           "properties": {"admin_level": "country", "name": "India", "code": "in"},
+           "geometry": {"type": "Polygon",
+                        "coordinates": [[[68, 6], [98, 6], [98, 36], [68, 36], [68, 6]]]}},
+          {"type": "Feature",
+           "properties": {"admin_level": "state", "name": "Karnataka", "code": "IN-KA",
+                          "country": "India", "country_code": "in"},
+           "geometry": {"type": "Polygon",
+                        "coordinates": [[[74, 11.5], [78.5, 11.5], [78.5, 18.5], [74, 18.5], [74, 11.5]],
+                                        [[75, 15], [76, 15], [76, 16], [75, 16], [75, 15]]]}},
+          {"type": "Feature",
+           "properties": {"admin_level": "4", "name": "Tamil Nadu", "code": "IN-TN",
+                          "country": "India", "country_code": "in"},
+           "geometry": {"type": "MultiPolygon",
+                        "coordinates": [[[[78.5, 8], [80.5, 8], [80.5, 13.5], [78.5, 13.5]]]]}},
+          {"type": "Feature",
+           "properties": {"admin_level": "city", "name": "Bengaluru", "state": "Karnataka", "country": "India"},
+           "geometry": {"type": "Polygon",
+                        "coordinates": [[[77.4, 12.8], [77.8, 12.8], [77.8, 13.2], [77.4, 13.2], [77.4, 12.8]]]}},
+          {"type": "Feature",
+           "properties": {"admin_level": "city", "name": "Bengaluru Urban", "state": "Karnataka", "country": "India"},
+           "geometry": {"type": "Polygon",
+                        "coordinates": [[[77.2, 12.6], [78.0, 12.6], [78.0, 13.4], [77.2, 13.4], [77.2, 12.6]]]}}
+        ]}
+        """;
+    
+    private SimpleMeterRegistry meterRegistry;
+    private AdminBoundaryIndex index;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        index = new AdminBoundaryIndex("", meterRegistry);
+        index.load(BoundaryFileReader.read(new ByteArrayInputStream(BOUNDARIES.getBytes(StandardCharsets.UTF_8))));
+    }
+    
+    @Test
+    void testClassifyMergesAllLevels() {
+        NormalizedLocation location = index.classify(12.9716, 77.5946);
+        
+        assertEquals("Bengaluru", location.getCity());
+        assertEquals("Karnataka", location.getState());
+        assertEquals("IN-KA", location.getStateCode());
+        assertEquals("India", location.getCountry());
+        assertEquals("in", location.getCountryCode());
+        assertEquals(LocationClassification.CITY, location.getLocationType());
+        assertEquals("Bengaluru, Karnataka, India", location.getFormattedAddress());
+        assertEquals(12.9716, location.getCoordinates().getLatitude());
+        assertEquals(1.0, requests("matched"));
+    }
+    
+    @Test
+    void testSmallestOverlappingBoundaryWins() {
+        assertEquals("Bengaluru", index.classify(13.0, 77.6).getCity());
+        // Outside the inner city polygon, still inside the larger one
+        assertEquals("Bengaluru Urban", index.classify(13.3, 77.3).getCity());
+    }
+    
+    @Test
+    void testDeepestMatchSetsLocationType() {
+        NormalizedLocation chennai = index.classify(13.0827, 80.2707);
+        
+        assertEquals("Tamil Nadu", chennai.getState());
+        assertNull(chennai.getCity());
+        assertEquals(LocationClassification.STATE, chennai.getLocationType());
+    }
+    
+    @Test
+    void testHoleIsOutsideState() {
+        NormalizedLocation location = index.classify(15.5, 75.5);
+        
+        assertNull(location.getState());
+        assertEquals("India", location.getCountry());
+        assertEquals(LocationClassification.COUNTRY, location.getLocationType());
+    }
+    
+    @Test
+    void testUnmatchedPointKeepsCoordinatesOnly() {
+        NormalizedLocation location = index.classify(51.5074, -0.1278);
+        
+        assertNull(location.getCountry());
+        assertNull(location.getFormattedAddress());
+        assertEquals(LocationClassification.UNKNOWN, location.getLocationType());
+        assertEquals(-0.1278, location.getCoordinates().getLongitude());
+        assertEquals(1.0, requests("unmatched"));
+    }
+    
+    @Test
+    void testFindProjectsToLevel() {
+        NormalizedLocation state = index.find(12.9716, 77.5946, AdminLevel.STATE).orElseThrow();
+        
+        assertEquals("Karnataka", state.getState());
+        assertNull(state.getCity());
+        assertEquals(LocationClassification.STATE, state.getLocationType());
+        // No city boundary covers Chennai
+        assertTrue(index.find(13.0827, 80.2707, AdminLevel.CITY).isEmpty());
+        assertTrue(index.find(51.5074, -0.1278, AdminLevel.COUNTRY).isEmpty());
+    }
+    
+    @Test
+    void testEmptyIndexFindsNothing() {
+        AdminBoundaryIndex empty = new AdminBoundaryIndex("", new SimpleMeterRegistry());
+        empty.loadBoundaryFile();
+        
+        assertFalse(empty.isLoaded());
+        assertTrue(empty.find(12.9716, 77.5946, AdminLevel.COUNTRY).isEmpty());
+        assertEquals(LocationClassification.UNKNOWN, empty.classify(12.9716, 77.5946).getLocationType());
+    }
+    
+    @Test
+    void testLoadsBoundaryFile() throws Exception {
+        Path file = Files.createTempFile("boundaries", ".geojson");
+        try {
+            Files.writeString(file, BOUNDARIES);
+            AdminBoundaryIndex fromFile = new AdminBoundaryIndex(file.toString(), new SimpleMeterRegistry());
+            fromFile.loadBoundaryFile();
+            
+            assertEquals(1, fromFile.size(AdminLevel.COUNTRY));
+            assertEquals(2, fromFile.size(AdminLevel.STATE));
+            assertEquals(2, fromFile.size(AdminLevel.CITY));
+        } finally {
+            Files.delete(file);
+        }
+    }
+    
+    @Test
+    void testMissingFileLeavesIndexEmpty() {
+        AdminBoundaryIndex missing = new AdminBoundaryIndex("/nonexistent/boundaries.geojson", new SimpleMeterRegistry());
+        
+        missing.loadBoundaryFile();
+        
+        assertFalse(missing.isLoaded());
+    }
+    
+    @Test
+    void testBatchOfPointsStaysFast() {
+        int points = 10_000;
+        
+        // A few microseconds per point in practice; the bound only catches a lookup gone linear or remote
+        assertTimeout(Duration.ofSeconds(2), () -> {
+            for (int i = 0; i < points; i++) {
+                index.classify(8 + (i % 100) * 0.25, 70 + (i / 100) * 0.1);
+            }
+        });
+        assertEquals(points, requests("matched") + requests("unmatched"));
+    }
+    
+    @Test
+    @SuppressWarnings("deprecation")
+    void testDeprecatedBoundaryFileKeyIsStillRead() {
+        MapServiceProperties properties = new MapServiceProperties();
+        properties.getAdminCache().setBoundaryFile("/data/legacy.geojson");
+        
+        assertEquals("/data/legacy.geojson", AdminBoundaryIndex.boundaryFile(properties));
+        
+        properties.getBoundaries().setFile("/data/boundaries.geojson");
+        assertEquals("/data/boundaries.geojson", AdminBoundaryIndex.boundaryFile(properties));
+    }
+    
+    private double requests(String result) {
+        return meterRegistry.get("map.classify.requests")
+            .tag("result", result)
+            .counter()
+            .count();
+    }
+}
@@ -0,0 +1,170 @@
+package com.swifttrack.map.cache;
+
+import com.swifttrack.map.config.MapServiceProperties;
+import com.swifttrack.map.dto.AdminLevel;
+import com.swifttrack.map.dto.LocationClassification;
+import com.swifttrack.map.dto.NormalizedLocation;
+import com.swifttrack.map.util.GeohashUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdminAreaCellCacheTest {
+    
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+    
+    private SimpleMeterRegistry meterRegistry;
+    private MapServiceProperties.AdminCacheConfig config;
+    private AdminAreaCellCache cache;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        config = new MapServiceProperties.AdminCacheConfig();
+        cache = new AdminAreaCellCache(config, meterRegistry);
+    }
+    
+    @Test
+    void testConfirmedCellAnswersNearbyPoint() {
+        learn(12.9716, 77.5946, config.getStatePrecision(), bengaluru());
+        double[] cell = GeohashUtils.bounds(GeohashUtils.encode(12.9716, 77.5946, config.getStatePrecision()));
+        double latitude = (cell[0] + cell[2]) / 2;
+        double longitude = (cell[1] + cell[3]) / 2;
+        
+        NormalizedLocation area = cache.lookup(latitude, longitude, AdminLevel.STATE).orElseThrow();
+        
+        assertEquals("Karnataka", area.getState());
+        assertEquals("India", area.getCountry());
+        assertNull(area.getCity());
+        assertNull(area.getStreet());
+        assertEquals(LocationClassification.STATE, area.getLocationType());
+        assertEquals(latitude, area.getCoordinates().getLatitude());
+        assertEquals(1.0, requests("state", "hit"));
+    }
+    
+    @Test
+    void testSingleAnswerIsNotServed() {
+        cache.record(12.9716, 77.5946, bengaluru());
+        
+        // The cell may straddle a border; one sample proves nothing about the rest of it
+        assertTrue(cache.lookup(12.9716, 77.5946, AdminLevel.STATE).isEmpty());
+        assertEquals(1.0, requests("state", "unconfirmed"));
+    }
+    
+    @Test
+    void testRepeatSamplesFromOneSubcellDoNotConfirm() {
+        for (int i = 0; i < 10; i++) {
+            cache.record(12.9716 + i * 1e-6, 77.5946, bengaluru());
+        }
+        
+        assertTrue(cache.lookup(12.9716, 77.5946, AdminLevel.STATE).isEmpty());
+        assertEquals(1.0, requests("state", "unconfirmed"));
+    }
+    
+    @Test
+    void testMinSamplesOfOneServesFirstAnswer() {
+        config.setMinSamples(1);
+        cache = new AdminAreaCellCache(config, new SimpleMeterRegistry());
+        
+        cache.record(12.9716, 77.5946, bengaluru());
+        
+        assertTrue(cache.lookup(12.9716, 77.5946, AdminLevel.STATE).isPresent());
+    }
+    
+    @Test
+    void testOtherCellMisses() {
+        learn(12.9716, 77.5946, config.getStatePrecision(), bengaluru());
+        
+        assertTrue(cache.lookup(12.9716, 77.6946, AdminLevel.STATE).isEmpty());
+        assertEquals(1.0, requests("state", "miss"));
+    }
+    
+    @Test
+    void testCoarserLevelsShareAnswersFurtherAway() {
+        learn(12.9716, 77.5946, config.getCountryPrecision(), bengaluru());
+        
+        // ~50 km away: another state cell, same country cell
+        assertTrue(cache.lookup(13.3, 77.5946, AdminLevel.STATE).isEmpty());
+        assertEquals("India", cache.lookup(13.3, 77.5946, AdminLevel.COUNTRY).orElseThrow().getCountry());
+    }
+    
+    @Test
+    void testLevelNeedsItsFields() {
+        NormalizedLocation noCity = bengaluru();
+        noCity.setCity(null);
+        learn(12.9716, 77.5946, config.getStatePrecision(), noCity);
+        
+        assertTrue(cache.lookup(12.9716, 77.5946, AdminLevel.CITY).isEmpty());
+        assertTrue(cache.lookup(12.9716, 77.5946, AdminLevel.STATE).isPresent());
+    }
+    
+    @Test
+    void testConflictingAnswersMarkCellAmbiguous() {
+        NormalizedLocation otherState = bengaluru();
+        otherState.setState("Tamil Nadu");
+        
+        learn(12.9716, 77.5946, config.getCountryPrecision(), bengaluru());
+        cache.record(12.9717, 77.5947, otherState);
+        learn(12.9716, 77.5946, config.getStatePrecision(), bengaluru());
+        
+        assertTrue(cache.lookup(12.9716, 77.5946, AdminLevel.STATE).isEmpty());
+        assertEquals(1.0, requests("state", "ambiguous"));
+        // Country still agrees
+        assertTrue(cache.lookup(12.9716, 77.5946, AdminLevel.COUNTRY).isPresent());
+    }
+    
+    @Test
+    void testConflictAfterConfirmationMarksCellAmbiguous() {
+        NormalizedLocation otherState = bengaluru();
+        otherState.setState("Tamil Nadu");
+        learn(12.9716, 77.5946, config.getStatePrecision(), bengaluru());
+        
+        cache.record(12.9717, 77.5947, otherState);
+        
+        assertTrue(cache.lookup(12.9716, 77.5946, AdminLevel.STATE).isEmpty());
+    }
+    
+    @Test
+    void testDisabled() {
+        config.setEnabled(false);
+        cache = new AdminAreaCellCache(config, new SimpleMeterRegistry());
+        
+        learn(12.9716, 77.5946, config.getStatePrecision(), bengaluru());
+        
+        assertTrue(cache.lookup(12.9716, 77.5946, AdminLevel.STATE).isEmpty());
+    }
+    
+    /**
+     * Records the answer at the centres of min-samples distinct sub-cells of
+     * the cell containing the point, at the given precision
+     */
+    private void learn(double latitude, double longitude, int precision, NormalizedLocation location) {
+        String cell = GeohashUtils.encode(latitude, longitude, precision);
+        for (int i = 0; i < config.getMinSamples(); i++) {
+            double[] bounds = GeohashUtils.bounds(cell + BASE32.charAt(i));
+            cache.record((bounds[0] + bounds[2]) / 2, (bounds[1] + bounds[3]) / 2, location);
+        }
+    }
+    
+    private static NormalizedLocation bengaluru() {
+        return NormalizedLocation.builder()
+            .formattedAddress("MG Road, Bengaluru, Karnataka, India")
+            .street("MG Road")
+            .city("Bengaluru")
+            .state("Karnataka")
+            .stateCode("IN-KA")
+            .country("India")
+            .countryCode("in")
+            .build();
+    }
+    
+    private double requests(String level, String result) {
+        return meterRegistry.get("map.admin.cell.requests")
+            .tag("level", level)
+            .tag("result", result)
+            .counter()
+            .count();
+    }
+}
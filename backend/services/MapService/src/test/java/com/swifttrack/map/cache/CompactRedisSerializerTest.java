@@ -0,0 +1,164 @@
+package com.swifttrack.map.cache;
+
+import com.swifttrack.map.dto.Coordinates;
+import com.swifttrack.map.dto.MatrixResponse;
+import com.swifttrack.map.dto.NormalizedLocation;
+import com.swifttrack.map.dto.RouteResponse;
+import com.swifttrack.map.dto.SnapToRoadResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactRedisSerializerTest {
+    
+    private GenericJackson2JsonRedisSerializer json;
+    private CompactRedisSerializer serializer;
+    
+    @BeforeEach
+    void setUp() {
+        json = MapCacheFixtures.json();
+        serializer = new CompactRedisSerializer(json, 1024);
+    }
+    
+    @Test
+    void testRouteRoundTrip() {
+        RouteResponse route = MapCacheFixtures.route(500, 20);
+        route.setAlternatives(List.of(MapCacheFixtures.route(50, 3)));
+        
+        byte[] bytes = serializer.serialize(route);
+        
+        assertEquals(CompactRedisSerializer.TYPE_ROUTE, bytes[0]);
+        assertEquals(route, serializer.deserialize(bytes));
+    }
+    
+    @Test
+    void testMatrixRoundTripKeepsNullElements() {
+        MatrixResponse matrix = MapCacheFixtures.matrix(20);
+        
+        MatrixResponse decoded = (MatrixResponse) serializer.deserialize(serializer.serialize(matrix));
+        
+        assertEquals(matrix, decoded);
+        assertNull(decoded.getDistance(0, 0));
+        assertNull(decoded.getDurationTexts());
+    }
+    
+    @Test
+    void testSnapRoundTripKeepsFullPrecision() {
+        SnapToRoadResponse snap = MapCacheFixtures.snap(30);
+        
+        SnapToRoadResponse decoded = (SnapToRoadResponse) serializer.deserialize(serializer.serialize(snap));
+        
+        assertEquals(snap, decoded);
+        assertEquals(12.97161234, decoded.getOriginalPoints().get(0).getLatitude());
+    }
+    
+    @Test
+    void testMostlyEmptyRouteRoundTrip() {
+        RouteResponse route = RouteResponse.builder()
+            .status(RouteResponse.RouteStatus.NOT_FOUND)
+            .errorMessage("No route found")
+            .origin(new Coordinates(12.9716, null))
+            .build();
+        
+        assertEquals(route, serializer.deserialize(serializer.serialize(route)));
+    }
+    
+    @Test
+    void testCoordinateListsWithMixedPrecisionStayExact() {
+        List<Coordinates> points = new ArrayList<>();
+        points.add(new Coordinates(12.97161, 77.59461));
+        points.add(new Coordinates(12.971612, 77.594613));
+        points.add(new Coordinates(-33.8688197, 151.2092955));
+        MatrixResponse matrix = MatrixResponse.builder()
+            .status(MatrixResponse.MatrixStatus.OK)
+            .origins(points)
+            .destinations(points.subList(0, 2))
+            .build();
+        
+        assertEquals(matrix, serializer.deserialize(serializer.serialize(matrix)));
+    }
+    
+    @Test
+    void testLargeValuesAreCompressed() {
+        MatrixResponse matrix = MapCacheFixtures.matrix(50);
+        
+        byte[] compressed = serializer.serialize(matrix);
+        byte[] uncompressed = new CompactRedisSerializer(json, 0).serialize(matrix);
+        
+        assertEquals(1, compressed[2] & 0x01);
+        assertEquals(0, uncompressed[2] & 0x01);
+        assertTrue(compressed.length < uncompressed.length);
+        assertEquals(matrix, serializer.deserialize(compressed));
+    }
+    
+    @Test
+    void testOtherValuesUseJson() {
+        List<NormalizedLocation> locations = new ArrayList<>();
+        locations.add(NormalizedLocation.builder()
+            .latitude(12.9716)
+            .longitude(77.5946)
+            .formattedAddress("MG Road, Bengaluru")
+            .build());
+        
+        byte[] bytes = serializer.serialize(locations);
+        
+        assertEquals('[', bytes[0]);
+        assertEquals(locations, serializer.deserialize(bytes));
+    }
+    
+    @Test
+    void testJsonEntriesWrittenBeforeTheSwitchStillDecode() {
+        RouteResponse route = MapCacheFixtures.route(100, 5);
+        
+        assertEquals(route, serializer.deserialize(json.serialize(route)));
+    }
+    
+    @Test
+    void testJsonWritesStillReadBinaryEntries() {
+        RouteResponse route = MapCacheFixtures.route(100, 5);
+        byte[] binary = serializer.serialize(route);
+        CompactRedisSerializer jsonWrites = new CompactRedisSerializer(json, 1024, false);
+        
+        byte[] written = jsonWrites.serialize(route);
+        
+        assertEquals('{', written[0]);
+        assertEquals(route, jsonWrites.deserialize(written));
+        // Entries written before binary was switched off stay readable until they expire
+        assertEquals(route, jsonWrites.deserialize(binary));
+    }
+    
+    @Test
+    void testBinaryIsLessThanHalfTheJsonSize() {
+        for (Object value : List.of(MapCacheFixtures.route(800, 40), MapCacheFixtures.matrix(50),
+            MapCacheFixtures.snap(200))) {
+            byte[] jsonBytes = json.serialize(value);
+            byte[] binaryBytes = serializer.serialize(value);
+            
+            assertEquals(value, serializer.deserialize(binaryBytes));
+            assertTrue(binaryBytes.length * 2 < jsonBytes.length, value.getClass().getSimpleName() + ": binary "
+                + binaryBytes.length + " B vs json " + jsonBytes.length + " B");
+        }
+    }
+    
+    @Test
+    void testOtherFormatVersionIsAMiss() {
+        byte[] bytes = serializer.serialize(MapCacheFixtures.route(10, 2));
+        bytes[1] = (byte) (MapCacheCodec.FORMAT_VERSION + 1);
+        
+        assertNull(serializer.deserialize(bytes));
+    }
+    
+    @Test
+    void testTruncatedValueIsAMiss() {
+        byte[] bytes = new CompactRedisSerializer(json, 0).serialize(MapCacheFixtures.route(100, 5));
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length / 2);
+        
+        assertNull(serializer.deserialize(truncated));
+    }
+}
@@ -0,0 +1,83 @@
+package com.swifttrack.map.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Encoded size and encode/decode time of the binary codec against the JSON serializer
+ *
+ * Skipped unless benchmark.codec is set, so timing loops stay out of the normal
+ * suite: mvn test -Dtest=MapCacheCodecBenchmarkTest -Dbenchmark.codec=true
+ * The size comparison itself is asserted in {@link CompactRedisSerializerTest}
+ */
+@Slf4j
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark.codec", matches = "true")
+class MapCacheCodecBenchmarkTest {
+    
+    private static final int WARMUP_ITERATIONS = 2_000;
+    private static final int MEASURED_ITERATIONS = 5_000;
+    
+    private final GenericJackson2JsonRedisSerializer json = MapCacheFixtures.json();
+    private final CompactRedisSerializer binary = new CompactRedisSerializer(json, 1024);
+    
+    @Test
+    void compareBinaryWithJson() {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("route(800 points, 40 steps)", MapCacheFixtures.route(800, 40));
+        values.put("matrix(50x50)", MapCacheFixtures.matrix(50));
+        values.put("snap(200 points)", MapCacheFixtures.snap(200));
+        
+        log.info(String.format("%-30s %10s %10s %7s %12s %12s %12s %12s", "value", "json B", "binary B", "ratio",
+            "json enc us", "bin enc us", "json dec us", "bin dec us"));
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            Object value = entry.getValue();
+            byte[] jsonBytes = json.serialize(value);
+            byte[] binaryBytes = binary.serialize(value);
+            
+            assertEquals(value, binary.deserialize(binaryBytes));
+            
+            log.info(String.format("%-30s %10d %10d %6.1fx %12.1f %12.1f %12.1f %12.1f", entry.getKey(),
+                jsonBytes.length, binaryBytes.length, (double) jsonBytes.length / binaryBytes.length,
+                encodeMicros(json, value), encodeMicros(binary, value),
+                decodeMicros(json, jsonBytes), decodeMicros(binary, binaryBytes)));
+        }
+    }
+    
+    private static double encodeMicros(RedisSerializer<Object> serializer, Object value) {
+        long bytes = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            bytes += serializer.serialize(value).length;
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            bytes += serializer.serialize(value).length;
+        }
+        double micros = (System.nanoTime() - start) / 1_000.0 / MEASURED_ITERATIONS;
+        assertTrue(bytes > 0);
+        return micros;
+    }
+    
+    private static double decodeMicros(RedisSerializer<Object> serializer, byte[] bytes) {
+        int decoded = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            decoded += serializer.deserialize(bytes) != null ? 1 : 0;
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            decoded += serializer.deserialize(bytes) != null ? 1 : 0;
+        }
+        double micros = (System.nanoTime() - start) / 1_000.0 / MEASURED_ITERATIONS;
+        assertEquals(WARMUP_ITERATIONS + MEASURED_ITERATIONS, decoded);
+        return micros;
+    }
+}
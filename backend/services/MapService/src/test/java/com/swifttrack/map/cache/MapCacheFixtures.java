@@ -0,0 +1,159 @@
+package com.swifttrack.map.cache;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.swifttrack.map.dto.Coordinates;
+import com.swifttrack.map.dto.MatrixResponse;
+import com.swifttrack.map.dto.RouteResponse;
+import com.swifttrack.map.dto.SnapToRoadResponse;
+import com.swifttrack.map.dto.SnappedPoint;
+import com.swifttrack.map.dto.StepInstruction;
+import com.swifttrack.map.dto.TravelMode;
+import com.swifttrack.map.util.PolylineUtils;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Realistic cache values around Bangalore for codec tests and benchmarks
+ */
+final class MapCacheFixtures {
+    
+    private MapCacheFixtures() {
+    }
+    
+    /**
+     * JSON serializer configured like the one CacheConfig puts behind the binary codec
+     */
+    static GenericJackson2JsonRedisSerializer json() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        mapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+        mapper.activateDefaultTyping(BasicPolymorphicTypeValidator.builder().allowIfBaseType(Object.class).build(),
+            ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY);
+        return new GenericJackson2JsonRedisSerializer(mapper);
+    }
+    
+    static RouteResponse route(int points, int steps) {
+        List<Coordinates> path = new ArrayList<>();
+        for (int i = 0; i < points; i++) {
+            path.add(Coordinates.builder()
+                .latitude(Math.round((12.9716 + i * 0.00037) * 1E5) / 1E5)
+                .longitude(Math.round((77.5946 + Math.sin(i / 10.0) * 0.002 + i * 0.00021) * 1E5) / 1E5)
+                .build());
+        }
+        String polyline = PolylineUtils.encode(path);
+        
+        List<StepInstruction> instructions = new ArrayList<>();
+        for (int i = 0; i < steps; i++) {
+            instructions.add(StepInstruction.builder()
+                .stepIndex(i)
+                .instruction("Turn right onto 100 Feet Road " + i)
+                .maneuver(StepInstruction.ManeuverType.RIGHT)
+                .maneuverModifier("right")
+                .distanceMeters(120.5 + i)
+                .distanceText("121 m")
+                .durationSeconds(30.0 + i)
+                .durationText("1 min")
+                .startLocation(path.get(i * points / steps))
+                .endLocation(path.get(Math.min(points - 1, (i + 1) * points / steps)))
+                .bearingBefore(87.0)
+                .bearingAfter(177.0)
+                .streetName("100 Feet Road")
+                .roadRef(i % 3 == 0 ? "SH17" : null)
+                .build());
+        }
+        
+        return RouteResponse.builder()
+            .status(RouteResponse.RouteStatus.OK)
+            .origin(Coordinates.builder().latitude(12.9716).longitude(77.5946).build())
+            .destination(Coordinates.builder().latitude(12.935192).longitude(77.624481).build())
+            .travelMode(TravelMode.DRIVING)
+            .distanceMeters(8423.7)
+            .distanceText("8.4 km")
+            .durationSeconds(1260.4)
+            .durationText("21 min")
+            .encodedPolyline(polyline)
+            .geometry(PolylineUtils.decode(polyline))
+            .steps(instructions)
+            .summary("100 Feet Road, Hosur Road")
+            .waypoints(List.of(path.get(0), path.get(points - 1)))
+            .estimatedArrival(Instant.parse("2026-10-17T10:15:30.123456789Z"))
+            .build();
+    }
+    
+    static MatrixResponse matrix(int size) {
+        List<Coordinates> origins = new ArrayList<>();
+        List<Coordinates> destinations = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            origins.add(new Coordinates(12.9 + i * 0.001234, 77.5 + i * 0.002345));
+            destinations.add(new Coordinates(13.0 - i * 0.001111, 77.7 - i * 0.000999));
+        }
+        
+        List<List<Double>> distances = new ArrayList<>();
+        List<List<Double>> durations = new ArrayList<>();
+        List<List<String>> distanceTexts = new ArrayList<>();
+        List<List<MatrixResponse.ElementStatus>> statuses = new ArrayList<>();
+        for (int o = 0; o < size; o++) {
+            List<Double> distanceRow = new ArrayList<>();
+            List<Double> durationRow = new ArrayList<>();
+            List<String> textRow = new ArrayList<>();
+            List<MatrixResponse.ElementStatus> statusRow = new ArrayList<>();
+            for (int d = 0; d < size; d++) {
+                boolean reachable = (o + d) % 17 != 0;
+                distanceRow.add(reachable ? 1000.0 + o * 37.3 + d * 11.9 : null);
+                durationRow.add(reachable ? 120.0 + o * 4.1 + d * 2.7 : null);
+                textRow.add(reachable ? String.format("%.1f km", (1000.0 + o * 37.3 + d * 11.9) / 1000) : null);
+                statusRow.add(reachable ? MatrixResponse.ElementStatus.OK : MatrixResponse.ElementStatus.NOT_FOUND);
+            }
+            distances.add(distanceRow);
+            durations.add(durationRow);
+            distanceTexts.add(textRow);
+            statuses.add(statusRow);
+        }
+        
+        return MatrixResponse.builder()
+            .status(MatrixResponse.MatrixStatus.OK)
+            .origins(origins)
+            .destinations(destinations)
+            .travelMode(TravelMode.DELIVERY)
+            .distances(distances)
+            .durations(durations)
+            .distanceTexts(distanceTexts)
+            .elementStatuses(statuses)
+            .build();
+    }
+    
+    static SnapToRoadResponse snap(int points) {
+        List<Coordinates> original = new ArrayList<>();
+        List<SnappedPoint> snapped = new ArrayList<>();
+        for (int i = 0; i < points; i++) {
+            // GPS fixes carry more precision than the delta encodings
+            Coordinates raw = new Coordinates(12.97161234 + i * 0.0001, 77.59461234 + i * 0.0001);
+            original.add(raw);
+            snapped.add(SnappedPoint.builder()
+                .originalLocation(raw)
+                .snappedLocation(new Coordinates(12.971612 + i * 0.0001, 77.594612 + i * 0.0001))
+                .snapDistanceMeters(3.2)
+                .originalIndex(i)
+                .isSnapped(i % 5 != 0)
+                .streetName("MG Road")
+                .waypointIndex(i % 5 != 0 ? i : null)
+                .confidence(0.9)
+                .build());
+        }
+        return SnapToRoadResponse.builder()
+            .status(SnapToRoadResponse.SnapStatus.PARTIAL)
+            .originalPoints(original)
+            .snappedPoints(snapped)
+            .encodedPolyline(PolylineUtils.encode(original))
+            .build();
+    }
+}
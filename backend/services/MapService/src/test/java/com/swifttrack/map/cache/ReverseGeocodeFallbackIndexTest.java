@@ -0,0 +1,63 @@
+package com.swifttrack.map.cache;
+
+import com.swifttrack.map.dto.NormalizedLocation;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReverseGeocodeFallbackIndexTest {
+    
+    @Test
+    void testNearestWithinRadius() {
+        ReverseGeocodeFallbackIndex index = new ReverseGeocodeFallbackIndex(100, 500);
+        index.put(12.9716, 77.5946, location("MG Road"));
+        index.put(12.9750, 77.5990, location("Cubbon Park"));
+        
+        // ~110 m north of MG Road, ~520 m from Cubbon Park
+        assertEquals("MG Road", index.nearest(12.9726, 77.5946).orElseThrow().getFormattedAddress());
+    }
+    
+    @Test
+    void testNothingOutsideRadius() {
+        ReverseGeocodeFallbackIndex index = new ReverseGeocodeFallbackIndex(100, 500);
+        index.put(12.9716, 77.5946, location("MG Road"));
+        
+        assertTrue(index.nearest(12.9816, 77.5946).isEmpty());
+    }
+    
+    @Test
+    void testNearestAcrossCellBoundary() {
+        ReverseGeocodeFallbackIndex index = new ReverseGeocodeFallbackIndex(100, 500);
+        index.put(12.9999, 77.5999, location("North East"));
+        
+        assertTrue(index.nearest(13.0001, 77.6001).isPresent());
+    }
+    
+    @Test
+    void testSamePointIsReplaced() {
+        ReverseGeocodeFallbackIndex index = new ReverseGeocodeFallbackIndex(100, 500);
+        index.put(12.9716, 77.5946, location("Old"));
+        index.put(12.971601, 77.594601, location("New"));
+        
+        assertEquals(1, index.size());
+        assertEquals("New", index.nearest(12.9716, 77.5946).orElseThrow().getFormattedAddress());
+    }
+    
+    @Test
+    void testOldestPointIsEvicted() {
+        ReverseGeocodeFallbackIndex index = new ReverseGeocodeFallbackIndex(2, 500);
+        index.put(12.9716, 77.5946, location("First"));
+        index.put(12.9816, 77.5946, location("Second"));
+        index.put(12.9916, 77.5946, location("Third"));
+        
+        assertEquals(2, index.size());
+        assertTrue(index.nearest(12.9716, 77.5946).isEmpty());
+        assertEquals("Third", index.nearest(12.9916, 77.5946).orElseThrow().getFormattedAddress());
+    }
+    
+    private static NormalizedLocation location(String address) {
+        return NormalizedLocation.builder()
+            .formattedAddress(address)
+            .build();
+    }
+}
@@ -0,0 +1,172 @@
+package com.swifttrack.map.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TwoTierCacheTest {
+    
+    private ConcurrentMapCache remote;
+    private SimpleMeterRegistry meterRegistry;
+    private TwoTierCache cache;
+    
+    @BeforeEach
+    void setUp() {
+        remote = new ConcurrentMapCache("route", false);
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new TwoTierCache("route", new LocalCache(100, 60_000), remote, meterRegistry);
+    }
+    
+    @Test
+    void testRemoteHitIsPromotedToLocal() {
+        remote.put("k", "v");
+        
+        assertEquals("v", cache.get("k", String.class));
+        remote.evict("k");
+        
+        // Served from L1 even though Redis no longer has it
+        assertEquals("v", cache.get("k", String.class));
+        assertEquals(1.0, requests("l1", "hit"));
+        assertEquals(1.0, requests("l2", "hit"));
+    }
+    
+    @Test
+    void testPutWritesBothTiers() {
+        cache.put("k", "v");
+        
+        assertEquals("v", remote.get("k", String.class));
+        assertEquals("v", cache.get("k").get());
+        assertEquals(0.0, requests("l2", "hit"));
+    }
+    
+    @Test
+    void testEvictRemovesFromBothTiers() {
+        cache.put("k", "v");
+        cache.evict("k");
+        
+        assertNull(cache.get("k"));
+        assertNull(remote.get("k"));
+    }
+    
+    @Test
+    void testLoaderResultIsCached() {
+        AtomicInteger loads = new AtomicInteger();
+        
+        Callable<String> loader = () -> {
+            loads.incrementAndGet();
+            return "v";
+        };
+        
+        assertEquals("v", cache.get("k", loader));
+        assertEquals("v", cache.get("k", loader));
+        
+        assertEquals(1, loads.get());
+        assertEquals("v", remote.get("k", String.class));
+    }
+    
+    @Test
+    void testNullLoaderResultIsNotCached() {
+        assertNull(cache.get("k", () -> null));
+        assertNull(remote.get("k"));
+    }
+    
+    @Test
+    void testLoaderFailureIsWrapped() {
+        Cache.ValueRetrievalException exception = assertThrows(Cache.ValueRetrievalException.class,
+            () -> cache.get("k", () -> {
+                throw new IllegalStateException("upstream down");
+            }));
+        
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+        assertNull(cache.get("k"));
+    }
+    
+    @Test
+    void testConcurrentMissesAreCoalesced() throws Exception {
+        int callers = 8;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(pool.submit(() -> cache.get("k", () -> {
+                loads.incrementAndGet();
+                loaderStarted.countDown();
+                releaseLoader.await(5, TimeUnit.SECONDS);
+                return "v";
+            })));
+            assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+            
+            for (int i = 1; i < callers; i++) {
+                results.add(pool.submit(() -> cache.get("k", () -> {
+                    loads.incrementAndGet();
+                    return "other";
+                })));
+            }
+            // Let the waiting callers register before the first load completes
+            Thread.sleep(100);
+            releaseLoader.countDown();
+            
+            for (Future<String> result : results) {
+                assertEquals("v", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        
+        assertEquals(1, loads.get());
+    }
+    
+    @Test
+    void testLocalEntriesExpire() {
+        AtomicLong now = new AtomicLong(1_000);
+        LocalCache local = new LocalCache(10, 500, now::get);
+        
+        local.put("k", "v");
+        assertEquals("v", local.get("k"));
+        
+        now.addAndGet(500);
+        assertNull(local.get("k"));
+        assertEquals(0, local.size());
+    }
+    
+    @Test
+    void testLocalCacheEvictsLeastRecentlyUsed() {
+        LocalCache local = new LocalCache(2, 60_000);
+        
+        local.put("a", 1);
+        local.put("b", 2);
+        local.get("a");
+        local.put("c", 3);
+        
+        assertEquals(1, local.get("a"));
+        assertNull(local.get("b"));
+        assertEquals(3, local.get("c"));
+    }
+    
+    private double requests(String tier, String result) {
+        return meterRegistry.get("map.cache.requests")
+            .tag("cache", "route")
+            .tag("tier", tier)
+            .tag("result", result)
+            .counter()
+            .count();
+    }
+}
@@ -0,0 +1,143 @@
+package com.swifttrack.map.client;
+
+import com.swifttrack.map.dto.RequestPriority;
+import com.swifttrack.map.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NominatimRateLimiterTest {
+    
+    private SimpleMeterRegistry meterRegistry;
+    private NominatimRateLimiter limiter;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        if (limiter != null) {
+            limiter.shutdown();
+        }
+    }
+    
+    @Test
+    void testBurstIsGrantedImmediately() {
+        limiter = new NominatimRateLimiter(1, 2, 10, 5_000, meterRegistry);
+        
+        assertDoesNotThrow(() -> limiter.acquire(RequestPriority.INTERACTIVE).block(Duration.ofMillis(50)));
+        assertDoesNotThrow(() -> limiter.acquire(RequestPriority.BATCH).block(Duration.ofMillis(50)));
+        assertEquals(2.0, requests("interactive", "immediate") + requests("batch", "immediate"));
+    }
+    
+    @Test
+    void testWaitersAreServedAtTheConfiguredRate() {
+        limiter = new NominatimRateLimiter(20, 1, 10, 5_000, meterRegistry);
+        
+        long start = System.nanoTime();
+        for (int i = 0; i < 4; i++) {
+            limiter.acquire(RequestPriority.INTERACTIVE).block(Duration.ofSeconds(2));
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        
+        // One token up front, then one every 50 ms
+        assertTrue(elapsedMillis >= 140, "elapsed " + elapsedMillis + " ms");
+    }
+    
+    @Test
+    void testInteractiveIsServedBeforeQueuedBatch() throws Exception {
+        limiter = new NominatimRateLimiter(10, 1, 10, 5_000, meterRegistry);
+        List<String> order = new CopyOnWriteArrayList<>();
+        
+        limiter.acquire(RequestPriority.INTERACTIVE).block(Duration.ofMillis(50));
+        CompletableFuture<Void> batch1 = track(RequestPriority.BATCH, "batch-1", order);
+        CompletableFuture<Void> batch2 = track(RequestPriority.BATCH, "batch-2", order);
+        CompletableFuture<Void> interactive = track(RequestPriority.INTERACTIVE, "interactive", order);
+        assertEquals(3, limiter.queueSize());
+        
+        CompletableFuture.allOf(batch1, batch2, interactive).get(2, TimeUnit.SECONDS);
+        
+        assertEquals(List.of("interactive", "batch-1", "batch-2"), order);
+        assertEquals(0, limiter.queueSize());
+    }
+    
+    @Test
+    void testFullQueueRejectsBatch() {
+        limiter = new NominatimRateLimiter(1, 1, 1, 5_000, meterRegistry);
+        
+        limiter.acquire(RequestPriority.BATCH).block(Duration.ofMillis(50));
+        limiter.acquire(RequestPriority.BATCH).toFuture();
+        
+        assertThrows(RateLimitExceededException.class,
+            () -> limiter.acquire(RequestPriority.BATCH).block(Duration.ofMillis(50)));
+        assertEquals(1.0, requests("batch", "rejected"));
+        assertEquals(1.0, meterRegistry.get("map.nominatim.limiter.queue.depth").tag("priority", "batch").gauge().value());
+    }
+    
+    @Test
+    void testInteractiveDisplacesBatchWhenQueueIsFull() {
+        limiter = new NominatimRateLimiter(1, 1, 1, 5_000, meterRegistry);
+        
+        limiter.acquire(RequestPriority.INTERACTIVE).block(Duration.ofMillis(50));
+        CompletableFuture<Void> batch = limiter.acquire(RequestPriority.BATCH).toFuture();
+        CompletableFuture<Void> interactive = limiter.acquire(RequestPriority.INTERACTIVE).toFuture();
+        
+        ExecutionException displaced = assertThrows(ExecutionException.class, () -> batch.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(RateLimitExceededException.class, displaced.getCause());
+        assertFalse(interactive.isDone());
+        assertEquals(1, limiter.queueSize());
+        assertEquals(1.0, requests("batch", "displaced"));
+    }
+    
+    @Test
+    void testWaiterTimesOut() {
+        limiter = new NominatimRateLimiter(0.1, 1, 10, 100, meterRegistry);
+        
+        limiter.acquire(RequestPriority.BATCH).block(Duration.ofMillis(50));
+        
+        assertThrows(RateLimitExceededException.class,
+            () -> limiter.acquire(RequestPriority.BATCH).block(Duration.ofSeconds(2)));
+        assertEquals(0, limiter.queueSize());
+        assertEquals(1.0, requests("batch", "timeout"));
+    }
+    
+    @Test
+    void testBatchWaiterTimesOutBeforeInteractive() throws Exception {
+        limiter = new NominatimRateLimiter(0.1, 1, 10, 2_000, 100, meterRegistry);
+        
+        limiter.acquire(RequestPriority.INTERACTIVE).block(Duration.ofMillis(50));
+        CompletableFuture<Void> interactive = limiter.acquire(RequestPriority.INTERACTIVE).toFuture();
+        
+        assertThrows(RateLimitExceededException.class,
+            () -> limiter.acquire(RequestPriority.BATCH).block(Duration.ofSeconds(1)));
+        assertEquals(1.0, requests("batch", "timeout"));
+        assertFalse(interactive.isDone());
+        assertEquals(1, limiter.queueSize());
+    }
+    
+    private CompletableFuture<Void> track(RequestPriority priority, String name, List<String> order) {
+        return limiter.acquire(priority)
+            .doOnSuccess(ignored -> order.add(name))
+            .toFuture();
+    }
+    
+    private double requests(String priority, String result) {
+        return meterRegistry.get("map.nominatim.limiter.requests")
+            .tag("priority", priority)
+            .tag("result", result)
+            .counter()
+            .count();
+    }
+}
@@ -0,0 +1,44 @@
+package com.swifttrack.map.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeohashUtilsTest {
+    
+    @Test
+    void testEncodeKnownPoint() {
+        assertEquals("u4pruydqqvj", GeohashUtils.encode(57.64911, 10.40744, 11));
+        assertEquals("tdr1v9", GeohashUtils.encode(12.9716, 77.5946, 6));
+    }
+    
+    @Test
+    void testPrefixIsCoarserCell() {
+        String fine = GeohashUtils.encode(12.9716, 77.5946, 8);
+        
+        assertEquals(fine.substring(0, 5), GeohashUtils.encode(12.9716, 77.5946, 5));
+    }
+    
+    @Test
+    void testBoundsContainThePoint() {
+        double[] bounds = GeohashUtils.bounds(GeohashUtils.encode(12.9716, 77.5946, 6));
+        
+        assertTrue(bounds[0] <= 12.9716 && 12.9716 < bounds[2]);
+        assertTrue(bounds[1] <= 77.5946 && 77.5946 < bounds[3]);
+    }
+    
+    @Test
+    void testCellSizeMatchesBounds() {
+        double[] bounds = GeohashUtils.bounds("tdr1v");
+        double[] size = GeohashUtils.cellSize(5);
+        
+        assertEquals(bounds[2] - bounds[0], size[0], 1e-12);
+        assertEquals(bounds[3] - bounds[1], size[1], 1e-12);
+    }
+    
+    @Test
+    void testInvalidInput() {
+        assertThrows(IllegalArgumentException.class, () -> GeohashUtils.encode(12.9716, 77.5946, 0));
+        assertThrows(IllegalArgumentException.class, () -> GeohashUtils.bounds("tdra"));
+    }
+}
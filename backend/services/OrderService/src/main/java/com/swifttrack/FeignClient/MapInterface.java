@@ -14,8 +14,25 @@ import org.springframework.web.bind.annotation.RequestParam;
 @FeignClient(name = "mapservice", url = "http://localhost:8080/mapservice")
 public interface MapInterface {
 
+        /**
+         * priority: INTERACTIVE or BATCH; batch lookups queue behind interactive ones
+         * for the MapService Nominatim rate limit.
+         * detail: COUNTRY, STATE or CITY when only admin areas are needed, which lets
+         * MapService answer from its geohash-cell cache; null for a full address.
+         */
         @GetMapping("/map/reverse")
         ApiResponse<NormalizedLocation> reverseGeocode(
+                        @RequestParam("lat") double lat,
+                        @RequestParam("lng") double lng,
+                        @RequestParam("priority") String priority,
+                        @RequestParam(value = "detail", required = false) String detail);
+
+        /**
+         * Country, state and city from MapService's offline boundary index; no
+         * Nominatim call. location_type is UNKNOWN outside every boundary.
+         */
+        @GetMapping("/map/classify")
+        ApiResponse<NormalizedLocation> classify(
                         @RequestParam("lat") double lat,
                         @RequestParam("lng") double lng);
 
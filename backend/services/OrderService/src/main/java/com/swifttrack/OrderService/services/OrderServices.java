@@ -226,9 +226,9 @@ public class OrderServices {
                         BigDecimal distanceKm = BigDecimal.valueOf(distance.getData().getDistanceMeters())
                                         .divide(BigDecimal.valueOf(1000), 3, RoundingMode.HALF_UP);
 
-                        ApiResponse<NormalizedLocation> pickupLocation = mapInterface.reverseGeocode(
+                        ApiResponse<NormalizedLocation> pickupLocation = resolveAdminArea(
                                         quoteInput.pickupLat(), quoteInput.pickupLng());
-                        ApiResponse<NormalizedLocation> dropoffLocation = mapInterface.reverseGeocode(
+                        ApiResponse<NormalizedLocation> dropoffLocation = resolveAdminArea(
                                         quoteInput.dropoffLat(), quoteInput.dropoffLng());
 
                         List<DeliveryOptionQuote> options = new ArrayList<>();
@@ -334,13 +334,13 @@ public class OrderServices {
 
                         CompletableFuture<ApiResponse<NormalizedLocation>> dropoffFuture = hasExternalOption
                                         ? CompletableFuture.supplyAsync(
-                                                        () -> mapInterface.reverseGeocode(quoteInput.dropoffLat(),
+                                                        () -> resolveAdminArea(quoteInput.dropoffLat(),
                                                                         quoteInput.dropoffLng()))
                                         : CompletableFuture.completedFuture(null);
 
                         CompletableFuture<ApiResponse<NormalizedLocation>> pickupFuture = hasExternalOption
                                         ? CompletableFuture.supplyAsync(
-                                                        () -> mapInterface.reverseGeocode(quoteInput.pickupLat(),
+                                                        () -> resolveAdminArea(quoteInput.pickupLat(),
                                                                         quoteInput.pickupLng()))
                                         : CompletableFuture.completedFuture(null);
 
@@ -484,6 +484,15 @@ public class OrderServices {
                 return new ExternalProviderSelection(providerCode, quoteResponse, aiScore);
         }
 
+        /**
+         * State and country of a point. MapService answers STATE-detail reverse
+         * geocodes from its offline boundary index first and only calls
+         * Nominatim where no boundary covers the point, so one call suffices.
+         */
+        private ApiResponse<NormalizedLocation> resolveAdminArea(double lat, double lng) {
+                return mapInterface.reverseGeocode(lat, lng, "BATCH", "STATE");
+        }
+
         private List<ModelQuoteInput> buildProviderCandidates(List<GetProviders> providers,
                         ApiResponse<DistanceResult> distance,
                         ApiResponse<NormalizedLocation> pickupLocation,